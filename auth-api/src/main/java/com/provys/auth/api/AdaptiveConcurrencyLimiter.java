@@ -0,0 +1,400 @@
+package com.provys.auth.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Limits number of concurrent database calls performed by authentication. Limit is not fixed, it
+ * is adjusted using gradient algorithm - ratio between minimal observed latency and latency of
+ * current call is used to shrink the limit when database starts queueing requests and limit grows
+ * (by square root of current limit) while latency stays close to its minimum. Calls over the limit
+ * wait in bounded queue; when queue is full or wait times out, call is rejected with
+ * {@link AuthOverloadedException}.
+ *
+ * <p>Bounds of limiter (upper bound of limit, queue length and wait time) can be changed at runtime
+ * using {@link #setBounds(int, int, long)}; change is applied atomically and is immediately visible
+ * to both new and waiting callers.
+ *
+ * <p>Limiter is only meant to guard expensive (database) calls - its bookkeeping is protected by
+ * lock that is cheap compared to database round-trip, but it should not be placed on cache-hit
+ * path.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+  /** Default upper bound of concurrency limit. */
+  public static final int DEFAULT_MAX_LIMIT = 32;
+  /** Default number of callers allowed to wait for permit. */
+  public static final int DEFAULT_MAX_QUEUE = 64;
+  /** Default maximal time caller waits in queue, in milliseconds. */
+  public static final long DEFAULT_MAX_WAIT_MS = 2000L;
+
+  private static final int MIN_LIMIT = 1;
+  private static final int INITIAL_LIMIT = 8;
+  /** Latency within this multiple of minimal latency is still considered healthy. */
+  private static final double RTT_TOLERANCE = 1.5;
+  /** Weight of new limit estimate when smoothing limit changes. */
+  private static final double LIMIT_SMOOTHING = 0.2;
+  /** Limit multiplier applied when call fails for other reason than bad credentials. */
+  private static final double BACKOFF_RATIO = 0.9;
+  /** Minimal latency is re-learned after this number of samples, to follow changes in database. */
+  private static final int MIN_RTT_WINDOW = 1000;
+  /** Weight of new sample in recent latency average. */
+  private static final double RECENT_RTT_WEIGHT = 0.1;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition permitAvailable = lock.newCondition();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  // following fields are guarded by lock
+  private int maxLimit;
+  private int maxQueue;
+  private long maxWaitNanos;
+  private double limit;
+  private int inFlight;
+  private int queued;
+  private long minRttNanos = Long.MAX_VALUE;
+  private int samples;
+  private double recentRttNanos;
+
+  /**
+   * Create limiter with default settings.
+   */
+  public AdaptiveConcurrencyLimiter() {
+    this(DEFAULT_MAX_LIMIT, DEFAULT_MAX_QUEUE, DEFAULT_MAX_WAIT_MS);
+  }
+
+  /**
+   * Create limiter with specified bounds.
+   *
+   * @param maxLimit is upper bound of concurrency limit
+   * @param maxQueue is maximal number of callers waiting for permit; further callers are rejected
+   *                 immediately
+   * @param maxWaitMs is maximal time caller waits in queue, in milliseconds
+   */
+  public AdaptiveConcurrencyLimiter(int maxLimit, int maxQueue, long maxWaitMs) {
+    validateBounds(maxLimit, maxQueue, maxWaitMs);
+    this.maxLimit = maxLimit;
+    this.maxQueue = maxQueue;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    this.limit = Math.min(INITIAL_LIMIT, maxLimit);
+  }
+
+  static void validateBounds(int maxLimit, int maxQueue, long maxWaitMs) {
+    if (maxLimit < MIN_LIMIT) {
+      throw new IllegalArgumentException("Maximal concurrency limit must be positive");
+    }
+    if (maxQueue < 0) {
+      throw new IllegalArgumentException("Maximal queue length cannot be negative");
+    }
+    if (maxWaitMs < 0) {
+      throw new IllegalArgumentException("Maximal wait time cannot be negative");
+    }
+  }
+
+  /**
+   * Change bounds of limiter. Current limit is clipped to new upper bound; callers already waiting
+   * in queue keep their original deadline.
+   *
+   * @param newMaxLimit is new upper bound of concurrency limit
+   * @param newMaxQueue is new maximal number of callers waiting for permit
+   * @param newMaxWaitMs is new maximal time caller waits in queue, in milliseconds
+   */
+  public void setBounds(int newMaxLimit, int newMaxQueue, long newMaxWaitMs) {
+    validateBounds(newMaxLimit, newMaxQueue, newMaxWaitMs);
+    lock.lock();
+    try {
+      maxLimit = newMaxLimit;
+      maxQueue = newMaxQueue;
+      maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(newMaxWaitMs);
+      limit = Math.min(limit, maxLimit);
+      // limit might not have changed, but waiting callers re-check it anyway
+      permitAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Execute supplied operation within concurrency limit. Latency of operation is used to adjust
+   * limit; operation failing with {@link AuthenticationException} (e.g. bad credentials) is
+   * considered regular response from database, other failures (including
+   * {@link InternalAuthenticationServiceException}, signalling failure of database) cause limit to
+   * back off.
+   *
+   * @param operation is operation to be executed
+   * @param <T> is type of operation result
+   * @return result of operation
+   * @throws AuthOverloadedException if permit has not been acquired
+   */
+  public <T> T call(Supplier<T> operation) {
+    return call(operation, 1);
+  }
+
+  /**
+   * Execute supplied operation, consisting of several database calls performed in sequence (e.g.
+   * verification of several users over single connection), within concurrency limit. Operation
+   * holds single permit; its latency is divided by number of calls before it is used to adjust
+   * limit, so that batches do not look like overloaded database.
+   *
+   * @param operation is operation to be executed
+   * @param calls is number of database calls performed by operation
+   * @param <T> is type of operation result
+   * @return result of operation
+   * @throws AuthOverloadedException if permit has not been acquired
+   */
+  public <T> T call(Supplier<T> operation, int calls) {
+    if (calls < 1) {
+      throw new IllegalArgumentException("Number of calls must be positive");
+    }
+    var startInFlight = acquire();
+    var start = System.nanoTime();
+    var dropped = false;
+    try {
+      return operation.get();
+    } catch (InternalAuthenticationServiceException e) {
+      dropped = true;
+      throw e;
+    } catch (AuthenticationException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      dropped = true;
+      throw e;
+    } finally {
+      release((System.nanoTime() - start) / calls, startInFlight, dropped);
+    }
+  }
+
+  private int currentLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Acquire permit, wait in queue if necessary.
+   *
+   * @return number of calls in flight, including this one
+   */
+  private int acquire() {
+    lock.lock();
+    try {
+      if (inFlight < currentLimit()) {
+        return ++inFlight;
+      }
+      if (queued >= maxQueue) {
+        rejected.increment();
+        throw new AuthOverloadedException(
+            "Authentication rejected - concurrency limit " + currentLimit()
+                + " reached and wait queue is full");
+      }
+      queued++;
+      try {
+        var remaining = maxWaitNanos;
+        while (inFlight >= currentLimit()) {
+          if (remaining <= 0L) {
+            rejected.increment();
+            throw new AuthOverloadedException(
+                "Authentication rejected - timed out waiting for database call permit (limit "
+                    + currentLimit() + ')');
+          }
+          remaining = permitAvailable.awaitNanos(remaining);
+        }
+        return ++inFlight;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        rejected.increment();
+        throw new AuthOverloadedException(
+            "Authentication rejected - interrupted while waiting for database call permit", e);
+      } finally {
+        queued--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void release(long rttNanos, int startInFlight, boolean dropped) {
+    if (dropped) {
+      failed.increment();
+    } else {
+      completed.increment();
+    }
+    lock.lock();
+    try {
+      inFlight--;
+      recentRttNanos = (recentRttNanos == 0.0) ? rttNanos
+          : recentRttNanos + RECENT_RTT_WEIGHT * (rttNanos - recentRttNanos);
+      if (dropped) {
+        limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+      } else {
+        updateLimit(rttNanos, startInFlight);
+      }
+      permitAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void updateLimit(long rttNanos, int startInFlight) {
+    if (++samples >= MIN_RTT_WINDOW) {
+      samples = 0;
+      minRttNanos = Long.MAX_VALUE;
+    }
+    var rtt = Math.max(1L, rttNanos);
+    if (rtt < minRttNanos) {
+      minRttNanos = rtt;
+    }
+    if (2 * startInFlight < limit) {
+      // limit is far from being used; latency says nothing about our capacity
+      return;
+    }
+    var gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * minRttNanos / rtt));
+    var newLimit = limit * gradient + Math.sqrt(limit);
+    limit = Math.max(MIN_LIMIT,
+        Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+  }
+
+  /**
+   * Current concurrency limit.
+   *
+   * @return current concurrency limit
+   */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return currentLimit();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Upper bound of concurrency limit.
+   *
+   * @return upper bound of concurrency limit
+   */
+  public int getMaxLimit() {
+    lock.lock();
+    try {
+      return maxLimit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of calls currently being executed.
+   *
+   * @return number of calls currently being executed
+   */
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of callers currently waiting for permit.
+   *
+   * @return number of callers currently waiting for permit
+   */
+  public int getQueued() {
+    lock.lock();
+    try {
+      return queued;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Maximal number of callers allowed to wait for permit.
+   *
+   * @return maximal number of callers allowed to wait for permit
+   */
+  public int getMaxQueue() {
+    lock.lock();
+    try {
+      return maxQueue;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Maximal time caller waits in queue.
+   *
+   * @return maximal time caller waits for permit, in milliseconds
+   */
+  public long getMaxWaitMs() {
+    lock.lock();
+    try {
+      return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Recent latency of guarded calls (exponentially weighted moving average, both successful and
+   * failed calls are included).
+   *
+   * @return recent latency in milliseconds, 0 if there has been no call yet
+   */
+  public double getRecentLatencyMs() {
+    lock.lock();
+    try {
+      return recentRttNanos / 1_000_000.0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of calls that have returned result or failed with {@link AuthenticationException} (i.e.
+   * database has responded) since limiter has been created.
+   *
+   * @return number of completed calls
+   */
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  /**
+   * Number of calls that have failed with other exception (e.g. database connection failure)
+   * since limiter has been created.
+   *
+   * @return number of failed calls
+   */
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  /**
+   * Number of calls rejected (shed) since limiter has been created.
+   *
+   * @return number of rejected calls
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "AdaptiveConcurrencyLimiter{"
+        + "limit=" + getLimit()
+        + ", maxLimit=" + getMaxLimit()
+        + ", inFlight=" + getInFlight()
+        + ", queued=" + getQueued()
+        + ", maxQueue=" + getMaxQueue()
+        + ", rejected=" + getRejectedCount()
+        + '}';
+  }
+}
@@ -0,0 +1,143 @@
+package com.provys.auth.api;
+
+import com.google.errorprone.annotations.Immutable;
+import java.time.Instant;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Audit record of single authentication attempt, as delivered to {@link AuthAuditSink}.
+ */
+@Immutable
+public final class AuthAuditEvent {
+
+  private final long timestamp;
+  private final String providerName;
+  private final String userName;
+  private final AuthAuditOutcome outcome;
+  private final long durationNanos;
+  private final int errorCode;
+
+  /**
+   * Create audit event.
+   *
+   * @param timestamp is time of attempt, in epoch milliseconds
+   * @param providerName is name of provider that handled attempt
+   * @param userName is name of user being authenticated
+   * @param outcome is outcome of attempt
+   * @param durationNanos is time attempt took, in nanoseconds
+   * @param errorCode is database error code for failed attempts, 0 if not applicable
+   */
+  public AuthAuditEvent(long timestamp, String providerName, String userName,
+      AuthAuditOutcome outcome, long durationNanos, int errorCode) {
+    this.timestamp = timestamp;
+    this.providerName = Objects.requireNonNull(providerName);
+    this.userName = Objects.requireNonNull(userName);
+    this.outcome = Objects.requireNonNull(outcome);
+    this.durationNanos = durationNanos;
+    this.errorCode = errorCode;
+  }
+
+  /**
+   * Value of field timestamp.
+   *
+   * @return value of field timestamp
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Time of attempt as instant.
+   *
+   * @return time of attempt
+   */
+  public Instant getInstant() {
+    return Instant.ofEpochMilli(timestamp);
+  }
+
+  /**
+   * Value of field providerName.
+   *
+   * @return value of field providerName
+   */
+  public String getProviderName() {
+    return providerName;
+  }
+
+  /**
+   * Value of field userName.
+   *
+   * @return value of field userName
+   */
+  public String getUserName() {
+    return userName;
+  }
+
+  /**
+   * Value of field outcome.
+   *
+   * @return value of field outcome
+   */
+  public AuthAuditOutcome getOutcome() {
+    return outcome;
+  }
+
+  /**
+   * Value of field durationNanos.
+   *
+   * @return value of field durationNanos
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * Value of field errorCode.
+   *
+   * @return value of field errorCode
+   */
+  public int getErrorCode() {
+    return errorCode;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AuthAuditEvent that = (AuthAuditEvent) o;
+    return timestamp == that.timestamp
+        && durationNanos == that.durationNanos
+        && errorCode == that.errorCode
+        && providerName.equals(that.providerName)
+        && userName.equals(that.userName)
+        && outcome == that.outcome;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Long.hashCode(timestamp);
+    result = 31 * result + providerName.hashCode();
+    result = 31 * result + userName.hashCode();
+    result = 31 * result + outcome.hashCode();
+    result = 31 * result + Long.hashCode(durationNanos);
+    result = 31 * result + errorCode;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "AuthAuditEvent{"
+        + "timestamp=" + timestamp
+        + ", providerName='" + providerName + '\''
+        + ", userName='" + userName + '\''
+        + ", outcome=" + outcome
+        + ", durationNanos=" + durationNanos
+        + ", errorCode=" + errorCode
+        + '}';
+  }
+}
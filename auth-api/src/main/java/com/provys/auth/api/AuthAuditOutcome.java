@@ -0,0 +1,41 @@
+package com.provys.auth.api;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Outcome of authentication attempt, recorded in audit trail.
+ */
+public enum AuthAuditOutcome {
+
+  /** Credentials have been verified by provider (e.g. against database). */
+  SUCCESS,
+  /** Credentials have been verified against credential cache. */
+  CACHE_HIT,
+  /** Credentials have been rejected. */
+  BAD_CREDENTIALS,
+  /** Attempt has been rejected by login rate limiter. */
+  THROTTLED,
+  /** Attempt has been shed because database is saturated. */
+  OVERLOADED,
+  /** Attempt failed for other reason (e.g. database not available). */
+  ERROR;
+
+  /**
+   * Outcome corresponding to exception thrown by provider.
+   *
+   * @param exception is exception thrown during authentication
+   * @return outcome corresponding to given exception
+   */
+  public static AuthAuditOutcome forException(RuntimeException exception) {
+    if (exception instanceof LoginThrottledException) {
+      return THROTTLED;
+    }
+    if (exception instanceof AuthOverloadedException) {
+      return OVERLOADED;
+    }
+    if (exception instanceof BadCredentialsException) {
+      return BAD_CREDENTIALS;
+    }
+    return ERROR;
+  }
+}
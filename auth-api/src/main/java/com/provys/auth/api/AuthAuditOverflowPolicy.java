@@ -0,0 +1,12 @@
+package com.provys.auth.api;
+
+/**
+ * Defines behaviour of {@link AuthAuditPipeline} when its buffer is full.
+ */
+public enum AuthAuditOverflowPolicy {
+
+  /** Event being published is dropped and counted; authentication is never delayed. */
+  DROP,
+  /** Publishing thread waits until there is space in buffer; no event is lost. */
+  BLOCK
+}
@@ -0,0 +1,211 @@
+package com.provys.auth.api;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Asynchronous audit trail of authentication attempts. Producers (authentication providers)
+ * publish outcome of each attempt into bounded lock-free ring buffer; publishing does not allocate
+ * and does not call sinks. Background thread drains buffer in batches and hands each batch over to
+ * all configured {@link AuthAuditSink}s.
+ *
+ * <p>When buffer is full, events are either dropped (and counted) or producer waits for space,
+ * depending on {@link AuthAuditOverflowPolicy}; with {@link AuthAuditOverflowPolicy#BLOCK}, slow
+ * sinks thus delay authentication. After pipeline is closed, events are always dropped and
+ * counted, and producers waiting for space are released. Failure of sink is logged and does not
+ * affect other sinks or subsequent batches.
+ */
+public final class AuthAuditPipeline implements AutoCloseable {
+
+  private static final Logger LOG = LogManager.getLogger(AuthAuditPipeline.class);
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long CLOSE_TIMEOUT_MS = 10_000L;
+
+  private final AuthAuditRingBuffer buffer;
+  private final int batchSize;
+  private final List<AuthAuditSink> sinks;
+  private final Thread drainThread;
+  private volatile boolean running = true;
+  private final AtomicLong sinkFailures = new AtomicLong();
+
+  /**
+   * Create pipeline and start its drain thread.
+   *
+   * @param capacity is capacity of ring buffer, rounded up to power of two
+   * @param batchSize is maximal number of events passed to sink in single batch
+   * @param overflowPolicy defines behaviour when buffer is full
+   * @param sinks are destinations of events
+   */
+  public AuthAuditPipeline(int capacity, int batchSize, AuthAuditOverflowPolicy overflowPolicy,
+      List<? extends AuthAuditSink> sinks) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Invalid audit batch size " + batchSize);
+    }
+    this.buffer = new AuthAuditRingBuffer(capacity, overflowPolicy);
+    this.batchSize = batchSize;
+    this.sinks = List.copyOf(sinks);
+    this.drainThread = new Thread(this::drainLoop, "provysauth-audit");
+    drainThread.setDaemon(true);
+    drainThread.start();
+  }
+
+  /**
+   * Publish outcome of authentication attempt.
+   *
+   * @param providerName is name of provider that handled attempt
+   * @param userName is name of user being authenticated
+   * @param outcome is outcome of attempt
+   * @param durationNanos is time attempt took, in nanoseconds
+   * @param errorCode is database error code, 0 if not applicable
+   * @return true if event has been accepted, false if it has been dropped because buffer is full
+   *     or pipeline is closed
+   */
+  public boolean publish(String providerName, String userName, AuthAuditOutcome outcome,
+      long durationNanos, int errorCode) {
+    return buffer.offer(System.currentTimeMillis(), providerName, userName, outcome,
+        durationNanos, errorCode);
+  }
+
+  /**
+   * Publish failed authentication attempt. Outcome is derived from type of exception and error
+   * code is taken from {@link AuthRejectedException} or from first {@link SQLException} found in
+   * its cause chain.
+   *
+   * @param providerName is name of provider that handled attempt
+   * @param userName is name of user being authenticated
+   * @param durationNanos is time attempt took, in nanoseconds
+   * @param exception is exception attempt failed with
+   * @return true if event has been accepted, false if it has been dropped
+   */
+  public boolean publishFailure(String providerName, String userName, long durationNanos,
+      RuntimeException exception) {
+    return publish(providerName, userName, AuthAuditOutcome.forException(exception),
+        durationNanos, getErrorCode(exception));
+  }
+
+  /**
+   * Database error code associated with exception.
+   *
+   * @param exception is exception being examined
+   * @return error code of {@link AuthRejectedException} or of first {@link SQLException} in cause
+   *     chain, 0 if there is none
+   */
+  static int getErrorCode(Throwable exception) {
+    if (exception instanceof AuthRejectedException) {
+      return ((AuthRejectedException) exception).getErrorCode();
+    }
+    Throwable current = exception;
+    // depth limit protects against cyclic cause chains
+    for (int depth = 0; (current != null) && (depth < 16); depth++) {
+      if (current instanceof SQLException) {
+        return ((SQLException) current).getErrorCode();
+      }
+      current = current.getCause();
+    }
+    return 0;
+  }
+
+  private void writeBatch(List<AuthAuditEvent> batch) {
+    for (var sink : sinks) {
+      try {
+        sink.write(batch);
+      } catch (RuntimeException e) {
+        sinkFailures.incrementAndGet();
+        LOG.warn("Audit sink {} failed to write {} events", sink, batch.size(), e);
+      }
+    }
+  }
+
+  private void drainLoop() {
+    var batch = new ArrayList<AuthAuditEvent>(batchSize);
+    var view = Collections.unmodifiableList(batch);
+    while (true) {
+      batch.clear();
+      if (buffer.drainTo(batch, batchSize) > 0) {
+        writeBatch(view);
+      } else if (running) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      } else if (buffer.isEmpty()) {
+        break;
+      } else {
+        // event claimed by producer, but not published yet
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  /**
+   * Number of events accepted by pipeline.
+   *
+   * @return number of accepted events
+   */
+  public long getPublishedCount() {
+    return buffer.getPublishedCount();
+  }
+
+  /**
+   * Number of events dropped because buffer was full or pipeline was closed.
+   *
+   * @return number of dropped events
+   */
+  public long getDroppedCount() {
+    return buffer.getDroppedCount();
+  }
+
+  /**
+   * Number of batches sinks failed to write.
+   *
+   * @return number of sink failures
+   */
+  public long getSinkFailureCount() {
+    return sinkFailures.get();
+  }
+
+  /**
+   * Stop pipeline. Events published before close are written to sinks, then sinks are closed.
+   * Events published after close are dropped and producers still waiting for space in buffer are
+   * released.
+   */
+  @Override
+  public void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(drainThread);
+    try {
+      drainThread.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (drainThread.isAlive()) {
+      LOG.warn("Audit pipeline has not been drained within {} ms", CLOSE_TIMEOUT_MS);
+    }
+    // nothing frees space in buffer any more; BLOCK producers would otherwise wait forever
+    buffer.close();
+    for (var sink : sinks) {
+      try {
+        sink.close();
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to close audit sink {}", sink, e);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AuthAuditPipeline{"
+        + "buffer=" + buffer
+        + ", batchSize=" + batchSize
+        + ", sinks=" + sinks
+        + ", sinkFailures=" + sinkFailures
+        + '}';
+  }
+}
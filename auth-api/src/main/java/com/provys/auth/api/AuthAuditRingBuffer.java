@@ -0,0 +1,189 @@
+package com.provys.auth.api;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of audit records. Slots are preallocated as
+ * parallel arrays and producers only write primitive values and references to strings they already
+ * hold, thus {@link #offer} does not allocate. Producers claim slot by advancing sequence using
+ * compare and set and then publish slot by storing its sequence; consumer only reads slots that
+ * have been published, in order of their sequence.
+ *
+ * <p>Once buffer is closed, there is no consumer to free space, thus records offered after close
+ * are dropped and producers waiting for space under {@link AuthAuditOverflowPolicy#BLOCK} give up
+ * and drop their records too.
+ */
+final class AuthAuditRingBuffer {
+
+  private final int mask;
+  private final AuthAuditOverflowPolicy overflowPolicy;
+  private final long[] timestamps;
+  private final @Nullable String[] providerNames;
+  private final @Nullable String[] userNames;
+  private final @Nullable AuthAuditOutcome[] outcomes;
+  private final long[] durations;
+  private final int[] errorCodes;
+  /** Sequence + 1 of record stored in given slot, 0 if slot has not been published yet. */
+  private final AtomicLongArray published;
+  /** Next sequence to be claimed by producer. */
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  /** Next sequence to be read by consumer. */
+  private volatile long head;
+  private volatile boolean closed;
+
+  /**
+   * Create ring buffer.
+   *
+   * @param capacity is number of slots; rounded up to nearest power of two
+   * @param overflowPolicy defines what happens when producer finds buffer full
+   */
+  AuthAuditRingBuffer(int capacity, AuthAuditOverflowPolicy overflowPolicy) {
+    if ((capacity < 1) || (capacity > (1 << 30))) {
+      throw new IllegalArgumentException("Invalid audit buffer capacity " + capacity);
+    }
+    var size = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.overflowPolicy = overflowPolicy;
+    this.timestamps = new long[size];
+    this.providerNames = new String[size];
+    this.userNames = new String[size];
+    this.outcomes = new AuthAuditOutcome[size];
+    this.durations = new long[size];
+    this.errorCodes = new int[size];
+    this.published = new AtomicLongArray(size);
+  }
+
+  private long claim() {
+    var backoff = 0;
+    while (true) {
+      var sequence = tail.get();
+      if (sequence - head > mask) {
+        if ((overflowPolicy == AuthAuditOverflowPolicy.DROP) || closed) {
+          return -1;
+        }
+        // BLOCK - wait for consumer; spin briefly, then yield processor
+        if (backoff < 100) {
+          backoff++;
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos(50_000L);
+        }
+      } else if (tail.compareAndSet(sequence, sequence + 1)) {
+        return sequence;
+      }
+    }
+  }
+
+  /**
+   * Store record in buffer.
+   *
+   * @return true if record has been stored, false if it has been dropped because buffer is full
+   *     or closed
+   */
+  boolean offer(long timestamp, String providerName, String userName, AuthAuditOutcome outcome,
+      long durationNanos, int errorCode) {
+    var sequence = closed ? -1 : claim();
+    if (sequence < 0) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    var slot = (int) sequence & mask;
+    timestamps[slot] = timestamp;
+    providerNames[slot] = providerName;
+    userNames[slot] = userName;
+    outcomes[slot] = outcome;
+    durations[slot] = durationNanos;
+    errorCodes[slot] = errorCode;
+    published.lazySet(slot, sequence + 1);
+    return true;
+  }
+
+  /**
+   * Move published records to supplied list. Must only be called from single consumer thread.
+   *
+   * @param target is list events are added to
+   * @param maxEvents is maximal number of events to be moved
+   * @return number of events moved
+   */
+  int drainTo(List<AuthAuditEvent> target, int maxEvents) {
+    var sequence = head;
+    var count = 0;
+    while (count < maxEvents) {
+      var slot = (int) sequence & mask;
+      if (published.get(slot) != sequence + 1) {
+        break;
+      }
+      target.add(new AuthAuditEvent(timestamps[slot], providerNames[slot], userNames[slot],
+          outcomes[slot], durations[slot], errorCodes[slot]));
+      // release references, so that buffer does not keep user names alive
+      providerNames[slot] = null;
+      userNames[slot] = null;
+      outcomes[slot] = null;
+      sequence++;
+      count++;
+      head = sequence;
+    }
+    return count;
+  }
+
+  /**
+   * Indicates if there are no records claimed by producers and not yet read by consumer.
+   *
+   * @return true if buffer is empty
+   */
+  boolean isEmpty() {
+    return tail.get() == head;
+  }
+
+  /**
+   * Close buffer after its consumer has stopped. Subsequent offers are dropped and producers
+   * waiting for space are released.
+   */
+  void close() {
+    closed = true;
+  }
+
+  /**
+   * Number of slots in buffer.
+   *
+   * @return capacity of buffer
+   */
+  int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Number of records accepted by buffer since its creation.
+   *
+   * @return number of accepted records
+   */
+  long getPublishedCount() {
+    return tail.get();
+  }
+
+  /**
+   * Number of records dropped because buffer was full or closed.
+   *
+   * @return number of dropped records
+   */
+  long getDroppedCount() {
+    return dropped.get();
+  }
+
+  @Override
+  public String toString() {
+    return "AuthAuditRingBuffer{"
+        + "capacity=" + getCapacity()
+        + ", overflowPolicy=" + overflowPolicy
+        + ", published=" + tail.get()
+        + ", head=" + head
+        + ", dropped=" + dropped.get()
+        + ", closed=" + closed
+        + '}';
+  }
+}
@@ -0,0 +1,25 @@
+package com.provys.auth.api;
+
+import java.util.List;
+
+/**
+ * Destination of audit events. Sinks are invoked from single background thread of
+ * {@link AuthAuditPipeline}, thus they do not need to be thread-safe.
+ */
+public interface AuthAuditSink extends AutoCloseable {
+
+  /**
+   * Write batch of audit events.
+   *
+   * @param events is batch of events, in order in which they have been published
+   */
+  void write(List<AuthAuditEvent> events);
+
+  /**
+   * Release resources held by sink. Invoked once pipeline has been closed and all remaining events
+   * have been written.
+   */
+  @Override
+  default void close() {
+  }
+}
@@ -0,0 +1,52 @@
+package com.provys.auth.api;
+
+import java.util.Objects;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Exposes {@link AuthLoadMonitor} state via actuator health endpoint (as contributor
+ * {@code provysAuth}). Degraded state is reported as custom status {@code DEGRADED}; to let load
+ * balancer see it, add it to status order and HTTP mapping, e.g.
+ * {@code management.endpoint.health.status.order=out-of-service,degraded,up} and
+ * {@code management.endpoint.health.status.http-mapping.degraded=200}. To make readiness probe
+ * follow authentication load, include contributor in readiness group
+ * ({@code management.endpoint.health.group.readiness.include=readinessState,provysAuth}).
+ */
+public final class AuthLoadHealthIndicator implements HealthIndicator {
+
+  /** Status reported when authentication load is degraded. */
+  public static final Status DEGRADED = new Status("DEGRADED",
+      "Authentication database is slow or failing");
+
+  private final AuthLoadMonitor monitor;
+
+  AuthLoadHealthIndicator(AuthLoadMonitor monitor) {
+    this.monitor = Objects.requireNonNull(monitor);
+  }
+
+  @Override
+  public Health health() {
+    Status status;
+    switch (monitor.getState()) {
+      case UP:
+        status = Status.UP;
+        break;
+      case DEGRADED:
+        status = DEGRADED;
+        break;
+      default:
+        status = Status.OUT_OF_SERVICE;
+        break;
+    }
+    return Health.status(status).withDetails(monitor.getDetails()).build();
+  }
+
+  @Override
+  public String toString() {
+    return "AuthLoadHealthIndicator{"
+        + "monitor=" + monitor
+        + '}';
+  }
+}
@@ -0,0 +1,305 @@
+package com.provys.auth.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+/**
+ * Periodically evaluates load of username / password authentication providers and derives
+ * {@link AuthLoadState} from it. Signals are taken from concurrency limiters of providers (recent
+ * latency of database calls, ratio of calls failing for other reason than bad credentials, queue
+ * fill ratio and shed requests) and from {@link WarmupAware} providers.
+ *
+ * <p>State worsens as soon as any signal crosses its threshold, but it only improves after all
+ * signals stay below {@value #RECOVERY_FACTOR} of their thresholds for given number of consecutive
+ * evaluations; this hysteresis prevents load balancer from flapping traffic back to node that is
+ * still close to its limit. Provider that has not finished its warm-up makes state
+ * {@link AuthLoadState#OUT_OF_SERVICE} regardless of load.
+ *
+ * <p>Monitor does not publish readiness changes itself - application readiness state is owned by
+ * Spring Boot and several publishers would overwrite each other. Monitor state is exposed via
+ * actuator health endpoint (see {@link AuthLoadHealthIndicator}); including that contributor in
+ * readiness group makes readiness probe follow authentication load.
+ */
+public final class AuthLoadMonitor implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger LOG = LogManager.getLogger(AuthLoadMonitor.class);
+
+  /** Signal must drop below this fraction of its threshold to be considered recovered. */
+  static final double RECOVERY_FACTOR = 0.7;
+  /** Failure ratio is only evaluated when at least this number of calls has been performed. */
+  private static final int MIN_CALLS = 3;
+
+  private final ApplicationContext applicationContext;
+  private final Thresholds thresholds;
+  private final long intervalMs;
+  private final int recoverEvaluations;
+  private final Map<AdaptiveConcurrencyLimiter, long[]> previousCounts = new IdentityHashMap<>(4);
+  private List<AdaptiveConcurrencyLimiter> beanLimiters = List.of();
+  private List<WarmupAware> warmupAware = List.of();
+  private volatile AuthLoadState state = AuthLoadState.UP;
+  private volatile AuthLoadState reportedState = AuthLoadState.UP;
+  private volatile Map<String, Object> details = Map.of();
+  private int recoverCount;
+  private volatile @MonotonicNonNull ScheduledExecutorService scheduler;
+
+  /**
+   * Thresholds of signals. Each signal has threshold for degraded and for out of service state.
+   */
+  public static final class Thresholds {
+
+    private final double degradedLatencyMs;
+    private final double outOfServiceLatencyMs;
+    private final double degradedFailureRatio;
+    private final double outOfServiceFailureRatio;
+    private final double degradedQueueRatio;
+    private final double outOfServiceQueueRatio;
+
+    /**
+     * Create thresholds.
+     *
+     * @param degradedLatencyMs is latency of database calls that makes node degraded
+     * @param outOfServiceLatencyMs is latency of database calls that makes node out of service
+     * @param degradedFailureRatio is ratio of failing database calls that makes node degraded
+     * @param outOfServiceFailureRatio is ratio of failing calls that makes node out of service
+     * @param degradedQueueRatio is fill ratio of limiter queue that makes node degraded
+     * @param outOfServiceQueueRatio is fill ratio of limiter queue that makes node out of service
+     */
+    public Thresholds(double degradedLatencyMs, double outOfServiceLatencyMs,
+        double degradedFailureRatio, double outOfServiceFailureRatio, double degradedQueueRatio,
+        double outOfServiceQueueRatio) {
+      this.degradedLatencyMs = degradedLatencyMs;
+      this.outOfServiceLatencyMs = outOfServiceLatencyMs;
+      this.degradedFailureRatio = degradedFailureRatio;
+      this.outOfServiceFailureRatio = outOfServiceFailureRatio;
+      this.degradedQueueRatio = degradedQueueRatio;
+      this.outOfServiceQueueRatio = outOfServiceQueueRatio;
+    }
+
+    @Override
+    public String toString() {
+      return "Thresholds{"
+          + "degradedLatencyMs=" + degradedLatencyMs
+          + ", outOfServiceLatencyMs=" + outOfServiceLatencyMs
+          + ", degradedFailureRatio=" + degradedFailureRatio
+          + ", outOfServiceFailureRatio=" + outOfServiceFailureRatio
+          + ", degradedQueueRatio=" + degradedQueueRatio
+          + ", outOfServiceQueueRatio=" + outOfServiceQueueRatio
+          + '}';
+    }
+  }
+
+  /**
+   * Create load monitor.
+   *
+   * @param applicationContext is context providers are taken from
+   * @param thresholds are thresholds of load signals
+   * @param intervalMs is interval between evaluations; 0 means monitor is not scheduled
+   * @param recoverEvaluations is number of consecutive evaluations signals must stay below
+   *                           recovery level before state improves
+   */
+  AuthLoadMonitor(ApplicationContext applicationContext, Thresholds thresholds, long intervalMs,
+      int recoverEvaluations) {
+    this.applicationContext = Objects.requireNonNull(applicationContext);
+    this.thresholds = Objects.requireNonNull(thresholds);
+    this.intervalMs = intervalMs;
+    this.recoverEvaluations = Math.max(1, recoverEvaluations);
+  }
+
+  /**
+   * Collect provider beans and start periodic evaluation.
+   */
+  @Override
+  public void afterSingletonsInstantiated() {
+    var limiters = new ArrayList<AdaptiveConcurrencyLimiter>(4);
+    for (var provider : applicationContext
+        .getBeansOfType(ProvysUsernamePasswordAuthProvider.class).values()) {
+      limiters.add(provider.getConcurrencyLimiter());
+    }
+    beanLimiters = List.copyOf(limiters);
+    warmupAware = List.copyOf(applicationContext.getBeansOfType(WarmupAware.class).values());
+    if (intervalMs > 0) {
+      var executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "provysauth-load-monitor");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.scheduleWithFixedDelay(this::evaluateSafely, intervalMs, intervalMs,
+          TimeUnit.MILLISECONDS);
+      scheduler = executor;
+    }
+  }
+
+  private Collection<AdaptiveConcurrencyLimiter> getLimiters() {
+    var lookup = applicationContext.getBeanProvider(AuthProviderLookup.class).getIfAvailable();
+    if (lookup == null) {
+      return beanLimiters;
+    }
+    var tenantProviders = lookup.getTenantProviders();
+    if (tenantProviders.isEmpty()) {
+      return beanLimiters;
+    }
+    var result = new ArrayList<AdaptiveConcurrencyLimiter>(beanLimiters);
+    for (AuthenticationProvider provider : tenantProviders) {
+      if (provider instanceof ProvysUsernamePasswordAuthProvider) {
+        result.add(((ProvysUsernamePasswordAuthProvider) provider).getConcurrencyLimiter());
+      }
+    }
+    return result;
+  }
+
+  private void evaluateSafely() {
+    try {
+      evaluate();
+    } catch (RuntimeException e) {
+      LOG.warn("Authentication load evaluation failed", e);
+    }
+  }
+
+  private static AuthLoadState level(double signal, double degraded, double outOfService,
+      double factor) {
+    if (signal >= outOfService * factor) {
+      return AuthLoadState.OUT_OF_SERVICE;
+    }
+    if (signal >= degraded * factor) {
+      return AuthLoadState.DEGRADED;
+    }
+    return AuthLoadState.UP;
+  }
+
+  private static AuthLoadState worse(AuthLoadState first, AuthLoadState second) {
+    return (first.compareTo(second) >= 0) ? first : second;
+  }
+
+  /**
+   * Evaluate signals and update state. Invoked periodically by scheduler.
+   *
+   * @return state after evaluation
+   */
+  synchronized AuthLoadState evaluate() {
+    double latencyMs = 0;
+    double failureRatio = 0;
+    double queueRatio = 0;
+    long rejected = 0;
+    for (var limiter : getLimiters()) {
+      var completed = limiter.getCompletedCount();
+      var failed = limiter.getFailedCount();
+      var shed = limiter.getRejectedCount();
+      var previous = previousCounts.computeIfAbsent(limiter, key -> new long[3]);
+      var newFailed = failed - previous[1];
+      var calls = (completed - previous[0]) + newFailed;
+      var newRejected = shed - previous[2];
+      previous[0] = completed;
+      previous[1] = failed;
+      previous[2] = shed;
+      if (calls > 0) {
+        // latency average is only relevant when there has been some traffic
+        latencyMs = Math.max(latencyMs, limiter.getRecentLatencyMs());
+      }
+      if (calls >= MIN_CALLS) {
+        failureRatio = Math.max(failureRatio, ((double) newFailed) / calls);
+      }
+      rejected += newRejected;
+      queueRatio = Math.max(queueRatio, (newRejected > 0) ? 1.0
+          : ((double) limiter.getQueued()) / Math.max(1, limiter.getMaxQueue()));
+    }
+    var raw = worse(worse(
+        level(latencyMs, thresholds.degradedLatencyMs, thresholds.outOfServiceLatencyMs, 1.0),
+        level(failureRatio, thresholds.degradedFailureRatio, thresholds.outOfServiceFailureRatio,
+            1.0)),
+        level(queueRatio, thresholds.degradedQueueRatio, thresholds.outOfServiceQueueRatio, 1.0));
+    var relaxed = worse(worse(
+        level(latencyMs, thresholds.degradedLatencyMs, thresholds.outOfServiceLatencyMs,
+            RECOVERY_FACTOR),
+        level(failureRatio, thresholds.degradedFailureRatio, thresholds.outOfServiceFailureRatio,
+            RECOVERY_FACTOR)),
+        level(queueRatio, thresholds.degradedQueueRatio, thresholds.outOfServiceQueueRatio,
+            RECOVERY_FACTOR));
+    var current = state;
+    if (raw.compareTo(current) > 0) {
+      current = raw;
+      recoverCount = 0;
+    } else if (relaxed.compareTo(current) < 0) {
+      if (++recoverCount >= recoverEvaluations) {
+        current = relaxed;
+        recoverCount = 0;
+      }
+    } else {
+      recoverCount = 0;
+    }
+    state = current;
+    var notReady = new ArrayList<String>(1);
+    for (var provider : warmupAware) {
+      if (!provider.isReady()) {
+        notReady.add(provider.getClass().getSimpleName());
+      }
+    }
+    var newReported = notReady.isEmpty() ? current : AuthLoadState.OUT_OF_SERVICE;
+    var newDetails = new LinkedHashMap<String, Object>(8);
+    newDetails.put("latencyMs", Math.round(latencyMs));
+    newDetails.put("failureRatio", failureRatio);
+    newDetails.put("queueRatio", queueRatio);
+    newDetails.put("rejected", rejected);
+    if (!notReady.isEmpty()) {
+      newDetails.put("notReady", notReady);
+    }
+    details = newDetails;
+    var previousReported = reportedState;
+    reportedState = newReported;
+    if (newReported != previousReported) {
+      LOG.info("Authentication load state changed from {} to {} ({})", previousReported,
+          newReported, newDetails);
+    }
+    return newReported;
+  }
+
+  /**
+   * State determined by last evaluation.
+   *
+   * @return current authentication load state
+   */
+  public AuthLoadState getState() {
+    return reportedState;
+  }
+
+  /**
+   * Signal values found by last evaluation.
+   *
+   * @return map of signal names to values
+   */
+  public Map<String, Object> getDetails() {
+    return details;
+  }
+
+  @Override
+  public void destroy() {
+    var executor = scheduler;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AuthLoadMonitor{"
+        + "state=" + reportedState
+        + ", thresholds=" + thresholds
+        + ", intervalMs=" + intervalMs
+        + ", recoverEvaluations=" + recoverEvaluations
+        + '}';
+  }
+}
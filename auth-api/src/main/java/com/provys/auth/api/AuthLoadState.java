@@ -0,0 +1,16 @@
+package com.provys.auth.api;
+
+/**
+ * State of authentication load, as evaluated by {@link AuthLoadMonitor}. Values are ordered from
+ * the best to the worst state.
+ */
+public enum AuthLoadState {
+  /** Database responds normally. */
+  UP,
+  /** Database is slow or some calls fail; node still serves requests, but is getting close to its
+   * capacity and load balancer should prefer other nodes. */
+  DEGRADED,
+  /** Node is not able to serve requests (database not responding, requests are being shed or
+   * provider is not initialized yet). */
+  OUT_OF_SERVICE
+}
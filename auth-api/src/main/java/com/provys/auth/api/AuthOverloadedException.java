@@ -0,0 +1,32 @@
+package com.provys.auth.api;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when authentication request has been shed because database behind authentication provider
+ * is saturated (concurrency limit reached and wait queue full or wait timed out). Request might be
+ * retried later; it says nothing about validity of supplied credentials.
+ */
+public class AuthOverloadedException extends AuthenticationServiceException {
+
+  private static final long serialVersionUID = -3385472001869373522L;
+
+  /**
+   * Create overload exception with given message.
+   *
+   * @param msg is message describing reason of rejection
+   */
+  public AuthOverloadedException(String msg) {
+    super(msg);
+  }
+
+  /**
+   * Create overload exception with given message and cause.
+   *
+   * @param msg is message describing reason of rejection
+   * @param cause is exception that caused request to be rejected
+   */
+  public AuthOverloadedException(String msg, Throwable cause) {
+    super(msg, cause);
+  }
+}
@@ -0,0 +1,236 @@
+package com.provys.auth.api;
+
+import com.provys.common.datatype.DtUid;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Priority class of username / password authentication (e.g. service accounts of integrations).
+ * Users belong to class if their user name matches class pattern or their user Id is listed in
+ * class. Authentications of users in class that are not served from cache are guarded by class
+ * concurrency limiter (bulkhead) instead of limiter of provider, thus bursts of such
+ * authentications cannot take database capacity of other users. Class can also define its own
+ * cache timeout.
+ *
+ * <p>Class only defines bounds of its bulkhead. Each provider creates its own class limiter using
+ * {@link #newConcurrencyLimiter()}, as providers usually verify users against different databases
+ * and latency of one database must not drive limit of another. Statistics exposed via
+ * {@link AuthPriorityClassMXBean} are aggregated over limiters of all providers.
+ */
+public final class AuthPriorityClass implements AuthPriorityClassMXBean {
+
+  private final String name;
+  private final @Nullable Pattern userNamePattern;
+  private final Set<DtUid> userIds;
+  private volatile int maxConcurrency;
+  private volatile int maxQueue;
+  private volatile long maxQueueWaitMs;
+  /** Limiters created for providers; weak, so that discarded providers do not stay referenced. */
+  private final Set<AdaptiveConcurrencyLimiter> limiters =
+      Collections.newSetFromMap(new WeakHashMap<>(4));
+  private final long cacheTimeoutMs;
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+
+  /**
+   * Create priority class.
+   *
+   * @param name is name of class
+   * @param userNamePattern is regular expression (matched ignoring case) selecting user names in
+   *                        class; null if class is only defined by user Ids
+   * @param userIds are Ids of users in class
+   * @param maxConcurrency is upper bound of concurrency limit of class limiter of each provider
+   * @param maxQueue is maximal queue length of class limiter of each provider
+   * @param maxQueueWaitMs is maximal time authentication waits for class permit, in milliseconds
+   * @param cacheTimeoutSec is cache timeout of users in class in seconds, -1 means timeout of
+   *                        provider applies
+   */
+  public AuthPriorityClass(String name, @Nullable String userNamePattern,
+      Collection<DtUid> userIds, int maxConcurrency, int maxQueue, long maxQueueWaitMs,
+      long cacheTimeoutSec) {
+    if (cacheTimeoutSec < -1) {
+      throw new IllegalArgumentException("Invalid cache timeout of priority class " + name);
+    }
+    AdaptiveConcurrencyLimiter.validateBounds(maxConcurrency, maxQueue, maxQueueWaitMs);
+    this.name = name.toUpperCase(Locale.ENGLISH);
+    this.userNamePattern = (userNamePattern == null) ? null
+        : Pattern.compile(userNamePattern, Pattern.CASE_INSENSITIVE);
+    this.userIds = Set.copyOf(userIds);
+    this.maxConcurrency = maxConcurrency;
+    this.maxQueue = maxQueue;
+    this.maxQueueWaitMs = maxQueueWaitMs;
+    this.cacheTimeoutMs = (cacheTimeoutSec < 0) ? -1 : 1000L * cacheTimeoutSec;
+  }
+
+  /**
+   * Indicates if user belongs to this class.
+   *
+   * @param userName is user name being authenticated
+   * @param userId is Id of user, if known
+   * @return true if user name matches pattern of class or user Id is listed in class
+   */
+  boolean matches(String userName, @Nullable DtUid userId) {
+    return ((userId != null) && userIds.contains(userId))
+        || ((userNamePattern != null) && userNamePattern.matcher(userName).matches());
+  }
+
+  /**
+   * Indicates if class lists user Ids.
+   *
+   * @return true if membership in class depends on user Id
+   */
+  boolean hasUserIds() {
+    return !userIds.isEmpty();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Create limiter guarding authentications of users in this class by single provider. Limiter
+   * uses current bounds of class and follows their subsequent changes.
+   *
+   * @return new concurrency limiter of this class
+   */
+  public AdaptiveConcurrencyLimiter newConcurrencyLimiter() {
+    synchronized (limiters) {
+      var limiter = new AdaptiveConcurrencyLimiter(maxConcurrency, maxQueue, maxQueueWaitMs);
+      limiters.add(limiter);
+      return limiter;
+    }
+  }
+
+  private List<AdaptiveConcurrencyLimiter> getLimiters() {
+    synchronized (limiters) {
+      return new ArrayList<>(limiters);
+    }
+  }
+
+  /**
+   * Cache timeout of users in this class.
+   *
+   * @param defaultTimeoutMs is cache timeout of provider
+   * @return cache timeout in milliseconds
+   */
+  long getCacheTimeoutMs(long defaultTimeoutMs) {
+    return (cacheTimeoutMs < 0) ? defaultTimeoutMs : cacheTimeoutMs;
+  }
+
+  @Override
+  public long getCacheTimeoutSec() {
+    return (cacheTimeoutMs < 0) ? -1 : cacheTimeoutMs / 1000L;
+  }
+
+  void recordCacheHit() {
+    cacheHits.increment();
+  }
+
+  void recordCacheMiss() {
+    cacheMisses.increment();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  @Override
+  public int getConcurrencyLimit() {
+    var result = 0;
+    for (var limiter : getLimiters()) {
+      result += limiter.getLimit();
+    }
+    return result;
+  }
+
+  @Override
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  @Override
+  public int getInFlight() {
+    var result = 0;
+    for (var limiter : getLimiters()) {
+      result += limiter.getInFlight();
+    }
+    return result;
+  }
+
+  @Override
+  public int getQueued() {
+    var result = 0;
+    for (var limiter : getLimiters()) {
+      result += limiter.getQueued();
+    }
+    return result;
+  }
+
+  @Override
+  public long getRejectedCount() {
+    var result = 0L;
+    for (var limiter : getLimiters()) {
+      result += limiter.getRejectedCount();
+    }
+    return result;
+  }
+
+  @Override
+  public long getCompletedCount() {
+    var result = 0L;
+    for (var limiter : getLimiters()) {
+      result += limiter.getCompletedCount();
+    }
+    return result;
+  }
+
+  @Override
+  public double getRecentLatencyMs() {
+    var result = 0.0;
+    for (var limiter : getLimiters()) {
+      result = Math.max(result, limiter.getRecentLatencyMs());
+    }
+    return result;
+  }
+
+  @Override
+  public void updateConcurrencySettings(int maxConcurrency, int maxQueue, long maxQueueWaitMs) {
+    synchronized (limiters) {
+      AdaptiveConcurrencyLimiter.validateBounds(maxConcurrency, maxQueue, maxQueueWaitMs);
+      this.maxConcurrency = maxConcurrency;
+      this.maxQueue = maxQueue;
+      this.maxQueueWaitMs = maxQueueWaitMs;
+      for (var limiter : limiters) {
+        limiter.setBounds(maxConcurrency, maxQueue, maxQueueWaitMs);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AuthPriorityClass{"
+        + "name='" + name + '\''
+        + ", userNamePattern=" + userNamePattern
+        + ", userIds=" + userIds.size()
+        + ", maxConcurrency=" + maxConcurrency
+        + ", maxQueue=" + maxQueue
+        + ", maxQueueWaitMs=" + maxQueueWaitMs
+        + ", cacheTimeoutMs=" + cacheTimeoutMs
+        + '}';
+  }
+}
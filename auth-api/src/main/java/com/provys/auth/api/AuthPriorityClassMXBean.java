@@ -0,0 +1,96 @@
+package com.provys.auth.api;
+
+/**
+ * Management interface of priority class of username / password authentication, registered in
+ * platform MBean server by {@link AuthProviderJmxExporter}. Exposes statistics of class bulkhead
+ * (database concurrency limiters class has in individual providers, aggregated over providers) and
+ * credential cache.
+ */
+public interface AuthPriorityClassMXBean {
+
+  /**
+   * Name of priority class.
+   *
+   * @return name of priority class
+   */
+  String getName();
+
+  /**
+   * Time successful authentication of users in this class is cached for.
+   *
+   * @return cache timeout in seconds, -1 if timeout of provider applies
+   */
+  long getCacheTimeoutSec();
+
+  /**
+   * Number of authentications of users in this class served from cache.
+   *
+   * @return number of cache hits
+   */
+  long getCacheHits();
+
+  /**
+   * Number of authentications of users in this class not served from cache.
+   *
+   * @return number of cache misses
+   */
+  long getCacheMisses();
+
+  /**
+   * Current (adaptive) limit of concurrent database calls of this class, summed over providers.
+   *
+   * @return current concurrency limit
+   */
+  int getConcurrencyLimit();
+
+  /**
+   * Upper bound of concurrency limit of this class in single provider.
+   *
+   * @return upper bound of concurrency limit
+   */
+  int getMaxConcurrency();
+
+  /**
+   * Number of database calls of this class currently in progress.
+   *
+   * @return number of database calls in flight
+   */
+  int getInFlight();
+
+  /**
+   * Number of authentications of this class waiting for database call permit.
+   *
+   * @return number of queued authentications
+   */
+  int getQueued();
+
+  /**
+   * Number of authentications of this class rejected because of concurrency limit.
+   *
+   * @return number of rejected authentications
+   */
+  long getRejectedCount();
+
+  /**
+   * Number of database calls of this class completed since start.
+   *
+   * @return number of completed database calls
+   */
+  long getCompletedCount();
+
+  /**
+   * Average latency of recent database calls of this class, highest over providers.
+   *
+   * @return recent latency in milliseconds
+   */
+  double getRecentLatencyMs();
+
+  /**
+   * Change bounds of concurrency limiters of this class in all providers at once.
+   *
+   * @param maxConcurrency is new upper bound of concurrency limit
+   * @param maxQueue is new maximal queue length
+   * @param maxQueueWaitMs is new maximal wait in milliseconds
+   */
+  void updateConcurrencySettings(int maxConcurrency, int maxQueue, long maxQueueWaitMs);
+}
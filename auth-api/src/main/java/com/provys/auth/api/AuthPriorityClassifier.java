@@ -0,0 +1,153 @@
+package com.provys.auth.api;
+
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Assigns users being authenticated to {@link AuthPriorityClass}. Classes are evaluated in given
+ * order, first matching class is used; users not matching any class are authenticated within
+ * limits of provider itself. User Id is not known before user is verified, thus classifier
+ * remembers Ids of users verified so far (bounded number of them) and classes defined by user Ids
+ * apply from second database verification of given user on.
+ *
+ * <p>Classifier is usually shared by all username / password providers and is only used to match
+ * users to classes; each provider guards database calls of class by its own class limiter, thus
+ * latency of one database does not affect limits applied to another.
+ */
+public final class AuthPriorityClassifier {
+
+  private final List<AuthPriorityClass> classes;
+  private final int maxRememberedUsers;
+  private final boolean usesUserIds;
+  private final Map<String, DtUid> knownUserIds = new ConcurrentHashMap<>(16);
+
+  /**
+   * Create classifier using given classes.
+   *
+   * @param classes are priority classes, in order of evaluation
+   * @param maxRememberedUsers is maximal number of remembered user Ids
+   */
+  public AuthPriorityClassifier(List<AuthPriorityClass> classes, int maxRememberedUsers) {
+    this.classes = List.copyOf(classes);
+    this.maxRememberedUsers = maxRememberedUsers;
+    this.usesUserIds = this.classes.stream().anyMatch(AuthPriorityClass::hasUserIds);
+  }
+
+  private static long getLong(Map<String, String> properties, String className, String key,
+      long defaultValue) {
+    var value = properties.get(className + '.' + key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new InternalException("Invalid value of property " + key + " of priority class "
+          + className + ": " + value, e);
+    }
+  }
+
+  /**
+   * Parse priority classes from properties in the form {@code <class>.<attribute>}. Supported
+   * attributes are {@code userPattern}, {@code userIds} (comma separated), {@code maxConcurrency}
+   * (default 4), {@code maxQueue} (default 16), {@code maxQueueWaitMs} (default 500) and
+   * {@code cacheTimeout} (in seconds, default timeout of provider). Concurrency bounds apply to
+   * class limiter of each provider separately.
+   *
+   * @param classNames are names of classes, in order of evaluation
+   * @param properties are properties of classes
+   * @return priority classes
+   */
+  static List<AuthPriorityClass> parse(List<String> classNames, Map<String, String> properties) {
+    var result = new ArrayList<AuthPriorityClass>(classNames.size());
+    for (var className : classNames) {
+      var name = className.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      var userPattern = properties.get(name + ".userPattern");
+      var userIds = new ArrayList<DtUid>(4);
+      var userIdList = properties.get(name + ".userIds");
+      if (userIdList != null) {
+        for (var userId : userIdList.split(",", -1)) {
+          if (!userId.isBlank()) {
+            userIds.add(DtUid.valueOf(userId.trim()));
+          }
+        }
+      }
+      if ((userPattern == null) && userIds.isEmpty()) {
+        throw new InternalException("Priority class " + name
+            + " defines neither user pattern nor user Ids");
+      }
+      result.add(new AuthPriorityClass(name, userPattern, userIds,
+          (int) getLong(properties, name, "maxConcurrency", 4),
+          (int) getLong(properties, name, "maxQueue", 16),
+          getLong(properties, name, "maxQueueWaitMs", 500),
+          getLong(properties, name, "cacheTimeout", -1)));
+    }
+    return result;
+  }
+
+  private static String getKey(String userName) {
+    return userName.trim().toUpperCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Find priority class of user.
+   *
+   * @param userName is user name being authenticated
+   * @return priority class of user, null if user does not belong to any class
+   */
+  public @Nullable AuthPriorityClass classify(String userName) {
+    if (classes.isEmpty()) {
+      return null;
+    }
+    var userId = knownUserIds.isEmpty() ? null : knownUserIds.get(getKey(userName));
+    for (var priorityClass : classes) {
+      if (priorityClass.matches(userName, userId)) {
+        return priorityClass;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Remember Id of verified user, so that classes defined by user Ids can be applied to user.
+   *
+   * @param userName is user name used for authentication
+   * @param userId is Id of verified user
+   */
+  void recordUser(String userName, DtUid userId) {
+    if (!usesUserIds) {
+      return;
+    }
+    if (knownUserIds.size() >= maxRememberedUsers) {
+      // crude, but cheap - forgotten users are classified by name until verified again
+      knownUserIds.clear();
+    }
+    knownUserIds.put(getKey(userName), userId);
+  }
+
+  /**
+   * Value of field classes.
+   *
+   * @return value of field classes
+   */
+  public List<AuthPriorityClass> getClasses() {
+    return classes;
+  }
+
+  @Override
+  public String toString() {
+    return "AuthPriorityClassifier{"
+        + "classes=" + classes
+        + ", maxRememberedUsers=" + maxRememberedUsers
+        + '}';
+  }
+}
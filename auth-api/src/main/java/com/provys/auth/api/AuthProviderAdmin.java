@@ -0,0 +1,121 @@
+package com.provys.auth.api;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link AuthProviderMXBean}, delegating to provider and its concurrency
+ * limiter.
+ */
+final class AuthProviderAdmin implements AuthProviderMXBean {
+
+  private final ProvysUsernamePasswordAuthProvider provider;
+
+  AuthProviderAdmin(ProvysUsernamePasswordAuthProvider provider) {
+    this.provider = Objects.requireNonNull(provider);
+  }
+
+  @Override
+  public int getCacheSize() {
+    return provider.getCacheSize();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return provider.getCacheHits();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return provider.getCacheMisses();
+  }
+
+  @Override
+  public double getCacheHitRatio() {
+    var hits = provider.getCacheHits();
+    var total = hits + provider.getCacheMisses();
+    return (total == 0) ? 0.0 : ((double) hits) / total;
+  }
+
+  @Override
+  public Map<String, Integer> getCacheExpiryDistribution() {
+    return provider.getCacheExpiryDistribution();
+  }
+
+  @Override
+  public long getCacheTimeoutSec() {
+    return provider.getCacheTimeoutSec();
+  }
+
+  @Override
+  public int getMaxCacheSize() {
+    return provider.getMaxCacheSize();
+  }
+
+  @Override
+  public int getConcurrencyLimit() {
+    return provider.getConcurrencyLimiter().getLimit();
+  }
+
+  @Override
+  public int getMaxConcurrency() {
+    return provider.getConcurrencyLimiter().getMaxLimit();
+  }
+
+  @Override
+  public int getInFlight() {
+    return provider.getConcurrencyLimiter().getInFlight();
+  }
+
+  @Override
+  public int getQueued() {
+    return provider.getConcurrencyLimiter().getQueued();
+  }
+
+  @Override
+  public int getMaxQueue() {
+    return provider.getConcurrencyLimiter().getMaxQueue();
+  }
+
+  @Override
+  public long getMaxQueueWaitMs() {
+    return provider.getConcurrencyLimiter().getMaxWaitMs();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return provider.getConcurrencyLimiter().getRejectedCount();
+  }
+
+  @Override
+  public void updateCacheSettings(long cacheTimeoutSec, int maxCacheSize) {
+    provider.updateCacheSettings(cacheTimeoutSec, maxCacheSize);
+  }
+
+  @Override
+  public void updateConcurrencySettings(int maxConcurrency, int maxQueue, long maxQueueWaitMs) {
+    provider.getConcurrencyLimiter().setBounds(maxConcurrency, maxQueue, maxQueueWaitMs);
+  }
+
+  @Override
+  public boolean evictUser(String userName) {
+    return provider.evictUser(userName);
+  }
+
+  @Override
+  public int evictExpired() {
+    return provider.evictExpired();
+  }
+
+  @Override
+  public void evictAll() {
+    provider.evictAll();
+  }
+
+  @Override
+  public String toString() {
+    return "AuthProviderAdmin{"
+        + "provider=" + provider
+        + '}';
+  }
+}
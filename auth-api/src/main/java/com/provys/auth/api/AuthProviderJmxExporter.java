@@ -0,0 +1,133 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Registers {@link AuthProviderMXBean} for each username / password authentication provider in
+ * platform MBean server, under name {@code com.provys.auth:type=AuthProvider,name=<name>}. Provider
+ * beans are registered under their bean name once all singletons are instantiated, providers
+ * created later (e.g. for Provys database targets) are registered by {@link AuthProviderLookup}.
+ * Priority classes of {@link AuthPriorityClassifier} bean (if present) are registered as
+ * {@link AuthPriorityClassMXBean} under name
+ * {@code com.provys.auth:type=AuthPriorityClass,name=<name>}.
+ * MBeans are unregistered when context is closed.
+ */
+public final class AuthProviderJmxExporter implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger LOG = LogManager.getLogger(AuthProviderJmxExporter.class);
+  /** Domain of registered MBeans. */
+  public static final String DOMAIN = "com.provys.auth";
+
+  private final ApplicationContext applicationContext;
+  private final MBeanServer mbeanServer;
+  private final Map<String, ObjectName> registered = new ConcurrentHashMap<>(4);
+
+  AuthProviderJmxExporter(ApplicationContext applicationContext, MBeanServer mbeanServer) {
+    this.applicationContext = Objects.requireNonNull(applicationContext);
+    this.mbeanServer = Objects.requireNonNull(mbeanServer);
+  }
+
+  AuthProviderJmxExporter(ApplicationContext applicationContext) {
+    this(applicationContext, ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Object name MBean of provider with given name is registered under.
+   *
+   * @param name is name of provider
+   * @return object name of provider MBean
+   */
+  public static ObjectName getObjectName(String name) {
+    try {
+      return new ObjectName(DOMAIN + ":type=AuthProvider,name=" + ObjectName.quote(name));
+    } catch (JMException e) {
+      throw new InternalException("Invalid authentication provider MBean name " + name, e);
+    }
+  }
+
+  /**
+   * Object name MBean of priority class with given name is registered under.
+   *
+   * @param name is name of priority class
+   * @return object name of priority class MBean
+   */
+  public static ObjectName getPriorityClassObjectName(String name) {
+    try {
+      return new ObjectName(DOMAIN + ":type=AuthPriorityClass,name=" + ObjectName.quote(name));
+    } catch (JMException e) {
+      throw new InternalException("Invalid priority class MBean name " + name, e);
+    }
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    for (var entry : applicationContext
+        .getBeansOfType(ProvysUsernamePasswordAuthProvider.class).entrySet()) {
+      register(entry.getKey(), entry.getValue());
+    }
+    applicationContext.getBeanProvider(AuthPriorityClassifier.class)
+        .ifAvailable(classifier -> classifier.getClasses().forEach(this::register));
+  }
+
+  private void register(AuthPriorityClass priorityClass) {
+    var objectName = getPriorityClassObjectName(priorityClass.getName());
+    try {
+      mbeanServer.registerMBean(priorityClass, objectName);
+      registered.put("class:" + priorityClass.getName(), objectName);
+      LOG.debug("Priority class MBean registered: {}", objectName);
+    } catch (JMException e) {
+      LOG.warn("Failed to register priority class MBean {}: {}", objectName, e.getMessage());
+    }
+  }
+
+  /**
+   * Register MBean for given provider. If MBean with the same name is already registered (e.g. by
+   * another application context in the same JVM), registration is skipped.
+   *
+   * @param name is name MBean is registered under
+   * @param provider is provider MBean gives access to
+   */
+  public void register(String name, ProvysUsernamePasswordAuthProvider provider) {
+    var objectName = getObjectName(name);
+    try {
+      mbeanServer.registerMBean(new AuthProviderAdmin(provider), objectName);
+      registered.put(name, objectName);
+      LOG.debug("Authentication provider MBean registered: {}", objectName);
+    } catch (JMException e) {
+      LOG.warn("Failed to register authentication provider MBean {}: {}", objectName,
+          e.getMessage());
+    }
+  }
+
+  @Override
+  public void destroy() {
+    for (var objectName : registered.values()) {
+      try {
+        mbeanServer.unregisterMBean(objectName);
+      } catch (JMException e) {
+        LOG.warn("Failed to unregister authentication provider MBean {}: {}", objectName,
+            e.getMessage());
+      }
+    }
+    registered.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "AuthProviderJmxExporter{"
+        + "registered=" + registered.keySet()
+        + '}';
+  }
+}
@@ -1,13 +1,27 @@
 package com.provys.auth.api;
 
 import com.provys.common.exception.InternalException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.stereotype.Component;
 
 /**
  * Class allows lookup of authentication provider bean by name.
@@ -20,15 +34,175 @@ import org.springframework.stereotype.Component;
  * auth-mock module, instead, you have to register it under name mockAuthProvider. Moreover
  * {@code AuthProviderLookup} allows use of authentication provider name in the form
  * {@code MOCK$<i>} that will invoke bean, registered as {@code mockAuthProvider<i>}.
+ *
+ * <p>Several providers can be combined using name in the form {@code <name>+<name>} (e.g.
+ * {@code ORACLE+EXTUSER}); such name is resolved to {@link CompositeAuthProvider}, that tries
+ * providers in given order and remembers which provider succeeded for given user. If property
+ * {@code provysauth.composite.hedged} is set, composite providers invoke all providers in parallel.
+ * Names might come from request, thus number of composite providers is bounded: when property
+ * {@code provysauth.providers} is set, only composites listed in it are accepted (and they are
+ * created at startup), otherwise at most {@value #MAX_COMPOSITE_PROVIDERS} composites are
+ * created; composite must not contain the same provider twice.
+ *
+ * <p>Custom providers can be made available by defining bean of type
+ * {@link AuthProviderRegistration}.
+ *
+ * <p>Providers supporting several Provys databases (see {@link ProvysDbTargets}) can be looked up
+ * using tenant-qualified name {@code <name>@<target>} (e.g. {@code ORACLE@CUST1}); such provider
+ * is created by {@link TenantAuthProviderFactory} bean with given name on first look-up, has its
+ * own user data factory and cache and is reused by subsequent look-ups. Name {@code <name>@*}
+ * resolves to {@link TenantRoutingAuthProvider}, that selects target for each request using
+ * {@link TenantResolver} bean.
+ *
+ * <p>Once all singletons are instantiated, look-up builds immutable registry of all available
+ * providers (built-in providers, all {@code MOCK$<i>} beans and custom registrations); subsequent
+ * look-ups are case-insensitive and do not allocate; other plain names are rejected without
+ * further resolution. Names listed in property {@code provysauth.providers} are verified at this
+ * point and startup fails if any of them cannot be resolved. The same property also controls which
+ * provider auto-configurations are active (see {@link ConditionalOnAuthProvider}); providers not
+ * listed are not instantiated at all.
  */
-@Component
-public class AuthProviderLookup {
+public class AuthProviderLookup implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger LOG = LogManager.getLogger(AuthProviderLookup.class);
+  private static final String MOCK_PREFIX = "MOCK$";
+  /** Maximal number of composite providers, when they are not restricted to listed ones. */
+  static final int MAX_COMPOSITE_PROVIDERS = 32;
 
   private final ApplicationContext applicationContext;
+  private final List<String> requiredProviders;
+  private final Set<String> declaredComposites;
+  private final boolean compositeHedged;
+  private final int compositeMaxRemembered;
+  private final Map<String, CompositeAuthProvider> compositeProviders = new ConcurrentHashMap<>(4);
+  private final Map<String, AuthenticationProvider> tenantProviders = new ConcurrentHashMap<>(4);
+  private volatile @MonotonicNonNull AuthProviderRegistry registry;
+  private volatile @MonotonicNonNull ExecutorService hedgeExecutor;
 
-  @Autowired
-  AuthProviderLookup(ApplicationContext applicationContext) {
+  AuthProviderLookup(ApplicationContext applicationContext, List<String> requiredProviders,
+      boolean compositeHedged, int compositeMaxRemembered) {
     this.applicationContext = Objects.requireNonNull(applicationContext);
+    this.requiredProviders = requiredProviders.stream()
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toUnmodifiableList());
+    this.declaredComposites = this.requiredProviders.stream()
+        .filter(name -> name.indexOf('+') >= 0)
+        .map(name -> name.toUpperCase(Locale.ENGLISH))
+        .collect(Collectors.toUnmodifiableSet());
+    this.compositeHedged = compositeHedged;
+    this.compositeMaxRemembered = compositeMaxRemembered;
+  }
+
+  private ExecutorService getHedgeExecutor() {
+    if (hedgeExecutor == null) {
+      synchronized (this) {
+        if (hedgeExecutor == null) {
+          hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "provysauth-hedge");
+            thread.setDaemon(true);
+            return thread;
+          });
+        }
+      }
+    }
+    return hedgeExecutor;
+  }
+
+  /**
+   * Build registry of all available providers and verify that all required providers are
+   * available.
+   */
+  @Override
+  public void afterSingletonsInstantiated() {
+    var providers = new HashMap<String, AuthenticationProvider>(8);
+    for (var authProviderDef : AuthProviders.values()) {
+      if (applicationContext.containsBean(authProviderDef.getBeanName())) {
+        var bean = applicationContext.getBean(authProviderDef.getBeanName());
+        if (bean instanceof AuthenticationProvider) {
+          providers.put(authProviderDef.name(), (AuthenticationProvider) bean);
+        }
+      }
+    }
+    var mockBeanName = AuthProviders.MOCK.getBeanName();
+    for (var entry : applicationContext.getBeansOfType(AuthenticationProvider.class)
+        .entrySet()) {
+      var beanName = entry.getKey();
+      if (beanName.startsWith(mockBeanName) && (beanName.length() > mockBeanName.length())) {
+        providers.put(MOCK_PREFIX + beanName.substring(mockBeanName.length()), entry.getValue());
+      }
+    }
+    for (var registration : applicationContext.getBeansOfType(AuthProviderRegistration.class)
+        .values()) {
+      if (providers.putIfAbsent(registration.getName(), registration.getProvider()) != null) {
+        throw new InternalException(
+            "Duplicate authentication provider name " + registration.getName());
+      }
+    }
+    registry = new AuthProviderRegistry(providers);
+    LOG.debug("Authentication provider registry initialized: {}", registry);
+    for (var name : requiredProviders) {
+      try {
+        getAuthProvider(name);
+      } catch (InternalException e) {
+        throw new InternalException("Required authentication provider " + name
+            + " is not available", e);
+      }
+    }
+  }
+
+  private CompositeAuthProvider createCompositeProvider(String upperName) {
+    var providers = new ArrayList<AuthenticationProvider>(2);
+    var parts = new HashSet<String>(4);
+    for (var part : upperName.split("\\+", -1)) {
+      if (part.isEmpty() || !parts.add(part)) {
+        throw new InternalException("Invalid composite authentication provider name " + upperName);
+      }
+      providers.add(getAuthProvider(part));
+    }
+    return new CompositeAuthProvider(providers, compositeMaxRemembered,
+        compositeHedged ? getHedgeExecutor() : null);
+  }
+
+  private AuthenticationProvider createTenantProvider(String upperName) {
+    var separator = upperName.lastIndexOf('@');
+    var name = upperName.substring(0, separator);
+    var tenant = upperName.substring(separator + 1);
+    if (name.isEmpty() || tenant.isEmpty() || (name.indexOf('@') >= 0)) {
+      throw new InternalException("Invalid tenant authentication provider name " + upperName);
+    }
+    var targets = applicationContext.getBean(ProvysDbTargets.class);
+    if (tenant.equals("*")) {
+      if (applicationContext.getBeansOfType(TenantAuthProviderFactory.class).values().stream()
+          .noneMatch(factory -> factory.getName().equalsIgnoreCase(name))) {
+        throw new InternalException("Authentication provider " + name
+            + " does not support Provys database targets");
+      }
+      return new TenantRoutingAuthProvider(name, this, targets,
+          applicationContext.getBean(TenantResolver.class));
+    }
+    var target = targets.getRequiredTarget(tenant);
+    for (var factory : applicationContext.getBeansOfType(TenantAuthProviderFactory.class)
+        .values()) {
+      if (factory.getName().equalsIgnoreCase(name)) {
+        var provider = factory.create(target, targets.getUserDataFactory(target));
+        LOG.info("Authentication provider {} created for Provys database target {}", name,
+            target.getName());
+        if (provider instanceof ProvysUsernamePasswordAuthProvider) {
+          var usernamePasswordProvider = (ProvysUsernamePasswordAuthProvider) provider;
+          if (usernamePasswordProvider.getMaxCacheSize() == 0) {
+            // timeout alone does not bound cache of provider that may exist for many targets
+            usernamePasswordProvider.updateCacheSettings(
+                usernamePasswordProvider.getCacheTimeoutSec(), targets.getMaxCacheSize());
+          }
+          applicationContext.getBeanProvider(AuthProviderJmxExporter.class)
+              .ifAvailable(exporter -> exporter.register(upperName, usernamePasswordProvider));
+        }
+        return provider;
+      }
+    }
+    throw new InternalException("Authentication provider " + name
+        + " does not support Provys database targets");
   }
 
   /**
@@ -38,16 +212,57 @@ public class AuthProviderLookup {
    * @return authentication provider instance (bean)
    */
   public AuthenticationProvider getAuthProvider(String name) {
+    var currentRegistry = registry;
+    if (currentRegistry != null) {
+      var result = currentRegistry.get(name);
+      if (result != null) {
+        return result;
+      }
+    }
+    var composite = compositeProviders.get(name);
+    if (composite != null) {
+      return composite;
+    }
+    var tenantProvider = tenantProviders.get(name);
+    if (tenantProvider != null) {
+      return tenantProvider;
+    }
+    if ((currentRegistry != null) && (name.indexOf('+') < 0) && (name.indexOf('@') < 0)) {
+      // registry contains all plain providers; no need to resolve unknown name dynamically
+      throw new InternalException("Invalid authentication provider name " + name);
+    }
+    return resolveAuthProvider(name);
+  }
+
+  /**
+   * Resolve provider not found in registry - registry has not been built yet or name is name of
+   * composite or tenant provider.
+   */
+  private AuthenticationProvider resolveAuthProvider(String name) {
     var upperName = name.toUpperCase(Locale.ENGLISH);
-    if (upperName.startsWith("MOCK$")) {
+    // composite and tenant providers are only remembered under upper-case name - supplied name
+    // might come from request and would make map grow without bounds
+    if (upperName.indexOf('+') >= 0) {
+      return getCompositeProvider(upperName);
+    }
+    if (upperName.indexOf('@') >= 0) {
+      return tenantProviders.computeIfAbsent(upperName, this::createTenantProvider);
+    }
+    if (upperName.startsWith(MOCK_PREFIX)) {
       return applicationContext
-          .getBean(AuthProviders.MOCK.getBeanName() + upperName.substring(5),
+          .getBean(AuthProviders.MOCK.getBeanName() + upperName.substring(MOCK_PREFIX.length()),
               AuthenticationProvider.class);
     }
     AuthProviders authProviderDef;
     try {
       authProviderDef = AuthProviders.valueOf(upperName);
     } catch (IllegalArgumentException e) {
+      for (var registration : applicationContext.getBeansOfType(AuthProviderRegistration.class)
+          .values()) {
+        if (registration.getName().equalsIgnoreCase(name)) {
+          return registration.getProvider();
+        }
+      }
       throw new InternalException("Invalid authentication provider name " + upperName, e);
     }
     try {
@@ -59,10 +274,68 @@ public class AuthProviderLookup {
     }
   }
 
+  private CompositeAuthProvider getCompositeProvider(String upperName) {
+    var composite = compositeProviders.get(upperName);
+    if (composite != null) {
+      return composite;
+    }
+    if (!requiredProviders.isEmpty()) {
+      if (!declaredComposites.contains(upperName)) {
+        throw new InternalException("Composite authentication provider " + upperName
+            + " is not listed in provysauth.providers");
+      }
+    } else if (compositeProviders.size() >= MAX_COMPOSITE_PROVIDERS) {
+      throw new InternalException("Too many composite authentication providers, "
+          + upperName + " rejected");
+    }
+    return compositeProviders.computeIfAbsent(upperName, this::createCompositeProvider);
+  }
+
+  /**
+   * Composite providers created so far.
+   *
+   * @return composite providers created by this look-up
+   */
+  Collection<CompositeAuthProvider> getCompositeProviders() {
+    return compositeProviders.values();
+  }
+
+  /**
+   * Providers created for Provys database targets so far.
+   *
+   * @return tenant providers created by this look-up
+   */
+  Collection<AuthenticationProvider> getTenantProviders() {
+    return tenantProviders.values();
+  }
+
+  @Override
+  public void destroy() {
+    var executor = hedgeExecutor;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    for (var entry : tenantProviders.entrySet()) {
+      if (entry.getValue() instanceof DisposableBean) {
+        try {
+          ((DisposableBean) entry.getValue()).destroy();
+        } catch (Exception e) {
+          LOG.warn("Failed to dispose authentication provider {}", entry.getKey(), e);
+        }
+      }
+    }
+    tenantProviders.clear();
+  }
+
   @Override
   public String toString() {
     return "AuthProviderLookup{"
         + "applicationContext=" + applicationContext
+        + ", requiredProviders=" + requiredProviders
+        + ", registry=" + registry
+        + ", compositeHedged=" + compositeHedged
+        + ", compositeProviders=" + compositeProviders.keySet()
+        + ", tenantProviders=" + tenantProviders.keySet()
         + '}';
   }
 }
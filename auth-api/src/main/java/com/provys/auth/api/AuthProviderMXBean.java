@@ -0,0 +1,146 @@
+package com.provys.auth.api;
+
+import java.util.Map;
+
+/**
+ * Management interface of username / password authentication provider, registered in platform
+ * MBean server by {@link AuthProviderJmxExporter}. Exposes credential cache and database
+ * concurrency limiter statistics and allows to change their settings without restart.
+ */
+public interface AuthProviderMXBean {
+
+  /**
+   * Number of entries in credential cache, including expired entries not yet evicted.
+   *
+   * @return current size of credential cache
+   */
+  int getCacheSize();
+
+  /**
+   * Number of authentications served from cache.
+   *
+   * @return number of cache hits
+   */
+  long getCacheHits();
+
+  /**
+   * Number of authentications not served from cache.
+   *
+   * @return number of cache misses
+   */
+  long getCacheMisses();
+
+  /**
+   * Ratio of authentications served from cache.
+   *
+   * @return cache hit ratio, 0 if there has been no authentication yet
+   */
+  double getCacheHitRatio();
+
+  /**
+   * Distribution of cache entries by remaining time to expiry.
+   *
+   * @return number of cache entries in each bucket of remaining time
+   */
+  Map<String, Integer> getCacheExpiryDistribution();
+
+  /**
+   * Time successful authentication is cached for.
+   *
+   * @return cache timeout in seconds
+   */
+  long getCacheTimeoutSec();
+
+  /**
+   * Upper bound of number of cached users.
+   *
+   * @return maximal size of credential cache, 0 if cache is not bounded
+   */
+  int getMaxCacheSize();
+
+  /**
+   * Current (adaptive) limit of concurrent database calls.
+   *
+   * @return current concurrency limit
+   */
+  int getConcurrencyLimit();
+
+  /**
+   * Upper bound of concurrency limit.
+   *
+   * @return upper bound of concurrency limit
+   */
+  int getMaxConcurrency();
+
+  /**
+   * Number of database calls currently in progress.
+   *
+   * @return number of database calls in flight
+   */
+  int getInFlight();
+
+  /**
+   * Number of authentications waiting for database call permit.
+   *
+   * @return number of queued authentications
+   */
+  int getQueued();
+
+  /**
+   * Maximal number of authentications waiting for database call permit.
+   *
+   * @return maximal queue length
+   */
+  int getMaxQueue();
+
+  /**
+   * Maximal time authentication waits for database call permit.
+   *
+   * @return maximal wait in milliseconds
+   */
+  long getMaxQueueWaitMs();
+
+  /**
+   * Number of authentications rejected because of concurrency limit.
+   *
+   * @return number of rejected authentications
+   */
+  long getRejectedCount();
+
+  /**
+   * Change cache timeout and size bound at once.
+   *
+   * @param cacheTimeoutSec is new cache timeout in seconds
+   * @param maxCacheSize is new upper bound of cache size, 0 means no bound
+   */
+  void updateCacheSettings(long cacheTimeoutSec, int maxCacheSize);
+
+  /**
+   * Change bounds of database concurrency limiter at once.
+   *
+   * @param maxConcurrency is new upper bound of concurrency limit
+   * @param maxQueue is new maximal queue length
+   * @param maxQueueWaitMs is new maximal wait in milliseconds
+   */
+  void updateConcurrencySettings(int maxConcurrency, int maxQueue, long maxQueueWaitMs);
+
+  /**
+   * Remove cached authentication of given user.
+   *
+   * @param userName is name of user, case-insensitive
+   * @return true if user was cached
+   */
+  boolean evictUser(String userName);
+
+  /**
+   * Remove expired entries from cache.
+   *
+   * @return number of removed entries
+   */
+  int evictExpired();
+
+  /**
+   * Remove all entries from cache.
+   */
+  void evictAll();
+}
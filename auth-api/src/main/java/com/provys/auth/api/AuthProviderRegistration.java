@@ -0,0 +1,63 @@
+package com.provys.auth.api;
+
+import com.google.errorprone.annotations.Immutable;
+import java.util.Objects;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+/**
+ * Registers custom authentication provider in {@link AuthProviderLookup} under given name. Define
+ * bean of this type to make custom provider available via look-up.
+ */
+@Immutable
+@SuppressWarnings("Immutable") // provider is not immutable, but registration never changes it
+public final class AuthProviderRegistration {
+
+  /**
+   * Create registration of provider under given name.
+   *
+   * @param name is name provider will be available under; case-insensitive, must not contain
+   *             {@code +} and must not clash with built-in provider names
+   * @param provider is provider being registered
+   * @return new registration
+   */
+  public static AuthProviderRegistration of(String name, AuthenticationProvider provider) {
+    return new AuthProviderRegistration(name, provider);
+  }
+
+  private final String name;
+  private final AuthenticationProvider provider;
+
+  private AuthProviderRegistration(String name, AuthenticationProvider provider) {
+    if (name.isEmpty() || (name.indexOf('+') >= 0)) {
+      throw new IllegalArgumentException("Invalid authentication provider name " + name);
+    }
+    this.name = name;
+    this.provider = Objects.requireNonNull(provider);
+  }
+
+  /**
+   * Value of field name.
+   *
+   * @return value of field name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Value of field provider.
+   *
+   * @return value of field provider
+   */
+  public AuthenticationProvider getProvider() {
+    return provider;
+  }
+
+  @Override
+  public String toString() {
+    return "AuthProviderRegistration{"
+        + "name='" + name + '\''
+        + ", provider=" + provider
+        + '}';
+  }
+}
@@ -0,0 +1,82 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+/**
+ * Immutable map of authentication provider names to providers. Names are case-insensitive; look-up
+ * hashes and compares supplied name in place, thus it does not allocate any objects.
+ */
+final class AuthProviderRegistry {
+
+  private final @Nullable String[] names;
+  private final @Nullable AuthenticationProvider[] providers;
+  private final int mask;
+  private final int size;
+
+  /**
+   * Create registry containing supplied providers.
+   *
+   * @param providers is map of provider names to providers
+   * @throws InternalException if two names only differ in case
+   */
+  AuthProviderRegistry(Map<String, AuthenticationProvider> providers) {
+    var capacity = Integer.highestOneBit(Math.max(2, providers.size()) * 2 - 1) << 1;
+    this.names = new String[capacity];
+    this.providers = new AuthenticationProvider[capacity];
+    this.mask = capacity - 1;
+    this.size = providers.size();
+    for (var entry : providers.entrySet()) {
+      var name = entry.getKey();
+      var slot = CaseInsensitive.hash(name) & mask;
+      while (names[slot] != null) {
+        if (CaseInsensitive.equals(names[slot], name)) {
+          throw new InternalException("Duplicate authentication provider name " + name);
+        }
+        slot = (slot + 1) & mask;
+      }
+      names[slot] = name;
+      this.providers[slot] = Objects.requireNonNull(entry.getValue());
+    }
+  }
+
+  /**
+   * Look-up provider with given name.
+   *
+   * @param name is name of provider, case-insensitive
+   * @return provider registered under given name, null if there is no such provider
+   */
+  @Nullable AuthenticationProvider get(String name) {
+    var slot = CaseInsensitive.hash(name) & mask;
+    String candidate;
+    while ((candidate = names[slot]) != null) {
+      if (CaseInsensitive.equals(candidate, name)) {
+        return providers[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Number of providers in registry.
+   *
+   * @return number of registered providers
+   */
+  int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "AuthProviderRegistry{"
+        + "names=" + Arrays.stream(names).filter(Objects::nonNull)
+        .collect(Collectors.joining(", ", "[", "]"))
+        + '}';
+  }
+}
@@ -9,7 +9,9 @@ enum AuthProviders {
   ORACLE("oracleAuthProvider"),
   EXTUSER("extUserAuthProvider"),
   NONE("noneAuthProvider"),
-  MOCK("mockAuthProvider");
+  MOCK("mockAuthProvider"),
+  TOKEN("signedTokenAuthProvider"),
+  DBTOKEN("dbTokenAuthProvider");
 
   private final String beanName;
 
@@ -0,0 +1,63 @@
+package com.provys.auth.api;
+
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Thrown when database rejects supplied credentials. Rejection is expected outcome of login attempt
+ * (and very frequent one under brute-force traffic), thus this exception is cheap to produce: it
+ * does not capture stack trace and message is only formatted when requested. Instances are not
+ * shared - {@link BadCredentialsException} does not allow to disable suppression, thus shared
+ * instance would collect exceptions suppressed by try-with-resources of every rejection. Original
+ * {@link java.sql.SQLException} is not attached; its error code is available via
+ * {@link #getErrorCode()}.
+ */
+public final class AuthRejectedException extends BadCredentialsException {
+
+  private static final long serialVersionUID = -2817066313526541530L;
+
+  /**
+   * Rejection exception for given database error code.
+   *
+   * @param errorCode is vendor error code of exception, reported by database
+   * @return new rejection exception for given code
+   */
+  public static AuthRejectedException forErrorCode(int errorCode) {
+    return new AuthRejectedException(errorCode);
+  }
+
+  private final int errorCode;
+  private transient volatile @MonotonicNonNull String message;
+
+  private AuthRejectedException(int errorCode) {
+    super(null);
+    this.errorCode = errorCode;
+  }
+
+  /**
+   * Value of field errorCode.
+   *
+   * @return value of field errorCode
+   */
+  public int getErrorCode() {
+    return errorCode;
+  }
+
+  @Override
+  public String getMessage() {
+    var result = message;
+    if (result == null) {
+      result = "Invalid username or password (error " + errorCode + ')';
+      message = result;
+    }
+    return result;
+  }
+
+  /**
+   * Stack trace is not captured, rejection is expected outcome and stack would only cost time.
+   */
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,368 @@
+package com.provys.auth.api;
+
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+/**
+ * Compact binary codec for {@link UserData}, authentication tokens produced by Provys providers and
+ * security context holding them. Intended as replacement of Java serialization when these objects
+ * are stored outside of JVM (e.g. in replicated HTTP session).
+ *
+ * <p>Encoded value starts with magic byte {@value #MAGIC}, format version and kind of encoded
+ * object. User data are stored as user Id (two's complement big-endian integer, prefixed by 1 byte
+ * length) followed by short name, full name and database token, each as UTF-8 string prefixed by
+ * variable length size. Authentication token adds authenticated flag, authorities and details;
+ * details are rarely present in Provys applications and are stored using Java serialization.
+ *
+ * <p>Only {@link UsernamePasswordAuthenticationToken} with {@link ProvysUserData} principal,
+ * {@link SimpleGrantedAuthority} authorities and erased credentials can be encoded; use
+ * {@link #supports(Object)} to check if value can be encoded.
+ */
+public final class AuthenticationCodec {
+
+  /** First byte of encoded value. Java serialization stream never starts with this value. */
+  public static final byte MAGIC = (byte) 0x50;
+  /** Current version of format. */
+  static final byte VERSION = 1;
+
+  private static final byte KIND_USER_DATA = 1;
+  private static final byte KIND_AUTHENTICATION = 2;
+  private static final byte KIND_SECURITY_CONTEXT = 3;
+
+  private AuthenticationCodec() {
+  }
+
+  private static boolean supportsAuthentication(@Nullable Authentication authentication) {
+    if ((authentication == null)
+        || (authentication.getClass() != UsernamePasswordAuthenticationToken.class)
+        || (authentication.getCredentials() != null)) {
+      return false;
+    }
+    var principal = authentication.getPrincipal();
+    if ((principal == null) || (principal.getClass() != ProvysUserData.class)) {
+      return false;
+    }
+    for (var authority : authentication.getAuthorities()) {
+      if (authority.getClass() != SimpleGrantedAuthority.class) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Indicates if given value can be encoded by this codec. Supported values are
+   * {@link ProvysUserData}, supported authentication token and security context containing
+   * supported authentication token (or no authentication).
+   *
+   * @param value is value to be checked
+   * @return true if value can be encoded, false otherwise
+   */
+  public static boolean supports(@Nullable Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (value.getClass() == ProvysUserData.class) {
+      return true;
+    }
+    if (value instanceof Authentication) {
+      return supportsAuthentication((Authentication) value);
+    }
+    if (value.getClass() == SecurityContextImpl.class) {
+      var authentication = ((SecurityContext) value).getAuthentication();
+      return (authentication == null) || supportsAuthentication(authentication);
+    }
+    return false;
+  }
+
+  /**
+   * Indicates if given data have been produced by this codec.
+   *
+   * @param data is encoded value
+   * @return true if data start with magic byte of this codec
+   */
+  public static boolean isEncoded(byte[] data) {
+    return (data.length > 0) && (data[0] == MAGIC);
+  }
+
+  /**
+   * Encode value to binary form.
+   *
+   * @param value is value to be encoded; must be supported by this codec
+   * @return binary representation of value
+   * @throws IllegalArgumentException if value is not supported by this codec
+   */
+  public static byte[] encode(Object value) {
+    if (!supports(value)) {
+      throw new IllegalArgumentException("Value not supported by authentication codec: "
+          + value.getClass().getName());
+    }
+    var writer = new Writer();
+    writer.writeByte(MAGIC);
+    writer.writeByte(VERSION);
+    if (value instanceof UserData) {
+      writer.writeByte(KIND_USER_DATA);
+      writeUserData(writer, (UserData) value);
+    } else if (value instanceof Authentication) {
+      writer.writeByte(KIND_AUTHENTICATION);
+      writeAuthentication(writer, (Authentication) value);
+    } else {
+      writer.writeByte(KIND_SECURITY_CONTEXT);
+      var authentication = ((SecurityContext) value).getAuthentication();
+      writer.writeByte((authentication == null) ? 0 : 1);
+      if (authentication != null) {
+        writeAuthentication(writer, authentication);
+      }
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Decode value from its binary form.
+   *
+   * @param data is binary representation produced by {@link #encode(Object)}
+   * @return decoded value
+   * @throws InternalException if data are not valid encoded value
+   */
+  public static Object decode(byte[] data) {
+    var reader = new Reader(data);
+    if (reader.readByte() != MAGIC) {
+      throw new InternalException("Data not produced by authentication codec");
+    }
+    var version = reader.readByte();
+    if (version != VERSION) {
+      throw new InternalException("Unsupported authentication codec version " + version);
+    }
+    Object result;
+    var kind = reader.readByte();
+    switch (kind) {
+      case KIND_USER_DATA:
+        result = readUserData(reader);
+        break;
+      case KIND_AUTHENTICATION:
+        result = readAuthentication(reader);
+        break;
+      case KIND_SECURITY_CONTEXT:
+        result = (reader.readByte() == 0) ? new SecurityContextImpl()
+            : new SecurityContextImpl(readAuthentication(reader));
+        break;
+      default:
+        throw new InternalException("Unsupported kind of encoded value " + kind);
+    }
+    if (reader.position != data.length) {
+      throw new InternalException("Unexpected data after encoded value");
+    }
+    return result;
+  }
+
+  private static void writeUserData(Writer writer, UserData userData) {
+    var userId = new BigDecimal(userData.getUserId().getValue()).toBigIntegerExact()
+        .toByteArray();
+    if (userId.length > 0xFF) {
+      throw new InternalException("User Id too long to be encoded");
+    }
+    writer.writeByte(userId.length);
+    writer.writeBytes(userId);
+    writer.writeString(userData.getShortNameNm());
+    writer.writeString(userData.getFullName());
+    writer.writeString(userData.getDbToken().getIisValue());
+  }
+
+  private static UserData readUserData(Reader reader) {
+    var userIdLength = reader.readByte() & 0xFF;
+    if (userIdLength == 0) {
+      throw new InternalException("Invalid encoded user Id");
+    }
+    var userId = DtUid.valueOf(new BigDecimal(new BigInteger(reader.data,
+        reader.skip(userIdLength), userIdLength)));
+    var shortNameNm = reader.readString();
+    var fullName = reader.readString();
+    var dbToken = DtEncryptedString.valueOf(reader.readString());
+    return ProvysUserData.of(userId, shortNameNm, fullName, dbToken);
+  }
+
+  private static void writeAuthentication(Writer writer, Authentication authentication) {
+    writer.writeByte(authentication.isAuthenticated() ? 1 : 0);
+    writeUserData(writer, (UserData) authentication.getPrincipal());
+    var authorities = authentication.getAuthorities();
+    writer.writeVarInt(authorities.size());
+    for (var authority : authorities) {
+      writer.writeString(authority.getAuthority());
+    }
+    var details = authentication.getDetails();
+    if (details == null) {
+      writer.writeVarInt(0);
+    } else {
+      var serialized = javaSerialize(details);
+      writer.writeVarInt(serialized.length);
+      writer.writeBytes(serialized);
+    }
+  }
+
+  private static Authentication readAuthentication(Reader reader) {
+    var authenticated = reader.readByte() != 0;
+    var userData = readUserData(reader);
+    var authorityCount = reader.readVarInt();
+    if (authorityCount > reader.remaining()) {
+      throw new InternalException("Invalid number of encoded authorities");
+    }
+    var authorities = new ArrayList<GrantedAuthority>(authorityCount);
+    for (int i = 0; i < authorityCount; i++) {
+      authorities.add(new SimpleGrantedAuthority(reader.readString()));
+    }
+    var result = authenticated
+        ? new UsernamePasswordAuthenticationToken(userData, null, authorities)
+        : new UsernamePasswordAuthenticationToken(userData, null);
+    var detailsLength = reader.readVarInt();
+    if (detailsLength > 0) {
+      result.setDetails(javaDeserialize(reader.data, reader.skip(detailsLength), detailsLength));
+    }
+    return result;
+  }
+
+  private static byte[] javaSerialize(Object value) {
+    var output = new ByteArrayOutputStream(256);
+    try (var objectOutput = new ObjectOutputStream(output)) {
+      objectOutput.writeObject(value);
+    } catch (IOException e) {
+      throw new InternalException("Failed to serialize authentication details", e);
+    }
+    return output.toByteArray();
+  }
+
+  private static Object javaDeserialize(byte[] data, int offset, int length) {
+    try (var objectInput = new ObjectInputStream(
+        new ByteArrayInputStream(data, offset, length))) {
+      return objectInput.readObject();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new InternalException("Failed to deserialize authentication details", e);
+    }
+  }
+
+  /**
+   * Growable byte buffer. Unlike {@link ByteArrayOutputStream}, it is not synchronized.
+   */
+  private static final class Writer {
+
+    private byte[] buffer = new byte[128];
+    private int position;
+
+    private void ensureCapacity(int additional) {
+      if (position + additional > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, position + additional));
+      }
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) value;
+    }
+
+    void writeBytes(byte[] value) {
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, buffer, position, value.length);
+      position += value.length;
+    }
+
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      var remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      buffer[position++] = (byte) remaining;
+    }
+
+    void writeString(String value) {
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      writeBytes(bytes);
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+
+    @Override
+    public String toString() {
+      return "Writer{"
+          + "position=" + position
+          + '}';
+    }
+  }
+
+  private static final class Reader {
+
+    private final byte[] data;
+    private int position;
+
+    Reader(byte[] data) {
+      this.data = data;
+    }
+
+    int remaining() {
+      return data.length - position;
+    }
+
+    /**
+     * Skip given number of bytes.
+     *
+     * @return position of first skipped byte
+     */
+    int skip(int length) {
+      if ((length < 0) || (length > remaining())) {
+        throw new InternalException("Unexpected end of encoded value");
+      }
+      var result = position;
+      position += length;
+      return result;
+    }
+
+    byte readByte() {
+      return data[skip(1)];
+    }
+
+    int readVarInt() {
+      var result = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        var value = readByte();
+        result |= (value & 0x7F) << shift;
+        if (value >= 0) {
+          return result;
+        }
+      }
+      throw new InternalException("Malformed length in encoded value");
+    }
+
+    String readString() {
+      var length = readVarInt();
+      return new String(data, skip(length), length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+      return "Reader{"
+          + "position=" + position
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,441 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import oracle.jdbc.pool.OracleDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Data source distributing new connections over several database endpoints (e.g. RAC nodes or
+ * listeners of the same Provys database). Each connection is created using endpoint with lowest
+ * connect latency (exponentially weighted moving average, weighted by number of connections being
+ * opened at the moment).
+ *
+ * <p>Endpoint is ejected when connect fails with connectivity error or when its connect latency
+ * exceeds given multiple of latency of the best other endpoint. Ejected endpoint is not used until
+ * ejection period expires; then single connect attempt probes the endpoint and either readmits it
+ * or ejects it again for doubled period. Failed connect is transparently retried on remaining
+ * endpoints, thus caller only sees failure when no endpoint is able to connect. Errors not related
+ * to connectivity (e.g. invalid user name or password) are propagated immediately, as retrying them
+ * would only lock database account sooner. Such failure readmits probed endpoint, but its duration
+ * is not used as latency sample, as database deliberately delays response to failed logon.
+ */
+public final class BalancedDataSource implements DataSource {
+
+  private static final org.apache.logging.log4j.Logger LOG =
+      LogManager.getLogger(BalancedDataSource.class);
+
+  /** Separator of endpoints in JDBC url. */
+  public static final char SEPARATOR = '|';
+
+  private static final double LATENCY_WEIGHT = 0.2;
+  private static final double DEFAULT_EJECT_LATENCY_FACTOR = 3.0;
+  private static final long DEFAULT_MIN_EJECT_LATENCY_MS = 50;
+  private static final long DEFAULT_EJECT_MS = 5_000;
+  private static final long DEFAULT_MAX_EJECT_MS = 300_000;
+  private static final String CONNECT_TIMEOUT_MS = "5000";
+
+  /**
+   * Create balanced data source for JDBC url listing several endpoints, separated by
+   * {@value #SEPARATOR} (e.g. {@code jdbc:oracle:thin:@node1:1521/PVYS|node2:1521/PVYS}). Endpoints
+   * without {@code jdbc:} prefix share prefix of first endpoint. Connect timeout of each endpoint
+   * is limited, so that hung listener does not prevent failover.
+   *
+   * @param jdbcUrl is JDBC url listing database endpoints
+   * @return balanced data source
+   */
+  public static BalancedDataSource forOracleUrl(String jdbcUrl) {
+    var endpointUrls = splitUrl(jdbcUrl);
+    var dataSources = new ArrayList<DataSource>(endpointUrls.size());
+    for (var endpointUrl : endpointUrls) {
+      try {
+        var dataSource = new OracleDataSource();
+        dataSource.setURL(endpointUrl);
+        var properties = new Properties();
+        properties.setProperty("oracle.net.CONNECT_TIMEOUT", CONNECT_TIMEOUT_MS);
+        dataSource.setConnectionProperties(properties);
+        dataSources.add(dataSource);
+      } catch (SQLException e) {
+        throw new InternalException("Failed to initialize Oracle datasource for " + endpointUrl,
+            e);
+      }
+    }
+    return new BalancedDataSource(endpointUrls, dataSources);
+  }
+
+  /**
+   * Split JDBC url listing several endpoints to urls of individual endpoints.
+   *
+   * @param jdbcUrl is JDBC url listing endpoints, separated by {@value #SEPARATOR}
+   * @return list of endpoint urls, each with {@code jdbc:} prefix
+   */
+  static List<String> splitUrl(String jdbcUrl) {
+    var prefixEnd = jdbcUrl.indexOf('@');
+    if (!jdbcUrl.startsWith("jdbc:") || (prefixEnd < 0)) {
+      throw new InternalException("Invalid JDBC url " + jdbcUrl);
+    }
+    var prefix = jdbcUrl.substring(0, prefixEnd + 1);
+    var result = new ArrayList<String>(4);
+    for (var part : jdbcUrl.split("\\" + SEPARATOR, -1)) {
+      var endpoint = part.trim();
+      if (endpoint.isEmpty() || endpoint.equals(prefix)) {
+        throw new InternalException("Empty endpoint in JDBC url " + jdbcUrl);
+      }
+      result.add(endpoint.startsWith("jdbc:") ? endpoint : prefix + endpoint);
+    }
+    return result;
+  }
+
+  /**
+   * Indicates if exception signals that endpoint is not reachable or not able to accept
+   * connections, as opposed to errors related to connecting user.
+   *
+   * @param e is exception thrown by connect attempt
+   * @return true if connect should be retried on another endpoint
+   */
+  public static boolean isConnectivityFailure(SQLException e) {
+    if ((e instanceof SQLRecoverableException) || (e instanceof SQLTransientConnectionException)
+        || (e instanceof SQLNonTransientConnectionException)) {
+      return true;
+    }
+    var sqlState = e.getSQLState();
+    if ((sqlState != null) && sqlState.startsWith("08")) {
+      return true;
+    }
+    switch (e.getErrorCode()) {
+      case 1033: // initialization or shutdown in progress
+      case 1034: // Oracle not available
+      case 1089: // immediate shutdown in progress
+      case 3113: // end-of-file on communication channel
+      case 3114: // not connected to Oracle
+      case 12170: // connect timeout
+      case 12514: // listener does not know of service
+      case 12516: // listener could not find handler
+      case 12518: // listener could not hand off connection
+      case 12519: // no appropriate service handler found
+      case 12520: // listener could not find handler for server type
+      case 12521: // listener does not know of instance
+      case 12528: // all instances are blocking new connections
+      case 12537: // connection closed
+      case 12541: // no listener
+      case 12543: // destination host unreachable
+      case 17002: // IO error
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Connector {
+    Connection connect(DataSource dataSource) throws SQLException;
+  }
+
+  private final Endpoint[] endpoints;
+  private final double ejectLatencyFactor;
+  private final long minEjectLatencyNanos;
+  private final long ejectNanos;
+  private final long maxEjectNanos;
+  private final LongSupplier nanoClock;
+
+  /**
+   * Create balanced data source with default ejection settings - endpoint is ejected when its
+   * latency exceeds three times latency of the best other endpoint (and at least 50 ms), ejection
+   * lasts 5 seconds and doubles with each failed probe up to 5 minutes.
+   *
+   * @param names are names of endpoints, used in log and toString
+   * @param dataSources are data sources of individual endpoints
+   */
+  public BalancedDataSource(List<String> names, List<? extends DataSource> dataSources) {
+    this(names, dataSources, DEFAULT_EJECT_LATENCY_FACTOR, DEFAULT_MIN_EJECT_LATENCY_MS,
+        DEFAULT_EJECT_MS, DEFAULT_MAX_EJECT_MS, System::nanoTime);
+  }
+
+  BalancedDataSource(List<String> names, List<? extends DataSource> dataSources,
+      double ejectLatencyFactor, long minEjectLatencyMs, long ejectMs, long maxEjectMs,
+      LongSupplier nanoClock) {
+    if (dataSources.isEmpty() || (names.size() != dataSources.size())) {
+      throw new IllegalArgumentException(
+          "Balanced data source requires name for each of at least one endpoint");
+    }
+    this.endpoints = new Endpoint[dataSources.size()];
+    for (int i = 0; i < endpoints.length; i++) {
+      endpoints[i] = new Endpoint(names.get(i), dataSources.get(i),
+          TimeUnit.MILLISECONDS.toNanos(ejectMs));
+    }
+    this.ejectLatencyFactor = ejectLatencyFactor;
+    this.minEjectLatencyNanos = TimeUnit.MILLISECONDS.toNanos(minEjectLatencyMs);
+    this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectMs);
+    this.maxEjectNanos = TimeUnit.MILLISECONDS.toNanos(maxEjectMs);
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Select endpoint for next connect attempt. Prefers admitted endpoint with lowest score; ejected
+   * endpoint whose ejection has expired is claimed for probe by single caller (its ejection is
+   * extended, so that others do not use it until probe finishes). When all remaining endpoints are
+   * ejected, the one whose ejection expires first is used.
+   *
+   * @param tried indicates endpoints that have already been tried by current caller
+   * @param now is current time
+   * @return index of selected endpoint, -1 if all endpoints have been tried
+   */
+  private int select(boolean[] tried, long now) {
+    int best = -1;
+    double bestScore = Double.MAX_VALUE;
+    int fallback = -1;
+    long fallbackUntil = Long.MAX_VALUE;
+    for (int i = 0; i < endpoints.length; i++) {
+      if (tried[i]) {
+        continue;
+      }
+      var endpoint = endpoints[i];
+      var ejectedUntil = endpoint.ejectedUntil.get();
+      if (ejectedUntil == 0) {
+        var score = endpoint.latencyNanos * (1.0 + endpoint.inFlight.get());
+        if (score < bestScore) {
+          best = i;
+          bestScore = score;
+        }
+      } else if ((ejectedUntil - now <= 0)
+          && endpoint.ejectedUntil.compareAndSet(ejectedUntil, now + endpoint.ejectNanos)) {
+        // ejection expired - this caller probes endpoint, others still see it as ejected
+        return i;
+      } else if (ejectedUntil - now < fallbackUntil - now) {
+        fallback = i;
+        fallbackUntil = ejectedUntil;
+      }
+    }
+    return (best >= 0) ? best : fallback;
+  }
+
+  /** Latency of best admitted endpoint other than given one, 0 if there is no such endpoint. */
+  private double getBaselineLatency(Endpoint except) {
+    var result = 0.0;
+    for (var endpoint : endpoints) {
+      if ((endpoint != except) && (endpoint.ejectedUntil.get() == 0)
+          && (endpoint.samples.get() > 0)
+          && ((result == 0.0) || (endpoint.latencyNanos < result))) {
+        result = endpoint.latencyNanos;
+      }
+    }
+    return result;
+  }
+
+  private void eject(Endpoint endpoint, long now, String reason) {
+    var period = endpoint.ejectNanos;
+    endpoint.ejectedUntil.set(now + period);
+    endpoint.ejectNanos = Math.min(2 * period, maxEjectNanos);
+    endpoint.ejections.incrementAndGet();
+    LOG.warn("Database endpoint {} ejected for {} ms: {}", endpoint.name,
+        TimeUnit.NANOSECONDS.toMillis(period), reason);
+  }
+
+  private void onSuccess(Endpoint endpoint, long start, long now, boolean probe) {
+    var sample = now - start;
+    var samples = endpoint.samples.incrementAndGet();
+    if (probe) {
+      endpoint.latencyNanos = sample;
+    } else {
+      endpoint.latencyNanos = (samples == 1) ? sample
+          : endpoint.latencyNanos + LATENCY_WEIGHT * (sample - endpoint.latencyNanos);
+    }
+    var baseline = getBaselineLatency(endpoint);
+    if ((baseline > 0) && (endpoint.latencyNanos > minEjectLatencyNanos)
+        && (endpoint.latencyNanos > ejectLatencyFactor * baseline)) {
+      eject(endpoint, now, String.format("connect latency %d ms, best endpoint %d ms",
+          TimeUnit.NANOSECONDS.toMillis((long) endpoint.latencyNanos),
+          TimeUnit.NANOSECONDS.toMillis((long) baseline)));
+    } else if (probe) {
+      readmit(endpoint);
+    }
+  }
+
+  private void readmit(Endpoint endpoint) {
+    endpoint.ejectNanos = ejectNanos;
+    endpoint.ejectedUntil.set(0);
+    LOG.info("Database endpoint {} readmitted", endpoint.name);
+  }
+
+  private Connection connect(Connector connector) throws SQLException {
+    var tried = new boolean[endpoints.length];
+    SQLException failure = null;
+    for (int attempt = 0; attempt < endpoints.length; attempt++) {
+      var start = nanoClock.getAsLong();
+      var index = select(tried, start);
+      if (index < 0) {
+        break;
+      }
+      tried[index] = true;
+      var endpoint = endpoints[index];
+      // connect to ejected endpoint (probe or last resort) decides if endpoint is readmitted
+      var probe = endpoint.ejectedUntil.get() != 0;
+      endpoint.inFlight.incrementAndGet();
+      try {
+        var connection = connector.connect(endpoint.dataSource);
+        onSuccess(endpoint, start, nanoClock.getAsLong(), probe);
+        return connection;
+      } catch (SQLException e) {
+        if (!isConnectivityFailure(e)) {
+          // endpoint has responded, thus it is reachable even though connect failed; database
+          // delays failed logons, so time it took is not used as latency sample
+          if (probe) {
+            readmit(endpoint);
+          }
+          throw e;
+        }
+        endpoint.failures.incrementAndGet();
+        eject(endpoint, nanoClock.getAsLong(), e.getMessage());
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      } finally {
+        endpoint.inFlight.decrementAndGet();
+      }
+    }
+    if (failure == null) {
+      throw new SQLTransientConnectionException("No database endpoint available");
+    }
+    throw failure;
+  }
+
+  /**
+   * Names of endpoints that are currently admitted (not ejected).
+   *
+   * @return list of admitted endpoint names
+   */
+  public List<String> getAdmittedEndpoints() {
+    var result = new ArrayList<String>(endpoints.length);
+    for (var endpoint : endpoints) {
+      if (endpoint.ejectedUntil.get() == 0) {
+        result.add(endpoint.name);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Number of endpoints this data source balances connections over.
+   *
+   * @return number of endpoints
+   */
+  public int getEndpointCount() {
+    return endpoints.length;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return connect(DataSource::getConnection);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return connect(dataSource -> dataSource.getConnection(username, password));
+  }
+
+  @Override
+  public @Nullable PrintWriter getLogWriter() throws SQLException {
+    return endpoints[0].dataSource.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    for (var endpoint : endpoints) {
+      endpoint.dataSource.setLogWriter(out);
+    }
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    for (var endpoint : endpoints) {
+      endpoint.dataSource.setLoginTimeout(seconds);
+    }
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return endpoints[0].dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return endpoints[0].dataSource.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Balanced data source is not a wrapper for " + iface.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+
+  @Override
+  public String toString() {
+    var builder = new StringBuilder("BalancedDataSource{endpoints=[");
+    for (int i = 0; i < endpoints.length; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(endpoints[i]);
+    }
+    return builder.append("]}").toString();
+  }
+
+  private static final class Endpoint {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger ejections = new AtomicInteger();
+    /** Time ejection expires, 0 for admitted endpoint. */
+    private final AtomicLong ejectedUntil = new AtomicLong();
+    /** Connect latency average; updates are not atomic, lost update does not matter. */
+    private volatile double latencyNanos;
+    /** Length of next ejection. */
+    private volatile long ejectNanos;
+
+    Endpoint(String name, DataSource dataSource, long ejectNanos) {
+      this.name = name;
+      this.dataSource = dataSource;
+      this.ejectNanos = ejectNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Endpoint{"
+          + "name='" + name + '\''
+          + ", latencyMs=" + TimeUnit.NANOSECONDS.toMillis((long) latencyNanos)
+          + ", admitted=" + (ejectedUntil.get() == 0)
+          + ", samples=" + samples.get()
+          + ", failures=" + failures.get()
+          + ", ejections=" + ejections.get()
+          + '}';
+    }
+  }
+}
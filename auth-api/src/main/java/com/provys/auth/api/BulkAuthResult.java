@@ -0,0 +1,117 @@
+package com.provys.auth.api;
+
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Outcome of verification of single entry of bulk authentication (see
+ * {@link ProvysUsernamePasswordAuthProvider#authenticateAll}). Holds either authentication token
+ * produced by successful verification or exception describing why entry has been rejected.
+ */
+public final class BulkAuthResult {
+
+  private final UsernamePasswordAuthenticationToken request;
+  private final @Nullable Authentication authentication;
+  private final @Nullable AuthenticationException failure;
+  private final boolean cached;
+
+  private BulkAuthResult(UsernamePasswordAuthenticationToken request,
+      @Nullable Authentication authentication, @Nullable AuthenticationException failure,
+      boolean cached) {
+    this.request = Objects.requireNonNull(request);
+    this.authentication = authentication;
+    this.failure = failure;
+    this.cached = cached;
+  }
+
+  /**
+   * Result of successful verification.
+   *
+   * @param request is authentication request that has been verified
+   * @param authentication is authentication token produced by verification
+   * @return successful result
+   */
+  public static BulkAuthResult success(UsernamePasswordAuthenticationToken request,
+      Authentication authentication) {
+    return new BulkAuthResult(request, Objects.requireNonNull(authentication), null, false);
+  }
+
+  /**
+   * Result of verification served from cache.
+   */
+  static BulkAuthResult cached(UsernamePasswordAuthenticationToken request,
+      Authentication authentication) {
+    return new BulkAuthResult(request, Objects.requireNonNull(authentication), null, true);
+  }
+
+  /**
+   * Result of rejected verification.
+   *
+   * @param request is authentication request that has been rejected
+   * @param failure is exception that would be thrown by single authentication of the same request
+   * @return failed result
+   */
+  public static BulkAuthResult failure(UsernamePasswordAuthenticationToken request,
+      AuthenticationException failure) {
+    return new BulkAuthResult(request, null, Objects.requireNonNull(failure), false);
+  }
+
+  /**
+   * Value of field request.
+   *
+   * @return value of field request
+   */
+  public UsernamePasswordAuthenticationToken getRequest() {
+    return request;
+  }
+
+  /**
+   * Value of field authentication.
+   *
+   * @return value of field authentication; null if verification failed
+   */
+  public @Nullable Authentication getAuthentication() {
+    return authentication;
+  }
+
+  /**
+   * Value of field failure.
+   *
+   * @return value of field failure; null if verification succeeded
+   */
+  public @Nullable AuthenticationException getFailure() {
+    return failure;
+  }
+
+  /**
+   * Indicates if verification succeeded.
+   *
+   * @return true if entry has been verified, false if it has been rejected
+   */
+  public boolean isSuccess() {
+    return authentication != null;
+  }
+
+  /**
+   * Value of field cached.
+   *
+   * @return true if result has been served from credential cache
+   */
+  public boolean isCached() {
+    return cached;
+  }
+
+  @Override
+  public String toString() {
+    return "BulkAuthResult{"
+        // request is not printed as a whole, as it contains password
+        + "userName='" + request.getName() + '\''
+        + ", success=" + isSuccess()
+        + ", cached=" + cached
+        + ", failure=" + failure
+        + '}';
+  }
+}
@@ -0,0 +1,47 @@
+package com.provys.auth.api;
+
+/**
+ * Helper methods for case-insensitive handling of user and provider names, that work directly on
+ * supplied strings and thus do not allocate upper- or lower-cased copies.
+ */
+final class CaseInsensitive {
+
+  private CaseInsensitive() {
+  }
+
+  /**
+   * Fold character the same way {@link String#equalsIgnoreCase} compares characters, with fast
+   * path for ASCII.
+   */
+  private static char fold(char character) {
+    if (character < 0x80) {
+      return ((character >= 'A') && (character <= 'Z')) ? (char) (character + 32) : character;
+    }
+    return Character.toLowerCase(Character.toUpperCase(character));
+  }
+
+  /**
+   * Hash code of supplied value that is the same for values that differ only in case.
+   *
+   * @param value is value to be hashed
+   * @return case-insensitive hash code
+   */
+  static int hash(CharSequence value) {
+    int result = 0;
+    for (int i = 0; i < value.length(); i++) {
+      result = 31 * result + fold(value.charAt(i));
+    }
+    return result;
+  }
+
+  /**
+   * Compare two values ignoring case.
+   *
+   * @param first is first value to be compared
+   * @param second is second value to be compared
+   * @return true if values are equal ignoring case
+   */
+  static boolean equals(String first, String second) {
+    return first.equalsIgnoreCase(second);
+  }
+}
@@ -0,0 +1,44 @@
+package com.provys.auth.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wall clock with coarse resolution, read without calling into operating system. Time is kept in
+ * volatile field refreshed by daemon thread every {@value #TICK_MS} ms; it is suitable for cache
+ * expiration and similar checks where precision of tens of milliseconds is sufficient.
+ */
+final class CoarseClock {
+
+  /** Resolution of clock in milliseconds. */
+  static final long TICK_MS = 10L;
+
+  private static volatile long currentTimeMillis = System.currentTimeMillis();
+
+  static {
+    var ticker = new Thread(CoarseClock::tick, "provysauth-clock");
+    ticker.setDaemon(true);
+    ticker.start();
+  }
+
+  private CoarseClock() {
+  }
+
+  private static void tick() {
+    var tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MS);
+    while (true) {
+      LockSupport.parkNanos(tickNanos);
+      currentTimeMillis = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Current time in milliseconds, with resolution of {@value #TICK_MS} ms.
+   *
+   * @return current time in milliseconds since epoch, never more than few ticks behind
+   *     {@link System#currentTimeMillis()}
+   */
+  static long currentTimeMillis() {
+    return currentTimeMillis;
+  }
+}
@@ -0,0 +1,264 @@
+package com.provys.auth.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ProviderNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Authentication provider that tries several providers (e.g. Oracle and ExtUser) and returns first
+ * successful result. Provider that has successfully authenticated user is remembered and it is
+ * tried first next time the same user authenticates, avoiding failed database logon via other
+ * provider.
+ *
+ * <p>In hedged mode, all providers are invoked in parallel for users without remembered provider
+ * and first successful result is used; remaining invocations are cancelled (interrupted). Users
+ * with remembered provider are verified sequentially, thus known users do not cause failed logons
+ * via other providers (that might e.g. lock database account).
+ *
+ * <p>In both modes, rejections by individual providers are not registered in login rate limiter;
+ * rejection is registered once if all providers reject request. Failure of provider (e.g.
+ * unavailable database) does not prevent other providers from authenticating user; it is reported
+ * only if no provider succeeds, and in such case rejection is not registered.
+ */
+public final class CompositeAuthProvider implements AuthenticationProvider {
+
+  private final List<AuthenticationProvider> providers;
+  private final int maxRemembered;
+  private final @Nullable ExecutorService hedgeExecutor;
+  private final Map<String, Integer> preferredProviders = new ConcurrentHashMap<>(16);
+
+  /**
+   * Create composite provider.
+   *
+   * @param providers is list of providers, in order in which they are tried for unknown users
+   * @param maxRemembered is maximal number of users whose successful provider is remembered
+   * @param hedgeExecutor is executor used to invoke providers in parallel; null means providers
+   *                      are invoked sequentially
+   */
+  public CompositeAuthProvider(List<? extends AuthenticationProvider> providers,
+      int maxRemembered, @Nullable ExecutorService hedgeExecutor) {
+    if (providers.isEmpty()) {
+      throw new IllegalArgumentException("Composite provider requires at least one provider");
+    }
+    this.providers = List.copyOf(providers);
+    this.maxRemembered = maxRemembered;
+    this.hedgeExecutor = hedgeExecutor;
+  }
+
+  /**
+   * Index of provider that has last successfully authenticated given user.
+   *
+   * @param userName is name of user
+   * @return index of preferred provider, -1 if no provider is remembered for given user
+   */
+  int getPreferredProvider(String userName) {
+    var result = preferredProviders.get(getKey(userName));
+    return (result == null) ? -1 : result;
+  }
+
+  private static String getKey(String userName) {
+    return userName.toUpperCase(Locale.ENGLISH);
+  }
+
+  private void remember(String userName, int index) {
+    if (preferredProviders.size() >= maxRemembered) {
+      // crude, but cheap way to keep memory bounded - preferences are quickly learned again
+      preferredProviders.clear();
+    }
+    preferredProviders.put(getKey(userName), index);
+  }
+
+  /**
+   * Invoke single provider. Rejection by provider that does not know the user is expected, thus
+   * it is not registered as failed attempt of the user.
+   */
+  private static @Nullable Authentication invoke(AuthenticationProvider provider,
+      Authentication authentication) {
+    if (provider instanceof ProvysUsernamePasswordAuthProvider) {
+      return ((ProvysUsernamePasswordAuthProvider) provider).authenticate(authentication, false);
+    }
+    return provider.authenticate(authentication);
+  }
+
+  /**
+   * Exception to be thrown when no provider has authenticated user. Failure of provider takes
+   * precedence, as user might have been authenticated by failed provider; otherwise rejection is
+   * registered once in login rate limiter of rejecting provider.
+   */
+  private static AuthenticationException noSuccess(Authentication authentication,
+      @Nullable AuthenticationException serviceFailure,
+      @Nullable AuthenticationException failure, @Nullable AuthenticationProvider failedProvider,
+      String notFoundMessage) {
+    if (serviceFailure != null) {
+      return serviceFailure;
+    }
+    if (failure != null) {
+      if ((failure instanceof AuthRejectedException)
+          && (failedProvider instanceof ProvysUsernamePasswordAuthProvider)) {
+        ((ProvysUsernamePasswordAuthProvider) failedProvider).recordRejection(authentication);
+      }
+      return failure;
+    }
+    return new ProviderNotFoundException(notFoundMessage);
+  }
+
+  private Authentication authenticateSequential(Authentication authentication) {
+    var userName = authentication.getName();
+    var preferred = getPreferredProvider(userName);
+    AuthenticationException failure = null;
+    AuthenticationProvider failedProvider = null;
+    AuthenticationException serviceFailure = null;
+    for (int attempt = 0; attempt < providers.size(); attempt++) {
+      // preferred provider goes first, remaining providers follow in their configured order
+      int index;
+      if (preferred < 0) {
+        index = attempt;
+      } else if (attempt == 0) {
+        index = preferred;
+      } else {
+        index = (attempt <= preferred) ? attempt - 1 : attempt;
+      }
+      var provider = providers.get(index);
+      if (!provider.supports(authentication.getClass())) {
+        continue;
+      }
+      try {
+        var result = invoke(provider, authentication);
+        if (result != null) {
+          if (index != preferred) {
+            remember(userName, index);
+          }
+          return result;
+        }
+      } catch (InternalAuthenticationServiceException e) {
+        if (serviceFailure == null) {
+          serviceFailure = e;
+        }
+      } catch (AuthenticationException e) {
+        if (failure == null) {
+          failure = e;
+          failedProvider = provider;
+        }
+      }
+    }
+    throw noSuccess(authentication, serviceFailure, failure, failedProvider,
+        "No provider in composite supports " + authentication.getClass().getName());
+  }
+
+  private Authentication authenticateHedged(Authentication authentication,
+      ExecutorService executor) {
+    var completionService = new ExecutorCompletionService<Authentication>(executor);
+    var futures = new ArrayList<Future<Authentication>>(providers.size());
+    var indices = new ArrayList<Integer>(providers.size());
+    for (int i = 0; i < providers.size(); i++) {
+      var provider = providers.get(i);
+      if (!provider.supports(authentication.getClass())) {
+        continue;
+      }
+      futures.add(completionService.submit(() -> invoke(provider, authentication)));
+      indices.add(i);
+    }
+    if (futures.isEmpty()) {
+      throw new ProviderNotFoundException(
+          "No provider in composite supports " + authentication.getClass().getName());
+    }
+    AuthenticationException failure = null;
+    AuthenticationProvider failedProvider = null;
+    AuthenticationException serviceFailure = null;
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        var completed = completionService.take();
+        var index = indices.get(futures.indexOf(completed));
+        try {
+          var result = completed.get();
+          if (result != null) {
+            remember(authentication.getName(), index);
+            return result;
+          }
+        } catch (ExecutionException e) {
+          var cause = e.getCause();
+          if (cause instanceof InternalAuthenticationServiceException) {
+            if (serviceFailure == null) {
+              serviceFailure = (AuthenticationException) cause;
+            }
+          } else if (cause instanceof AuthenticationException) {
+            if (failure == null) {
+              failure = (AuthenticationException) cause;
+              failedProvider = providers.get(index);
+            }
+          } else if (serviceFailure == null) {
+            serviceFailure = new InternalAuthenticationServiceException(
+                "Hedged authentication failed", cause);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AuthenticationServiceException("Interrupted during hedged authentication", e);
+    } finally {
+      for (var future : futures) {
+        future.cancel(true);
+      }
+    }
+    throw noSuccess(authentication, serviceFailure, failure, failedProvider,
+        "No provider in composite returned authentication");
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    if ((hedgeExecutor != null) && (getPreferredProvider(authentication.getName()) < 0)) {
+      return authenticateHedged(authentication, hedgeExecutor);
+    }
+    return authenticateSequential(authentication);
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    for (var provider : providers) {
+      if (provider.supports(clazz)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Value of field providers.
+   *
+   * @return value of field providers
+   */
+  public List<AuthenticationProvider> getProviders() {
+    return providers;
+  }
+
+  /**
+   * Indicates if providers are invoked in parallel.
+   *
+   * @return true if composite provider runs in hedged mode
+   */
+  public boolean isHedged() {
+    return hedgeExecutor != null;
+  }
+
+  @Override
+  public String toString() {
+    return "CompositeAuthProvider{"
+        + "providers=" + providers
+        + ", hedged=" + isHedged()
+        + ", remembered=" + preferredProviders.size()
+        + '}';
+  }
+}
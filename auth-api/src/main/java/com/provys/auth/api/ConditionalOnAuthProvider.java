@@ -0,0 +1,29 @@
+package com.provys.auth.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.context.annotation.Conditional;
+
+/**
+ * Condition that matches when given authentication provider is enabled by configuration. Enabled
+ * providers are listed in property {@code provysauth.providers} (names are case-insensitive,
+ * composite names like {@code ORACLE+EXTUSER} enable all their parts, tenant-qualified names like
+ * {@code ORACLE@CUST1} enable provider without target). When property is not set, all providers
+ * available on classpath are enabled.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+@Conditional(OnAuthProviderCondition.class)
+public @interface ConditionalOnAuthProvider {
+
+  /**
+   * Name of authentication provider, as used in {@link AuthProviderLookup}.
+   *
+   * @return name of authentication provider
+   */
+  String value();
+}
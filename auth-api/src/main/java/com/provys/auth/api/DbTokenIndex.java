@@ -0,0 +1,154 @@
+package com.provys.auth.api;
+
+import com.provys.common.crypt.DtEncryptedString;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * In-memory index of database tokens, issued during login, and corresponding user data. Allows
+ * authentication of clients presenting database token (IIS token) without database round-trip.
+ * Entries expire after configured period; index is bounded - when full and no entry can be purged,
+ * new tokens are not indexed (and will be verified against database when presented). Purge of
+ * expired entries scans whole index, thus it is performed at most once per purge interval
+ * ({@value #PURGE_FRACTION}th of timeout, at least {@value #MIN_PURGE_INTERVAL_MS} ms); between
+ * purges, registration to full index is simply skipped.
+ */
+public final class DbTokenIndex {
+
+  private static final class IndexValue {
+
+    private final long validUntil;
+    private final UserData userData;
+
+    IndexValue(long validUntil, UserData userData) {
+      this.validUntil = validUntil;
+      this.userData = userData;
+    }
+
+    boolean isValid(long now) {
+      return validUntil > now;
+    }
+
+    @Override
+    public String toString() {
+      return "IndexValue{"
+          + "validUntil=" + validUntil
+          + ", userData=" + userData
+          + '}';
+    }
+  }
+
+  /** Purge interval is this fraction of timeout. */
+  static final long PURGE_FRACTION = 16;
+  /** Minimal interval between two purges of full index, in milliseconds. */
+  static final long MIN_PURGE_INTERVAL_MS = 1000L;
+
+  private final long timeoutMs;
+  private final int maxEntries;
+  private final long purgeIntervalMs;
+  private final LongSupplier clock;
+  private final Map<String, IndexValue> index = new ConcurrentHashMap<>(10);
+  private final AtomicLong nextPurge = new AtomicLong();
+
+  /**
+   * Create database token index.
+   *
+   * @param timeoutSec is time for which token is kept in index, in seconds
+   * @param maxEntries is maximal number of tokens kept in index
+   */
+  public DbTokenIndex(long timeoutSec, int maxEntries) {
+    this(timeoutSec, maxEntries, System::currentTimeMillis);
+  }
+
+  /**
+   * Variant with supplied clock, used for testing.
+   */
+  DbTokenIndex(long timeoutSec, int maxEntries, LongSupplier clock) {
+    this.timeoutMs = 1000L * timeoutSec;
+    this.maxEntries = maxEntries;
+    this.purgeIntervalMs = Math.max(MIN_PURGE_INTERVAL_MS, timeoutMs / PURGE_FRACTION);
+    this.clock = clock;
+  }
+
+  /**
+   * Create database token index with default settings (15 minutes timeout, 100000 entries).
+   */
+  public DbTokenIndex() {
+    this(900, 100000);
+  }
+
+  private void purgeExpired(long now) {
+    var purgeAt = nextPurge.get();
+    // only one thread scans index and only once per purge interval
+    if ((now < purgeAt) || !nextPurge.compareAndSet(purgeAt, now + purgeIntervalMs)) {
+      return;
+    }
+    index.values().removeIf(value -> !value.isValid(now));
+  }
+
+  /**
+   * Register database token of given user data in index.
+   *
+   * @param userData is user data, containing token being registered
+   */
+  public void register(UserData userData) {
+    var now = clock.getAsLong();
+    if (index.size() >= maxEntries) {
+      purgeExpired(now);
+      if (index.size() >= maxEntries) {
+        return;
+      }
+    }
+    index.put(userData.getDbToken().getIisValue(), new IndexValue(now + timeoutMs, userData));
+  }
+
+  /**
+   * Look-up user data associated with given database token.
+   *
+   * @param dbToken is database token to be looked up
+   * @return user data token has been issued for, null if token is not in index or has expired
+   */
+  public @Nullable UserData lookup(DtEncryptedString dbToken) {
+    var key = dbToken.getIisValue();
+    var value = index.get(key);
+    if (value == null) {
+      return null;
+    }
+    if (!value.isValid(clock.getAsLong())) {
+      index.remove(key, value);
+      return null;
+    }
+    return value.userData;
+  }
+
+  /**
+   * Remove token from index (e.g. on logout).
+   *
+   * @param dbToken is database token to be removed
+   */
+  public void remove(DtEncryptedString dbToken) {
+    index.remove(dbToken.getIisValue());
+  }
+
+  /**
+   * Number of tokens currently kept in index (including expired tokens not purged yet).
+   *
+   * @return number of tokens in index
+   */
+  public int size() {
+    return index.size();
+  }
+
+  @Override
+  public String toString() {
+    // tokens are intentionally omitted, as they are secret
+    return "DbTokenIndex{"
+        + "timeoutMs=" + timeoutMs
+        + ", maxEntries=" + maxEntries
+        + ", size=" + index.size()
+        + '}';
+  }
+}
@@ -0,0 +1,92 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Audit sink appending events to text file, one tab-separated line per event: time (ISO-8601),
+ * provider, user name, outcome, duration in microseconds and database error code. Control
+ * characters in user name are replaced by {@code ?}, so that single event cannot span multiple
+ * lines. File is flushed after each batch.
+ */
+public final class FileAuthAuditSink implements AuthAuditSink {
+
+  private final Path path;
+  private final BufferedWriter writer;
+
+  /**
+   * Create sink appending to given file; file is created if it does not exist.
+   *
+   * @param path is path of audit file
+   */
+  public FileAuthAuditSink(Path path) {
+    this.path = path;
+    try {
+      this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new InternalException("Failed to open audit file " + path, e);
+    }
+  }
+
+  private static String sanitize(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (Character.isISOControl(value.charAt(i))) {
+        var builder = new StringBuilder(value);
+        for (int j = i; j < builder.length(); j++) {
+          if (Character.isISOControl(builder.charAt(j))) {
+            builder.setCharAt(j, '?');
+          }
+        }
+        return builder.toString();
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public void write(List<AuthAuditEvent> events) {
+    try {
+      for (var event : events) {
+        writer.write(Instant.ofEpochMilli(event.getTimestamp()).toString());
+        writer.write('\t');
+        writer.write(event.getProviderName());
+        writer.write('\t');
+        writer.write(sanitize(event.getUserName()));
+        writer.write('\t');
+        writer.write(event.getOutcome().name());
+        writer.write('\t');
+        writer.write(Long.toString(event.getDurationNanos() / 1000L));
+        writer.write('\t');
+        writer.write(Integer.toString(event.getErrorCode()));
+        writer.newLine();
+      }
+      writer.flush();
+    } catch (IOException e) {
+      throw new InternalException("Failed to write audit events to " + path, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      throw new InternalException("Failed to close audit file " + path, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FileAuthAuditSink{"
+        + "path=" + path
+        + '}';
+  }
+}
@@ -0,0 +1,89 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+/**
+ * Audit sink inserting events into database table using JDBC batch insert. Table is expected to
+ * have columns {@code event_time} (timestamp), {@code provider}, {@code user_name},
+ * {@code outcome} (strings), {@code duration_us} and {@code error_code} (numbers). Each batch is
+ * inserted in single round-trip and committed.
+ */
+public final class JdbcAuthAuditSink implements AuthAuditSink {
+
+  private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_$#]*"
+      + "(\\.[A-Za-z][A-Za-z0-9_$#]*)?");
+
+  private final DataSource dataSource;
+  private final String user;
+  private final String pwd;
+  private final String insertSql;
+
+  /**
+   * Create sink inserting events to given table.
+   *
+   * @param dataSource is data source used to connect to database
+   * @param user is user used to connect to database
+   * @param pwd is password of user
+   * @param tableName is name of audit table, optionally qualified by schema
+   */
+  public JdbcAuthAuditSink(DataSource dataSource, String user, String pwd, String tableName) {
+    if (!TABLE_NAME.matcher(tableName).matches()) {
+      throw new IllegalArgumentException("Invalid audit table name " + tableName);
+    }
+    this.dataSource = Objects.requireNonNull(dataSource);
+    this.user = Objects.requireNonNull(user);
+    this.pwd = Objects.requireNonNull(pwd);
+    this.insertSql = "INSERT INTO " + tableName
+        + " (event_time, provider, user_name, outcome, duration_us, error_code)"
+        + " VALUES (?, ?, ?, ?, ?, ?)";
+  }
+
+  /**
+   * Statement used to insert events.
+   *
+   * @return insert statement
+   */
+  String getInsertSql() {
+    return insertSql;
+  }
+
+  @Override
+  public void write(List<AuthAuditEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    try (var connection = dataSource.getConnection(user, pwd)) {
+      connection.setAutoCommit(false);
+      try (var statement = connection.prepareStatement(insertSql)) {
+        for (var event : events) {
+          statement.setTimestamp(1, new Timestamp(event.getTimestamp()));
+          statement.setString(2, event.getProviderName());
+          statement.setString(3, event.getUserName());
+          statement.setString(4, event.getOutcome().name());
+          statement.setLong(5, event.getDurationNanos() / 1000L);
+          statement.setInt(6, event.getErrorCode());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+      connection.commit();
+    } catch (SQLException e) {
+      throw new InternalException("Failed to insert " + events.size() + " audit events", e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "JdbcAuthAuditSink{"
+        + "insertSql='" + insertSql + '\''
+        + ", user='" + user + '\''
+        // password is intentionally omitted
+        + '}';
+  }
+}
@@ -0,0 +1,145 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import oracle.jdbc.pool.OracleDataSource;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+
+/**
+ * Data source that creates underlying data source on first use. Allows providers to be
+ * instantiated without touching JDBC driver; cost of data source initialization is only paid when
+ * provider actually needs database.
+ */
+public final class LazyDataSource implements DataSource {
+
+  /**
+   * Create lazy Oracle data source for given JDBC url. Url might list several endpoints of the
+   * same database, separated by {@value BalancedDataSource#SEPARATOR} (e.g.
+   * {@code jdbc:oracle:thin:@node1:1521/PVYS|node2:1521/PVYS}); connections are then balanced over
+   * these endpoints using {@link BalancedDataSource}.
+   *
+   * @param jdbcUrl is JDBC url of database (including {@code jdbc:oracle:thin:@} prefix)
+   * @return data source that will create Oracle data source when first used
+   */
+  public static LazyDataSource forOracleUrl(String jdbcUrl) {
+    Objects.requireNonNull(jdbcUrl);
+    if (jdbcUrl.indexOf(BalancedDataSource.SEPARATOR) >= 0) {
+      return new LazyDataSource(jdbcUrl, () -> BalancedDataSource.forOracleUrl(jdbcUrl));
+    }
+    return new LazyDataSource(jdbcUrl, () -> {
+      try {
+        var dataSource = new OracleDataSource();
+        dataSource.setURL(jdbcUrl);
+        return dataSource;
+      } catch (SQLException e) {
+        throw new InternalException("Failed to initialize Oracle datasource", e);
+      }
+    });
+  }
+
+  private final String description;
+  private final Supplier<? extends DataSource> factory;
+  private volatile @MonotonicNonNull DataSource delegate;
+
+  /**
+   * Create lazy data source using supplied factory.
+   *
+   * @param description is description of data source (used in log and toString)
+   * @param factory is factory that creates underlying data source
+   */
+  public LazyDataSource(String description, Supplier<? extends DataSource> factory) {
+    this.description = Objects.requireNonNull(description);
+    this.factory = Objects.requireNonNull(factory);
+  }
+
+  /**
+   * Retrieve underlying data source, create it if it does not exist yet.
+   *
+   * @return underlying data source
+   */
+  public DataSource getDelegate() {
+    var result = delegate;
+    if (result == null) {
+      synchronized (this) {
+        result = delegate;
+        if (result == null) {
+          result = Objects.requireNonNull(factory.get());
+          delegate = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Indicates if underlying data source has already been created.
+   *
+   * @return true if underlying data source exists
+   */
+  public boolean isInitialized() {
+    return delegate != null;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getDelegate().getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return getDelegate().getConnection(username, password);
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return getDelegate().getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    getDelegate().setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    getDelegate().setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return getDelegate().getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return getDelegate().getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    return getDelegate().unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || getDelegate().isWrapperFor(iface);
+  }
+
+  @Override
+  public String toString() {
+    return "LazyDataSource{"
+        + "description='" + description + '\''
+        + ", initialized=" + isInitialized()
+        + '}';
+  }
+}
@@ -0,0 +1,63 @@
+package com.provys.auth.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits rate of repetitive log messages (e.g. rejected logins). At most given number of messages
+ * is permitted in each interval; messages over limit are only counted and the count is reported to
+ * next permitted message. Does not allocate and does not block.
+ */
+public final class LogSampler {
+
+  private final int maxPerInterval;
+  private final long intervalNanos;
+  private final AtomicLong intervalStart;
+  private final AtomicInteger permitted = new AtomicInteger();
+  private final AtomicLong suppressed = new AtomicLong();
+
+  /**
+   * Create sampler permitting given number of messages per interval.
+   *
+   * @param maxPerInterval is maximal number of messages logged in single interval
+   * @param intervalMs is length of interval in milliseconds
+   */
+  public LogSampler(int maxPerInterval, long intervalMs) {
+    if ((maxPerInterval < 1) || (intervalMs < 1)) {
+      throw new IllegalArgumentException("Invalid log sampler limits " + maxPerInterval + " per "
+          + intervalMs + "ms");
+    }
+    this.maxPerInterval = maxPerInterval;
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    this.intervalStart = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Try to acquire permit to log message.
+   *
+   * @return -1 if message should not be logged, otherwise number of messages suppressed since last
+   *     permitted message
+   */
+  public long tryAcquire() {
+    var now = System.nanoTime();
+    var start = intervalStart.get();
+    if ((now - start >= intervalNanos) && intervalStart.compareAndSet(start, now)) {
+      permitted.set(0);
+    }
+    if (permitted.incrementAndGet() > maxPerInterval) {
+      suppressed.incrementAndGet();
+      return -1;
+    }
+    return suppressed.getAndSet(0);
+  }
+
+  @Override
+  public String toString() {
+    return "LogSampler{"
+        + "maxPerInterval=" + maxPerInterval
+        + ", intervalNanos=" + intervalNanos
+        + ", suppressed=" + suppressed.get()
+        + '}';
+  }
+}
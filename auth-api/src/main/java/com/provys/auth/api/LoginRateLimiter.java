@@ -0,0 +1,110 @@
+package com.provys.auth.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Throttles login attempts for user names and client addresses with too many recent failures.
+ * Failures are counted in sliding window using count-min sketches, thus memory used by limiter is
+ * fixed regardless of number of distinct user names or addresses. User names are compared ignoring
+ * case.
+ *
+ * <p>Limiter is shared by all username / password providers, so that attacker cannot avoid it by
+ * switching providers. Only attempts that are not served from credential cache are checked, thus
+ * users with valid cached credentials are not affected by attacks against their account.
+ */
+public final class LoginRateLimiter {
+
+  private static final int SKETCH_WIDTH = 4096;
+
+  private final int maxUserFailures;
+  private final int maxClientFailures;
+  private final long windowSec;
+  private final SlidingWindowSketch userFailures;
+  private final SlidingWindowSketch clientFailures;
+  private final LongAdder throttled = new LongAdder();
+
+  /**
+   * Create login rate limiter.
+   *
+   * @param maxUserFailures is number of failures in window after which further attempts for given
+   *                        user name are rejected
+   * @param maxClientFailures is number of failures in window after which further attempts from
+   *                          given client address are rejected
+   * @param windowSec is length of sliding window, in seconds
+   */
+  public LoginRateLimiter(int maxUserFailures, int maxClientFailures, long windowSec) {
+    if ((maxUserFailures < 1) || (maxClientFailures < 1)) {
+      throw new IllegalArgumentException("Maximal number of failures must be positive");
+    }
+    this.maxUserFailures = maxUserFailures;
+    this.maxClientFailures = maxClientFailures;
+    this.windowSec = windowSec;
+    var now = System.nanoTime();
+    var windowNanos = TimeUnit.SECONDS.toNanos(windowSec);
+    this.userFailures = new SlidingWindowSketch(SKETCH_WIDTH, windowNanos, now);
+    this.clientFailures = new SlidingWindowSketch(SKETCH_WIDTH, windowNanos, now);
+  }
+
+  /**
+   * Create login rate limiter with default settings (10 failures per user and 100 failures per
+   * client address in one minute).
+   */
+  public LoginRateLimiter() {
+    this(10, 100, 60);
+  }
+
+  /**
+   * Verify that login attempt is allowed. Only does in-memory look-up.
+   *
+   * @param userName is user name of login attempt
+   * @param clientAddress is address of client attempting login, null if not known
+   * @throws LoginThrottledException if there were too many failures for given user name or address
+   */
+  public void checkAllowed(String userName, @Nullable String clientAddress) {
+    var now = System.nanoTime();
+    if (userFailures.estimate(CaseInsensitive.hash(userName), now) >= maxUserFailures) {
+      throttled.increment();
+      throw LoginThrottledException.forUser();
+    }
+    if ((clientAddress != null)
+        && (clientFailures.estimate(clientAddress.hashCode(), now) >= maxClientFailures)) {
+      throttled.increment();
+      throw LoginThrottledException.forClient();
+    }
+  }
+
+  /**
+   * Register failed login attempt.
+   *
+   * @param userName is user name of failed login attempt
+   * @param clientAddress is address of client attempting login, null if not known
+   */
+  public void recordFailure(String userName, @Nullable String clientAddress) {
+    var now = System.nanoTime();
+    userFailures.add(CaseInsensitive.hash(userName), now);
+    if (clientAddress != null) {
+      clientFailures.add(clientAddress.hashCode(), now);
+    }
+  }
+
+  /**
+   * Number of login attempts rejected by this limiter.
+   *
+   * @return number of throttled login attempts
+   */
+  public long getThrottledCount() {
+    return throttled.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "LoginRateLimiter{"
+        + "maxUserFailures=" + maxUserFailures
+        + ", maxClientFailures=" + maxClientFailures
+        + ", windowSec=" + windowSec
+        + ", throttled=" + getThrottledCount()
+        + '}';
+  }
+}
@@ -0,0 +1,61 @@
+package com.provys.auth.api;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown when login attempt is rejected without verifying credentials, because too many failed
+ * attempts have recently been made for the same user name or from the same client address.
+ *
+ * <p>Login rate limiter throws preallocated instances without stack trace ({@link #forUser()},
+ * {@link #forClient()}), so that rejecting flood of attempts does not allocate.
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+  private static final long serialVersionUID = 6046339406316297021L;
+
+  private static final LoginThrottledException USER =
+      new Stackless("Too many failed login attempts for user");
+  private static final LoginThrottledException CLIENT =
+      new Stackless("Too many failed login attempts from client address");
+
+  /**
+   * Shared exception signalling too many failures for user name.
+   *
+   * @return preallocated exception without stack trace
+   */
+  public static LoginThrottledException forUser() {
+    return USER;
+  }
+
+  /**
+   * Shared exception signalling too many failures from client address.
+   *
+   * @return preallocated exception without stack trace
+   */
+  public static LoginThrottledException forClient() {
+    return CLIENT;
+  }
+
+  /**
+   * Create throttled login exception with given message.
+   *
+   * @param msg is message describing reason of rejection
+   */
+  public LoginThrottledException(String msg) {
+    super(msg);
+  }
+
+  private static final class Stackless extends LoginThrottledException {
+
+    private static final long serialVersionUID = -1163417455391853043L;
+
+    Stackless(String msg) {
+      super(msg);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.provys.auth.api;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Evaluates {@link ConditionalOnAuthProvider}.
+ */
+final class OnAuthProviderCondition implements Condition {
+
+  /** Property listing authentication providers used by application. */
+  static final String PROVIDERS_PROPERTY = "provysauth.providers";
+
+  /**
+   * Read list of configured provider names. Supports both comma separated value and list.
+   *
+   * @param environment is environment to read property from
+   * @return list of configured provider names, empty list if property is not set
+   */
+  static List<String> getConfiguredProviders(Environment environment) {
+    return Binder.get(environment)
+        .bind(PROVIDERS_PROPERTY, Bindable.listOf(String.class))
+        .orElse(List.of())
+        .stream()
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  @Override
+  public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+    var attributes = Objects.requireNonNull(
+        metadata.getAnnotationAttributes(ConditionalOnAuthProvider.class.getName()));
+    var name = (String) attributes.get("value");
+    var providers = getConfiguredProviders(context.getEnvironment());
+    if (providers.isEmpty()) {
+      return true;
+    }
+    for (var provider : providers) {
+      for (var part : provider.split("\\+")) {
+        // tenant-qualified name (e.g. ORACLE@CUST1) enables the same auto-configuration as plain
+        // provider name
+        var separator = part.indexOf('@');
+        var providerName = (separator < 0) ? part : part.substring(0, separator);
+        if (providerName.trim().equalsIgnoreCase(name)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "OnAuthProviderCondition{}";
+  }
+}
@@ -0,0 +1,213 @@
+package com.provys.auth.api;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+
+/**
+ * Auto-configuration of beans shared by authentication providers. User data factory is lazy - it
+ * is only created (and {@code provysdb.*} properties are only resolved) when some enabled provider
+ * needs it.
+ *
+ * <p>Audit pipeline is only created when property {@code provysauth.audit.enabled} is true. It
+ * writes to file given by {@code provysauth.audit.file}, to table given by
+ * {@code provysauth.audit.jdbcTable} (using {@code provysdb.*} connection) and to all
+ * {@link AuthAuditSink} beans.
+ *
+ * <p>Additional Provys databases (tenants) are configured as {@code provysauth.targets.<name>.url},
+ * {@code .user} and {@code .pwd}; each target gets its own user data factory with the same limits
+ * as default one. Credential cache of each provider created for target is bounded by
+ * {@code provysauth.targetMaxCacheSize} (default 10000 users). Tenant is by default taken from
+ * {@link TenantContext}.
+ *
+ * <p>Priority classes of users (see {@link AuthPriorityClassifier}) are listed in property
+ * {@code provysauth.priority.classes} (in order of evaluation) and configured as
+ * {@code provysauth.priority.<class>.userPattern}, {@code .userIds}, {@code .maxConcurrency},
+ * {@code .maxQueue}, {@code .maxQueueWaitMs} and {@code .cacheTimeout}.
+ *
+ * <p>When property {@code provysauth.jmx.enabled} is true, cache and concurrency settings of
+ * username / password providers are exposed as MBeans (see {@link AuthProviderJmxExporter}).
+ *
+ * <p>When property {@code provysauth.health.enabled} is true, {@link AuthLoadMonitor} evaluates
+ * load of providers; if actuator is present, its state is exposed as health contributor
+ * {@code provysAuth}, that can be included in readiness group.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ProvysAuthAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  LoginRateLimiter loginRateLimiter(
+      @Value("${provysauth.rateLimit.maxUserFailures:10}") int maxUserFailures,
+      @Value("${provysauth.rateLimit.maxClientFailures:100}") int maxClientFailures,
+      @Value("${provysauth.rateLimit.windowSec:60}") long windowSec) {
+    return new LoginRateLimiter(maxUserFailures, maxClientFailures, windowSec);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  DbTokenIndex dbTokenIndex(@Value("${provysauth.dbToken.timeoutSec:900}") long timeoutSec,
+      @Value("${provysauth.dbToken.maxEntries:100000}") int maxEntries) {
+    return new DbTokenIndex(timeoutSec, maxEntries);
+  }
+
+  @Bean
+  @Lazy
+  @ConditionalOnMissingBean(UserDataFactory.class)
+  UserDataFactoryImpl userDataFactory(@Value("${provysdb.url}") String provysDbUrl,
+      @Value("${provysdb.user}") String provysDbUser,
+      @Value("${provysdb.pwd}") String provysDbPwd,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      DbTokenIndex dbTokenIndex) {
+    return new UserDataFactoryImpl(provysDbUrl, provysDbUser, provysDbPwd, maxConcurrency,
+        maxQueue, maxQueueWaitMs, dbTokenIndex);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  ProvysDbTargets provysDbTargets(Environment environment,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      @Value("${provysauth.dbToken.timeoutSec:900}") long dbTokenTimeoutSec,
+      @Value("${provysauth.dbToken.maxEntries:100000}") int dbTokenMaxEntries,
+      @Value("${provysauth.targetMaxCacheSize:10000}") int targetMaxCacheSize) {
+    var properties = Binder.get(environment)
+        .bind("provysauth.targets", Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    return new ProvysDbTargets(ProvysDbTargets.parse(properties), maxConcurrency, maxQueue,
+        maxQueueWaitMs, dbTokenTimeoutSec, dbTokenMaxEntries, targetMaxCacheSize);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "provysauth.priority.classes")
+  @ConditionalOnMissingBean
+  AuthPriorityClassifier authPriorityClassifier(Environment environment,
+      @Value("${provysauth.priority.classes}") List<String> classNames,
+      @Value("${provysauth.priority.maxRememberedUsers:100000}") int maxRememberedUsers) {
+    var properties = Binder.get(environment)
+        .bind("provysauth.priority", Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    return new AuthPriorityClassifier(AuthPriorityClassifier.parse(classNames, properties),
+        maxRememberedUsers);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(TenantResolver.class)
+  TenantContext tenantContext() {
+    return new TenantContext();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "provysauth.userContext", havingValue = "scoped")
+  @ConditionalOnMissingBean(UserContext.class)
+  ScopedUserContext scopedUserContext() {
+    return new ScopedUserContext();
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(UserContext.class)
+  ProvysUserContext provysUserContext() {
+    return new ProvysUserContext();
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  AuthProviderLookup authProviderLookup(ApplicationContext applicationContext,
+      Environment environment,
+      @Value("${provysauth.composite.hedged:false}") boolean compositeHedged,
+      @Value("${provysauth.composite.maxRemembered:100000}") int compositeMaxRemembered) {
+    return new AuthProviderLookup(applicationContext,
+        OnAuthProviderCondition.getConfiguredProviders(environment), compositeHedged,
+        compositeMaxRemembered);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "provysauth.jmx.enabled", havingValue = "true")
+  @ConditionalOnMissingBean
+  AuthProviderJmxExporter authProviderJmxExporter(ApplicationContext applicationContext) {
+    return new AuthProviderJmxExporter(applicationContext);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "provysauth.health.enabled", havingValue = "true")
+  @ConditionalOnMissingBean
+  AuthLoadMonitor authLoadMonitor(ApplicationContext applicationContext,
+      @Value("${provysauth.health.degradedLatencyMs:1000}") double degradedLatencyMs,
+      @Value("${provysauth.health.outOfServiceLatencyMs:5000}") double outOfServiceLatencyMs,
+      @Value("${provysauth.health.degradedFailureRatio:0.1}") double degradedFailureRatio,
+      @Value("${provysauth.health.outOfServiceFailureRatio:0.5}") double outOfServiceFailureRatio,
+      @Value("${provysauth.health.degradedQueueRatio:0.5}") double degradedQueueRatio,
+      @Value("${provysauth.health.outOfServiceQueueRatio:0.9}") double outOfServiceQueueRatio,
+      @Value("${provysauth.health.intervalMs:1000}") long intervalMs,
+      @Value("${provysauth.health.recoverEvaluations:5}") int recoverEvaluations) {
+    return new AuthLoadMonitor(applicationContext, new AuthLoadMonitor.Thresholds(
+        degradedLatencyMs, outOfServiceLatencyMs, degradedFailureRatio, outOfServiceFailureRatio,
+        degradedQueueRatio, outOfServiceQueueRatio), intervalMs, recoverEvaluations);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "provysauth.audit.enabled", havingValue = "true")
+  @ConditionalOnMissingBean
+  AuthAuditPipeline authAuditPipeline(
+      @Value("${provysauth.audit.capacity:8192}") int capacity,
+      @Value("${provysauth.audit.batchSize:256}") int batchSize,
+      @Value("${provysauth.audit.overflow:DROP}") AuthAuditOverflowPolicy overflowPolicy,
+      @Value("${provysauth.audit.file:}") String file,
+      @Value("${provysauth.audit.jdbcTable:}") String jdbcTable,
+      Environment environment, ObjectProvider<AuthAuditSink> customSinks) {
+    var sinks = new ArrayList<AuthAuditSink>(customSinks.orderedStream()
+        .collect(Collectors.toList()));
+    if (!file.isBlank()) {
+      sinks.add(new FileAuthAuditSink(Path.of(file)));
+    }
+    if (!jdbcTable.isBlank()) {
+      sinks.add(new JdbcAuthAuditSink(
+          LazyDataSource.forOracleUrl(environment.getRequiredProperty("provysdb.url")),
+          environment.getRequiredProperty("provysdb.user"),
+          environment.getRequiredProperty("provysdb.pwd"), jdbcTable));
+    }
+    return new AuthAuditPipeline(capacity, batchSize, overflowPolicy, sinks);
+  }
+
+  /**
+   * Health contributor, only created when actuator is on classpath.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+  @ConditionalOnProperty(name = "provysauth.health.enabled", havingValue = "true")
+  static class AuthLoadHealthConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "provysAuthHealthIndicator")
+    AuthLoadHealthIndicator provysAuthHealthIndicator(AuthLoadMonitor authLoadMonitor) {
+      return new AuthLoadHealthIndicator(authLoadMonitor);
+    }
+
+    @Override
+    public String toString() {
+      return "AuthLoadHealthConfiguration{}";
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ProvysAuthAutoConfiguration{}";
+  }
+}
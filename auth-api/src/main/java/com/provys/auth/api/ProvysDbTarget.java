@@ -0,0 +1,115 @@
+package com.provys.auth.api;
+
+import com.google.errorprone.annotations.Immutable;
+import java.util.Locale;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Named Provys database (tenant) authentication can be routed to. Targets are configured using
+ * properties {@code provysauth.targets.<name>.url}, {@code .user} and {@code .pwd}, with the same
+ * meaning as {@code provysdb.url}, {@code provysdb.user} and {@code provysdb.pwd} of default
+ * database.
+ */
+@Immutable
+public final class ProvysDbTarget {
+
+  /**
+   * Create target with given connection parameters.
+   *
+   * @param name is name of target; case-insensitive, stored in upper case
+   * @param url is jdbc thin url of Provys database (without {@code jdbc:oracle:thin:@} prefix)
+   * @param user is technical account, used to connect to database
+   * @param pwd is password of technical account
+   * @return new target
+   */
+  public static ProvysDbTarget of(String name, String url, String user, String pwd) {
+    return new ProvysDbTarget(name, url, user, pwd);
+  }
+
+  private final String name;
+  private final String url;
+  private final String user;
+  private final String pwd;
+
+  private ProvysDbTarget(String name, String url, String user, String pwd) {
+    if (name.isBlank() || (name.indexOf('@') >= 0) || (name.indexOf('+') >= 0)
+        || name.equals("*")) {
+      throw new IllegalArgumentException("Invalid Provys database target name " + name);
+    }
+    this.name = name.trim().toUpperCase(Locale.ENGLISH);
+    this.url = Objects.requireNonNull(url);
+    this.user = Objects.requireNonNull(user);
+    this.pwd = Objects.requireNonNull(pwd);
+  }
+
+  /**
+   * Value of field name.
+   *
+   * @return value of field name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Value of field url.
+   *
+   * @return value of field url
+   */
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * Value of field user.
+   *
+   * @return value of field user
+   */
+  public String getUser() {
+    return user;
+  }
+
+  /**
+   * Value of field pwd.
+   *
+   * @return value of field pwd
+   */
+  public String getPwd() {
+    return pwd;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ProvysDbTarget that = (ProvysDbTarget) o;
+    return name.equals(that.name)
+        && url.equals(that.url)
+        && user.equals(that.user)
+        && pwd.equals(that.pwd);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = name.hashCode();
+    result = 31 * result + url.hashCode();
+    result = 31 * result + user.hashCode();
+    result = 31 * result + pwd.hashCode();
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ProvysDbTarget{"
+        + "name='" + name + '\''
+        + ", url='" + url + '\''
+        + ", user='" + user + '\''
+        // password is intentionally omitted
+        + '}';
+  }
+}
@@ -0,0 +1,168 @@
+package com.provys.auth.api;
+
+import com.provys.common.exception.InternalException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Registry of configured Provys database targets. Each target has its own user data factory (with
+ * its own concurrency limiter, database token index and data source), created when target is first
+ * used; resources of different targets are thus isolated from each other. Credential caches of
+ * username / password providers created for targets are bounded by {@link #getMaxCacheSize()}.
+ */
+public final class ProvysDbTargets {
+
+  private static final String URL = "url";
+  private static final String USER = "user";
+  private static final String PWD = "pwd";
+
+  private final Map<String, ProvysDbTarget> targets;
+  private final int maxConcurrency;
+  private final int maxQueue;
+  private final long maxQueueWaitMs;
+  private final long dbTokenTimeoutSec;
+  private final int dbTokenMaxEntries;
+  private final int maxCacheSize;
+  private final Map<String, UserDataFactory> userDataFactories = new ConcurrentHashMap<>(4);
+
+  /**
+   * Create registry of targets.
+   *
+   * @param targets are configured targets
+   * @param maxConcurrency is upper bound of concurrent user data look-ups per target
+   * @param maxQueue is maximal number of user data look-ups waiting for database per target
+   * @param maxQueueWaitMs is maximal time look-up waits for database, in milliseconds
+   * @param dbTokenTimeoutSec is timeout of database tokens in per-target token index
+   * @param dbTokenMaxEntries is capacity of per-target database token index
+   * @param maxCacheSize is upper bound of credential cache of providers created for each target,
+   *                     0 means no bound
+   */
+  public ProvysDbTargets(Collection<ProvysDbTarget> targets, int maxConcurrency, int maxQueue,
+      long maxQueueWaitMs, long dbTokenTimeoutSec, int dbTokenMaxEntries, int maxCacheSize) {
+    if (maxCacheSize < 0) {
+      throw new IllegalArgumentException("Maximal cache size cannot be negative");
+    }
+    var targetMap = new HashMap<String, ProvysDbTarget>(targets.size() * 2);
+    for (var target : targets) {
+      if (targetMap.putIfAbsent(target.getName(), target) != null) {
+        throw new InternalException("Duplicate Provys database target " + target.getName());
+      }
+    }
+    this.targets = Map.copyOf(targetMap);
+    this.maxConcurrency = maxConcurrency;
+    this.maxQueue = maxQueue;
+    this.maxQueueWaitMs = maxQueueWaitMs;
+    this.dbTokenTimeoutSec = dbTokenTimeoutSec;
+    this.dbTokenMaxEntries = dbTokenMaxEntries;
+    this.maxCacheSize = maxCacheSize;
+  }
+
+  /**
+   * Parse targets from properties. Keys have form {@code <name>.url}, {@code <name>.user} and
+   * {@code <name>.pwd}, as produced by binding {@code provysauth.targets} to map of strings.
+   *
+   * @param properties are target properties
+   * @return list of targets
+   * @throws InternalException if some target misses required property or property is unknown
+   */
+  static Collection<ProvysDbTarget> parse(Map<String, String> properties) {
+    var values = new HashMap<String, Map<String, String>>(4);
+    for (var entry : properties.entrySet()) {
+      var key = entry.getKey();
+      var separator = key.lastIndexOf('.');
+      var property = (separator < 0) ? ""
+          : key.substring(separator + 1).toLowerCase(Locale.ENGLISH);
+      if (!property.equals(URL) && !property.equals(USER) && !property.equals(PWD)) {
+        throw new InternalException("Invalid Provys database target property "
+            + "provysauth.targets." + key);
+      }
+      values.computeIfAbsent(key.substring(0, separator), name -> new HashMap<>(4))
+          .put(property, entry.getValue());
+    }
+    var result = new HashMap<String, ProvysDbTarget>(values.size() * 2);
+    for (var entry : values.entrySet()) {
+      var name = entry.getKey();
+      var target = entry.getValue();
+      if (!target.containsKey(URL) || !target.containsKey(USER) || !target.containsKey(PWD)) {
+        throw new InternalException("Provys database target " + name
+            + " must define url, user and pwd");
+      }
+      result.put(name, ProvysDbTarget.of(name, target.get(URL), target.get(USER),
+          target.get(PWD)));
+    }
+    return result.values();
+  }
+
+  /**
+   * Target with given name.
+   *
+   * @param name is name of target, case-insensitive
+   * @return target with given name, null if no such target is configured
+   */
+  public @Nullable ProvysDbTarget getTarget(String name) {
+    return targets.get(name.toUpperCase(Locale.ENGLISH));
+  }
+
+  /**
+   * Target with given name; fails if target does not exist.
+   *
+   * @param name is name of target, case-insensitive
+   * @return target with given name
+   * @throws InternalException if no such target is configured
+   */
+  public ProvysDbTarget getRequiredTarget(String name) {
+    var result = getTarget(name);
+    if (result == null) {
+      throw new InternalException("Provys database target " + name + " is not configured");
+    }
+    return result;
+  }
+
+  /**
+   * Names of all configured targets.
+   *
+   * @return names of targets
+   */
+  public Collection<String> getNames() {
+    return targets.keySet();
+  }
+
+  /**
+   * Upper bound of credential cache of username / password providers created for each target.
+   * Unlike default provider, providers of targets are bounded by default, as their number grows
+   * with number of targets.
+   *
+   * @return maximal size of credential cache of target provider, 0 if cache is not bounded
+   */
+  public int getMaxCacheSize() {
+    return maxCacheSize;
+  }
+
+  /**
+   * User data factory reading user data from given target. Created on first use.
+   *
+   * @param target is target user data are read from
+   * @return user data factory of target
+   */
+  public UserDataFactory getUserDataFactory(ProvysDbTarget target) {
+    Objects.requireNonNull(getTarget(target.getName()));
+    return userDataFactories.computeIfAbsent(target.getName(),
+        name -> new UserDataFactoryImpl(target.getUrl(), target.getUser(), target.getPwd(),
+            maxConcurrency, maxQueue, maxQueueWaitMs,
+            new DbTokenIndex(dbTokenTimeoutSec, dbTokenMaxEntries)));
+  }
+
+  @Override
+  public String toString() {
+    return "ProvysDbTargets{"
+        + "targets=" + targets.values()
+        + ", maxCacheSize=" + maxCacheSize
+        + ", initialized=" + userDataFactories.keySet()
+        + '}';
+  }
+}
@@ -5,9 +5,7 @@ import com.provys.common.exception.InternalException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Component;
 
-@Component
 public final class ProvysUserContext implements UserContext {
 
   @Override
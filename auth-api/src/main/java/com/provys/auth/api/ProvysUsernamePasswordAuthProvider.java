@@ -1,43 +1,478 @@
 package com.provys.auth.api;
 
+import com.provys.common.exception.InternalException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 
 /**
- * Common ancestor for username / password authentication providers. Implements credential caching.
+ * Common ancestor for username / password authentication providers. Implements credential caching
+ * and limits number of concurrent authentications that reach database. If audit pipeline is set,
+ * outcome and duration of each attempt is published to it.
+ *
+ * <p>Cache timeout and size bound can be changed at runtime (see
+ * {@link #updateCacheSettings(long, int)}); both are replaced at once and new timeout applies to
+ * entries already in cache as well. Cache statistics and eviction are exposed for administration
+ * (e.g. via {@link AuthProviderJmxExporter}).
+ *
+ * <p>Large sets of credentials (e.g. service accounts verified by gateway or batch import) can be
+ * verified at once using {@link #authenticateAll(Collection)}. Entries found in cache are answered
+ * immediately, remaining entries are split into chunks of {@link #getBulkChunkSize()} entries and
+ * chunks are verified in parallel, each holding single permit of concurrency limiter.
+ *
+ * <p>If {@link AuthPriorityClassifier} is set, users are assigned to priority classes (e.g.
+ * service accounts of integrations) before database verification. Verification of user in class
+ * is guarded by this provider's limiter of class instead of limiter of provider and cached
+ * authentication of such user expires after cache timeout of class; interactive users (not
+ * belonging to any class) thus keep their database capacity when integrations authenticate in
+ * bursts.
  */
 public abstract class ProvysUsernamePasswordAuthProvider implements AuthenticationProvider {
 
-  private final long cacheTimeoutMs;
-  private final Map<String, CacheValue> cache = new ConcurrentHashMap<>(10);
+  private static final Logger LOG = LogManager.getLogger(ProvysUsernamePasswordAuthProvider.class);
+
+  /** Upper bounds (in seconds) of buckets reported by {@link #getCacheExpiryDistribution()}. */
+  private static final long[] EXPIRY_BUCKETS_SEC = {60L, 300L, 900L, 3600L};
+  /** Minimal interval between scans of full cache for expired entries, in milliseconds. */
+  static final long EXPIRED_SCAN_INTERVAL_MS = 5000L;
+
+  private volatile CacheSettings cacheSettings;
+  private final Map<CacheKey, CacheValue> cache = new ConcurrentHashMap<>(10);
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final AtomicLong nextExpiredScan = new AtomicLong();
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final LoginRateLimiter loginRateLimiter;
+  private volatile @Nullable AuthAuditPipeline auditPipeline;
+  private volatile @Nullable AuthPriorityClassifier priorityClassifier;
+  private final Map<AuthPriorityClass, AdaptiveConcurrencyLimiter> classLimiters =
+      new ConcurrentHashMap<>(4);
+  private final LogSampler rejectionLogSampler = new LogSampler(10, 1000L);
+  private final LogSampler databaseFailureLogSampler = new LogSampler(10, 1000L);
 
   /**
-   * Create new username password authentication provider with specified cache timeout.
+   * Create new username password authentication provider with specified cache timeout, default
+   * concurrency limiter and private login rate limiter.
    *
    * @param cacheTimeoutSec cache timeout in seconds
    */
   public ProvysUsernamePasswordAuthProvider(long cacheTimeoutSec) {
-    this.cacheTimeoutMs = 1000L * cacheTimeoutSec;
+    this(cacheTimeoutSec, new AdaptiveConcurrencyLimiter());
+  }
+
+  /**
+   * Create new username password authentication provider with specified cache timeout and
+   * concurrency limiter, guarding actual (database) authentication.
+   *
+   * @param cacheTimeoutSec cache timeout in seconds
+   * @param concurrencyLimiter is limiter applied to authentications not served from cache
+   */
+  public ProvysUsernamePasswordAuthProvider(long cacheTimeoutSec,
+      AdaptiveConcurrencyLimiter concurrencyLimiter) {
+    this(cacheTimeoutSec, concurrencyLimiter, new LoginRateLimiter());
+  }
+
+  /**
+   * Create new username password authentication provider with specified cache timeout, concurrency
+   * limiter and login rate limiter (usually shared by all providers).
+   *
+   * @param cacheTimeoutSec cache timeout in seconds
+   * @param concurrencyLimiter is limiter applied to authentications not served from cache
+   * @param loginRateLimiter is used to reject attempts for users and clients with too many
+   *                         failures before actual authentication is performed
+   */
+  public ProvysUsernamePasswordAuthProvider(long cacheTimeoutSec,
+      AdaptiveConcurrencyLimiter concurrencyLimiter, LoginRateLimiter loginRateLimiter) {
+    this.cacheSettings = new CacheSettings(1000L * cacheTimeoutSec, 0);
+    this.concurrencyLimiter = Objects.requireNonNull(concurrencyLimiter);
+    this.loginRateLimiter = Objects.requireNonNull(loginRateLimiter);
+  }
+
+  /**
+   * Limiter applied to authentications that are not served from cache.
+   *
+   * @return concurrency limiter used by this provider
+   */
+  public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * Number of entries in credential cache, including expired entries not yet evicted.
+   *
+   * @return current size of credential cache
+   */
+  public int getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * Time successful authentication is cached for.
+   *
+   * @return cache timeout in seconds
+   */
+  public long getCacheTimeoutSec() {
+    return cacheSettings.timeoutMs / 1000L;
+  }
+
+  /**
+   * Upper bound of number of cached users.
+   *
+   * @return maximal size of credential cache, 0 if cache is not bounded
+   */
+  public int getMaxCacheSize() {
+    return cacheSettings.maxSize;
+  }
+
+  /**
+   * Replace cache settings. Both values are replaced at once; new timeout applies to entries
+   * already present in cache. If cache exceeds new size bound, it is trimmed immediately.
+   *
+   * @param cacheTimeoutSec is new cache timeout in seconds
+   * @param maxCacheSize is new upper bound of number of cached users, 0 means no bound
+   */
+  public void updateCacheSettings(long cacheTimeoutSec, int maxCacheSize) {
+    if ((cacheTimeoutSec < 0) || (maxCacheSize < 0)) {
+      throw new IllegalArgumentException("Cache timeout and size cannot be negative");
+    }
+    var newSettings = new CacheSettings(1000L * cacheTimeoutSec, maxCacheSize);
+    cacheSettings = newSettings;
+    LOG.info("Cache settings of {} changed to {}", getAuditName(), newSettings);
+    trimCache(newSettings);
+  }
+
+  /**
+   * Number of authentications served from cache since provider has been created.
+   *
+   * @return number of cache hits
+   */
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  /**
+   * Number of authentications not served from cache since provider has been created.
+   *
+   * @return number of cache misses
+   */
+  public long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  /**
+   * Distribution of cache entries by remaining time to expiry. Keys are labels of buckets
+   * ({@code expired}, {@code <60s}, {@code <300s}, ..., {@code >=3600s}) in ascending order.
+   *
+   * @return number of cache entries in each bucket
+   */
+  public Map<String, Integer> getCacheExpiryDistribution() {
+    var counts = new int[EXPIRY_BUCKETS_SEC.length + 2];
+    var settings = cacheSettings;
+    var now = CoarseClock.currentTimeMillis();
+    for (var value : cache.values()) {
+      var remainingMs = value.created + value.getTimeoutMs(settings) - now;
+      if (remainingMs <= 0) {
+        counts[0]++;
+        continue;
+      }
+      var bucket = 1;
+      while ((bucket <= EXPIRY_BUCKETS_SEC.length)
+          && (remainingMs >= 1000L * EXPIRY_BUCKETS_SEC[bucket - 1])) {
+        bucket++;
+      }
+      counts[bucket]++;
+    }
+    var result = new LinkedHashMap<String, Integer>(counts.length * 2);
+    result.put("expired", counts[0]);
+    for (int i = 0; i < EXPIRY_BUCKETS_SEC.length; i++) {
+      result.put("<" + EXPIRY_BUCKETS_SEC[i] + 's', counts[i + 1]);
+    }
+    result.put(">=" + EXPIRY_BUCKETS_SEC[EXPIRY_BUCKETS_SEC.length - 1] + 's',
+        counts[counts.length - 1]);
+    return result;
+  }
+
+  /**
+   * Remove cached authentication of given user; next authentication of user will reach database.
+   *
+   * @param userName is name of user, case-insensitive
+   * @return true if entry has been removed, false if user was not cached
+   */
+  public boolean evictUser(String userName) {
+    return cache.remove(new CacheKey(userName)) != null;
+  }
+
+  /**
+   * Remove all expired entries from cache.
+   *
+   * @return number of removed entries
+   */
+  public int evictExpired() {
+    var settings = cacheSettings;
+    var now = CoarseClock.currentTimeMillis();
+    var removed = 0;
+    for (var iterator = cache.values().iterator(); iterator.hasNext(); ) {
+      if (!iterator.next().isValid(settings, now)) {
+        iterator.remove();
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Remove all entries from cache.
+   */
+  public void evictAll() {
+    cache.clear();
+  }
+
+  /**
+   * Keep cache within size bound - expired entries are removed first; if it does not help,
+   * arbitrary entries are dropped. Crude, but cheap and only happens when bound is reached. Scan
+   * for expired entries walks whole cache, thus it is only repeated after
+   * {@value #EXPIRED_SCAN_INTERVAL_MS} ms, unless previous scan has freed some entries.
+   */
+  private void trimCache(CacheSettings settings) {
+    if ((settings.maxSize == 0) || (cache.size() < settings.maxSize)) {
+      return;
+    }
+    var now = CoarseClock.currentTimeMillis();
+    var scanAt = nextExpiredScan.get();
+    if ((now >= scanAt)
+        && nextExpiredScan.compareAndSet(scanAt, now + EXPIRED_SCAN_INTERVAL_MS)
+        && (evictExpired() > 0)) {
+      nextExpiredScan.set(now);
+    }
+    var iterator = cache.keySet().iterator();
+    while ((cache.size() >= settings.maxSize) && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Set pipeline authentication attempts are published to.
+   *
+   * @param auditPipeline is audit pipeline; null means attempts are not audited
+   */
+  public void setAuditPipeline(@Nullable AuthAuditPipeline auditPipeline) {
+    this.auditPipeline = auditPipeline;
+  }
+
+  /**
+   * Set classifier assigning users to priority classes.
+   *
+   * @param priorityClassifier is priority classifier; null means all users are verified within
+   *                           limits of provider
+   */
+  public void setPriorityClassifier(@Nullable AuthPriorityClassifier priorityClassifier) {
+    this.priorityClassifier = priorityClassifier;
+  }
+
+  /**
+   * Value of field priorityClassifier.
+   *
+   * @return value of field priorityClassifier
+   */
+  public @Nullable AuthPriorityClassifier getPriorityClassifier() {
+    return priorityClassifier;
+  }
+
+  private @Nullable AuthPriorityClass classify(String userName) {
+    var classifier = priorityClassifier;
+    return (classifier == null) ? null : classifier.classify(userName);
+  }
+
+  /**
+   * Limiter guarding database calls of users in given priority class. Class limiter is created on
+   * first use and is private to this provider.
+   *
+   * @param priorityClass is priority class of user, null if user does not belong to any class
+   * @return concurrency limiter of class, limiter of provider if class is null
+   */
+  AdaptiveConcurrencyLimiter getConcurrencyLimiter(@Nullable AuthPriorityClass priorityClass) {
+    return (priorityClass == null) ? concurrencyLimiter
+        : classLimiters.computeIfAbsent(priorityClass, AuthPriorityClass::newConcurrencyLimiter);
+  }
+
+  /**
+   * Remember Id of verified user in classifier.
+   */
+  private void recordVerified(String userName, Authentication authToken) {
+    var classifier = priorityClassifier;
+    if ((classifier != null) && (authToken.getPrincipal() instanceof UserData)) {
+      classifier.recordUser(userName, ((UserData) authToken.getPrincipal()).getUserId());
+    }
+  }
+
+  /**
+   * Name of provider, used in audit events.
+   *
+   * @return name this provider is recorded under in audit trail
+   */
+  protected String getAuditName() {
+    return getClass().getSimpleName();
+  }
+
+  /**
+   * Key of credential cache. User names are compared ignoring case, so that {@code User} and
+   * {@code user} share single entry. Keys stored in cache are never modified; each thread has its
+   * own probe key that is reused for look-ups, thus look-up does not allocate.
+   */
+  private static final class CacheKey {
+
+    private static final ThreadLocal<CacheKey> PROBE = ThreadLocal.withInitial(CacheKey::new);
+
+    private @Nullable String userName;
+    private int hash;
+
+    private CacheKey() {
+    }
+
+    CacheKey(String userName) {
+      set(userName);
+    }
+
+    static CacheKey probe(String userName) {
+      var probe = PROBE.get();
+      probe.set(userName);
+      return probe;
+    }
+
+    private void set(@Nullable String newUserName) {
+      this.userName = newUserName;
+      this.hash = (newUserName == null) ? 0 : CaseInsensitive.hash(newUserName);
+    }
+
+    void clear() {
+      set(null);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      var other = (CacheKey) o;
+      return (hash == other.hash) && (userName != null) && (other.userName != null)
+          && CaseInsensitive.equals(userName, other.userName);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheKey{"
+          + "userName='" + userName + '\''
+          + '}';
+    }
+  }
+
+  /**
+   * Requests of bulk authentication verified by single {@link #doAuthenticateBulk(List)} call.
+   */
+  private static final class BulkChunk {
+
+    private final @Nullable AuthPriorityClass priorityClass;
+    private final List<Integer> indices;
+
+    BulkChunk(@Nullable AuthPriorityClass priorityClass, List<Integer> indices) {
+      this.priorityClass = priorityClass;
+      this.indices = indices;
+    }
+
+    @Override
+    public String toString() {
+      return "BulkChunk{"
+          + "priorityClass=" + ((priorityClass == null) ? null : priorityClass.getName())
+          + ", size=" + indices.size()
+          + '}';
+    }
+  }
+
+  /**
+   * Executor used by bulk authentication when none is supplied. Created on first use; idle threads
+   * are released after one minute.
+   */
+  private static final class BulkExecutorHolder {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+      var thread = new Thread(runnable, "provysauth-bulk");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static final class CacheSettings {
+
+    private final long timeoutMs;
+    private final int maxSize;
+
+    CacheSettings(long timeoutMs, int maxSize) {
+      this.timeoutMs = timeoutMs;
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheSettings{"
+          + "timeoutMs=" + timeoutMs
+          + ", maxSize=" + maxSize
+          + '}';
+    }
   }
 
   private static final class CacheValue {
 
-    private final long validUntil;
+    private final long created;
     private final String password;
     private final Authentication authToken;
+    private final @Nullable AuthPriorityClass priorityClass;
 
-    CacheValue(long validUntil, String password, Authentication authToken) {
-      this.validUntil = validUntil;
+    CacheValue(long created, String password, Authentication authToken,
+        @Nullable AuthPriorityClass priorityClass) {
+      this.created = created;
       this.password = password;
       this.authToken = authToken;
+      this.priorityClass = priorityClass;
+    }
+
+    long getTimeoutMs(CacheSettings settings) {
+      return (priorityClass == null) ? settings.timeoutMs
+          : priorityClass.getCacheTimeoutMs(settings.timeoutMs);
     }
 
-    boolean isValid() {
-      return validUntil > System.currentTimeMillis();
+    boolean isValid(CacheSettings settings, long now) {
+      return created + getTimeoutMs(settings) > now;
     }
 
     boolean passwordMatch(String checkPassword) {
@@ -47,36 +482,52 @@ public abstract class ProvysUsernamePasswordAuthProvider implements Authenticati
     @Override
     public String toString() {
       return "CacheValue{"
-          + "validUntil=" + validUntil
+          + "created=" + created
           // password is intentionally omitted
-          + "authToken='" + authToken + '\''
+          + ", authToken='" + authToken + '\''
+          + ", priorityClass=" + ((priorityClass == null) ? null : priorityClass.getName())
           + '}';
     }
   }
 
   /**
-   * Look-up cached value for given username / password combo.
+   * Look-up cached value for given username / password combo. User name is compared ignoring case,
+   * password must match exactly. Look-up does not allocate.
    *
    * @param userName is user name being authenticated
    * @param password is associated password being verified
-   * @return authentication token if successful, empty optional if not validated against cache
+   * @return authentication token if successful, null if not validated against cache
    */
-  protected Optional<Authentication> cacheLookup(String userName, String password) {
-    var value = cache.get(userName);
-    if (value == null) {
-      // no entry in cache
-      return Optional.empty();
-    }
-    if (!value.isValid()) {
-      // cache entry expired - we will clear the entry and return not found
-      cache.remove(userName);
-      return Optional.empty();
+  protected @Nullable Authentication cacheLookup(String userName, String password) {
+    var probe = CacheKey.probe(userName);
+    try {
+      var value = cache.get(probe);
+      if (value == null) {
+        // no entry in cache
+        cacheMisses.increment();
+        return null;
+      }
+      if (!value.isValid(cacheSettings, CoarseClock.currentTimeMillis())) {
+        // cache entry expired - we will clear the entry and return not found
+        cache.remove(probe, value);
+        cacheMisses.increment();
+        return null;
+      }
+      if (!value.passwordMatch(password)) {
+        // no password match - we will try regular authentication (password might have been
+        // changed)
+        cacheMisses.increment();
+        return null;
+      }
+      cacheHits.increment();
+      if (value.priorityClass != null) {
+        value.priorityClass.recordCacheHit();
+      }
+      return value.authToken;
+    } finally {
+      // do not keep reference to user name in thread local
+      probe.clear();
     }
-    if (!value.passwordMatch(password)) {
-      // no password match - we will try regular authentication (password might have been changed)
-      return Optional.empty();
-    }
-    return Optional.of(value.authToken);
   }
 
   /**
@@ -87,8 +538,20 @@ public abstract class ProvysUsernamePasswordAuthProvider implements Authenticati
    * @param authToken authentication token created during successful authentication
    */
   protected void cache(String userName, String password, Authentication authToken) {
-    cache.put(userName,
-        new CacheValue(System.currentTimeMillis() + cacheTimeoutMs, password, authToken));
+    cache(userName, password, authToken, classify(userName));
+  }
+
+  private void cache(String userName, String password, Authentication authToken,
+      @Nullable AuthPriorityClass priorityClass) {
+    var settings = cacheSettings;
+    var timeoutMs = (priorityClass == null) ? settings.timeoutMs
+        : priorityClass.getCacheTimeoutMs(settings.timeoutMs);
+    if (timeoutMs == 0) {
+      return;
+    }
+    trimCache(settings);
+    cache.put(new CacheKey(userName),
+        new CacheValue(CoarseClock.currentTimeMillis(), password, authToken, priorityClass));
   }
 
   /**
@@ -101,25 +564,381 @@ public abstract class ProvysUsernamePasswordAuthProvider implements Authenticati
   protected abstract Authentication doAuthenticate(String userName, String password);
 
   /**
-   * Do actual authentication and cache result.
+   * Indicates if exception reported by Oracle logon means that supplied credentials have been
+   * rejected (invalid or null password, locked account or expired password), as opposed to
+   * database or network failure.
+   *
+   * @param exception is exception reported by database on logon
+   * @return true if exception is rejection of credentials
+   */
+  protected static boolean isLogonRejection(SQLException exception) {
+    switch (exception.getErrorCode()) {
+      case 1005: // null password given; logon denied
+      case 1017: // invalid username/password; logon denied
+      case 28000: // account is locked
+      case 28001: // password has expired
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Exception to be thrown when credentials cannot be verified because of database failure.
+   * Failure is logged (at warn level, sampled to at most 10 messages per second); message of
+   * returned exception does not contain message reported by database, original exception is
+   * attached as cause. Unlike credential rejection, such failure makes concurrency limiter back off
+   * and it is not registered as failed attempt in login rate limiter.
+   *
+   * @param userName is username used for login
+   * @param exception is exception reported by database
+   * @return exception to be thrown
+   */
+  protected InternalAuthenticationServiceException databaseFailure(String userName,
+      SQLException exception) {
+    var connectivity = BalancedDataSource.isConnectivityFailure(exception);
+    var suppressed = databaseFailureLogSampler.tryAcquire();
+    if (suppressed >= 0) {
+      LOG.warn("Login via {} failed on database error (user {}, error {}, {} similar messages "
+              + "suppressed): {}", getAuditName(), userName, exception.getErrorCode(),
+          suppressed, exception.getMessage());
+    }
+    return new InternalAuthenticationServiceException(connectivity
+        ? "Authentication database is not available"
+        : "Authentication failed because of database error " + exception.getErrorCode(),
+        exception);
+  }
+
+  /**
+   * Exception to be thrown when database rejects supplied credentials. Rejection is logged (at
+   * debug level, sampled to at most 10 messages per second) and stackless exception is returned,
+   * thus rejections stay cheap even under brute-force traffic. Returned exception should be thrown
+   * after resources used for login have been closed, so that it does not pick up exceptions
+   * suppressed by try-with-resources.
+   *
+   * @param userName is username used for login
+   * @param exception is exception reported by database
+   * @return exception to be thrown
+   */
+  protected AuthRejectedException rejectLogin(String userName, SQLException exception) {
+    if (LOG.isDebugEnabled()) {
+      var suppressed = rejectionLogSampler.tryAcquire();
+      if (suppressed >= 0) {
+        LOG.debug("Login via {} rejected (user {}, error {}, {} similar messages suppressed): {}",
+            getAuditName(), userName, exception.getErrorCode(), suppressed,
+            exception.getMessage());
+      }
+    }
+    return AuthRejectedException.forErrorCode(exception.getErrorCode());
+  }
+
+  /**
+   * Do actual authentication (within concurrency limit of user's priority class) and cache
+   * result.
    *
    * @param userName is username used for login
    * @param password is password used for login
    * @return authentication token if successful
+   * @throws AuthOverloadedException if database is saturated and request has been shed
    */
   protected Authentication doAuthenticateAndCache(String userName, String password) {
-    var result = doAuthenticate(userName, password);
-    cache(userName, password, result);
+    var priorityClass = classify(userName);
+    if (priorityClass != null) {
+      priorityClass.recordCacheMiss();
+    }
+    var result = getConcurrencyLimiter(priorityClass)
+        .call(() -> doAuthenticate(userName, password));
+    recordVerified(userName, result);
+    cache(userName, password, result, priorityClass);
     return result;
   }
 
+  private static @Nullable String getClientAddress(Authentication authentication) {
+    var details = authentication.getDetails();
+    if (details instanceof WebAuthenticationDetails) {
+      return ((WebAuthenticationDetails) details).getRemoteAddress();
+    }
+    return null;
+  }
+
+  /**
+   * Authenticate credentials not found in cache. Attempt is first checked against login rate
+   * limiter; attempts whose credentials have been rejected by database
+   * ({@link AuthRejectedException}) are registered in it. Failures of database are not registered,
+   * otherwise short outage would throttle all users and clients.
+   *
+   * @param authentication is authentication request being verified
+   * @param userName is username used for login
+   * @param password is password used for login
+   * @param recordRejection defines if rejection is registered in login rate limiter
+   * @return authentication token if successful
+   */
+  private Authentication authenticateNotCached(Authentication authentication, String userName,
+      String password, boolean recordRejection) {
+    var clientAddress = getClientAddress(authentication);
+    loginRateLimiter.checkAllowed(userName, clientAddress);
+    try {
+      return doAuthenticateAndCache(userName, password);
+    } catch (AuthRejectedException e) {
+      if (recordRejection) {
+        loginRateLimiter.recordFailure(userName, clientAddress);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Register rejected attempt in login rate limiter. Used by {@link CompositeAuthProvider} after
+   * request, verified without registering rejection, has been rejected by all its providers.
+   *
+   * @param authentication is rejected authentication request
+   */
+  void recordRejection(Authentication authentication) {
+    loginRateLimiter.recordFailure(authentication.getName(), getClientAddress(authentication));
+  }
+
   @Override
   public Authentication authenticate(Authentication authentication) {
+    return authenticate(authentication, true);
+  }
+
+  /**
+   * Authenticate request, optionally without registering rejection in login rate limiter. When
+   * {@link CompositeAuthProvider} verifies request via several providers in parallel, rejection by
+   * provider that does not know the user is expected and is not failed attempt of the user.
+   *
+   * @param authentication is authentication request being verified
+   * @param recordRejection defines if rejection is registered in login rate limiter
+   * @return authentication token if successful
+   */
+  Authentication authenticate(Authentication authentication, boolean recordRejection) {
     var token = (UsernamePasswordAuthenticationToken) authentication;
     var userName = token.getName();
     var password = (String) token.getCredentials();
-    return cacheLookup(userName, password)
-        .orElseGet(() -> doAuthenticateAndCache(userName, password));
+    var pipeline = auditPipeline;
+    if (pipeline == null) {
+      var cached = cacheLookup(userName, password);
+      return (cached != null) ? cached
+          : authenticateNotCached(authentication, userName, password, recordRejection);
+    }
+    var start = System.nanoTime();
+    var cached = cacheLookup(userName, password);
+    if (cached != null) {
+      pipeline.publish(getAuditName(), userName, AuthAuditOutcome.CACHE_HIT,
+          System.nanoTime() - start, 0);
+      return cached;
+    }
+    Authentication result;
+    try {
+      result = authenticateNotCached(authentication, userName, password, recordRejection);
+    } catch (RuntimeException e) {
+      pipeline.publishFailure(getAuditName(), userName, System.nanoTime() - start, e);
+      throw e;
+    }
+    pipeline.publish(getAuditName(), userName, AuthAuditOutcome.SUCCESS,
+        System.nanoTime() - start, 0);
+    return result;
+  }
+
+  /**
+   * Verify collection of username / password authentication requests using default executor
+   * (shared pool of daemon threads).
+   *
+   * @param requests are authentication requests to be verified
+   * @return result for each request, in iteration order of supplied collection
+   * @see #authenticateAll(Collection, Executor)
+   */
+  public List<BulkAuthResult> authenticateAll(
+      Collection<? extends UsernamePasswordAuthenticationToken> requests) {
+    return authenticateAll(requests, BulkExecutorHolder.EXECUTOR);
+  }
+
+  /**
+   * Verify collection of username / password authentication requests. Requests found in cache are
+   * answered immediately on calling thread. Remaining requests are grouped by priority class,
+   * split into chunks and verified in parallel - calling thread and tasks submitted to executor
+   * (at most half of current concurrency limit of each class in total) take chunks one by one, so
+   * that part of database capacity is left to interactive logins. Rejection of single request
+   * does not affect other requests; failure is reported in its result, the same way as it would be
+   * thrown by {@link #authenticate(Authentication)}.
+   *
+   * @param requests are authentication requests to be verified
+   * @param executor is executor used to verify chunks in parallel
+   * @return result for each request, in iteration order of supplied collection
+   */
+  public List<BulkAuthResult> authenticateAll(
+      Collection<? extends UsernamePasswordAuthenticationToken> requests, Executor executor) {
+    var entries = List.<UsernamePasswordAuthenticationToken>copyOf(requests);
+    var results = new BulkAuthResult[entries.size()];
+    var pending = new LinkedHashMap<@Nullable AuthPriorityClass, List<Integer>>(4);
+    var pipeline = auditPipeline;
+    for (int i = 0; i < entries.size(); i++) {
+      var request = entries.get(i);
+      var start = System.nanoTime();
+      var userName = request.getName();
+      var password = (String) request.getCredentials();
+      if (password == null) {
+        results[i] = BulkAuthResult.failure(request,
+            new BadCredentialsException("Password not supplied"));
+        continue;
+      }
+      var cached = cacheLookup(userName, password);
+      if (cached != null) {
+        results[i] = BulkAuthResult.cached(request, cached);
+        if (pipeline != null) {
+          pipeline.publish(getAuditName(), userName, AuthAuditOutcome.CACHE_HIT,
+              System.nanoTime() - start, 0);
+        }
+        continue;
+      }
+      try {
+        loginRateLimiter.checkAllowed(userName, getClientAddress(request));
+      } catch (AuthenticationException e) {
+        results[i] = BulkAuthResult.failure(request, e);
+        if (pipeline != null) {
+          pipeline.publishFailure(getAuditName(), userName, System.nanoTime() - start, e);
+        }
+        continue;
+      }
+      var priorityClass = classify(userName);
+      if (priorityClass != null) {
+        priorityClass.recordCacheMiss();
+      }
+      pending.computeIfAbsent(priorityClass, key -> new ArrayList<>()).add(i);
+    }
+    if (!pending.isEmpty()) {
+      verifyPending(entries, pending, results, executor);
+    }
+    return List.of(results);
+  }
+
+  /**
+   * Verify requests not found in cache. Requests are grouped by priority class, so that each chunk
+   * is verified within limits of single class.
+   */
+  private void verifyPending(List<UsernamePasswordAuthenticationToken> entries,
+      Map<@Nullable AuthPriorityClass, List<Integer>> pending, BulkAuthResult[] results,
+      Executor executor) {
+    var chunkSize = getBulkChunkSize();
+    var chunks = new ArrayList<BulkChunk>(4);
+    var maxWorkers = 0;
+    for (var entry : pending.entrySet()) {
+      var indices = entry.getValue();
+      for (int from = 0; from < indices.size(); from += chunkSize) {
+        chunks.add(new BulkChunk(entry.getKey(),
+            indices.subList(from, Math.min(indices.size(), from + chunkSize))));
+      }
+      maxWorkers += Math.max(1, getConcurrencyLimiter(entry.getKey()).getLimit() / 2);
+    }
+    var workers = Math.min(chunks.size(), maxWorkers);
+    var nextChunk = new AtomicInteger();
+    Runnable worker = () -> {
+      int chunk;
+      while ((chunk = nextChunk.getAndIncrement()) < chunks.size()) {
+        verifyChunk(entries, chunks.get(chunk), results);
+      }
+    };
+    var futures = new CompletableFuture<?>[workers - 1];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = CompletableFuture.runAsync(worker, executor);
+    }
+    worker.run();
+    CompletableFuture.allOf(futures).join();
+  }
+
+  private void verifyChunk(List<UsernamePasswordAuthenticationToken> entries, BulkChunk bulkChunk,
+      BulkAuthResult[] results) {
+    var chunk = new ArrayList<UsernamePasswordAuthenticationToken>(bulkChunk.indices.size());
+    for (var index : bulkChunk.indices) {
+      chunk.add(entries.get(index));
+    }
+    var start = System.nanoTime();
+    List<BulkAuthResult> chunkResults;
+    try {
+      chunkResults = getConcurrencyLimiter(bulkChunk.priorityClass)
+          .call(() -> doAuthenticateBulk(chunk), chunk.size());
+      if (chunkResults.size() != chunk.size()) {
+        throw new InternalException("Bulk authentication returned " + chunkResults.size()
+            + " results for " + chunk.size() + " requests");
+      }
+    } catch (AuthenticationException e) {
+      chunkResults = failAll(chunk, e);
+    } catch (RuntimeException e) {
+      chunkResults = failAll(chunk,
+          new InternalAuthenticationServiceException("Bulk authentication failed", e));
+    }
+    var durationNanos = (System.nanoTime() - start) / chunk.size();
+    var pipeline = auditPipeline;
+    for (int i = 0; i < chunk.size(); i++) {
+      var request = chunk.get(i);
+      var result = chunkResults.get(i);
+      results[bulkChunk.indices.get(i)] = result;
+      var authentication = result.getAuthentication();
+      if (authentication != null) {
+        recordVerified(request.getName(), authentication);
+        cache(request.getName(), (String) request.getCredentials(), authentication,
+            bulkChunk.priorityClass);
+        if (pipeline != null) {
+          pipeline.publish(getAuditName(), request.getName(), AuthAuditOutcome.SUCCESS,
+              durationNanos, 0);
+        }
+        continue;
+      }
+      var failure = Objects.requireNonNull(result.getFailure());
+      if (failure instanceof AuthRejectedException) {
+        loginRateLimiter.recordFailure(request.getName(), getClientAddress(request));
+      }
+      if (pipeline != null) {
+        pipeline.publishFailure(getAuditName(), request.getName(), durationNanos, failure);
+      }
+    }
+  }
+
+  private static List<BulkAuthResult> failAll(List<UsernamePasswordAuthenticationToken> chunk,
+      AuthenticationException failure) {
+    var result = new ArrayList<BulkAuthResult>(chunk.size());
+    for (var request : chunk) {
+      result.add(BulkAuthResult.failure(request, failure));
+    }
+    return result;
+  }
+
+  /**
+   * Maximal number of requests passed to single {@link #doAuthenticateBulk(List)} call. Default
+   * is 1 - each request is verified separately and requests are spread over as many database
+   * connections as concurrency limit allows. Providers that verify several requests over single
+   * connection should return higher value.
+   *
+   * @return number of requests verified in sequence while holding single concurrency permit
+   */
+  protected int getBulkChunkSize() {
+    return 1;
+  }
+
+  /**
+   * Does actual authentication of several requests; called within concurrency limit. Default
+   * implementation calls {@link #doAuthenticate(String, String)} for each request. Rejection of
+   * request should be reported in its result; exception thrown by this method fails all requests.
+   * Failure of database should be thrown as {@link InternalAuthenticationServiceException}, so that
+   * concurrency limiter backs off.
+   *
+   * @param requests are requests to be verified; credentials of all requests are present
+   * @return result for each request, in the same order as requests
+   */
+  protected List<BulkAuthResult> doAuthenticateBulk(
+      List<UsernamePasswordAuthenticationToken> requests) {
+    var result = new ArrayList<BulkAuthResult>(requests.size());
+    for (var request : requests) {
+      try {
+        result.add(BulkAuthResult.success(request,
+            doAuthenticate(request.getName(), (String) request.getCredentials())));
+      } catch (InternalAuthenticationServiceException e) {
+        throw e;
+      } catch (AuthenticationException e) {
+        result.add(BulkAuthResult.failure(request, e));
+      }
+    }
+    return result;
   }
 
   @Override
@@ -130,8 +949,11 @@ public abstract class ProvysUsernamePasswordAuthProvider implements Authenticati
   @Override
   public String toString() {
     return "ProvysUsernamePasswordAuthProvider{"
-        + "cacheTimeoutMs=" + cacheTimeoutMs
+        + "cacheSettings=" + cacheSettings
         + ", cache=" + cache
+        + ", concurrencyLimiter=" + concurrencyLimiter
+        + ", loginRateLimiter=" + loginRateLimiter
+        + ", priorityClassifier=" + priorityClassifier
         + '}';
   }
 }
@@ -0,0 +1,343 @@
+package com.provys.auth.api;
+
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * User context that binds {@link UserData} to a scope of execution instead of reading security
+ * context on each call. On JDK providing {@code java.lang.ScopedValue}, user is bound in scoped
+ * value (accessed via method handles, as library is compiled for Java 11); binding is then
+ * inherited cheaply and is safe with virtual threads. On older JDK, thread local is used instead.
+ *
+ * <p>When no user is bound, {@link #getCurrentUser()} falls back to Spring security context, thus
+ * this class can replace {@link ProvysUserContext} (set property
+ * {@code provysauth.userContext=scoped}). Tasks passed to other threads can be wrapped using
+ * {@link #wrap(Runnable)} / {@link #wrap(Callable)} or executor decorators
+ * {@link #propagating(Executor)} / {@link #propagating(ExecutorService)}; these only capture
+ * reference to user data instead of copying whole security context.
+ */
+public final class ScopedUserContext implements UserContext {
+
+  private static final Logger LOG = LogManager.getLogger(ScopedUserContext.class);
+
+  private static final ThreadLocal<@Nullable UserData> FALLBACK = new ThreadLocal<>();
+
+  /**
+   * Bind user for duration of task.
+   *
+   * @param userData is user being bound
+   * @param task is task to be executed
+   */
+  public static void run(UserData userData, Runnable task) {
+    Objects.requireNonNull(userData);
+    if (ScopedValueSupport.AVAILABLE) {
+      ScopedValueSupport.run(userData, task);
+      return;
+    }
+    var previous = FALLBACK.get();
+    FALLBACK.set(userData);
+    try {
+      task.run();
+    } finally {
+      if (previous == null) {
+        FALLBACK.remove();
+      } else {
+        FALLBACK.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Bind user for duration of task and return its result.
+   *
+   * @param userData is user being bound
+   * @param task is task to be executed
+   * @param <T> is type of task result
+   * @return result of task
+   */
+  public static <T> T call(UserData userData, Supplier<T> task) {
+    var result = new Object[1];
+    run(userData, () -> result[0] = task.get());
+    @SuppressWarnings("unchecked")
+    var typedResult = (T) result[0];
+    return typedResult;
+  }
+
+  /**
+   * User bound to current scope.
+   *
+   * @return user bound by {@link #run(UserData, Runnable)}, null if there is none
+   */
+  public static @Nullable UserData getBoundUser() {
+    if (ScopedValueSupport.AVAILABLE) {
+      return ScopedValueSupport.get();
+    }
+    return FALLBACK.get();
+  }
+
+  /**
+   * Indicates if users are bound using {@code ScopedValue}.
+   *
+   * @return true if scoped values are used, false if thread local fallback is used
+   */
+  public static boolean isScopedValueSupported() {
+    return ScopedValueSupport.AVAILABLE;
+  }
+
+  private static @Nullable UserData captureUser() {
+    var result = getBoundUser();
+    if (result != null) {
+      return result;
+    }
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if ((authentication != null) && (authentication.getPrincipal() instanceof UserData)) {
+      return (UserData) authentication.getPrincipal();
+    }
+    return null;
+  }
+
+  /**
+   * Wrap task so that it runs with user of current thread bound.
+   *
+   * @param task is task to be wrapped
+   * @return task binding current user; original task if there is no current user
+   */
+  public static Runnable wrap(Runnable task) {
+    var userData = captureUser();
+    if (userData == null) {
+      return task;
+    }
+    return () -> run(userData, task);
+  }
+
+  /**
+   * Wrap task so that it runs with user of current thread bound.
+   *
+   * @param task is task to be wrapped
+   * @param <T> is type of task result
+   * @return task binding current user; original task if there is no current user
+   */
+  public static <T> Callable<T> wrap(Callable<T> task) {
+    var userData = captureUser();
+    if (userData == null) {
+      return task;
+    }
+    return () -> {
+      var result = new Object[1];
+      var failure = new Exception[1];
+      run(userData, () -> {
+        try {
+          result[0] = task.call();
+        } catch (Exception e) {
+          failure[0] = e;
+        }
+      });
+      if (failure[0] != null) {
+        throw failure[0];
+      }
+      @SuppressWarnings("unchecked")
+      var typedResult = (T) result[0];
+      return typedResult;
+    };
+  }
+
+  /**
+   * Executor decorator that propagates user of submitting thread to executed tasks.
+   *
+   * @param delegate is executor tasks are executed by
+   * @return executor propagating current user
+   */
+  public static Executor propagating(Executor delegate) {
+    Objects.requireNonNull(delegate);
+    return task -> delegate.execute(wrap(task));
+  }
+
+  /**
+   * Executor service decorator that propagates user of submitting thread to executed tasks.
+   * Shutdown of returned service shuts down delegate.
+   *
+   * @param delegate is executor service tasks are executed by
+   * @return executor service propagating current user
+   */
+  public static ExecutorService propagating(ExecutorService delegate) {
+    return new PropagatingExecutorService(delegate);
+  }
+
+  @Override
+  public UserData getCurrentUser() {
+    var result = getBoundUser();
+    if (result != null) {
+      return result;
+    }
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null) {
+      throw new InternalException("Cannot retrieve current user - session not authenticated");
+    }
+    return (UserData) authentication.getPrincipal();
+  }
+
+  @Override
+  public DtUid getCurrentUserId() {
+    return getCurrentUser().getUserId();
+  }
+
+  @Override
+  public String toString() {
+    return "ScopedUserContext{"
+        + "scopedValueSupported=" + ScopedValueSupport.AVAILABLE
+        + '}';
+  }
+
+  /**
+   * Access to {@code java.lang.ScopedValue} via method handles. Handles are resolved and verified
+   * once; if anything fails (older JDK, preview feature not enabled), scoped values are not used.
+   */
+  private static final class ScopedValueSupport {
+
+    private static final boolean AVAILABLE;
+    private static final @Nullable Object SCOPED_VALUE;
+    private static final @Nullable MethodHandle WHERE;
+    private static final @Nullable MethodHandle RUN;
+    private static final @Nullable MethodHandle OR_ELSE;
+    /** Passed to orElse, as some versions of ScopedValue do not accept null. */
+    private static final Object NOT_BOUND = new Object();
+
+    static {
+      Object scopedValue = null;
+      MethodHandle where = null;
+      MethodHandle run = null;
+      MethodHandle orElse = null;
+      var available = false;
+      try {
+        var scopedValueClass = Class.forName("java.lang.ScopedValue");
+        var carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+        var lookup = MethodHandles.publicLookup();
+        scopedValue = lookup.findStatic(scopedValueClass, "newInstance",
+            MethodType.methodType(scopedValueClass)).invoke();
+        where = lookup.findStatic(scopedValueClass, "where",
+            MethodType.methodType(carrierClass, scopedValueClass, Object.class))
+            .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        run = lookup.findVirtual(carrierClass, "run",
+            MethodType.methodType(void.class, Runnable.class))
+            .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+        orElse = lookup.findVirtual(scopedValueClass, "orElse",
+            MethodType.methodType(Object.class, Object.class))
+            .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        // verify that scoped values actually work (preview feature might not be enabled)
+        var probe = new Object();
+        var check = new Object[1];
+        var finalOrElse = orElse;
+        var finalScopedValue = scopedValue;
+        var carrier = (Object) where.invokeExact((Object) scopedValue, probe);
+        run.invokeExact(carrier, (Runnable) () -> {
+          try {
+            check[0] = (Object) finalOrElse.invokeExact(finalScopedValue, NOT_BOUND);
+          } catch (Throwable e) {
+            check[0] = e;
+          }
+        });
+        available = (check[0] == probe);
+      } catch (Throwable e) {
+        LOG.debug("ScopedValue not available, thread local is used to bind user: {}",
+            e.toString());
+      }
+      AVAILABLE = available;
+      SCOPED_VALUE = available ? scopedValue : null;
+      WHERE = available ? where : null;
+      RUN = available ? run : null;
+      OR_ELSE = available ? orElse : null;
+    }
+
+    private static InternalException wrapFailure(Throwable e) {
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      return new InternalException("ScopedValue invocation failed", e);
+    }
+
+    static void run(UserData userData, Runnable task) {
+      try {
+        var carrier = (Object) Objects.requireNonNull(WHERE)
+            .invokeExact(Objects.requireNonNull(SCOPED_VALUE), (Object) userData);
+        Objects.requireNonNull(RUN).invokeExact(carrier, task);
+      } catch (Throwable e) {
+        throw wrapFailure(e);
+      }
+    }
+
+    static @Nullable UserData get() {
+      Object result;
+      try {
+        result = (Object) Objects.requireNonNull(OR_ELSE)
+            .invokeExact(Objects.requireNonNull(SCOPED_VALUE), NOT_BOUND);
+      } catch (Throwable e) {
+        throw wrapFailure(e);
+      }
+      return (result == NOT_BOUND) ? null : (UserData) result;
+    }
+  }
+
+  private static final class PropagatingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    PropagatingExecutorService(ExecutorService delegate) {
+      this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      delegate.execute(wrap(command));
+    }
+
+    @Override
+    public void shutdown() {
+      delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+      return "PropagatingExecutorService{"
+          + "delegate=" + delegate
+          + '}';
+    }
+  }
+}
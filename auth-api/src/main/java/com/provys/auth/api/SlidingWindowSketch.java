@@ -0,0 +1,126 @@
+package com.provys.auth.api;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch counting events in sliding time window. Window is approximated by two fixed
+ * windows - count from previous window is weighted by portion of it that still overlaps with
+ * sliding window. Memory footprint is fixed and independent on number of distinct keys; estimate
+ * can only overshoot real count (in case of hash collisions), never undershoot it.
+ */
+final class SlidingWindowSketch {
+
+  private static final int DEPTH = 4;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final int widthMask;
+  private final long windowNanos;
+  private volatile AtomicIntegerArray current;
+  private volatile AtomicIntegerArray previous;
+  private volatile long windowStart;
+
+  /**
+   * Create sketch with given width of single row and window length.
+   *
+   * @param width is number of counters in single row; rounded up to power of two
+   * @param windowNanos is length of sliding window in nanoseconds
+   * @param now is current time (in nanoseconds, as returned by {@link System#nanoTime()})
+   */
+  SlidingWindowSketch(int width, long windowNanos, long now) {
+    if (width < 1) {
+      throw new IllegalArgumentException("Sketch width must be positive");
+    }
+    if (windowNanos <= 0L) {
+      throw new IllegalArgumentException("Sketch window must be positive");
+    }
+    var roundedWidth = Integer.highestOneBit(width);
+    if (roundedWidth < width) {
+      roundedWidth <<= 1;
+    }
+    this.widthMask = roundedWidth - 1;
+    this.windowNanos = windowNanos;
+    this.current = new AtomicIntegerArray(DEPTH * roundedWidth);
+    this.previous = new AtomicIntegerArray(DEPTH * roundedWidth);
+    this.windowStart = now;
+  }
+
+  private int index(int row, int hash) {
+    var mixed = (hash ^ SEEDS[row]) * 0x9E3779B1;
+    mixed ^= mixed >>> 15;
+    return row * (widthMask + 1) + (mixed & widthMask);
+  }
+
+  private synchronized void rotate(long now) {
+    var elapsed = now - windowStart;
+    if (elapsed < windowNanos) {
+      // rotated by other thread in the meantime
+      return;
+    }
+    var recycled = previous;
+    for (int i = 0; i < recycled.length(); i++) {
+      recycled.set(i, 0);
+    }
+    if (elapsed < 2 * windowNanos) {
+      previous = current;
+    } else {
+      // both windows are outdated
+      var outdated = current;
+      for (int i = 0; i < outdated.length(); i++) {
+        outdated.set(i, 0);
+      }
+      previous = outdated;
+    }
+    current = recycled;
+    windowStart = now - (elapsed % windowNanos);
+  }
+
+  private void rotateIfNeeded(long now) {
+    if (now - windowStart >= windowNanos) {
+      rotate(now);
+    }
+  }
+
+  /**
+   * Register event for given key.
+   *
+   * @param hash is hash of event key
+   * @param now is current time (in nanoseconds, as returned by {@link System#nanoTime()})
+   */
+  void add(int hash, long now) {
+    rotateIfNeeded(now);
+    var counters = current;
+    for (int row = 0; row < DEPTH; row++) {
+      counters.incrementAndGet(index(row, hash));
+    }
+  }
+
+  /**
+   * Estimate number of events registered for given key in sliding window ending now.
+   *
+   * @param hash is hash of event key
+   * @param now is current time (in nanoseconds, as returned by {@link System#nanoTime()})
+   * @return estimated number of events
+   */
+  double estimate(int hash, long now) {
+    rotateIfNeeded(now);
+    var counters = current;
+    var previousCounters = previous;
+    var previousWeight = 1.0 - Math.min(1.0, (double) (now - windowStart) / windowNanos);
+    var result = Double.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      var index = index(row, hash);
+      result = Math.min(result,
+          counters.get(index) + previousWeight * previousCounters.get(index));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "SlidingWindowSketch{"
+        + "width=" + (widthMask + 1)
+        + ", depth=" + DEPTH
+        + ", windowNanos=" + windowNanos
+        + '}';
+  }
+}
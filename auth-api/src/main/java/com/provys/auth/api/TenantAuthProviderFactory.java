@@ -0,0 +1,69 @@
+package com.provys.auth.api;
+
+import com.google.errorprone.annotations.Immutable;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+/**
+ * Creates instances of authentication provider bound to given Provys database target. Provider
+ * modules define bean of this type; {@link AuthProviderLookup} uses it to resolve tenant-qualified
+ * provider names in the form {@code <name>@<target>}.
+ */
+@Immutable
+@SuppressWarnings("Immutable") // factory function is not immutable, but factory never changes it
+public final class TenantAuthProviderFactory {
+
+  /**
+   * Create factory of providers with given name.
+   *
+   * @param name is name of provider, as used in look-up; case-insensitive
+   * @param factory is function creating provider for given target and user data factory of that
+   *               target
+   * @return new provider factory
+   */
+  public static TenantAuthProviderFactory of(String name,
+      BiFunction<ProvysDbTarget, UserDataFactory, ? extends AuthenticationProvider> factory) {
+    return new TenantAuthProviderFactory(name, factory);
+  }
+
+  private final String name;
+  private final BiFunction<ProvysDbTarget, UserDataFactory, ? extends AuthenticationProvider>
+      factory;
+
+  private TenantAuthProviderFactory(String name,
+      BiFunction<ProvysDbTarget, UserDataFactory, ? extends AuthenticationProvider> factory) {
+    if (name.isEmpty() || (name.indexOf('+') >= 0) || (name.indexOf('@') >= 0)) {
+      throw new IllegalArgumentException("Invalid authentication provider name " + name);
+    }
+    this.name = name;
+    this.factory = Objects.requireNonNull(factory);
+  }
+
+  /**
+   * Value of field name.
+   *
+   * @return value of field name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Create new provider instance bound to given target.
+   *
+   * @param target is Provys database target provider authenticates against
+   * @param userDataFactory is user data factory reading user data from the same target
+   * @return new provider instance
+   */
+  public AuthenticationProvider create(ProvysDbTarget target, UserDataFactory userDataFactory) {
+    return Objects.requireNonNull(factory.apply(target, userDataFactory));
+  }
+
+  @Override
+  public String toString() {
+    return "TenantAuthProviderFactory{"
+        + "name='" + name + '\''
+        + '}';
+  }
+}
@@ -0,0 +1,53 @@
+package com.provys.auth.api;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Default tenant resolver - returns tenant bound to current thread. Application (typically servlet
+ * filter that determines tenant from host name or request header) sets tenant before
+ * authentication and clears it when request is processed.
+ */
+public final class TenantContext implements TenantResolver {
+
+  private static final ThreadLocal<@Nullable String> TENANT = new ThreadLocal<>();
+
+  /**
+   * Bind tenant to current thread.
+   *
+   * @param tenant is name of Provys database target; null clears binding
+   */
+  public static void setTenant(@Nullable String tenant) {
+    if (tenant == null) {
+      TENANT.remove();
+    } else {
+      TENANT.set(tenant);
+    }
+  }
+
+  /**
+   * Tenant bound to current thread.
+   *
+   * @return name of tenant bound to current thread, null if there is none
+   */
+  public static @Nullable String getTenant() {
+    return TENANT.get();
+  }
+
+  /**
+   * Remove tenant binding from current thread.
+   */
+  public static void clearTenant() {
+    TENANT.remove();
+  }
+
+  @Override
+  public @Nullable String resolveTenant(Authentication authentication) {
+    return TENANT.get();
+  }
+
+  @Override
+  public String toString() {
+    return "TenantContext{}";
+  }
+}
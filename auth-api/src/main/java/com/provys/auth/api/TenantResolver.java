@@ -0,0 +1,22 @@
+package com.provys.auth.api;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Resolves Provys database target (tenant) authentication request should be routed to. Used by
+ * routing providers, resolved from names in the form {@code <name>@*}. Default implementation is
+ * {@link TenantContext}; define bean of this type to resolve tenant differently (e.g. from
+ * authentication details or user name suffix).
+ */
+@FunctionalInterface
+public interface TenantResolver {
+
+  /**
+   * Resolve target for given authentication request.
+   *
+   * @param authentication is authentication request being processed
+   * @return name of target request should be routed to, null if it cannot be determined
+   */
+  @Nullable String resolveTenant(Authentication authentication);
+}
@@ -0,0 +1,70 @@
+package com.provys.auth.api;
+
+import java.util.Objects;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Authentication provider that routes each request to provider bound to Provys database target
+ * resolved by {@link TenantResolver}. Resolved by {@link AuthProviderLookup} for names in the form
+ * {@code <name>@*}.
+ */
+public final class TenantRoutingAuthProvider implements AuthenticationProvider {
+
+  private final String name;
+  private final String prefix;
+  private final AuthProviderLookup lookup;
+  private final ProvysDbTargets targets;
+  private final TenantResolver tenantResolver;
+
+  TenantRoutingAuthProvider(String name, AuthProviderLookup lookup, ProvysDbTargets targets,
+      TenantResolver tenantResolver) {
+    this.name = name;
+    this.prefix = name + '@';
+    this.lookup = Objects.requireNonNull(lookup);
+    this.targets = Objects.requireNonNull(targets);
+    this.tenantResolver = Objects.requireNonNull(tenantResolver);
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    var tenant = tenantResolver.resolveTenant(authentication);
+    if (tenant == null) {
+      throw new AuthenticationServiceException(
+          "Provys database target not resolved for provider " + name);
+    }
+    if (targets.getTarget(tenant) == null) {
+      throw new BadCredentialsException("Unknown Provys database target");
+    }
+    return lookup.getAuthProvider(prefix + tenant).authenticate(authentication);
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    // all targets use the same kind of provider, thus asking any of them is sufficient
+    var tenants = targets.getNames().iterator();
+    if (!tenants.hasNext()) {
+      return false;
+    }
+    return lookup.getAuthProvider(prefix + tenants.next()).supports(clazz);
+  }
+
+  /**
+   * Value of field name.
+   *
+   * @return value of field name
+   */
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return "TenantRoutingAuthProvider{"
+        + "name='" + name + '\''
+        + ", tenantResolver=" + tenantResolver
+        + '}';
+  }
+}
@@ -7,19 +7,15 @@ import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Types;
-import oracle.jdbc.pool.OracleDataSource;
+import javax.sql.DataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 
 /**
  * Factory that create UserData based on supplied Id. Uses database look-up to retrieve missing
  * information.
  */
-@Component
 public final class UserDataFactoryImpl implements UserDataFactory {
 
   private static final Logger LOG = LogManager.getLogger(UserDataFactory.class);
@@ -27,7 +23,9 @@ public final class UserDataFactoryImpl implements UserDataFactory {
   private final String provysDbUrl;
   private final String provysDbUser;
   private final String provysDbPwd;
-  private final OracleDataSource dataSource;
+  private final DataSource dataSource;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final DbTokenIndex dbTokenIndex;
 
   /**
    * Constructor creates user data factory that will read data about user from database. Does not
@@ -38,20 +36,38 @@ public final class UserDataFactoryImpl implements UserDataFactory {
    * @param provysDbUrl is jdbc thin url of provys database
    * @param provysDbUser is technical account, used to connect to database
    * @param provysDbPwd is password for technical account, used to connect to database
+   * @param maxConcurrency is upper bound of concurrent database look-ups
+   * @param maxQueue is maximal number of look-ups waiting for database
+   * @param maxQueueWaitMs is maximal time look-up waits for database, in milliseconds
+   * @param dbTokenIndex is index where database tokens, issued when reading user data from
+   *                     database, are registered
    */
-  @Autowired
-  public UserDataFactoryImpl(@Value("${provysdb.url}") String provysDbUrl,
-      @Value("${provysdb.user}") String provysDbUser,
-      @Value("${provysdb.pwd}") String provysDbPwd) {
+  public UserDataFactoryImpl(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      int maxConcurrency, int maxQueue, long maxQueueWaitMs, DbTokenIndex dbTokenIndex) {
+    this(provysDbUrl, provysDbUser, provysDbPwd,
+        new AdaptiveConcurrencyLimiter(maxConcurrency, maxQueue, maxQueueWaitMs), dbTokenIndex);
+  }
+
+  /**
+   * Create user data factory with default concurrency limits and private database token index.
+   *
+   * @param provysDbUrl is jdbc thin url of provys database
+   * @param provysDbUser is technical account, used to connect to database
+   * @param provysDbPwd is password for technical account, used to connect to database
+   */
+  public UserDataFactoryImpl(String provysDbUrl, String provysDbUser, String provysDbPwd) {
+    this(provysDbUrl, provysDbUser, provysDbPwd, new AdaptiveConcurrencyLimiter(),
+        new DbTokenIndex());
+  }
+
+  private UserDataFactoryImpl(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      AdaptiveConcurrencyLimiter concurrencyLimiter, DbTokenIndex dbTokenIndex) {
     this.provysDbUrl = "jdbc:oracle:thin:@" + provysDbUrl;
     this.provysDbUser = provysDbUser;
     this.provysDbPwd = provysDbPwd;
-    try {
-      dataSource = new OracleDataSource();
-      dataSource.setURL(this.provysDbUrl);
-    } catch (SQLException e) {
-      throw new InternalException("Failed to initialize Oracle datasource", e);
-    }
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.dbTokenIndex = dbTokenIndex;
+    this.dataSource = LazyDataSource.forOracleUrl(this.provysDbUrl);
   }
 
   @Override
@@ -60,6 +76,11 @@ public final class UserDataFactoryImpl implements UserDataFactory {
     return new ProvysUserData(userId, shortNameNm, fullName, dbToken);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Database token, created for user, is registered in database token index.
+   */
   @Override
   public UserData getUserData(Connection connection) {
     try (var statement = connection.prepareCall(
@@ -92,11 +113,13 @@ public final class UserDataFactoryImpl implements UserDataFactory {
       statement.registerOutParameter(3, Types.VARCHAR);
       statement.registerOutParameter(4, Types.VARCHAR);
       statement.execute();
-      return getUserData(
+      var result = getUserData(
           DtUid.valueOf(statement.getBigDecimal(1)),
           statement.getString(2),
           statement.getString(3),
           DtEncryptedString.valueOf(statement.getString(4)));
+      dbTokenIndex.register(result);
+      return result;
     } catch (SQLException e) {
       LOG.warn("Property retrieval from database failed (user {}, db {}): {}",
           provysDbUser, provysDbUrl, e);
@@ -105,8 +128,28 @@ public final class UserDataFactoryImpl implements UserDataFactory {
     }
   }
 
+  /**
+   * Limiter applied to database look-ups of user data by user Id.
+   *
+   * @return concurrency limiter used by this factory
+   */
+  public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Database look-up is performed within concurrency limit of this factory.
+   *
+   * @throws AuthOverloadedException if database is saturated and request has been shed
+   */
   @Override
   public UserData getUserData(DtUid userId) {
+    return concurrencyLimiter.call(() -> readUserData(userId));
+  }
+
+  private UserData readUserData(DtUid userId) {
     try (var connection = dataSource.getConnection(provysDbUser, provysDbPwd)) {
       try (var statement = connection.prepareCall(
           "DECLARE\n"
@@ -0,0 +1,16 @@
+package com.provys.auth.api;
+
+/**
+ * Implemented by authentication providers that need to finish initialization (e.g. read data from
+ * database) before they are able to serve requests. {@link AuthLoadMonitor} reports application as
+ * out of service until all such provider beans are ready.
+ */
+public interface WarmupAware {
+
+  /**
+   * Indicates if provider has finished its initialization.
+   *
+   * @return true if provider is able to serve requests
+   */
+  boolean isReady();
+}
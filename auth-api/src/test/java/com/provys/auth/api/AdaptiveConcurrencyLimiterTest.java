@@ -0,0 +1,104 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.common.exception.InternalException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static CompletableFuture<String> blockingCall(AdaptiveConcurrencyLimiter limiter,
+      CountDownLatch started, CountDownLatch release) {
+    return CompletableFuture.supplyAsync(() -> limiter.call(() -> {
+      started.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "done";
+    }));
+  }
+
+  @Test
+  void callTest() {
+    var limiter = new AdaptiveConcurrencyLimiter();
+    assertThat(limiter.call(() -> "result")).isEqualTo("result");
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(limiter.getRejectedCount()).isZero();
+  }
+
+  @Test
+  void shedWhenQueueFullTest() throws Exception {
+    var limiter = new AdaptiveConcurrencyLimiter(1, 0, 0);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var running = blockingCall(limiter, started, release);
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThatThrownBy(() -> limiter.call(() -> "rejected"))
+        .isInstanceOf(AuthOverloadedException.class);
+    assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("done");
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  void queueTest() throws Exception {
+    var limiter = new AdaptiveConcurrencyLimiter(1, 1, 10000);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var running = blockingCall(limiter, started, release);
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    var waiting = CompletableFuture.supplyAsync(() -> limiter.call(() -> "queued"));
+    for (int i = 0; (i < 100) && (limiter.getQueued() == 0); i++) {
+      Thread.sleep(10);
+    }
+    assertThat(limiter.getQueued()).isEqualTo(1);
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("done");
+    assertThat(waiting.get(10, TimeUnit.SECONDS)).isEqualTo("queued");
+    assertThat(limiter.getQueued()).isZero();
+    assertThat(limiter.getRejectedCount()).isZero();
+  }
+
+  @Test
+  void backOffOnFailureTest() {
+    var limiter = new AdaptiveConcurrencyLimiter(32, 0, 0);
+    var initialLimit = limiter.getLimit();
+    assertThatThrownBy(() -> limiter.call(() -> {
+      throw new BadCredentialsException("Invalid username or password");
+    })).isInstanceOf(BadCredentialsException.class);
+    // bad credentials is regular answer from database, limit is not affected
+    assertThat(limiter.getLimit()).isEqualTo(initialLimit);
+    assertThatThrownBy(() -> limiter.call(() -> {
+      throw new InternalException("Connection failed");
+    })).isInstanceOf(InternalException.class);
+    assertThat(limiter.getLimit()).isLessThan(initialLimit);
+  }
+
+  @Test
+  void setBoundsTest() throws Exception {
+    var limiter = new AdaptiveConcurrencyLimiter(1, 0, 0);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var running = blockingCall(limiter, started, release);
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    // queue is enabled at runtime - next call waits instead of being rejected
+    limiter.setBounds(1, 1, 10000);
+    assertThat(limiter.getMaxQueue()).isEqualTo(1);
+    assertThat(limiter.getMaxWaitMs()).isEqualTo(10000);
+    var waiting = CompletableFuture.supplyAsync(() -> limiter.call(() -> "queued"));
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("done");
+    assertThat(waiting.get(10, TimeUnit.SECONDS)).isEqualTo("queued");
+    assertThat(limiter.getRejectedCount()).isZero();
+    assertThatThrownBy(() -> limiter.setBounds(0, 1, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,205 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+
+class AuthAuditPipelineTest {
+
+  @Test
+  void publishDeliversInOrderTest() {
+    var events = new ArrayList<AuthAuditEvent>();
+    var batchSizes = new ArrayList<Integer>();
+    AuthAuditSink sink = batch -> {
+      batchSizes.add(batch.size());
+      events.addAll(batch);
+    };
+    var pipeline = new AuthAuditPipeline(64, 10, AuthAuditOverflowPolicy.BLOCK, List.of(sink));
+    for (int i = 0; i < 50; i++) {
+      assertThat(pipeline.publish("ORACLE", "USER" + i, AuthAuditOutcome.SUCCESS, i, 0))
+          .isTrue();
+    }
+    pipeline.close();
+    assertThat(events).hasSize(50);
+    for (int i = 0; i < 50; i++) {
+      assertThat(events.get(i).getUserName()).isEqualTo("USER" + i);
+      assertThat(events.get(i).getDurationNanos()).isEqualTo(i);
+    }
+    assertThat(batchSizes).allMatch(size -> size <= 10);
+    assertThat(pipeline.getPublishedCount()).isEqualTo(50);
+    assertThat(pipeline.getDroppedCount()).isZero();
+  }
+
+  @Test
+  void dropWhenFullTest() throws InterruptedException {
+    var entered = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var events = new ArrayList<AuthAuditEvent>();
+    AuthAuditSink sink = batch -> {
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      events.addAll(batch);
+    };
+    var pipeline = new AuthAuditPipeline(4, 1, AuthAuditOverflowPolicy.DROP, List.of(sink));
+    // first event is taken by drain thread, that then blocks in sink
+    pipeline.publish("ORACLE", "FIRST", AuthAuditOutcome.SUCCESS, 0, 0);
+    entered.await();
+    var accepted = 0;
+    for (int i = 0; i < 10; i++) {
+      if (pipeline.publish("ORACLE", "USER" + i, AuthAuditOutcome.SUCCESS, 0, 0)) {
+        accepted++;
+      }
+    }
+    assertThat(accepted).isEqualTo(4);
+    assertThat(pipeline.getDroppedCount()).isEqualTo(6);
+    release.countDown();
+    pipeline.close();
+    assertThat(events).hasSize(5);
+  }
+
+  @Test
+  void concurrentProducersTest() throws InterruptedException {
+    var events = new ArrayList<AuthAuditEvent>();
+    var pipeline = new AuthAuditPipeline(32, 8, AuthAuditOverflowPolicy.BLOCK,
+        List.of(events::addAll));
+    var threads = new ArrayList<Thread>();
+    for (int t = 0; t < 4; t++) {
+      var userName = "USER" + t;
+      var thread = new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          pipeline.publish("ORACLE", userName, AuthAuditOutcome.SUCCESS, i, 0);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (var thread : threads) {
+      thread.join();
+    }
+    pipeline.close();
+    assertThat(events).hasSize(4000);
+    for (int t = 0; t < 4; t++) {
+      var userName = "USER" + t;
+      // events of single producer keep their order
+      var durations = events.stream().filter(event -> event.getUserName().equals(userName))
+          .mapToLong(AuthAuditEvent::getDurationNanos).toArray();
+      assertThat(durations).hasSize(1000).isSorted();
+    }
+  }
+
+  @Test
+  void publishAfterCloseTest() {
+    var events = new ArrayList<AuthAuditEvent>();
+    var pipeline = new AuthAuditPipeline(2, 2, AuthAuditOverflowPolicy.BLOCK,
+        List.of(events::addAll));
+    pipeline.publish("ORACLE", "USER1", AuthAuditOutcome.SUCCESS, 0, 0);
+    pipeline.close();
+    // nothing drains buffer after close; publishing must not wait for space that never comes
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      for (int i = 0; i < 4; i++) {
+        assertThat(pipeline.publish("ORACLE", "USER2", AuthAuditOutcome.SUCCESS, 0, 0)).isFalse();
+      }
+    });
+    assertThat(events).extracting(AuthAuditEvent::getUserName).containsExactly("USER1");
+    assertThat(pipeline.getPublishedCount()).isEqualTo(1);
+    assertThat(pipeline.getDroppedCount()).isEqualTo(4);
+  }
+
+  @Test
+  void sinkFailureTest() {
+    var events = new ArrayList<AuthAuditEvent>();
+    AuthAuditSink failing = batch -> {
+      throw new IllegalStateException("Sink failure");
+    };
+    var pipeline = new AuthAuditPipeline(16, 16, AuthAuditOverflowPolicy.BLOCK,
+        List.of(failing, events::addAll));
+    pipeline.publish("ORACLE", "USER", AuthAuditOutcome.SUCCESS, 0, 0);
+    pipeline.close();
+    assertThat(events).hasSize(1);
+    assertThat(pipeline.getSinkFailureCount()).isEqualTo(1);
+  }
+
+  @Test
+  void publishFailureTest() {
+    var events = new ArrayList<AuthAuditEvent>();
+    var pipeline = new AuthAuditPipeline(16, 16, AuthAuditOverflowPolicy.BLOCK,
+        List.of(events::addAll));
+    pipeline.publishFailure("ORACLE", "USER1", 10,
+        new BadCredentialsException("Invalid", new SQLException("ORA-01017", "72000", 1017)));
+    pipeline.publishFailure("ORACLE", "USER2", 10,
+        new LoginThrottledException("Throttled"));
+    pipeline.publishFailure("ORACLE", "USER3", 10,
+        new AuthenticationServiceException("Failure"));
+    pipeline.publishFailure("ORACLE", "USER4", 10, AuthRejectedException.forErrorCode(28000));
+    pipeline.close();
+    assertThat(events).extracting(AuthAuditEvent::getOutcome).containsExactly(
+        AuthAuditOutcome.BAD_CREDENTIALS, AuthAuditOutcome.THROTTLED, AuthAuditOutcome.ERROR,
+        AuthAuditOutcome.BAD_CREDENTIALS);
+    assertThat(events).extracting(AuthAuditEvent::getErrorCode)
+        .containsExactly(1017, 0, 0, 28000);
+  }
+
+  @Test
+  void fileSinkTest(@TempDir Path tempDir) throws Exception {
+    var file = tempDir.resolve("audit.log");
+    var pipeline = new AuthAuditPipeline(16, 16, AuthAuditOverflowPolicy.BLOCK,
+        List.of(new FileAuthAuditSink(file)));
+    pipeline.publish("ORACLE", "USER1", AuthAuditOutcome.SUCCESS, 2_000_000L, 0);
+    pipeline.publish("EXTUSER", "BAD\nUSER", AuthAuditOutcome.BAD_CREDENTIALS, 5_000L, 1017);
+    pipeline.close();
+    var lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertThat(lines).hasSize(2);
+    assertThat(lines.get(0)).endsWith("\tORACLE\tUSER1\tSUCCESS\t2000\t0");
+    assertThat(lines.get(1)).endsWith("\tEXTUSER\tBAD?USER\tBAD_CREDENTIALS\t5\t1017");
+  }
+
+  @Test
+  void jdbcSinkTest() throws SQLException {
+    var dataSource = mock(DataSource.class);
+    var connection = mock(Connection.class);
+    var statement = mock(PreparedStatement.class);
+    when(dataSource.getConnection("user", "pwd")).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    var sink = new JdbcAuthAuditSink(dataSource, "user", "pwd", "audit.auth_log");
+    assertThat(sink.getInsertSql()).startsWith("INSERT INTO audit.auth_log (");
+    sink.write(List.of(
+        new AuthAuditEvent(1000L, "ORACLE", "USER1", AuthAuditOutcome.SUCCESS, 3000L, 0),
+        new AuthAuditEvent(2000L, "ORACLE", "USER2", AuthAuditOutcome.ERROR, 4000L, 12541)));
+    verify(statement, times(2)).addBatch();
+    verify(statement).executeBatch();
+    verify(statement).setInt(6, 12541);
+    verify(connection).commit();
+  }
+
+  @Test
+  void jdbcSinkInvalidTableTest() {
+    assertThatThrownBy(() -> new JdbcAuthAuditSink(mock(DataSource.class), "user", "pwd",
+        "audit; DROP TABLE x"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
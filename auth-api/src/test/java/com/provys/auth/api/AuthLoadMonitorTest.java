@@ -0,0 +1,143 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.common.exception.InternalException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationListener;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+class AuthLoadMonitorTest {
+
+  private static final class TestAuthProvider extends ProvysUsernamePasswordAuthProvider {
+
+    private volatile @Nullable SQLException failure;
+
+    TestAuthProvider() {
+      super(60);
+    }
+
+    void setFailure(@Nullable SQLException failure) {
+      this.failure = failure;
+    }
+
+    @Override
+    protected Authentication doAuthenticate(String userName, String password) {
+      var currentFailure = failure;
+      if (currentFailure != null) {
+        throw databaseFailure(userName, currentFailure);
+      }
+      return new UsernamePasswordAuthenticationToken(userName, null, List.of());
+    }
+  }
+
+  private final TestAuthProvider provider = new TestAuthProvider();
+  private final List<ReadinessState> readinessEvents = new ArrayList<>();
+  private final AtomicBoolean warmedUp = new AtomicBoolean(true);
+  private GenericApplicationContext applicationContext;
+
+  @BeforeEach
+  void setUp() {
+    applicationContext = new GenericApplicationContext();
+    applicationContext.addApplicationListener(
+        (ApplicationListener<AvailabilityChangeEvent<ReadinessState>>) event ->
+            readinessEvents.add(event.getState()));
+    applicationContext.refresh();
+    var beanFactory = applicationContext.getBeanFactory();
+    beanFactory.registerSingleton("testAuthProvider", provider);
+    beanFactory.registerSingleton("warmupAware", (WarmupAware) warmedUp::get);
+  }
+
+  private AuthLoadMonitor createMonitor() {
+    var monitor = new AuthLoadMonitor(applicationContext,
+        new AuthLoadMonitor.Thresholds(1e6, 1e7, 0.1, 0.5, 0.5, 0.9), 0, 2);
+    monitor.afterSingletonsInstantiated();
+    return monitor;
+  }
+
+  private void calls(int succeeded, int failed) {
+    var limiter = provider.getConcurrencyLimiter();
+    for (int i = 0; i < succeeded; i++) {
+      limiter.call(() -> "ok");
+    }
+    for (int i = 0; i < failed; i++) {
+      assertThatThrownBy(() -> limiter.call(() -> {
+        throw new InternalException("Connection failed");
+      })).isInstanceOf(InternalException.class);
+    }
+  }
+
+  @Test
+  void hysteresisTest() {
+    var monitor = createMonitor();
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.UP);
+    calls(0, 4);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.OUT_OF_SERVICE);
+    assertThat(monitor.getDetails()).containsEntry("failureRatio", 1.0);
+    // signals recovered, but state only improves after two consecutive evaluations
+    calls(4, 0);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.OUT_OF_SERVICE);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.UP);
+    calls(8, 2);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.DEGRADED);
+    // readiness is only derived from health contributor, monitor does not publish it
+    assertThat(readinessEvents).isEmpty();
+    assertThat(new AuthLoadHealthIndicator(monitor).health().getStatus())
+        .isEqualTo(AuthLoadHealthIndicator.DEGRADED);
+  }
+
+  @Test
+  void warmupTest() {
+    warmedUp.set(false);
+    var monitor = createMonitor();
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.OUT_OF_SERVICE);
+    assertThat(new AuthLoadHealthIndicator(monitor).health().getStatus())
+        .isEqualTo(Status.OUT_OF_SERVICE);
+    warmedUp.set(true);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.UP);
+    assertThat(readinessEvents).isEmpty();
+  }
+
+  private void logins(int succeeded, int failed) {
+    provider.setFailure(null);
+    for (int i = 0; i < succeeded; i++) {
+      provider.authenticate(new UsernamePasswordAuthenticationToken("OK" + i, "pwd"));
+    }
+    provider.setFailure(new SQLException("IO Error: Connection reset", "08006", 17002));
+    for (int i = 0; i < failed; i++) {
+      var authentication = new UsernamePasswordAuthenticationToken("FAILED" + i, "pwd");
+      assertThatThrownBy(() -> provider.authenticate(authentication))
+          .isInstanceOf(InternalAuthenticationServiceException.class);
+    }
+    provider.setFailure(null);
+  }
+
+  @Test
+  void connectionFailureTest() {
+    var monitor = createMonitor();
+    var healthIndicator = new AuthLoadHealthIndicator(monitor);
+    logins(0, 4);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.OUT_OF_SERVICE);
+    assertThat(monitor.getDetails()).containsEntry("failureRatio", 1.0);
+    assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    logins(4, 0);
+    monitor.evaluate();
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.UP);
+    logins(8, 2);
+    assertThat(monitor.evaluate()).isEqualTo(AuthLoadState.DEGRADED);
+    assertThat(healthIndicator.health().getStatus()).isEqualTo(AuthLoadHealthIndicator.DEGRADED);
+  }
+}
@@ -0,0 +1,53 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AuthPriorityClassifierTest {
+
+  @Test
+  void parseTest() {
+    var classes = AuthPriorityClassifier.parse(List.of("service", " batch ", ""), Map.of(
+        "service.userPattern", "SVC_.*",
+        "service.maxConcurrency", "2",
+        "service.cacheTimeout", "3600",
+        "batch.userIds", "1001, 1002"));
+    assertThat(classes).extracting(AuthPriorityClass::getName)
+        .containsExactly("SERVICE", "BATCH");
+    assertThat(classes.get(0).getMaxConcurrency()).isEqualTo(2);
+    assertThat(classes.get(0).getCacheTimeoutSec()).isEqualTo(3600L);
+    assertThat(classes.get(1).getMaxConcurrency()).isEqualTo(4);
+    assertThat(classes.get(1).getCacheTimeoutSec()).isEqualTo(-1L);
+    assertThatThrownBy(() -> AuthPriorityClassifier.parse(List.of("empty"), Map.of()))
+        .isInstanceOf(InternalException.class);
+    assertThatThrownBy(() -> AuthPriorityClassifier.parse(List.of("service"), Map.of(
+        "service.userPattern", "SVC_.*", "service.maxQueue", "many")))
+        .isInstanceOf(InternalException.class);
+  }
+
+  @Test
+  void classifyTest() {
+    var classifier = new AuthPriorityClassifier(AuthPriorityClassifier.parse(
+        List.of("service", "batch"), Map.of(
+            "service.userPattern", "svc_.*",
+            "batch.userIds", "1001")), 2);
+    assertThat(classifier.classify("SVC_IMPORT")).isNotNull()
+        .extracting(AuthPriorityClass::getName).isEqualTo("SERVICE");
+    assertThat(classifier.classify("USER1")).isNull();
+    // class defined by user Id applies once user has been verified
+    classifier.recordUser("Batch1", DtUid.valueOf("1001"));
+    assertThat(classifier.classify("BATCH1")).isNotNull()
+        .extracting(AuthPriorityClass::getName).isEqualTo("BATCH");
+    classifier.recordUser("USER1", DtUid.valueOf("1"));
+    assertThat(classifier.classify("USER1")).isNull();
+    // remembered users are bounded
+    classifier.recordUser("USER2", DtUid.valueOf("2"));
+    assertThat(classifier.classify("BATCH1")).isNull();
+  }
+}
@@ -0,0 +1,78 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.management.MBeanServerFactory;
+import javax.management.openmbean.TabularData;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+class AuthProviderJmxExporterTest {
+
+  private static final class TestAuthProvider extends ProvysUsernamePasswordAuthProvider {
+
+    TestAuthProvider() {
+      super(60);
+    }
+
+    @Override
+    protected Authentication doAuthenticate(String userName, String password) {
+      return new UsernamePasswordAuthenticationToken(userName, null, List.of());
+    }
+  }
+
+  @Test
+  void registerTest() throws Exception {
+    var provider = new TestAuthProvider();
+    var applicationContext = new GenericApplicationContext();
+    applicationContext.refresh();
+    applicationContext.getBeanFactory().registerSingleton("testAuthProvider", provider);
+    var mbeanServer = MBeanServerFactory.newMBeanServer();
+    var exporter = new AuthProviderJmxExporter(applicationContext, mbeanServer);
+    exporter.afterSingletonsInstantiated();
+    var objectName = AuthProviderJmxExporter.getObjectName("testAuthProvider");
+    assertThat(mbeanServer.isRegistered(objectName)).isTrue();
+    provider.authenticate(new UsernamePasswordAuthenticationToken("user", "pwd"));
+    assertThat(mbeanServer.getAttribute(objectName, "CacheSize")).isEqualTo(1);
+    assertThat(mbeanServer.getAttribute(objectName, "CacheTimeoutSec")).isEqualTo(60L);
+    assertThat(((TabularData) mbeanServer.getAttribute(objectName, "CacheExpiryDistribution"))
+        .size()).isEqualTo(6);
+    mbeanServer.invoke(objectName, "updateCacheSettings", new Object[]{120L, 10},
+        new String[]{long.class.getName(), int.class.getName()});
+    assertThat(provider.getCacheTimeoutSec()).isEqualTo(120L);
+    assertThat(provider.getMaxCacheSize()).isEqualTo(10);
+    mbeanServer.invoke(objectName, "updateConcurrencySettings", new Object[]{4, 8, 100L},
+        new String[]{int.class.getName(), int.class.getName(), long.class.getName()});
+    assertThat(provider.getConcurrencyLimiter().getMaxLimit()).isEqualTo(4);
+    mbeanServer.invoke(objectName, "evictAll", new Object[0], new String[0]);
+    assertThat(provider.getCacheSize()).isZero();
+    exporter.destroy();
+    assertThat(mbeanServer.isRegistered(objectName)).isFalse();
+  }
+
+  @Test
+  void registerPriorityClassTest() throws Exception {
+    var serviceClass = new AuthPriorityClass("service", "SVC_.*", List.of(), 2, 4, 100, 3600);
+    var limiter = serviceClass.newConcurrencyLimiter();
+    var applicationContext = new GenericApplicationContext();
+    applicationContext.refresh();
+    applicationContext.getBeanFactory().registerSingleton("authPriorityClassifier",
+        new AuthPriorityClassifier(List.of(serviceClass), 100));
+    var mbeanServer = MBeanServerFactory.newMBeanServer();
+    var exporter = new AuthProviderJmxExporter(applicationContext, mbeanServer);
+    exporter.afterSingletonsInstantiated();
+    var objectName = AuthProviderJmxExporter.getPriorityClassObjectName("SERVICE");
+    assertThat(mbeanServer.isRegistered(objectName)).isTrue();
+    assertThat(mbeanServer.getAttribute(objectName, "CacheTimeoutSec")).isEqualTo(3600L);
+    assertThat(mbeanServer.getAttribute(objectName, "MaxConcurrency")).isEqualTo(2);
+    mbeanServer.invoke(objectName, "updateConcurrencySettings", new Object[]{8, 8, 100L},
+        new String[]{int.class.getName(), int.class.getName(), long.class.getName()});
+    assertThat(serviceClass.getMaxConcurrency()).isEqualTo(8);
+    assertThat(limiter.getMaxLimit()).isEqualTo(8);
+    exporter.destroy();
+    assertThat(mbeanServer.isRegistered(objectName)).isFalse();
+  }
+}
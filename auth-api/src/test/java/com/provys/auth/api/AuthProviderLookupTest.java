@@ -0,0 +1,189 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.provys.common.exception.InternalException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+class AuthProviderLookupTest {
+
+  private final AuthenticationProvider oracleProvider = mock(AuthenticationProvider.class);
+  private final AuthenticationProvider mockProvider0 = mock(AuthenticationProvider.class);
+  private final AuthenticationProvider customProvider = mock(AuthenticationProvider.class);
+  private GenericApplicationContext applicationContext;
+
+  @BeforeEach
+  void setUp() {
+    applicationContext = new GenericApplicationContext();
+    applicationContext.refresh();
+    var beanFactory = applicationContext.getBeanFactory();
+    beanFactory.registerSingleton("oracleAuthProvider", oracleProvider);
+    beanFactory.registerSingleton("mockAuthProvider0", mockProvider0);
+    beanFactory.registerSingleton("customRegistration",
+        AuthProviderRegistration.of("Custom", customProvider));
+  }
+
+  @Test
+  void getAuthProviderTest() {
+    var lookup = new AuthProviderLookup(applicationContext, List.of("ORACLE", "oracle+custom"),
+        false, 100);
+    lookup.afterSingletonsInstantiated();
+    assertThat(lookup.getAuthProvider("ORACLE")).isSameAs(oracleProvider);
+    assertThat(lookup.getAuthProvider("Oracle")).isSameAs(oracleProvider);
+    assertThat(lookup.getAuthProvider("MOCK$0")).isSameAs(mockProvider0);
+    assertThat(lookup.getAuthProvider("mock$0")).isSameAs(mockProvider0);
+    assertThat(lookup.getAuthProvider("CUSTOM")).isSameAs(customProvider);
+    var composite = lookup.getAuthProvider("ORACLE+CUSTOM");
+    assertThat(composite).isInstanceOf(CompositeAuthProvider.class);
+    assertThat(((CompositeAuthProvider) composite).getProviders())
+        .containsExactly(oracleProvider, customProvider);
+    assertThat(lookup.getAuthProvider("oracle+custom")).isSameAs(composite);
+    // only composites listed in provysauth.providers are accepted
+    assertThatThrownBy(() -> lookup.getAuthProvider("CUSTOM+ORACLE"))
+        .isInstanceOf(InternalException.class);
+    assertThat(lookup.getCompositeProviders()).hasSize(1);
+    assertThatThrownBy(() -> lookup.getAuthProvider("EXTUSER"))
+        .isInstanceOf(InternalException.class);
+    assertThatThrownBy(() -> lookup.getAuthProvider("UNKNOWN"))
+        .isInstanceOf(InternalException.class);
+  }
+
+  @Test
+  void getAuthProviderNameVariantsTest() {
+    var lookup = new AuthProviderLookup(applicationContext, List.of(), false, 100);
+    lookup.afterSingletonsInstantiated();
+    var composite = lookup.getAuthProvider("oracle+custom");
+    assertThat(lookup.getAuthProvider("Oracle+Custom")).isSameAs(composite);
+    assertThat(lookup.getAuthProvider("ORACLE+CUSTOM")).isSameAs(composite);
+    // case variants of name do not add cached composites
+    assertThat(lookup.getCompositeProviders()).hasSize(1);
+    // plain names are only resolved using registry, once it is built
+    applicationContext.getBeanFactory().registerSingleton("lateRegistration",
+        AuthProviderRegistration.of("Late", customProvider));
+    assertThatThrownBy(() -> lookup.getAuthProvider("LATE"))
+        .isInstanceOf(InternalException.class);
+    // provider cannot be repeated in composite
+    assertThatThrownBy(() -> lookup.getAuthProvider("ORACLE+CUSTOM+oracle"))
+        .isInstanceOf(InternalException.class);
+    assertThat(lookup.getCompositeProviders()).hasSize(1);
+  }
+
+  @Test
+  void getAuthProviderCompositeLimitTest() {
+    var names = List.of("ORACLE", "CUSTOM", "A", "B", "C", "D", "E");
+    for (var name : names.subList(2, names.size())) {
+      applicationContext.getBeanFactory().registerSingleton(name + "Registration",
+          AuthProviderRegistration.of(name, customProvider));
+    }
+    var lookup = new AuthProviderLookup(applicationContext, List.of(), false, 100);
+    lookup.afterSingletonsInstantiated();
+    var created = 0;
+    for (var first : names) {
+      for (var second : names) {
+        if (!first.equals(second) && (created < AuthProviderLookup.MAX_COMPOSITE_PROVIDERS)) {
+          lookup.getAuthProvider(first + '+' + second);
+          created++;
+        }
+      }
+    }
+    assertThat(lookup.getCompositeProviders())
+        .hasSize(AuthProviderLookup.MAX_COMPOSITE_PROVIDERS);
+    // already created composites are still available, new ones are rejected
+    assertThat(lookup.getAuthProvider("oracle+custom")).isInstanceOf(CompositeAuthProvider.class);
+    assertThatThrownBy(() -> lookup.getAuthProvider("E+D"))
+        .isInstanceOf(InternalException.class);
+  }
+
+  @Test
+  void requiredProviderMissingTest() {
+    var lookup = new AuthProviderLookup(applicationContext, List.of("ORACLE", "EXTUSER"),
+        false, 100);
+    assertThatThrownBy(lookup::afterSingletonsInstantiated)
+        .isInstanceOf(InternalException.class);
+  }
+
+  @Test
+  void getTenantAuthProviderTest() {
+    var beanFactory = applicationContext.getBeanFactory();
+    beanFactory.registerSingleton("provysDbTargets", new ProvysDbTargets(
+        List.of(ProvysDbTarget.of("cust1", "url1", "user1", "pwd1"),
+            ProvysDbTarget.of("CUST2", "url2", "user2", "pwd2")), 4, 4, 100, 60, 100, 50));
+    beanFactory.registerSingleton("tenantContext", new TenantContext());
+    var created = new HashMap<String, ProvysDbTarget>(4);
+    beanFactory.registerSingleton("customTenantFactory",
+        TenantAuthProviderFactory.of("Custom", (target, userDataFactory) -> {
+          var provider = mock(AuthenticationProvider.class);
+          when(provider.supports(any())).thenReturn(true);
+          when(provider.authenticate(any())).thenReturn(
+              new UsernamePasswordAuthenticationToken(target.getName(), null, List.of()));
+          created.put(target.getName(), target);
+          return provider;
+        }));
+    var cachedProvider = mock(ProvysUsernamePasswordAuthProvider.class);
+    when(cachedProvider.getCacheTimeoutSec()).thenReturn(900L);
+    beanFactory.registerSingleton("cachedTenantFactory",
+        TenantAuthProviderFactory.of("CACHED", (target, userDataFactory) -> cachedProvider));
+    var lookup = new AuthProviderLookup(applicationContext,
+        List.of("CUSTOM@CUST1", "ORACLE+CUSTOM@CUST2"), false, 100);
+    lookup.afterSingletonsInstantiated();
+    var cust1 = lookup.getAuthProvider("custom@cust1");
+    assertThat(lookup.getAuthProvider("CUSTOM@CUST1")).isSameAs(cust1);
+    var cust2 = lookup.getAuthProvider("Custom@Cust2");
+    assertThat(cust2).isNotSameAs(cust1);
+    assertThat(created).isEqualTo(Map.of(
+        "CUST1", ProvysDbTarget.of("cust1", "url1", "user1", "pwd1"),
+        "CUST2", ProvysDbTarget.of("cust2", "url2", "user2", "pwd2")));
+    var composite = lookup.getAuthProvider("ORACLE+CUSTOM@CUST2");
+    assertThat(((CompositeAuthProvider) composite).getProviders())
+        .containsExactly(oracleProvider, cust2);
+    assertThatThrownBy(() -> lookup.getAuthProvider("CUSTOM@CUST3"))
+        .isInstanceOf(InternalException.class);
+    assertThatThrownBy(() -> lookup.getAuthProvider("ORACLE@CUST1"))
+        .isInstanceOf(InternalException.class);
+    assertThatThrownBy(() -> lookup.getAuthProvider("UNKNOWN@*"))
+        .isInstanceOf(InternalException.class);
+    // credential cache of target provider is bounded by default
+    assertThat(lookup.getAuthProvider("CACHED@CUST1")).isSameAs(cachedProvider);
+    verify(cachedProvider).updateCacheSettings(900L, 50);
+    var routing = lookup.getAuthProvider("CUSTOM@*");
+    assertThat(routing).isInstanceOf(TenantRoutingAuthProvider.class);
+    assertThat(routing.supports(UsernamePasswordAuthenticationToken.class)).isTrue();
+    var request = new UsernamePasswordAuthenticationToken("user", "pwd");
+    try {
+      assertThatThrownBy(() -> routing.authenticate(request))
+          .isInstanceOf(AuthenticationServiceException.class);
+      TenantContext.setTenant("cust2");
+      assertThat(routing.authenticate(request).getName()).isEqualTo("CUST2");
+      TenantContext.setTenant("cust3");
+      assertThatThrownBy(() -> routing.authenticate(request))
+          .isInstanceOf(BadCredentialsException.class);
+    } finally {
+      TenantContext.clearTenant();
+    }
+  }
+
+  @Test
+  void parseTargetsTest() {
+    var targets = ProvysDbTargets.parse(Map.of("cust1.url", "url1", "cust1.user", "user1",
+        "cust1.pwd", "pwd1"));
+    assertThat(targets).containsExactly(ProvysDbTarget.of("CUST1", "url1", "user1", "pwd1"));
+    assertThatThrownBy(() -> ProvysDbTargets.parse(Map.of("cust1.url", "url1")))
+        .isInstanceOf(InternalException.class);
+    assertThatThrownBy(() -> ProvysDbTargets.parse(Map.of("cust1.host", "host")))
+        .isInstanceOf(InternalException.class);
+  }
+}
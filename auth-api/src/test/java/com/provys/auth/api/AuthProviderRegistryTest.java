@@ -0,0 +1,37 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.provys.common.exception.InternalException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+class AuthProviderRegistryTest {
+
+  @Test
+  void getTest() {
+    var providers = new HashMap<String, AuthenticationProvider>(16);
+    for (int i = 0; i < 20; i++) {
+      providers.put("MOCK$" + i, mock(AuthenticationProvider.class));
+    }
+    var registry = new AuthProviderRegistry(providers);
+    assertThat(registry.size()).isEqualTo(20);
+    for (int i = 0; i < 20; i++) {
+      assertThat(registry.get("mock$" + i)).isSameAs(providers.get("MOCK$" + i));
+    }
+    assertThat(registry.get("MOCK$20")).isNull();
+    assertThat(registry.get("")).isNull();
+  }
+
+  @Test
+  void duplicateNameTest() {
+    var providers = Map.of("ORACLE", mock(AuthenticationProvider.class),
+        "Oracle", mock(AuthenticationProvider.class));
+    assertThatThrownBy(() -> new AuthProviderRegistry(providers))
+        .isInstanceOf(InternalException.class);
+  }
+}
@@ -0,0 +1,33 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+class AuthRejectedExceptionTest {
+
+  @Test
+  void forErrorCodeTest() {
+    var rejected = AuthRejectedException.forErrorCode(1017);
+    assertThat(rejected).isInstanceOf(BadCredentialsException.class);
+    assertThat(rejected.getErrorCode()).isEqualTo(1017);
+    assertThat(rejected.getMessage()).isEqualTo("Invalid username or password (error 1017)");
+    assertThat(rejected.getStackTrace()).isEmpty();
+    assertThat(rejected.getCause()).isNull();
+    assertThat(AuthRejectedException.forErrorCode(28000).getErrorCode()).isEqualTo(28000);
+    // instances are not shared, suppressed exception of one rejection does not leak to another
+    rejected.addSuppressed(new IllegalStateException("Close failed"));
+    var other = AuthRejectedException.forErrorCode(1017);
+    assertThat(other).isNotSameAs(rejected);
+    assertThat(other.getSuppressed()).isEmpty();
+  }
+
+  @Test
+  void throttledTest() {
+    assertThat(LoginThrottledException.forUser()).isSameAs(LoginThrottledException.forUser());
+    assertThat(LoginThrottledException.forUser().getStackTrace()).isEmpty();
+    assertThat(LoginThrottledException.forClient().getMessage())
+        .isEqualTo("Too many failed login attempts from client address");
+  }
+}
@@ -0,0 +1,97 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+class AuthenticationCodecTest {
+
+  private static final UserData USER_DATA = ProvysUserData.of(DtUid.valueOf("123456789"),
+      "USER", "Uživatel", DtEncryptedString.valueOf("TOKEN"));
+
+  private static UsernamePasswordAuthenticationToken createAuthentication() {
+    return new UsernamePasswordAuthenticationToken(USER_DATA, null,
+        AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+  }
+
+  private static byte[] javaSerialize(Object value) throws IOException {
+    var output = new ByteArrayOutputStream();
+    try (var objectOutput = new ObjectOutputStream(output)) {
+      objectOutput.writeObject(value);
+    }
+    return output.toByteArray();
+  }
+
+  @Test
+  void userDataRoundTripTest() {
+    var encoded = AuthenticationCodec.encode(USER_DATA);
+    assertThat(AuthenticationCodec.isEncoded(encoded)).isTrue();
+    var decoded = (UserData) AuthenticationCodec.decode(encoded);
+    assertThat(decoded).isEqualTo(USER_DATA);
+    assertThat(decoded.getDbToken()).isEqualTo(USER_DATA.getDbToken());
+  }
+
+  @Test
+  void authenticationRoundTripTest() {
+    var authentication = createAuthentication();
+    authentication.setDetails("details");
+    var decoded = (Authentication) AuthenticationCodec.decode(
+        AuthenticationCodec.encode(authentication));
+    assertThat(decoded).isEqualTo(authentication);
+    assertThat(decoded.isAuthenticated()).isTrue();
+    assertThat(decoded.getDetails()).isEqualTo("details");
+  }
+
+  @Test
+  void securityContextRoundTripTest() {
+    var context = new SecurityContextImpl(createAuthentication());
+    assertThat(AuthenticationCodec.decode(AuthenticationCodec.encode(context)))
+        .isEqualTo(context);
+    var emptyContext = new SecurityContextImpl();
+    assertThat(AuthenticationCodec.decode(AuthenticationCodec.encode(emptyContext)))
+        .isEqualTo(emptyContext);
+  }
+
+  @Test
+  void supportsTest() {
+    assertThat(AuthenticationCodec.supports(createAuthentication())).isTrue();
+    assertThat(AuthenticationCodec.supports(
+        new UsernamePasswordAuthenticationToken(USER_DATA, "pwd"))).isFalse();
+    assertThat(AuthenticationCodec.supports(
+        new UsernamePasswordAuthenticationToken("user", null))).isFalse();
+    assertThat(AuthenticationCodec.supports("value")).isFalse();
+    assertThatThrownBy(() -> AuthenticationCodec.encode("value"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void smallerThanJavaSerializationTest() throws IOException {
+    var context = new SecurityContextImpl(createAuthentication());
+    assertThat(AuthenticationCodec.encode(context).length * 4)
+        .isLessThan(javaSerialize(context).length);
+  }
+
+  @Test
+  void decodeMalformedTest() {
+    var encoded = AuthenticationCodec.encode(createAuthentication());
+    assertThatThrownBy(() -> AuthenticationCodec.decode(
+        Arrays.copyOf(encoded, encoded.length - 1)))
+        .isInstanceOf(InternalException.class);
+    var wrongVersion = encoded.clone();
+    wrongVersion[1] = 99;
+    assertThatThrownBy(() -> AuthenticationCodec.decode(wrongVersion))
+        .isInstanceOf(InternalException.class);
+  }
+}
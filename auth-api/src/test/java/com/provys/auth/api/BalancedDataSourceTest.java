@@ -0,0 +1,171 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.provys.auth.fakedb.FakeOperation;
+import com.provys.auth.fakedb.FakeProvysDatabase;
+import com.provys.common.exception.InternalException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class BalancedDataSourceTest {
+
+  private static final int ERR_NO_LISTENER = 12541;
+
+  private static FakeProvysDatabase createDatabase() {
+    return new FakeProvysDatabase()
+        .addDbUser(BigDecimal.ONE, "USER", "Test User", "pwd");
+  }
+
+  @Test
+  void splitUrlTest() {
+    assertThat(BalancedDataSource.splitUrl("jdbc:oracle:thin:@node1:1521/PVYS| node2:1521/PVYS"))
+        .containsExactly("jdbc:oracle:thin:@node1:1521/PVYS", "jdbc:oracle:thin:@node2:1521/PVYS");
+    assertThat(BalancedDataSource.splitUrl("jdbc:oracle:thin:@node1/PVYS|jdbc:oracle:thin:@x"))
+        .containsExactly("jdbc:oracle:thin:@node1/PVYS", "jdbc:oracle:thin:@x");
+    assertThatThrownBy(() -> BalancedDataSource.splitUrl("jdbc:oracle:thin:@node1||node2"))
+        .isInstanceOf(InternalException.class);
+  }
+
+  @Test
+  void failoverTest() throws SQLException {
+    var database1 = createDatabase().failNext(FakeOperation.LOGON, 1, ERR_NO_LISTENER);
+    var database2 = createDatabase();
+    var dataSource = new BalancedDataSource(List.of("db1", "db2"),
+        List.of(database1.getDataSource(), database2.getDataSource()));
+    try (var connection = dataSource.getConnection("user", "pwd")) {
+      assertThat(connection.isValid(0)).isTrue();
+    }
+    assertThat(database1.getFailureCount(FakeOperation.LOGON)).isEqualTo(1);
+    assertThat(database2.getInvocationCount(FakeOperation.LOGON)).isEqualTo(1);
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db2");
+  }
+
+  @Test
+  void invalidCredentialsNotRetriedTest() {
+    var database1 = createDatabase();
+    var database2 = createDatabase();
+    var dataSource = new BalancedDataSource(List.of("db1", "db2"),
+        List.of(database1.getDataSource(), database2.getDataSource()));
+    assertThatThrownBy(() -> dataSource.getConnection("user", "invalid"))
+        .isInstanceOf(SQLException.class)
+        .extracting(e -> ((SQLException) e).getErrorCode())
+        .isEqualTo(FakeProvysDatabase.ERR_INVALID_LOGON);
+    assertThat(database1.getInvocationCount(FakeOperation.LOGON)
+        + database2.getInvocationCount(FakeOperation.LOGON)).isEqualTo(1);
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db1", "db2");
+  }
+
+  @Test
+  void allEndpointsFailedTest() {
+    var database1 = createDatabase().failNext(FakeOperation.LOGON, 1, ERR_NO_LISTENER);
+    var database2 = createDatabase().failNext(FakeOperation.LOGON, 1, ERR_NO_LISTENER);
+    var dataSource = new BalancedDataSource(List.of("db1", "db2"),
+        List.of(database1.getDataSource(), database2.getDataSource()));
+    assertThatThrownBy(() -> dataSource.getConnection("user", "pwd"))
+        .isInstanceOf(SQLException.class)
+        .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+    assertThat(dataSource.getAdmittedEndpoints()).isEmpty();
+  }
+
+  @Test
+  void latencyEjectionTest() throws SQLException {
+    var clock = new AtomicLong();
+    var latency1 = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(10));
+    var latency2 = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(100));
+    var connections1 = new AtomicLong();
+    var dataSource1 = mock(DataSource.class);
+    when(dataSource1.getConnection(anyString(), anyString())).thenAnswer(invocation -> {
+      clock.addAndGet(latency1.get());
+      connections1.incrementAndGet();
+      return mock(Connection.class);
+    });
+    var dataSource2 = mock(DataSource.class);
+    when(dataSource2.getConnection(anyString(), anyString())).thenAnswer(invocation -> {
+      clock.addAndGet(latency2.get());
+      return mock(Connection.class);
+    });
+    var dataSource = new BalancedDataSource(List.of("db1", "db2"),
+        List.of(dataSource1, dataSource2), 3.0, 50, 1000, 10000, clock::get);
+    // both endpoints are unknown, they are tried in order
+    dataSource.getConnection("user", "pwd");
+    dataSource.getConnection("user", "pwd");
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db1");
+    // probe after ejection expires, endpoint still slow - ejected again for doubled period
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+    dataSource.getConnection("user", "pwd");
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db1");
+    assertThat(connections1).hasValue(1);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+    dataSource.getConnection("user", "pwd");
+    assertThat(connections1).hasValue(2);
+    // endpoint recovered - probe readmits it
+    latency2.set(TimeUnit.MILLISECONDS.toNanos(5));
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+    dataSource.getConnection("user", "pwd");
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db1", "db2");
+    assertThat(connections1).hasValue(2);
+  }
+
+  private static DataSource delayedDataSource(AtomicLong clock, AtomicBoolean down)
+      throws SQLException {
+    var dataSource = mock(DataSource.class);
+    when(dataSource.getConnection(anyString(), anyString())).thenAnswer(invocation -> {
+      if (down.get()) {
+        throw new SQLException("IO Error: The Network Adapter could not establish the connection",
+            "08006", 17002);
+      }
+      if (!"pwd".equals(invocation.getArgument(1))) {
+        // database delays response to failed logon
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        throw new SQLException("ORA-01017: invalid username/password; logon denied", "72000",
+            FakeProvysDatabase.ERR_INVALID_LOGON);
+      }
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+      return mock(Connection.class);
+    });
+    return dataSource;
+  }
+
+  @Test
+  void invalidCredentialsLatencyTest() throws SQLException {
+    var clock = new AtomicLong();
+    var down1 = new AtomicBoolean();
+    var dataSource = new BalancedDataSource(List.of("db1", "db2"),
+        List.of(delayedDataSource(clock, down1), delayedDataSource(clock, new AtomicBoolean())),
+        3.0, 50, 1000, 10000, clock::get);
+    dataSource.getConnection("user", "pwd");
+    dataSource.getConnection("user", "pwd");
+    // slow failed logon is not connect latency sample
+    assertThatThrownBy(() -> dataSource.getConnection("user", "invalid"))
+        .isInstanceOf(SQLException.class);
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db1", "db2");
+    // failed logon on probe readmits endpoint, as it has responded
+    down1.set(true);
+    dataSource.getConnection("user", "pwd");
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db2");
+    down1.set(false);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+    assertThatThrownBy(() -> dataSource.getConnection("user", "invalid"))
+        .isInstanceOf(SQLException.class);
+    assertThat(dataSource.getAdmittedEndpoints()).containsExactly("db1", "db2");
+  }
+
+  @Test
+  void forOracleUrlTest() {
+    var dataSource = LazyDataSource.forOracleUrl("jdbc:oracle:thin:@node1/PVYS|node2/PVYS");
+    assertThat(dataSource.getDelegate()).isInstanceOf(BalancedDataSource.class);
+    assertThat(((BalancedDataSource) dataSource.getDelegate()).getEndpointCount()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,218 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+class CompositeAuthProviderTest {
+
+  /**
+   * Provider that successfully authenticates only given user and counts authentication attempts.
+   */
+  private static final class SingleUserAuthProvider implements AuthenticationProvider {
+
+    private final String userName;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    SingleUserAuthProvider(String userName) {
+      this.userName = userName;
+    }
+
+    int getAttempts() {
+      return attempts.get();
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+      attempts.incrementAndGet();
+      if (!authentication.getName().equals(userName)) {
+        throw new BadCredentialsException("Invalid username or password");
+      }
+      return authentication;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+      return true;
+    }
+  }
+
+  /**
+   * Username / password provider that knows only given user and rejects other users the way
+   * database does.
+   */
+  private static final class SingleUserDbAuthProvider extends ProvysUsernamePasswordAuthProvider {
+
+    private final String userName;
+
+    SingleUserDbAuthProvider(String userName, LoginRateLimiter loginRateLimiter) {
+      super(0, new AdaptiveConcurrencyLimiter(), loginRateLimiter);
+      this.userName = userName;
+    }
+
+    @Override
+    protected Authentication doAuthenticate(String userName, String password) {
+      if (!userName.equals(this.userName)) {
+        throw rejectLogin(userName, new SQLException("ORA-01017", "72000", 1017));
+      }
+      return new UsernamePasswordAuthenticationToken(userName, password, List.of());
+    }
+  }
+
+  @Test
+  void authenticateRemembersProviderTest() {
+    var first = new SingleUserAuthProvider("USER1");
+    var second = new SingleUserAuthProvider("USER2");
+    var composite = new CompositeAuthProvider(List.of(first, second), 100, null);
+    var token = new UsernamePasswordAuthenticationToken("USER2", "PWD");
+    assertThat(composite.authenticate(token)).isSameAs(token);
+    assertThat(first.getAttempts()).isEqualTo(1);
+    assertThat(second.getAttempts()).isEqualTo(1);
+    assertThat(composite.getPreferredProvider("USER2")).isEqualTo(1);
+    // second provider is tried first next time
+    assertThat(composite.authenticate(token)).isSameAs(token);
+    assertThat(first.getAttempts()).isEqualTo(1);
+    assertThat(second.getAttempts()).isEqualTo(2);
+  }
+
+  @Test
+  void authenticateFailureTest() {
+    var first = new SingleUserAuthProvider("USER1");
+    var second = new SingleUserAuthProvider("USER2");
+    var composite = new CompositeAuthProvider(List.of(first, second), 100, null);
+    assertThatThrownBy(
+        () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThat(composite.getPreferredProvider("USER3")).isEqualTo(-1);
+  }
+
+  @Test
+  void authenticateHedgedTest() {
+    var executor = Executors.newCachedThreadPool();
+    try {
+      var first = new SingleUserAuthProvider("USER1");
+      var second = new SingleUserAuthProvider("USER2");
+      var composite = new CompositeAuthProvider(List.of(first, second), 100, executor);
+      var token = new UsernamePasswordAuthenticationToken("USER2", "PWD");
+      assertThat(composite.authenticate(token)).isSameAs(token);
+      assertThat(composite.getPreferredProvider("USER2")).isEqualTo(1);
+      assertThatThrownBy(
+          () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+          .isInstanceOf(BadCredentialsException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void authenticateHedgedKnownUserTest() {
+    var executor = Executors.newCachedThreadPool();
+    try {
+      var first = new SingleUserAuthProvider("USER1");
+      var second = new SingleUserAuthProvider("user2");
+      var composite = new CompositeAuthProvider(List.of(first, second), 100, executor);
+      assertThat(composite.authenticate(new UsernamePasswordAuthenticationToken("user2", "PWD")))
+          .isNotNull();
+      assertThat(composite.getPreferredProvider("USER2")).isEqualTo(1);
+      // remembered user is verified via its provider only, other providers are not hedged
+      composite.authenticate(new UsernamePasswordAuthenticationToken("user2", "PWD"));
+      assertThat(first.getAttempts()).isEqualTo(1);
+      assertThat(second.getAttempts()).isEqualTo(2);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void authenticateHedgedProviderFailureTest() {
+    var executor = Executors.newCachedThreadPool();
+    try {
+      AuthenticationProvider failing = new AuthenticationProvider() {
+        @Override
+        public Authentication authenticate(Authentication authentication) {
+          throw new IllegalStateException("Database not available");
+        }
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+          return true;
+        }
+      };
+      var composite = new CompositeAuthProvider(
+          List.of(failing, new SingleUserAuthProvider("USER2")), 100, executor);
+      var token = new UsernamePasswordAuthenticationToken("USER2", "PWD");
+      assertThat(composite.authenticate(token)).isSameAs(token);
+      // failure is reported if no provider succeeds, not as bad credentials
+      assertThatThrownBy(
+          () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+          .isInstanceOf(InternalAuthenticationServiceException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void authenticateRateLimitTest() {
+    var loginRateLimiter = new LoginRateLimiter(2, 100, 60);
+    var providers = List.of(new SingleUserDbAuthProvider("USER1", loginRateLimiter),
+        new SingleUserDbAuthProvider("USER2", loginRateLimiter));
+    // rejection by provider tried before successful one is not failed attempt; new composite
+    // every time, thus successful provider is never remembered
+    for (int i = 0; i < 3; i++) {
+      new CompositeAuthProvider(providers, 100, null)
+          .authenticate(new UsernamePasswordAuthenticationToken("USER2", "PWD"));
+    }
+    loginRateLimiter.checkAllowed("USER2", null);
+    assertThat(loginRateLimiter.getThrottledCount()).isZero();
+    // rejection by all providers is registered once
+    var composite = new CompositeAuthProvider(providers, 100, null);
+    assertThatThrownBy(
+        () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+        .isInstanceOf(AuthRejectedException.class);
+    loginRateLimiter.checkAllowed("USER3", null);
+    assertThatThrownBy(
+        () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+        .isInstanceOf(AuthRejectedException.class);
+    assertThatThrownBy(() -> loginRateLimiter.checkAllowed("USER3", null))
+        .isInstanceOf(LoginThrottledException.class);
+  }
+
+  @Test
+  void authenticateHedgedRateLimitTest() {
+    var executor = Executors.newCachedThreadPool();
+    try {
+      var loginRateLimiter = new LoginRateLimiter(2, 100, 60);
+      var composite = new CompositeAuthProvider(List.of(
+          new SingleUserDbAuthProvider("USER1", loginRateLimiter),
+          new SingleUserDbAuthProvider("USER2", loginRateLimiter)), 100, executor);
+      // rejection by losing provider is not failed attempt
+      for (int i = 0; i < 3; i++) {
+        composite.authenticate(new UsernamePasswordAuthenticationToken("USER2", "PWD"));
+        composite.authenticate(new UsernamePasswordAuthenticationToken("USER1", "PWD"));
+      }
+      assertThat(loginRateLimiter.getThrottledCount()).isZero();
+      // rejection by all providers is registered once
+      assertThatThrownBy(
+          () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+          .isInstanceOf(AuthRejectedException.class);
+      loginRateLimiter.checkAllowed("USER3", null);
+      assertThatThrownBy(
+          () -> composite.authenticate(new UsernamePasswordAuthenticationToken("USER3", "PWD")))
+          .isInstanceOf(AuthRejectedException.class);
+      assertThatThrownBy(() -> loginRateLimiter.checkAllowed("USER3", null))
+          .isInstanceOf(LoginThrottledException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class DbTokenIndexTest {
+
+  private static UserData userData(String token) {
+    return ProvysUserData.of(DtUid.valueOf("1"), "USER", "User", DtEncryptedString.valueOf(token));
+  }
+
+  @Test
+  void registerTest() {
+    var now = new AtomicLong();
+    var dbTokenIndex = new DbTokenIndex(10, 2, now::get);
+    var userData = userData("A");
+    dbTokenIndex.register(userData);
+    assertThat(dbTokenIndex.lookup(DtEncryptedString.valueOf("A"))).isEqualTo(userData);
+    now.set(10000L);
+    assertThat(dbTokenIndex.lookup(DtEncryptedString.valueOf("A"))).isNull();
+    assertThat(dbTokenIndex.size()).isZero();
+  }
+
+  @Test
+  void registerFullTest() {
+    var now = new AtomicLong();
+    var dbTokenIndex = new DbTokenIndex(10, 2, now::get);
+    dbTokenIndex.register(userData("A"));
+    now.set(500L);
+    dbTokenIndex.register(userData("B"));
+    // index is full, A has expired and is purged
+    now.set(10200L);
+    dbTokenIndex.register(userData("C"));
+    assertThat(dbTokenIndex.lookup(DtEncryptedString.valueOf("C"))).isNotNull();
+    assertThat(dbTokenIndex.size()).isEqualTo(2);
+    // B has expired, but index is not scanned again before purge interval elapses
+    now.set(10600L);
+    dbTokenIndex.register(userData("D"));
+    assertThat(dbTokenIndex.size()).isEqualTo(2);
+    assertThat(dbTokenIndex.lookup(DtEncryptedString.valueOf("D"))).isNull();
+    now.set(10200L + DbTokenIndex.MIN_PURGE_INTERVAL_MS);
+    dbTokenIndex.register(userData("D"));
+    assertThat(dbTokenIndex.lookup(DtEncryptedString.valueOf("D"))).isNotNull();
+    assertThat(dbTokenIndex.lookup(DtEncryptedString.valueOf("B"))).isNull();
+  }
+}
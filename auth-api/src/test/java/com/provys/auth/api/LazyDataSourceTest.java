@@ -0,0 +1,40 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class LazyDataSourceTest {
+
+  @Test
+  void getConnectionTest() throws SQLException {
+    var delegate = mock(DataSource.class);
+    var connection = mock(Connection.class);
+    when(delegate.getConnection("user", "pwd")).thenReturn(connection);
+    var created = new AtomicInteger();
+    var dataSource = new LazyDataSource("test", () -> {
+      created.incrementAndGet();
+      return delegate;
+    });
+    assertThat(dataSource.isInitialized()).isFalse();
+    assertThat(created).hasValue(0);
+    assertThat(dataSource.getConnection("user", "pwd")).isSameAs(connection);
+    assertThat(dataSource.getConnection("user", "pwd")).isSameAs(connection);
+    assertThat(dataSource.isInitialized()).isTrue();
+    assertThat(created).hasValue(1);
+  }
+
+  @Test
+  void forOracleUrlTest() {
+    var dataSource = LazyDataSource.forOracleUrl("jdbc:oracle:thin:@testurl");
+    assertThat(dataSource.isInitialized()).isFalse();
+    assertThat(dataSource.getDelegate()).isInstanceOf(oracle.jdbc.pool.OracleDataSource.class);
+    assertThat(dataSource.isInitialized()).isTrue();
+  }
+}
@@ -0,0 +1,21 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LogSamplerTest {
+
+  @Test
+  void tryAcquireTest() throws InterruptedException {
+    var sampler = new LogSampler(2, 100);
+    assertThat(sampler.tryAcquire()).isZero();
+    assertThat(sampler.tryAcquire()).isZero();
+    assertThat(sampler.tryAcquire()).isEqualTo(-1);
+    assertThat(sampler.tryAcquire()).isEqualTo(-1);
+    Thread.sleep(150);
+    // first message in new interval reports messages suppressed in previous one
+    assertThat(sampler.tryAcquire()).isEqualTo(2);
+    assertThat(sampler.tryAcquire()).isZero();
+  }
+}
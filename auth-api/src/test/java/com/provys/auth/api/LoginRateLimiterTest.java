@@ -0,0 +1,35 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class LoginRateLimiterTest {
+
+  @Test
+  void userThrottleTest() {
+    var limiter = new LoginRateLimiter(3, 100, 60);
+    for (int i = 0; i < 3; i++) {
+      assertThatCode(() -> limiter.checkAllowed("USER", null)).doesNotThrowAnyException();
+      limiter.recordFailure("USER", null);
+    }
+    assertThatThrownBy(() -> limiter.checkAllowed("USER", null))
+        .isInstanceOf(LoginThrottledException.class);
+    // user names are case-insensitive
+    assertThatThrownBy(() -> limiter.checkAllowed("user", "127.0.0.1"))
+        .isInstanceOf(LoginThrottledException.class);
+    assertThatCode(() -> limiter.checkAllowed("OTHER", null)).doesNotThrowAnyException();
+  }
+
+  @Test
+  void clientThrottleTest() {
+    var limiter = new LoginRateLimiter(100, 2, 60);
+    limiter.recordFailure("USER1", "10.0.0.1");
+    limiter.recordFailure("USER2", "10.0.0.1");
+    assertThatThrownBy(() -> limiter.checkAllowed("USER3", "10.0.0.1"))
+        .isInstanceOf(LoginThrottledException.class);
+    assertThatCode(() -> limiter.checkAllowed("USER3", "10.0.0.2")).doesNotThrowAnyException();
+    assertThatCode(() -> limiter.checkAllowed("USER3", null)).doesNotThrowAnyException();
+  }
+}
@@ -9,10 +9,17 @@ import com.provys.common.crypt.DtEncryptedString;
 import com.provys.common.datatype.DtUid;
 import java.math.BigInteger;
 import java.security.Principal;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -58,6 +65,38 @@ public class ProvysUsernamePasswordAuthProviderTest {
     }
   }
 
+  /**
+   * Provider verifying credentials against simulated database, mapping database errors the same
+   * way database bound providers do.
+   */
+  private static class DatabaseAuthProviderImpl extends ProvysUsernamePasswordAuthProvider {
+
+    private volatile @Nullable SQLException failure;
+
+    DatabaseAuthProviderImpl(LoginRateLimiter loginRateLimiter) {
+      super(100, new AdaptiveConcurrencyLimiter(), loginRateLimiter);
+    }
+
+    void setFailure(@Nullable SQLException failure) {
+      this.failure = failure;
+    }
+
+    @Override
+    protected Authentication doAuthenticate(String userName, String password) {
+      var exception = failure;
+      if ((exception == null) && !password.equals(userName + "PWD")) {
+        exception = new SQLException("ORA-01017: invalid username/password", "72000", 1017);
+      }
+      if (exception != null) {
+        if (isLogonRejection(exception)) {
+          throw rejectLogin(userName, exception);
+        }
+        throw databaseFailure(userName, exception);
+      }
+      return new UsernamePasswordAuthenticationToken(userName, password, List.of());
+    }
+  }
+
   private static Authentication setUpToken(String userName, String password) {
     var authentication = mock(UsernamePasswordAuthenticationToken.class);
     var principal = mock(Principal.class);
@@ -104,6 +143,186 @@ public class ProvysUsernamePasswordAuthProviderTest {
     assertThat(authProvider.getAuths()).isEqualTo(4); // cache expired
   }
 
+  @Test
+  void authenticateIgnoresUserNameCaseTest() {
+    var authProvider = new ProvysUsernamePasswordAuthProviderImpl(10);
+    var result1 = authProvider.authenticate(setUpToken("User1", "User1PWD"));
+    assertThat(authProvider.getAuths()).isEqualTo(1);
+    // same user name in different case is served from the same cache entry
+    var result2 = authProvider.authenticate(setUpToken("USER1", "User1PWD"));
+    assertThat(result2).isSameAs(result1);
+    assertThat(authProvider.getAuths()).isEqualTo(1);
+    // but password must match exactly
+    assertThatCode(() -> authProvider.authenticate(setUpToken("user1", "USER1PWD")))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThat(authProvider.getAuths()).isEqualTo(2);
+  }
+
+  @Test
+  void authenticateAuditTest() {
+    var authProvider = new ProvysUsernamePasswordAuthProviderImpl(10);
+    var events = new ArrayList<AuthAuditEvent>();
+    var pipeline = new AuthAuditPipeline(16, 4, AuthAuditOverflowPolicy.BLOCK,
+        List.of(events::addAll));
+    authProvider.setAuditPipeline(pipeline);
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    assertThatCode(() -> authProvider.authenticate(setUpToken("USER1", "WRONG")))
+        .isInstanceOf(BadCredentialsException.class);
+    pipeline.close();
+    assertThat(events).extracting(AuthAuditEvent::getOutcome)
+        .containsExactly(AuthAuditOutcome.SUCCESS, AuthAuditOutcome.CACHE_HIT,
+            AuthAuditOutcome.BAD_CREDENTIALS);
+    assertThat(events).extracting(AuthAuditEvent::getProviderName)
+        .containsOnly("ProvysUsernamePasswordAuthProviderImpl");
+    assertThat(events).extracting(AuthAuditEvent::getUserName).containsOnly("USER1");
+  }
+
+  @Test
+  void cacheAdministrationTest() {
+    var authProvider = new ProvysUsernamePasswordAuthProviderImpl(100);
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    authProvider.authenticate(setUpToken("USER2", "USER2PWD"));
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    assertThat(authProvider.getCacheHits()).isEqualTo(1);
+    assertThat(authProvider.getCacheMisses()).isEqualTo(2);
+    assertThat(authProvider.getCacheExpiryDistribution())
+        .containsEntry("expired", 0)
+        .containsEntry("<300s", 2)
+        .containsEntry(">=3600s", 0);
+    // evicted user has to be verified again
+    assertThat(authProvider.evictUser("user1")).isTrue();
+    assertThat(authProvider.evictUser("user1")).isFalse();
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    assertThat(authProvider.getAuths()).isEqualTo(3);
+    // size bound is applied immediately
+    authProvider.updateCacheSettings(100, 1);
+    assertThat(authProvider.getCacheSize()).isLessThanOrEqualTo(1);
+    assertThat(authProvider.getMaxCacheSize()).isEqualTo(1);
+    // new timeout applies to entries already in cache
+    authProvider.updateCacheSettings(0, 0);
+    assertThat(authProvider.getCacheTimeoutSec()).isZero();
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    authProvider.authenticate(setUpToken("USER2", "USER2PWD"));
+    assertThat(authProvider.getAuths()).isEqualTo(5);
+    assertThat(authProvider.getCacheSize()).isZero();
+  }
+
+  @Test
+  void cacheTrimTest() throws InterruptedException {
+    var authProvider = new ProvysUsernamePasswordAuthProviderImpl(1);
+    authProvider.updateCacheSettings(1, 2);
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    authProvider.authenticate(setUpToken("USER2", "USER2PWD"));
+    // full cache is scanned, nothing expired - arbitrary entry is dropped
+    authProvider.authenticate(setUpToken("USER3", "USER3PWD"));
+    assertThat(authProvider.getCacheSize()).isEqualTo(2);
+    Thread.sleep(1100);
+    // cache is not scanned again within scan interval, arbitrary entry is dropped even though
+    // expired entry remains in cache
+    authProvider.authenticate(setUpToken("USER4", "USER4PWD"));
+    assertThat(authProvider.getCacheSize()).isEqualTo(2);
+    assertThat(authProvider.getCacheExpiryDistribution()).containsEntry("expired", 1);
+    assertThat(authProvider.evictExpired()).isEqualTo(1);
+  }
+
+  @Test
+  void authenticateAllTest() {
+    var authProvider = new ProvysUsernamePasswordAuthProviderImpl(100);
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    var results = authProvider.authenticateAll(List.of(
+        new UsernamePasswordAuthenticationToken("USER1", "USER1PWD"),
+        new UsernamePasswordAuthenticationToken("USER2", "USER2PWD"),
+        new UsernamePasswordAuthenticationToken("USER3", "BADPWD"),
+        new UsernamePasswordAuthenticationToken("USER4", "USER4PWD")), Runnable::run);
+    assertThat(results).extracting(BulkAuthResult::isSuccess)
+        .containsExactly(true, true, false, true);
+    assertThat(results).extracting(BulkAuthResult::isCached)
+        .containsExactly(true, false, false, false);
+    assertThat(results.get(1).getRequest().getName()).isEqualTo("USER2");
+    assertThat(((UserData) results.get(3).getAuthentication().getPrincipal()).getShortNameNm())
+        .isEqualTo("USER4");
+    assertThat(results.get(2).getFailure()).isInstanceOf(BadCredentialsException.class);
+    assertThat(authProvider.getAuths()).isEqualTo(4);
+    // successful entries are cached
+    assertThat(authProvider.authenticateAll(List.of(
+        new UsernamePasswordAuthenticationToken("USER2", "USER2PWD"),
+        new UsernamePasswordAuthenticationToken("USER4", "USER4PWD"))))
+        .allMatch(BulkAuthResult::isCached);
+    assertThat(authProvider.getAuths()).isEqualTo(4);
+  }
+
+  @Test
+  void priorityClassTest() throws Exception {
+    var authProvider = new ProvysUsernamePasswordAuthProviderImpl(100);
+    var serviceClass = new AuthPriorityClass("service", "SVC_.*", List.of(), 1, 0, 0, 0);
+    var classifier = new AuthPriorityClassifier(List.of(serviceClass), 100);
+    authProvider.setPriorityClassifier(classifier);
+    // provider sharing classifier uses its own class limiter
+    var otherProvider = new ProvysUsernamePasswordAuthProviderImpl(100);
+    otherProvider.setPriorityClassifier(classifier);
+    assertThat(otherProvider.getConcurrencyLimiter(serviceClass))
+        .isNotSameAs(authProvider.getConcurrencyLimiter(serviceClass));
+    // users in class are verified within class bulkhead and cached for class timeout
+    authProvider.authenticate(setUpToken("SVC_IMPORT", "SVC_IMPORTPWD"));
+    authProvider.authenticate(setUpToken("SVC_IMPORT", "SVC_IMPORTPWD"));
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    authProvider.authenticate(setUpToken("USER1", "USER1PWD"));
+    assertThat(authProvider.getAuths()).isEqualTo(3);
+    assertThat(serviceClass.getCacheMisses()).isEqualTo(2);
+    assertThat(serviceClass.getCacheHits()).isZero();
+    assertThat(serviceClass.getCompletedCount()).isEqualTo(2);
+    assertThat(authProvider.getConcurrencyLimiter().getCompletedCount()).isEqualTo(1);
+    // saturated class bulkhead sheds users in class, but not other users
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var running = CompletableFuture.supplyAsync(() -> authProvider
+        .getConcurrencyLimiter(serviceClass).call(() -> {
+          started.countDown();
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "done";
+        }));
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThatCode(() -> authProvider.authenticate(setUpToken("SVC_EXPORT", "SVC_EXPORTPWD")))
+        .isInstanceOf(AuthOverloadedException.class);
+    assertThat(authProvider.authenticate(setUpToken("USER2", "USER2PWD")).getName())
+        .isEqualTo("USER2");
+    // saturated class limiter of one provider does not affect the same class in another provider
+    assertThat(otherProvider.authenticate(setUpToken("SVC_EXPORT", "SVC_EXPORTPWD")).getName())
+        .isEqualTo("SVC_EXPORT");
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("done");
+    assertThat(serviceClass.getRejectedCount()).isEqualTo(1);
+    assertThat(serviceClass.getCompletedCount()).isEqualTo(4);
+  }
+
+  @Test
+  void databaseFailureNotThrottledTest() {
+    var loginRateLimiter = new LoginRateLimiter(2, 100, 60);
+    var authProvider = new DatabaseAuthProviderImpl(loginRateLimiter);
+    // outage of database is not counted as failed login attempt
+    authProvider.setFailure(new SQLException("IO Error: Connection refused", "08006", 17002));
+    for (int i = 0; i < 5; i++) {
+      assertThatCode(() -> authProvider.authenticate(setUpToken("USER1", "USER1PWD")))
+          .isInstanceOf(InternalAuthenticationServiceException.class);
+    }
+    authProvider.setFailure(null);
+    assertThat(authProvider.authenticate(setUpToken("USER1", "USER1PWD")).getName())
+        .isEqualTo("USER1");
+    assertThat(loginRateLimiter.getThrottledCount()).isZero();
+    // rejected credentials still count
+    for (int i = 0; i < 2; i++) {
+      assertThatCode(() -> authProvider.authenticate(setUpToken("USER2", "WRONG")))
+          .isInstanceOf(AuthRejectedException.class);
+    }
+    assertThatCode(() -> authProvider.authenticate(setUpToken("USER2", "USER2PWD")))
+        .isInstanceOf(LoginThrottledException.class);
+  }
+
   @Test
   void supportsPositiveTest() {
     var authProvider = new ProvysUsernamePasswordAuthProviderImpl(10);
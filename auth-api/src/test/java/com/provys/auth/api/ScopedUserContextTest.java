@@ -0,0 +1,90 @@
+package com.provys.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class ScopedUserContextTest {
+
+  private static final UserData USER1 = ProvysUserData.of(DtUid.valueOf("1001"), "USER1",
+      "User 1", DtEncryptedString.valueOf("TOKEN1"));
+  private static final UserData USER2 = ProvysUserData.of(DtUid.valueOf("1002"), "USER2",
+      "User 2", DtEncryptedString.valueOf("TOKEN2"));
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void runTest() {
+    var userContext = new ScopedUserContext();
+    assertThat(ScopedUserContext.getBoundUser()).isNull();
+    ScopedUserContext.run(USER1, () -> {
+      assertThat(userContext.getCurrentUser()).isSameAs(USER1);
+      ScopedUserContext.run(USER2,
+          () -> assertThat(userContext.getCurrentUserId()).isEqualTo(USER2.getUserId()));
+      assertThat(ScopedUserContext.getBoundUser()).isSameAs(USER1);
+    });
+    assertThat(ScopedUserContext.getBoundUser()).isNull();
+    assertThat(ScopedUserContext.call(USER2, ScopedUserContext::getBoundUser)).isSameAs(USER2);
+    assertThatThrownBy(() -> ScopedUserContext.run(USER1, () -> {
+      throw new IllegalStateException("failure");
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(ScopedUserContext.getBoundUser()).isNull();
+  }
+
+  @Test
+  void securityContextFallbackTest() {
+    var userContext = new ScopedUserContext();
+    assertThatThrownBy(userContext::getCurrentUser).isInstanceOf(InternalException.class);
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        USER1, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    assertThat(userContext.getCurrentUser()).isSameAs(USER1);
+    ScopedUserContext.run(USER2,
+        () -> assertThat(userContext.getCurrentUser()).isSameAs(USER2));
+  }
+
+  @Test
+  void propagatingExecutorTest() throws Exception {
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var propagating = ScopedUserContext.propagating(executor);
+      assertThat(propagating.submit(ScopedUserContext::getBoundUser).get()).isNull();
+      ScopedUserContext.run(USER1, () -> {
+        try {
+          assertThat(propagating.submit(ScopedUserContext::getBoundUser).get())
+              .isSameAs(USER1);
+          assertThat(CompletableFuture.supplyAsync(ScopedUserContext::getBoundUser,
+              ScopedUserContext.propagating((Executor) executor)).get())
+              .isSameAs(USER1);
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      // binding does not leak to next task executed by the same thread
+      assertThat(executor.submit(ScopedUserContext::getBoundUser).get()).isNull();
+      SecurityContextHolder.getContext().setAuthentication(
+          new UsernamePasswordAuthenticationToken(USER2, null));
+      Callable<UserData> task = ScopedUserContext.wrap(
+          (Callable<UserData>) ScopedUserContext::getBoundUser);
+      assertThat(executor.submit(task).get()).isSameAs(USER2);
+    } finally {
+      executor.shutdown();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+}
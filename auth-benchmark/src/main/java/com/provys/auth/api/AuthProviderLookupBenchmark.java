@@ -0,0 +1,80 @@
+package com.provys.auth.api;
+
+import com.provys.auth.mock.MockAuthProvider;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+/**
+ * Look-up of authentication provider by name via {@link AuthProviderLookup}, after registry has
+ * been built.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthProviderLookupBenchmark {
+
+  private GenericApplicationContext applicationContext;
+  private AuthProviderLookup lookup;
+
+  /**
+   * Register providers in application context and build registry.
+   */
+  @Setup
+  public void setUp() {
+    applicationContext = new GenericApplicationContext();
+    for (var beanName : List.of(AuthProviders.ORACLE.getBeanName(),
+        AuthProviders.EXTUSER.getBeanName(), AuthProviders.MOCK.getBeanName() + "1")) {
+      applicationContext.registerBean(beanName, MockAuthProvider.class,
+          () -> new MockAuthProvider(Map.of()));
+    }
+    applicationContext.refresh();
+    lookup = new AuthProviderLookup(applicationContext, List.of(), false, 1000);
+    lookup.afterSingletonsInstantiated();
+  }
+
+  /**
+   * Close application context.
+   */
+  @TearDown
+  public void tearDown() {
+    lookup.destroy();
+    applicationContext.close();
+  }
+
+  @Benchmark
+  public AuthenticationProvider upperCase() {
+    return lookup.getAuthProvider("ORACLE");
+  }
+
+  @Benchmark
+  public AuthenticationProvider mixedCase() {
+    return lookup.getAuthProvider("ExtUser");
+  }
+
+  @Benchmark
+  public AuthenticationProvider mock() {
+    return lookup.getAuthProvider("MOCK$1");
+  }
+
+  @Benchmark
+  public AuthenticationProvider composite() {
+    return lookup.getAuthProvider("ORACLE+EXTUSER");
+  }
+}
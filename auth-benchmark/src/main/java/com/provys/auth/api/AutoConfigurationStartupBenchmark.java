@@ -0,0 +1,69 @@
+package com.provys.auth.api;
+
+import com.provys.auth.extuser.ExtUserAuthAutoConfiguration;
+import com.provys.auth.mock.SyntheticMockAuthAutoConfiguration;
+import com.provys.auth.oracle.OracleAuthAutoConfiguration;
+import com.provys.auth.token.SignedTokenAutoConfiguration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Start-up of application context containing auto-configurations of all providers on benchmark
+ * class-path, with and without property {@code provysauth.providers} (empty value means property
+ * is not set and all providers are enabled). Providers use lazy data sources, thus no database is
+ * needed. Returns number of beans in started context. Default mode measures warm start-up; cold
+ * start-up is measured by single shot in fresh JVMs (e.g.
+ * {@code java -jar benchmarks.jar -bm ss -wi 0 -i 1 -f 20 AutoConfigurationStartup}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class AutoConfigurationStartupBenchmark {
+
+  @Param({"", "TOKEN", "ORACLE"})
+  public String providers;
+
+  /**
+   * Start and close application context.
+   *
+   * @return number of beans in context
+   */
+  @Benchmark
+  public int startup() {
+    var properties = new HashMap<String, Object>(8);
+    if (!providers.isEmpty()) {
+      properties.put("provysauth.providers", providers);
+    }
+    properties.put("provysdb.url", "localhost:1521/benchmark");
+    properties.put("provysdb.user", "benchmark");
+    properties.put("provysdb.pwd", "benchmark");
+    properties.put("provysauth.token.keys",
+        "1:" + Base64.getEncoder().encodeToString(new byte[32]));
+    properties.put("provysauth.token.activeKeyId", "1");
+    try (var applicationContext = new AnnotationConfigApplicationContext()) {
+      applicationContext.getEnvironment().getPropertySources()
+          .addFirst(new MapPropertySource("benchmark", properties));
+      applicationContext.register(ProvysAuthAutoConfiguration.class,
+          OracleAuthAutoConfiguration.class, ExtUserAuthAutoConfiguration.class,
+          SignedTokenAutoConfiguration.class, SyntheticMockAuthAutoConfiguration.class);
+      applicationContext.refresh();
+      return applicationContext.getBeanDefinitionCount();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.provys.auth.api;
+
+import com.provys.auth.benchmark.BenchmarkUsers;
+import com.provys.common.datatype.DtUid;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Retrieval of current user from security context via {@link ProvysUserContext}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProvysUserContextBenchmark {
+
+  private final ProvysUserContext userContext = new ProvysUserContext();
+
+  /**
+   * Set authentication in security context of benchmark thread.
+   */
+  @Setup
+  public void setUp() {
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        BenchmarkUsers.userData("BENCHUSER"), null, BenchmarkUsers.USER_ROLES));
+  }
+
+  /**
+   * Clear security context of benchmark thread.
+   */
+  @TearDown
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Benchmark
+  public UserData getCurrentUser() {
+    return userContext.getCurrentUser();
+  }
+
+  @Benchmark
+  public DtUid getCurrentUserId() {
+    return userContext.getCurrentUserId();
+  }
+}
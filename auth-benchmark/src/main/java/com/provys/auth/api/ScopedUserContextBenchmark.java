@@ -0,0 +1,78 @@
+package com.provys.auth.api;
+
+import com.provys.auth.benchmark.BenchmarkUsers;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Lookup of current user via {@link ScopedUserContext} and cost of propagating user to task
+ * executed by other thread, compared with propagation of whole security context. Propagation
+ * benchmarks wrap and run task on benchmark thread, thus they measure capture and binding only,
+ * not hand-off between threads. Run on JDK with {@code ScopedValue} (with
+ * {@code --enable-preview} where needed) to measure scoped value binding, otherwise thread local
+ * fallback is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScopedUserContextBenchmark {
+
+  private final ScopedUserContext userContext = new ScopedUserContext();
+  private final UserData userData = BenchmarkUsers.userData("BENCHUSER");
+
+  /**
+   * Set authentication in security context of benchmark thread.
+   */
+  @Setup
+  public void setUp() {
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        userData, null, BenchmarkUsers.USER_ROLES));
+  }
+
+  /**
+   * Clear security context of benchmark thread.
+   */
+  @TearDown
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Benchmark
+  public void getBoundUser(Blackhole blackhole) {
+    ScopedUserContext.run(userData, () -> blackhole.consume(userContext.getCurrentUser()));
+  }
+
+  @Benchmark
+  public UserData getUnboundUser() {
+    // falls back to security context
+    return userContext.getCurrentUser();
+  }
+
+  @Benchmark
+  public void propagateScoped(Blackhole blackhole) {
+    ScopedUserContext.wrap(() -> blackhole.consume(userContext.getCurrentUser())).run();
+  }
+
+  @Benchmark
+  public void propagateSecurityContext(Blackhole blackhole) {
+    new DelegatingSecurityContextRunnable(() -> blackhole.consume(
+        SecurityContextHolder.getContext().getAuthentication().getPrincipal())).run();
+  }
+}
@@ -0,0 +1,111 @@
+package com.provys.auth.api;
+
+import com.provys.auth.benchmark.BenchmarkUsers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Serialization of {@link ProvysUserData} and authentication token holding it - Java serialization
+ * compared to {@link AuthenticationCodec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDataSerializationBenchmark {
+
+  private UserData userData;
+  private Authentication authentication;
+  private byte[] userDataJava;
+  private byte[] userDataCodec;
+  private byte[] authenticationJava;
+  private byte[] authenticationCodec;
+
+  private static byte[] javaSerialize(Object value) throws IOException {
+    var output = new ByteArrayOutputStream(512);
+    try (var objectOutput = new ObjectOutputStream(output)) {
+      objectOutput.writeObject(value);
+    }
+    return output.toByteArray();
+  }
+
+  private static Object javaDeserialize(byte[] data) throws IOException, ClassNotFoundException {
+    try (var objectInput = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return objectInput.readObject();
+    }
+  }
+
+  /**
+   * Prepare values and their serialized forms.
+   *
+   * @throws IOException if Java serialization fails
+   */
+  @Setup
+  public void setUp() throws IOException {
+    userData = BenchmarkUsers.userData("BENCHUSER");
+    authentication = new UsernamePasswordAuthenticationToken(userData, null,
+        BenchmarkUsers.USER_ROLES);
+    userDataJava = javaSerialize(userData);
+    userDataCodec = AuthenticationCodec.encode(userData);
+    authenticationJava = javaSerialize(authentication);
+    authenticationCodec = AuthenticationCodec.encode(authentication);
+  }
+
+  @Benchmark
+  public byte[] userDataJavaSerialize() throws IOException {
+    return javaSerialize(userData);
+  }
+
+  @Benchmark
+  public Object userDataJavaDeserialize() throws IOException, ClassNotFoundException {
+    return javaDeserialize(userDataJava);
+  }
+
+  @Benchmark
+  public byte[] userDataCodecEncode() {
+    return AuthenticationCodec.encode(userData);
+  }
+
+  @Benchmark
+  public Object userDataCodecDecode() {
+    return AuthenticationCodec.decode(userDataCodec);
+  }
+
+  @Benchmark
+  public byte[] authenticationJavaSerialize() throws IOException {
+    return javaSerialize(authentication);
+  }
+
+  @Benchmark
+  public Object authenticationJavaDeserialize() throws IOException, ClassNotFoundException {
+    return javaDeserialize(authenticationJava);
+  }
+
+  @Benchmark
+  public byte[] authenticationCodecEncode() {
+    return AuthenticationCodec.encode(authentication);
+  }
+
+  @Benchmark
+  public Object authenticationCodecDecode() {
+    return AuthenticationCodec.decode(authenticationCodec);
+  }
+}
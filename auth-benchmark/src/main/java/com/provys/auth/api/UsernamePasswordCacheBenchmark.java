@@ -0,0 +1,182 @@
+package com.provys.auth.api;
+
+import com.provys.auth.benchmark.BenchmarkUsers;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Credential cache of {@link ProvysUsernamePasswordAuthProvider}: cache hit, miss (cached password
+ * differs), expired entry and rejected credentials. Actual authentication is simulated with
+ * configurable latency. Nested classes run the same benchmarks with 4, 16 and 64 threads; run with
+ * {@code -prof gc} to verify that cache hit does not allocate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class UsernamePasswordCacheBenchmark {
+
+  private static final String INVALID_PASSWORD = "INVALID";
+
+  @Param({"1024"})
+  private int users;
+
+  @Param({"0"})
+  private long latencyMicros;
+
+  private BenchmarkProvider cachingProvider;
+  private BenchmarkProvider expiringProvider;
+  private UsernamePasswordAuthenticationToken[] requests;
+  private UsernamePasswordAuthenticationToken[] alternateRequests;
+  private UsernamePasswordAuthenticationToken[] invalidRequests;
+
+  /**
+   * Provider simulating database authentication. Any password except {@code INVALID} is accepted.
+   */
+  static final class BenchmarkProvider extends ProvysUsernamePasswordAuthProvider {
+
+    private static final SQLException INVALID_CREDENTIALS =
+        new SQLException("ORA-01017: invalid username/password; logon denied", "72000", 1017);
+
+    private final long latencyNanos;
+
+    BenchmarkProvider(long cacheTimeoutSec, long latencyMicros) {
+      super(cacheTimeoutSec, new AdaptiveConcurrencyLimiter(256, 1024, 10_000L),
+          new LoginRateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, 60));
+      this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    }
+
+    @Override
+    protected Authentication doAuthenticate(String userName, String password) {
+      if (latencyNanos > 0) {
+        LockSupport.parkNanos(latencyNanos);
+      }
+      if (password.equals(INVALID_PASSWORD)) {
+        throw rejectLogin(userName, INVALID_CREDENTIALS);
+      }
+      return new UsernamePasswordAuthenticationToken(BenchmarkUsers.userData(userName), null,
+          BenchmarkUsers.USER_ROLES);
+    }
+  }
+
+  /**
+   * Position of thread in list of users.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+    /** Toggled each time cursor wraps around, used to alternate passwords between rounds. */
+    private boolean alternate;
+
+    int nextIndex(int users) {
+      var result = next;
+      if (result + 1 == users) {
+        next = 0;
+        alternate = !alternate;
+      } else {
+        next = result + 1;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Create providers and requests and populate cache of caching provider.
+   */
+  @Setup
+  public void setUp() {
+    cachingProvider = new BenchmarkProvider(3600, latencyMicros);
+    expiringProvider = new BenchmarkProvider(0, latencyMicros);
+    requests = new UsernamePasswordAuthenticationToken[users];
+    alternateRequests = new UsernamePasswordAuthenticationToken[users];
+    invalidRequests = new UsernamePasswordAuthenticationToken[users];
+    for (int i = 0; i < users; i++) {
+      requests[i] = BenchmarkUsers.request(i);
+      alternateRequests[i] = new UsernamePasswordAuthenticationToken(BenchmarkUsers.userName(i),
+          "ALTERNATE");
+      invalidRequests[i] = new UsernamePasswordAuthenticationToken(BenchmarkUsers.userName(i),
+          INVALID_PASSWORD);
+      cachingProvider.authenticate(requests[i]);
+    }
+  }
+
+  /**
+   * Credentials found in cache.
+   */
+  @Benchmark
+  public Authentication hit(Cursor cursor) {
+    return cachingProvider.authenticate(requests[cursor.nextIndex(users)]);
+  }
+
+  /**
+   * User found in cache, but with different password; password alternates between rounds over
+   * list of users, so that call goes to (simulated) database.
+   */
+  @Benchmark
+  public Authentication miss(Cursor cursor) {
+    var index = cursor.nextIndex(users);
+    return cachingProvider.authenticate(
+        cursor.alternate ? alternateRequests[index] : requests[index]);
+  }
+
+  /**
+   * Cache entry always expired (cache timeout 0) - entry is removed and re-added on each call.
+   */
+  @Benchmark
+  public Authentication expiry(Cursor cursor) {
+    return expiringProvider.authenticate(requests[cursor.nextIndex(users)]);
+  }
+
+  /**
+   * Credentials rejected by (simulated) database.
+   */
+  @Benchmark
+  public Object reject(Cursor cursor) {
+    try {
+      return cachingProvider.authenticate(invalidRequests[cursor.nextIndex(users)]);
+    } catch (AuthenticationException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Benchmarks with 4 threads.
+   */
+  @Threads(4)
+  public static class Threads4 extends UsernamePasswordCacheBenchmark {
+  }
+
+  /**
+   * Benchmarks with 16 threads.
+   */
+  @Threads(16)
+  public static class Threads16 extends UsernamePasswordCacheBenchmark {
+  }
+
+  /**
+   * Benchmarks with 64 threads.
+   */
+  @Threads(64)
+  public static class Threads64 extends UsernamePasswordCacheBenchmark {
+  }
+}
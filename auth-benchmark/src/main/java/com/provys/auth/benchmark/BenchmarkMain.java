@@ -0,0 +1,41 @@
+package com.provys.auth.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.openjdk.jmh.Main;
+
+/**
+ * Entry point of benchmark jar. Runs JMH with supplied arguments; unless result format is
+ * specified, results are written in JSON format to {@code jmh-result.json}, so that they can be
+ * compared across releases (e.g. using JMH Visualizer or simple script).
+ *
+ * <p>Usage: {@code java -jar auth-benchmark/target/benchmarks.jar [JMH options] [regexp]}, e.g.
+ * {@code java -jar benchmarks.jar -prof gc UsernamePasswordCache}.
+ */
+public final class BenchmarkMain {
+
+  static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  private BenchmarkMain() {
+  }
+
+  /**
+   * Run benchmarks.
+   *
+   * @param args are JMH command line arguments
+   * @throws IOException if JMH fails to write results
+   */
+  public static void main(String[] args) throws IOException {
+    var arguments = new ArrayList<>(Arrays.asList(args));
+    if (!arguments.contains("-rf")) {
+      arguments.add("-rf");
+      arguments.add("json");
+      if (!arguments.contains("-rff")) {
+        arguments.add("-rff");
+        arguments.add(DEFAULT_RESULT_FILE);
+      }
+    }
+    Main.main(arguments.toArray(new String[0]));
+  }
+}
@@ -0,0 +1,40 @@
+package com.provys.auth.benchmark;
+
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.auth.api.UserDataFactory;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.sql.Connection;
+
+/**
+ * User data factory that does not access database; connection is ignored and fixed user data are
+ * returned.
+ */
+public final class BenchmarkUserDataFactory implements UserDataFactory {
+
+  private final UserData userData = BenchmarkUsers.userData("BENCHUSER");
+
+  @Override
+  public UserData getUserData(DtUid userId, String shortNameNm, String fullName,
+      DtEncryptedString dbToken) {
+    return ProvysUserData.of(userId, shortNameNm, fullName, dbToken);
+  }
+
+  @Override
+  public UserData getUserData(Connection connection) {
+    return userData;
+  }
+
+  @Override
+  public UserData getUserData(DtUid userId) {
+    return userData;
+  }
+
+  @Override
+  public String toString() {
+    return "BenchmarkUserDataFactory{"
+        + "userData=" + userData
+        + '}';
+  }
+}
@@ -0,0 +1,78 @@
+package com.provys.auth.benchmark;
+
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.util.List;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Test data shared by benchmarks. Password of each user is its user name followed by
+ * {@value #PASSWORD_SUFFIX}.
+ */
+public final class BenchmarkUsers {
+
+  /** Suffix appended to user name to get valid password. */
+  public static final String PASSWORD_SUFFIX = "PWD";
+  /** Roles assigned to authenticated users. */
+  public static final List<GrantedAuthority> USER_ROLES =
+      AuthorityUtils.createAuthorityList("ROLE_USER");
+
+  private BenchmarkUsers() {
+  }
+
+  /**
+   * Name of user with given index.
+   *
+   * @param index is index of user
+   * @return user name
+   */
+  public static String userName(int index) {
+    return "BENCHUSER" + index;
+  }
+
+  /**
+   * Valid password for given user.
+   *
+   * @param userName is user name
+   * @return password accepted for given user
+   */
+  public static String password(String userName) {
+    return userName + PASSWORD_SUFFIX;
+  }
+
+  /**
+   * User data of user with given name.
+   *
+   * @param userName is user name
+   * @return user data with fixed Id, full name and token
+   */
+  public static UserData userData(String userName) {
+    return ProvysUserData.of(DtUid.valueOf("5214489678945156"), userName, "Benchmark User",
+        DtEncryptedString.valueOf("KJNjkdDOICHJoiijoi"));
+  }
+
+  /**
+   * Authentication request with valid credentials for user with given index.
+   *
+   * @param index is index of user
+   * @return unauthenticated username / password token
+   */
+  public static UsernamePasswordAuthenticationToken request(int index) {
+    var userName = userName(index);
+    return new UsernamePasswordAuthenticationToken(userName, password(userName));
+  }
+
+  /**
+   * Authentication request with invalid password for user with given index.
+   *
+   * @param index is index of user
+   * @return unauthenticated username / password token
+   */
+  public static UsernamePasswordAuthenticationToken invalidRequest(int index) {
+    return new UsernamePasswordAuthenticationToken(userName(index), "INVALID");
+  }
+}
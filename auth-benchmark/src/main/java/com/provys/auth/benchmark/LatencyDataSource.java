@@ -0,0 +1,138 @@
+package com.provys.auth.benchmark;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Data source simulating database round-trip. Each {@link #getConnection(String, String)} waits for
+ * configured latency and then either returns dummy connection or, if password is not valid
+ * according to {@link BenchmarkUsers#password}, fails with ORA-01017. Exception is preallocated,
+ * so that benchmarks measure rejection path of provider, not creation of {@link SQLException}.
+ * Dummy connection and statements prepared on it accept any call and return default values.
+ */
+public final class LatencyDataSource implements DataSource {
+
+  private static final SQLException INVALID_CREDENTIALS =
+      new SQLException("ORA-01017: invalid username/password; logon denied", "72000", 1017);
+
+  private final long latencyNanos;
+  private final boolean checkPassword;
+  private final Connection connection;
+
+  /**
+   * Create data source with given latency.
+   *
+   * @param latencyMicros is time each connection attempt takes, in microseconds
+   * @param checkPassword defines if password is verified; if false, any credentials are accepted
+   */
+  public LatencyDataSource(long latencyMicros, boolean checkPassword) {
+    this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    this.checkPassword = checkPassword;
+    this.connection = createConnection();
+  }
+
+  /**
+   * Default value of return type of invoked method.
+   */
+  private static @Nullable Object defaultValue(Object proxy, Method method) {
+    var returnType = method.getReturnType();
+    if (returnType == boolean.class) {
+      return false;
+    }
+    if (returnType == int.class) {
+      return 0;
+    }
+    if (returnType == long.class) {
+      return 0L;
+    }
+    if (method.getName().equals("hashCode")) {
+      return System.identityHashCode(proxy);
+    }
+    if (method.getName().equals("toString")) {
+      return "Benchmark" + method.getDeclaringClass().getSimpleName();
+    }
+    return null;
+  }
+
+  private static Connection createConnection() {
+    var statement = (CallableStatement) Proxy.newProxyInstance(
+        CallableStatement.class.getClassLoader(), new Class<?>[]{CallableStatement.class},
+        (proxy, method, args) -> defaultValue(proxy, method));
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class},
+        (proxy, method, args) -> method.getName().startsWith("prepare") ? statement
+            : defaultValue(proxy, method));
+  }
+
+  private void waitLatency() {
+    if (latencyNanos > 0) {
+      LockSupport.parkNanos(latencyNanos);
+    }
+  }
+
+  @Override
+  public Connection getConnection() {
+    waitLatency();
+    return connection;
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    waitLatency();
+    if (checkPassword && !password.equals(BenchmarkUsers.password(username))) {
+      throw INVALID_CREDENTIALS;
+    }
+    return connection;
+  }
+
+  @Override
+  public @Nullable PrintWriter getLogWriter() {
+    return null;
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) {
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) {
+  }
+
+  @Override
+  public int getLoginTimeout() {
+    return 0;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException("Logging not supported by benchmark data source");
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    throw new SQLException("Benchmark data source does not wrap " + iface.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyDataSource{"
+        + "latencyNanos=" + latencyNanos
+        + ", checkPassword=" + checkPassword
+        + '}';
+  }
+}
@@ -0,0 +1,310 @@
+package com.provys.auth.benchmark;
+
+import com.provys.auth.api.AuthOverloadedException;
+import com.provys.auth.api.LoginThrottledException;
+import com.provys.auth.api.ProvysUsernamePasswordAuthProvider;
+import com.provys.auth.api.UserDataFactoryImpl;
+import com.provys.auth.extuser.ExtUserProviderFactory;
+import com.provys.auth.fakedb.FakeOperation;
+import com.provys.auth.fakedb.FakeProvysDatabase;
+import com.provys.auth.oracle.OracleProviderFactory;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Load and soak test of Oracle / ExtUser provider, including credential cache, concurrency limiter
+ * and login rate limiter, against {@link FakeProvysDatabase}. Traffic is generated by configured
+ * number of client threads; users are drawn from Zipf distribution, fraction of requests uses
+ * invalid password and passwords of random users are changed at configured rate (clients learn new
+ * password immediately, thus password change shows as cache miss). As all users are cached during
+ * first seconds of test, cache entries expire in waves, visible as peaks of database calls.
+ *
+ * <p>At the end of each report interval, harness prints throughput, latency percentiles (recorded
+ * in HdrHistogram), database calls per second, outcome counts, size of credential cache and used
+ * heap; summary over whole run is printed at the end. Report can also be written to CSV file.
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar com.provys.auth.benchmark.LoadHarness [scenario]},
+ * where scenario is properties file or class-path resource (default
+ * {@value #DEFAULT_SCENARIO}). From the build, run
+ * {@code mvn -pl auth-benchmark -am -P load verify -Dload.scenario=<scenario>}.
+ */
+public final class LoadHarness {
+
+  static final String DEFAULT_SCENARIO = "load-default.properties";
+
+  private static final String TECH_USER = "LOADTECH";
+  private static final String TECH_PWD = "LOADTECHPWD";
+  private static final String INVALID_PASSWORD = "INVALID";
+  private static final long HIGHEST_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+  private static final String HEADER = "time_s,ops_per_s,p50_us,p99_us,p99_9_us,max_us,"
+      + "db_calls_per_s,rejected,throttled,overloaded,errors,cache_size,heap_mb";
+
+  private final LoadScenario scenario;
+  private final FakeProvysDatabase database;
+  private final ProvysUsernamePasswordAuthProvider provider;
+  private final String[] userNames;
+  private final AtomicIntegerArray passwordVersions;
+  private final ZipfSampler sampler;
+  private final Recorder recorder = new Recorder(HIGHEST_LATENCY_NANOS, 3);
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder rejectedValid = new LongAdder();
+  private final LongAdder throttled = new LongAdder();
+  private final LongAdder overloaded = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder passwordChanges = new LongAdder();
+  private volatile boolean running = true;
+
+  /**
+   * Create harness for given scenario - populate fake database and create provider.
+   *
+   * @param scenario is scenario of test
+   */
+  public LoadHarness(LoadScenario scenario) {
+    this.scenario = scenario;
+    this.database = new FakeProvysDatabase()
+        .addDbUser(BigDecimal.ONE, TECH_USER, "Load Test Technical User", TECH_PWD)
+        .setLatency(FakeOperation.LOGON, scenario.getLogonLatencyMicros())
+        .setLatency(FakeOperation.SET_EXT_USER_PASSWORD, scenario.getExtUserLatencyMicros())
+        .setLatency(FakeOperation.GET_USER_DATA, scenario.getUserDataLatencyMicros());
+    for (var operation : FakeOperation.values()) {
+      database.setMaxConcurrency(operation, scenario.getDbMaxConcurrency());
+      if (scenario.getDbErrorRate() > 0) {
+        database.setErrorRate(operation, scenario.getDbErrorRate(), 3113);
+      }
+    }
+    this.userNames = new String[scenario.getUsers()];
+    this.passwordVersions = new AtomicIntegerArray(scenario.getUsers());
+    var extUser = scenario.getProvider() == LoadScenario.Provider.EXTUSER;
+    for (int i = 0; i < userNames.length; i++) {
+      userNames[i] = BenchmarkUsers.userName(i);
+      var userId = BigDecimal.valueOf(1000L + i);
+      if (extUser) {
+        database.addExtUser(userId, userNames[i], "Load User " + i, password(i, 0));
+      } else {
+        database.addDbUser(userId, userNames[i], "Load User " + i, password(i, 0));
+      }
+    }
+    this.sampler = new ZipfSampler(scenario.getUsers(), scenario.getZipfExponent());
+    var userDataFactory = new UserDataFactoryImpl("load", TECH_USER, TECH_PWD);
+    this.provider = extUser
+        ? ExtUserProviderFactory.create(database.getDataSource(), TECH_USER, TECH_PWD,
+        scenario.getCacheTimeoutSec(), userDataFactory)
+        : OracleProviderFactory.create(database.getDataSource(), scenario.getCacheTimeoutSec(),
+            userDataFactory);
+  }
+
+  private String password(int index, int version) {
+    return userNames[index] + BenchmarkUsers.PASSWORD_SUFFIX + version;
+  }
+
+  /**
+   * Single authentication request, with latency and outcome recorded.
+   */
+  private void authenticate(ThreadLocalRandom random) {
+    var index = sampler.next(random);
+    var valid = random.nextDouble() >= scenario.getBadCredentialRatio();
+    var password = valid ? password(index, passwordVersions.get(index)) : INVALID_PASSWORD;
+    var request = new UsernamePasswordAuthenticationToken(userNames[index], password);
+    var start = System.nanoTime();
+    try {
+      provider.authenticate(request);
+    } catch (LoginThrottledException e) {
+      throttled.increment();
+    } catch (BadCredentialsException e) {
+      rejected.increment();
+      if (valid) {
+        rejectedValid.increment();
+      }
+    } catch (AuthOverloadedException e) {
+      overloaded.increment();
+    } catch (RuntimeException e) {
+      errors.increment();
+    }
+    recorder.recordValue(Math.min(System.nanoTime() - start, HIGHEST_LATENCY_NANOS));
+  }
+
+  private void runClient() {
+    var random = ThreadLocalRandom.current();
+    var thinkTimeNanos = TimeUnit.MICROSECONDS.toNanos(scenario.getThinkTimeMicros());
+    while (running) {
+      authenticate(random);
+      if (thinkTimeNanos > 0) {
+        LockSupport.parkNanos(thinkTimeNanos);
+      }
+    }
+  }
+
+  private void changePassword() {
+    var index = ThreadLocalRandom.current().nextInt(userNames.length);
+    // database is changed first - client using new password before change would be rejected
+    var version = passwordVersions.get(index) + 1;
+    database.changePassword(userNames[index], password(index, version));
+    passwordVersions.set(index, version);
+    passwordChanges.increment();
+  }
+
+  private long getDbCalls() {
+    long result = 0;
+    for (var operation : FakeOperation.values()) {
+      result += database.getInvocationCount(operation);
+    }
+    return result;
+  }
+
+  private static long getUsedHeap() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private static String formatLine(double timeSec, long operations, double intervalSec,
+      Histogram histogram, long dbCalls, long[] outcomes, int cacheSize, long heap) {
+    return String.format(Locale.ENGLISH, "%.1f,%.0f,%.1f,%.1f,%.1f,%.1f,%.0f,%d,%d,%d,%d,%d,%d",
+        timeSec, operations / intervalSec,
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0,
+        histogram.getMaxValue() / 1000.0,
+        dbCalls / intervalSec, outcomes[0], outcomes[1], outcomes[2], outcomes[3], cacheSize,
+        heap / (1024 * 1024));
+  }
+
+  private long[] getOutcomes() {
+    return new long[]{rejected.sum(), throttled.sum(), overloaded.sum(), errors.sum()};
+  }
+
+  /**
+   * Run load test and write report to given stream.
+   *
+   * @param out is stream report is written to
+   * @throws IOException if report file cannot be written
+   * @throws InterruptedException if thread is interrupted while waiting for test to finish
+   */
+  public void run(PrintStream out) throws IOException, InterruptedException {
+    out.println("Load scenario: " + scenario);
+    PrintWriter reportFile = null;
+    if (!scenario.getReportFile().isEmpty()) {
+      reportFile = new PrintWriter(Files.newBufferedWriter(Path.of(scenario.getReportFile()),
+          StandardCharsets.UTF_8));
+      reportFile.println(HEADER);
+    }
+    var scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "load-password-change");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (scenario.getPasswordChangesPerSec() > 0) {
+      var periodMicros = Math.max(1, (long) (1_000_000 / scenario.getPasswordChangesPerSec()));
+      scheduler.scheduleAtFixedRate(this::changePassword, periodMicros, periodMicros,
+          TimeUnit.MICROSECONDS);
+    }
+    var clients = new ArrayList<Thread>(scenario.getThreads());
+    for (int i = 0; i < scenario.getThreads(); i++) {
+      var client = new Thread(this::runClient, "load-client-" + i);
+      client.setDaemon(true);
+      clients.add(client);
+    }
+    var total = new Histogram(HIGHEST_LATENCY_NANOS, 3);
+    Histogram interval = null;
+    var start = System.nanoTime();
+    var end = start + TimeUnit.SECONDS.toNanos(scenario.getDurationSec());
+    var lastReport = start;
+    var lastDbCalls = getDbCalls();
+    long peakHeap = 0;
+    out.println(HEADER);
+    try {
+      for (var client : clients) {
+        client.start();
+      }
+      var now = start;
+      while (now < end) {
+        var nextReport = Math.min(end,
+            lastReport + TimeUnit.SECONDS.toNanos(scenario.getReportIntervalSec()));
+        while ((now = System.nanoTime()) < nextReport) {
+          TimeUnit.NANOSECONDS.sleep(nextReport - now);
+        }
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        var dbCalls = getDbCalls();
+        var heap = getUsedHeap();
+        peakHeap = Math.max(peakHeap, heap);
+        var line = formatLine((now - start) / 1e9, interval.getTotalCount(),
+            (now - lastReport) / 1e9, interval, dbCalls - lastDbCalls, getOutcomes(),
+            provider.getCacheSize(), heap);
+        out.println(line);
+        if (reportFile != null) {
+          reportFile.println(line);
+          reportFile.flush();
+        }
+        lastReport = now;
+        lastDbCalls = dbCalls;
+      }
+    } finally {
+      running = false;
+      scheduler.shutdownNow();
+      for (var client : clients) {
+        client.join();
+      }
+      if (reportFile != null) {
+        reportFile.close();
+      }
+    }
+    total.add(recorder.getIntervalHistogram());
+    printSummary(out, total, (System.nanoTime() - start) / 1e9, peakHeap);
+  }
+
+  private void printSummary(PrintStream out, Histogram total, double durationSec,
+      long peakHeap) {
+    out.println();
+    out.printf(Locale.ENGLISH, "Requests: %d in %.1f s (%.0f ops/s)%n", total.getTotalCount(),
+        durationSec, total.getTotalCount() / durationSec);
+    out.printf(Locale.ENGLISH, "Latency (us): p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+        total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+        total.getValueAtPercentile(99.9) / 1000.0, total.getMaxValue() / 1000.0);
+    out.printf(Locale.ENGLISH, "Database calls: %d (%.0f per s), logons %d%n", getDbCalls(),
+        getDbCalls() / durationSec, database.getInvocationCount(FakeOperation.LOGON));
+    out.printf(Locale.ENGLISH,
+        "Rejected: %d (valid credentials %d), throttled %d, overloaded %d, errors %d, "
+            + "password changes %d%n", rejected.sum(), rejectedValid.sum(), throttled.sum(),
+        overloaded.sum(), errors.sum(), passwordChanges.sum());
+    out.printf(Locale.ENGLISH, "Cache size: %d, peak heap: %d MB%n", provider.getCacheSize(),
+        peakHeap / (1024 * 1024));
+  }
+
+  /**
+   * Run load test.
+   *
+   * @param args optionally contains path or class-path resource name of scenario
+   * @throws IOException if scenario cannot be read or report cannot be written
+   * @throws InterruptedException if interrupted while waiting for test to finish
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var location = ((args.length > 0) && !args[0].isBlank()) ? args[0]
+        : DEFAULT_SCENARIO;
+    new LoadHarness(LoadScenario.load(location)).run(System.out);
+  }
+
+  @Override
+  public String toString() {
+    return "LoadHarness{"
+        + "scenario=" + scenario
+        + ", provider=" + provider
+        + '}';
+  }
+}
@@ -0,0 +1,283 @@
+package com.provys.auth.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Scenario of load test, read from properties file. Defines provider being tested, traffic
+ * (number of client threads, size and Zipf exponent of user population, fraction of invalid
+ * credentials and rate of password changes) and behaviour of fake database.
+ *
+ * <p>Properties not present in file take default values; see {@code load-default.properties} for
+ * list of supported properties and their meaning.
+ */
+public final class LoadScenario {
+
+  /**
+   * Provider exercised by load test.
+   */
+  public enum Provider {
+    /** Oracle provider, verifying credentials by database logon. */
+    ORACLE,
+    /** ExtUser provider, verifying credentials via technical session. */
+    EXTUSER
+  }
+
+  private final String name;
+  private final Provider provider;
+  private final long durationSec;
+  private final long reportIntervalSec;
+  private final int threads;
+  private final long thinkTimeMicros;
+  private final int users;
+  private final double zipfExponent;
+  private final double badCredentialRatio;
+  private final double passwordChangesPerSec;
+  private final long cacheTimeoutSec;
+  private final long logonLatencyMicros;
+  private final long extUserLatencyMicros;
+  private final long userDataLatencyMicros;
+  private final int dbMaxConcurrency;
+  private final double dbErrorRate;
+  private final String reportFile;
+
+  private LoadScenario(String name, Properties properties) {
+    this.name = name;
+    this.provider = Provider.valueOf(
+        properties.getProperty("provider", "ORACLE").trim().toUpperCase(Locale.ENGLISH));
+    this.durationSec = getLong(properties, "durationSec", 60);
+    this.reportIntervalSec = getLong(properties, "reportIntervalSec", 5);
+    this.threads = (int) getLong(properties, "threads", 16);
+    this.thinkTimeMicros = getLong(properties, "thinkTimeMicros", 0);
+    this.users = (int) getLong(properties, "users", 10_000);
+    this.zipfExponent = getDouble(properties, "zipfExponent", 1.0);
+    this.badCredentialRatio = getDouble(properties, "badCredentialRatio", 0.02);
+    this.passwordChangesPerSec = getDouble(properties, "passwordChangesPerSec", 1.0);
+    this.cacheTimeoutSec = getLong(properties, "cacheTimeoutSec", 30);
+    this.logonLatencyMicros = getLong(properties, "db.logonLatencyMicros", 2000);
+    this.extUserLatencyMicros = getLong(properties, "db.extUserLatencyMicros", 1000);
+    this.userDataLatencyMicros = getLong(properties, "db.userDataLatencyMicros", 500);
+    this.dbMaxConcurrency = (int) getLong(properties, "db.maxConcurrency", 0);
+    this.dbErrorRate = getDouble(properties, "db.errorRate", 0);
+    this.reportFile = properties.getProperty("reportFile", "").trim();
+    if ((durationSec <= 0) || (reportIntervalSec <= 0) || (threads <= 0) || (users <= 0)) {
+      throw new IllegalArgumentException("Duration, report interval, threads and users of load "
+          + "scenario must be positive");
+    }
+    if ((badCredentialRatio < 0) || (badCredentialRatio > 1)) {
+      throw new IllegalArgumentException("Bad credential ratio must be between 0 and 1");
+    }
+  }
+
+  private static long getLong(Properties properties, String key, long defaultValue) {
+    var value = properties.getProperty(key);
+    return (value == null) ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  private static double getDouble(Properties properties, String key, double defaultValue) {
+    var value = properties.getProperty(key);
+    return (value == null) ? defaultValue : Double.parseDouble(value.trim());
+  }
+
+  /**
+   * Load scenario from file or, if no such file exists, from class-path resource of given name.
+   *
+   * @param location is path of properties file or name of class-path resource
+   * @return loaded scenario
+   * @throws IOException if scenario cannot be read
+   */
+  public static LoadScenario load(String location) throws IOException {
+    var properties = new Properties();
+    var path = Path.of(location);
+    if (Files.isRegularFile(path)) {
+      try (var input = Files.newInputStream(path)) {
+        properties.load(input);
+      }
+    } else {
+      try (InputStream input = LoadScenario.class.getClassLoader().getResourceAsStream(location)) {
+        if (input == null) {
+          throw new IOException("Load scenario " + location + " not found");
+        }
+        properties.load(input);
+      }
+    }
+    return new LoadScenario(location, properties);
+  }
+
+  /**
+   * Value of field name.
+   *
+   * @return value of field name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Value of field provider.
+   *
+   * @return value of field provider
+   */
+  public Provider getProvider() {
+    return provider;
+  }
+
+  /**
+   * Value of field durationSec.
+   *
+   * @return value of field durationSec
+   */
+  public long getDurationSec() {
+    return durationSec;
+  }
+
+  /**
+   * Value of field reportIntervalSec.
+   *
+   * @return value of field reportIntervalSec
+   */
+  public long getReportIntervalSec() {
+    return reportIntervalSec;
+  }
+
+  /**
+   * Value of field threads.
+   *
+   * @return value of field threads
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Value of field thinkTimeMicros.
+   *
+   * @return value of field thinkTimeMicros
+   */
+  public long getThinkTimeMicros() {
+    return thinkTimeMicros;
+  }
+
+  /**
+   * Value of field users.
+   *
+   * @return value of field users
+   */
+  public int getUsers() {
+    return users;
+  }
+
+  /**
+   * Value of field zipfExponent.
+   *
+   * @return value of field zipfExponent
+   */
+  public double getZipfExponent() {
+    return zipfExponent;
+  }
+
+  /**
+   * Value of field badCredentialRatio.
+   *
+   * @return value of field badCredentialRatio
+   */
+  public double getBadCredentialRatio() {
+    return badCredentialRatio;
+  }
+
+  /**
+   * Value of field passwordChangesPerSec.
+   *
+   * @return value of field passwordChangesPerSec
+   */
+  public double getPasswordChangesPerSec() {
+    return passwordChangesPerSec;
+  }
+
+  /**
+   * Value of field cacheTimeoutSec.
+   *
+   * @return value of field cacheTimeoutSec
+   */
+  public long getCacheTimeoutSec() {
+    return cacheTimeoutSec;
+  }
+
+  /**
+   * Value of field logonLatencyMicros.
+   *
+   * @return value of field logonLatencyMicros
+   */
+  public long getLogonLatencyMicros() {
+    return logonLatencyMicros;
+  }
+
+  /**
+   * Value of field extUserLatencyMicros.
+   *
+   * @return value of field extUserLatencyMicros
+   */
+  public long getExtUserLatencyMicros() {
+    return extUserLatencyMicros;
+  }
+
+  /**
+   * Value of field userDataLatencyMicros.
+   *
+   * @return value of field userDataLatencyMicros
+   */
+  public long getUserDataLatencyMicros() {
+    return userDataLatencyMicros;
+  }
+
+  /**
+   * Value of field dbMaxConcurrency.
+   *
+   * @return value of field dbMaxConcurrency
+   */
+  public int getDbMaxConcurrency() {
+    return dbMaxConcurrency;
+  }
+
+  /**
+   * Value of field dbErrorRate.
+   *
+   * @return value of field dbErrorRate
+   */
+  public double getDbErrorRate() {
+    return dbErrorRate;
+  }
+
+  /**
+   * Value of field reportFile.
+   *
+   * @return value of field reportFile; empty if report is only written to console
+   */
+  public String getReportFile() {
+    return reportFile;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadScenario{"
+        + "name='" + name + '\''
+        + ", provider=" + provider
+        + ", durationSec=" + durationSec
+        + ", threads=" + threads
+        + ", users=" + users
+        + ", zipfExponent=" + zipfExponent
+        + ", badCredentialRatio=" + badCredentialRatio
+        + ", passwordChangesPerSec=" + passwordChangesPerSec
+        + ", cacheTimeoutSec=" + cacheTimeoutSec
+        + ", logonLatencyMicros=" + logonLatencyMicros
+        + ", extUserLatencyMicros=" + extUserLatencyMicros
+        + ", userDataLatencyMicros=" + userDataLatencyMicros
+        + ", dbMaxConcurrency=" + dbMaxConcurrency
+        + ", dbErrorRate=" + dbErrorRate
+        + '}';
+  }
+}
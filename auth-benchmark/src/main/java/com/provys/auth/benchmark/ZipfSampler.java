@@ -0,0 +1,62 @@
+package com.provys.auth.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws indices from Zipf distribution - index {@code k} (counted from 0) is drawn with probability
+ * proportional to {@code 1 / (k + 1)^exponent}. Cumulative distribution is precomputed, thus
+ * drawing is binary search and does not allocate.
+ */
+public final class ZipfSampler {
+
+  private final double[] cumulative;
+
+  /**
+   * Create sampler for given number of elements.
+   *
+   * @param size is number of elements
+   * @param exponent is exponent of distribution; 0 means uniform distribution
+   */
+  public ZipfSampler(int size, double exponent) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size of Zipf distribution must be positive");
+    }
+    cumulative = new double[size];
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += 1 / Math.pow(i + 1, exponent);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < size; i++) {
+      cumulative[i] /= sum;
+    }
+  }
+
+  /**
+   * Draw next index.
+   *
+   * @param random is source of randomness
+   * @return index between 0 (most frequent) and size - 1
+   */
+  public int next(Random random) {
+    var index = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min((index >= 0) ? index : -index - 1, cumulative.length - 1);
+  }
+
+  /**
+   * Number of elements.
+   *
+   * @return number of elements
+   */
+  public int size() {
+    return cumulative.length;
+  }
+
+  @Override
+  public String toString() {
+    return "ZipfSampler{"
+        + "size=" + cumulative.length
+        + '}';
+  }
+}
@@ -0,0 +1,64 @@
+package com.provys.auth.extuser;
+
+import com.provys.auth.benchmark.BenchmarkUserDataFactory;
+import com.provys.auth.benchmark.BenchmarkUsers;
+import com.provys.auth.benchmark.LatencyDataSource;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Password hashing of {@link ExtUserAuthProvider} and authentication not served from cache, against
+ * data source with configurable latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtUserAuthProviderBenchmark {
+
+  /**
+   * Provider without credential cache, using data source with given latency.
+   */
+  @State(Scope.Benchmark)
+  public static class ProviderState {
+
+    @Param({"0", "500"})
+    private long latencyMicros;
+
+    private ExtUserAuthProvider provider;
+    private UsernamePasswordAuthenticationToken request;
+
+    /**
+     * Create provider and request.
+     */
+    @Setup
+    public void setUp() {
+      provider = new ExtUserAuthProvider("benchmark", "BENCH", "BENCHPWD",
+          new LatencyDataSource(latencyMicros, false), 0, new BenchmarkUserDataFactory());
+      request = BenchmarkUsers.request(1);
+    }
+  }
+
+  @Benchmark
+  public String createHash() {
+    return ExtUserPasswordHasher.getDefault().hash("BenchUser", "Benchmark password");
+  }
+
+  @Benchmark
+  public Authentication authenticate(ProviderState state) {
+    return state.provider.authenticate(state.request);
+  }
+}
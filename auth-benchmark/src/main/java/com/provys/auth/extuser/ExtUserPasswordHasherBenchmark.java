@@ -0,0 +1,55 @@
+package com.provys.auth.extuser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link ExtUserPasswordHasher} compared with original implementation, that created
+ * new message digest and intermediate strings for each hash. Run with {@code -prof gc} to see
+ * allocation per hash (e.g. {@code java -jar benchmarks.jar -prof gc ExtUserPasswordHasher}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ExtUserPasswordHasherBenchmark {
+
+  private static final String USER_NAME = "BenchUser";
+  private static final String PASSWORD = "Benchmark password";
+
+  private final ExtUserPasswordHasher hasher = ExtUserPasswordHasher.getDefault();
+
+  @Benchmark
+  public String hash() {
+    return hasher.hash(USER_NAME, PASSWORD);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String hashContended() {
+    return hasher.hash(USER_NAME, PASSWORD);
+  }
+
+  @Benchmark
+  public String hashOriginal() throws NoSuchAlgorithmException {
+    return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-512")
+        .digest((PASSWORD.trim() + USER_NAME.trim().toUpperCase(Locale.ENGLISH))
+            .getBytes(StandardCharsets.UTF_8)));
+  }
+}
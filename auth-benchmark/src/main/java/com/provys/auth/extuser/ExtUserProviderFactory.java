@@ -0,0 +1,30 @@
+package com.provys.auth.extuser;
+
+import com.provys.auth.api.UserDataFactory;
+import javax.sql.DataSource;
+
+/**
+ * Creates {@link ExtUserAuthProvider} connecting to supplied data source, used by load harness.
+ * Constructors of provider are not public, as provider is normally created by auto-configuration.
+ */
+public final class ExtUserProviderFactory {
+
+  private ExtUserProviderFactory() {
+  }
+
+  /**
+   * Create provider connecting to given data source.
+   *
+   * @param dataSource is data source used to verify credentials
+   * @param provysDbUser is technical account provider connects as
+   * @param provysDbPwd is password of technical account
+   * @param cacheTimeoutSec is credential cache timeout in seconds
+   * @param userDataFactory is factory used to retrieve user data from verified session
+   * @return new provider
+   */
+  public static ExtUserAuthProvider create(DataSource dataSource, String provysDbUser,
+      String provysDbPwd, long cacheTimeoutSec, UserDataFactory userDataFactory) {
+    return new ExtUserAuthProvider("load", provysDbUser, provysDbPwd, dataSource,
+        cacheTimeoutSec, userDataFactory);
+  }
+}
@@ -0,0 +1,65 @@
+package com.provys.auth.mock;
+
+import com.provys.auth.api.UserData;
+import com.provys.auth.benchmark.BenchmarkUsers;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Authentication via {@link MockAuthProvider}, successful and rejected.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MockAuthProviderBenchmark {
+
+  private MockAuthProvider provider;
+  private UsernamePasswordAuthenticationToken request;
+  private UsernamePasswordAuthenticationToken invalidRequest;
+
+  /**
+   * Create provider with 100 users.
+   */
+  @Setup
+  public void setUp() {
+    var users = new HashMap<UsernamePasswordPair, UserData>(128);
+    for (int i = 0; i < 100; i++) {
+      var userName = BenchmarkUsers.userName(i);
+      users.put(new UsernamePasswordPair(userName, BenchmarkUsers.password(userName)),
+          BenchmarkUsers.userData(userName));
+    }
+    provider = new MockAuthProvider(users);
+    request = BenchmarkUsers.request(42);
+    invalidRequest = BenchmarkUsers.invalidRequest(42);
+  }
+
+  @Benchmark
+  public Authentication authenticate() {
+    return provider.authenticate(request);
+  }
+
+  @Benchmark
+  public Object reject() {
+    try {
+      return provider.authenticate(invalidRequest);
+    } catch (AuthenticationException e) {
+      return e;
+    }
+  }
+}
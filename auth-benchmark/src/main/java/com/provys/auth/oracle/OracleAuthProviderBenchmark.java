@@ -0,0 +1,63 @@
+package com.provys.auth.oracle;
+
+import com.provys.auth.benchmark.BenchmarkUserDataFactory;
+import com.provys.auth.benchmark.BenchmarkUsers;
+import com.provys.auth.benchmark.LatencyDataSource;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Authentication via {@link OracleAuthProvider} not served from cache, against data source with
+ * configurable latency, including concurrency limiter overhead. Nested class runs the same
+ * benchmark with 64 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class OracleAuthProviderBenchmark {
+
+  @Param({"0", "500"})
+  private long latencyMicros;
+
+  private OracleAuthProvider provider;
+  private UsernamePasswordAuthenticationToken request;
+
+  /**
+   * Create provider without credential cache.
+   */
+  @Setup
+  public void setUp() {
+    provider = new OracleAuthProvider("benchmark", new LatencyDataSource(latencyMicros, true), 0,
+        new BenchmarkUserDataFactory());
+    request = BenchmarkUsers.request(1);
+  }
+
+  @Benchmark
+  public Authentication authenticate() {
+    return provider.authenticate(request);
+  }
+
+  /**
+   * Benchmark with 64 threads.
+   */
+  @Threads(64)
+  public static class Threads64 extends OracleAuthProviderBenchmark {
+  }
+}
@@ -0,0 +1,27 @@
+package com.provys.auth.oracle;
+
+import com.provys.auth.api.UserDataFactory;
+import javax.sql.DataSource;
+
+/**
+ * Creates {@link OracleAuthProvider} connecting to supplied data source, used by load harness.
+ * Constructors of provider are not public, as provider is normally created by auto-configuration.
+ */
+public final class OracleProviderFactory {
+
+  private OracleProviderFactory() {
+  }
+
+  /**
+   * Create provider connecting to given data source.
+   *
+   * @param dataSource is data source used to verify credentials
+   * @param cacheTimeoutSec is credential cache timeout in seconds
+   * @param userDataFactory is factory used to retrieve user data from verified session
+   * @return new provider
+   */
+  public static OracleAuthProvider create(DataSource dataSource, long cacheTimeoutSec,
+      UserDataFactory userDataFactory) {
+    return new OracleAuthProvider("load", dataSource, cacheTimeoutSec, userDataFactory);
+  }
+}
@@ -0,0 +1,62 @@
+package com.provys.auth.token;
+
+import com.provys.auth.api.UserData;
+import com.provys.auth.benchmark.BenchmarkUsers;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Issue and verification of signed session tokens by {@link SignedTokenAuthProvider}. Throughput
+ * is reported per thread, i.e. per core when run single-threaded.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignedTokenBenchmark {
+
+  private static final String KEYS = "1:cHJvdnlzLWF1dGgtdGVzdC1rZXktb25lLTAxMjM0NTY3ODk=";
+
+  private SignedTokenAuthProvider provider;
+  private UserData userData;
+  private String token;
+  private SignedTokenAuthenticationToken request;
+
+  /**
+   * Create provider and issue token used by verification benchmarks.
+   */
+  @Setup
+  public void setUp() {
+    provider = new SignedTokenAuthProvider(SignedTokenKeyRing.parse(KEYS, 1), 3600);
+    userData = BenchmarkUsers.userData("BENCHUSER");
+    token = provider.issue(userData);
+    request = new SignedTokenAuthenticationToken(token);
+  }
+
+  @Benchmark
+  public String issue() {
+    return provider.issue(userData);
+  }
+
+  @Benchmark
+  public UserData verify() {
+    return provider.verify(token);
+  }
+
+  @Benchmark
+  public Authentication authenticate() {
+    return provider.authenticate(request);
+  }
+}
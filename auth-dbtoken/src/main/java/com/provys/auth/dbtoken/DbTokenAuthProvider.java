@@ -0,0 +1,200 @@
+package com.provys.auth.dbtoken;
+
+import com.provys.auth.api.AdaptiveConcurrencyLimiter;
+import com.provys.auth.api.AuthRejectedException;
+import com.provys.auth.api.BalancedDataSource;
+import com.provys.auth.api.DbTokenIndex;
+import com.provys.auth.api.LazyDataSource;
+import com.provys.auth.api.LogSampler;
+import com.provys.auth.api.UserData;
+import com.provys.auth.api.UserDataFactory;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+import javax.sql.DataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Authentication provider that accepts database (IIS) token, produced by
+ * {@code KEC_User_CP.mf_CreateIISToken} during previous login, as bearer credential. Token is
+ * resolved using in-memory index of tokens issued by this process; only tokens not found in index
+ * are validated against database (by switching technical connection to context of token).
+ * Validation only reads user the token belongs to, it does not issue new token.
+ *
+ * <p>Token rejected by database results in {@link AuthRejectedException}; other database errors
+ * are reported as {@link InternalAuthenticationServiceException} without message reported by
+ * database, thus they make concurrency limiter back off.
+ */
+public class DbTokenAuthProvider implements AuthenticationProvider {
+
+  private static final Logger LOG = LogManager.getLogger(DbTokenAuthProvider.class);
+  private static final List<GrantedAuthority> USER_ROLES = AuthorityUtils
+      .createAuthorityList("ROLE_USER");
+
+  private final String provysDbUrl;
+  private final String provysDbUser;
+  private final String provysDbPwd;
+  private final DataSource dataSource;
+  private final DbTokenIndex dbTokenIndex;
+  private final UserDataFactory userDataFactory;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final LogSampler databaseFailureLogSampler = new LogSampler(10, 1000L);
+
+  DbTokenAuthProvider(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      int maxConcurrency, int maxQueue, long maxQueueWaitMs, DbTokenIndex dbTokenIndex,
+      UserDataFactory userDataFactory) {
+    this.provysDbUrl = "jdbc:oracle:thin:@" + Objects.requireNonNull(provysDbUrl);
+    this.provysDbUser = Objects.requireNonNull(provysDbUser);
+    this.provysDbPwd = Objects.requireNonNull(provysDbPwd);
+    this.dataSource = LazyDataSource.forOracleUrl(this.provysDbUrl);
+    this.dbTokenIndex = Objects.requireNonNull(dbTokenIndex);
+    this.userDataFactory = Objects.requireNonNull(userDataFactory);
+    this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(maxConcurrency, maxQueue,
+        maxQueueWaitMs);
+  }
+
+  /**
+   * Variant with supplied data source, used for testing.
+   */
+  DbTokenAuthProvider(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      DataSource dataSource, DbTokenIndex dbTokenIndex, UserDataFactory userDataFactory) {
+    this.provysDbUrl = "jdbc:oracle:thin:@" + Objects.requireNonNull(provysDbUrl);
+    this.provysDbUser = Objects.requireNonNull(provysDbUser);
+    this.provysDbPwd = Objects.requireNonNull(provysDbPwd);
+    this.dataSource = Objects.requireNonNull(dataSource);
+    this.dbTokenIndex = Objects.requireNonNull(dbTokenIndex);
+    this.userDataFactory = Objects.requireNonNull(userDataFactory);
+    this.concurrencyLimiter = new AdaptiveConcurrencyLimiter();
+  }
+
+  /**
+   * Limiter applied to validation of tokens not found in index.
+   *
+   * @return concurrency limiter used by this provider
+   */
+  public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * Indicates if exception, raised when switching to context of token, means that token has been
+   * rejected, as opposed to failure of database.
+   *
+   * @param exception is exception reported by database
+   * @return true if token has been rejected
+   */
+  private static boolean isTokenRejection(SQLException exception) {
+    var errorCode = exception.getErrorCode();
+    // application errors, raised for invalid or expired token, and no data found for its user
+    return ((errorCode >= 20000) && (errorCode <= 20999)) || (errorCode == 1403);
+  }
+
+  private InternalAuthenticationServiceException databaseFailure(SQLException exception) {
+    var suppressed = databaseFailureLogSampler.tryAcquire();
+    if (suppressed >= 0) {
+      LOG.warn("Database token verification failed on database error (db {}, dbUser {}, error "
+              + "{}, {} similar messages suppressed): {}", provysDbUrl, provysDbUser,
+          exception.getErrorCode(), suppressed, exception.getMessage());
+    }
+    return new InternalAuthenticationServiceException(
+        BalancedDataSource.isConnectivityFailure(exception)
+            ? "Authentication database is not available"
+            : "Database token verification failed because of database error "
+                + exception.getErrorCode(), exception);
+  }
+
+  /**
+   * Validate token against database. Technical connection is switched to context of token and
+   * user it belongs to is read in the same call; no new token is created.
+   *
+   * @param dbToken is token to be validated
+   * @return user data token belongs to
+   * @throws BadCredentialsException if token is not accepted by database
+   * @throws InternalAuthenticationServiceException if token cannot be verified because of
+   *     database failure
+   */
+  UserData validate(DtEncryptedString dbToken) {
+    try (var connection = dataSource.getConnection(provysDbUser, provysDbPwd);
+        var preparedCall = connection.prepareCall(
+            "DECLARE\n"
+                + "  l_Token VARCHAR2(32767) :=?;\n"
+                + "  l_User_ID NUMBER;\n"
+                + "  l_ShortName_NM VARCHAR2(32767);\n"
+                + "  l_FullName VARCHAR2(32767);\n"
+                + "BEGIN\n"
+                + "  KEC_User_CP.mp_SetIISToken(\n"
+                + "        p_Token => l_Token\n"
+                + "    );\n"
+                + "  l_User_ID:=KER_User_EP.mf_GetUserID;\n"
+                + "  SELECT\n"
+                + "        usr.shortname_nm\n"
+                + "      , usr.fullname\n"
+                + "    INTO\n"
+                + "        l_ShortName_NM\n"
+                + "      , l_FullName\n"
+                + "    FROM\n"
+                + "        kec_user_vw usr\n"
+                + "    WHERE\n"
+                + "          (usr.user_id=l_User_ID)\n"
+                + "    ;\n"
+                + "  ?:=l_User_ID;\n"
+                + "  ?:=l_ShortName_NM;\n"
+                + "  ?:=l_FullName;\n"
+                + "END;")) {
+      preparedCall.setString(1, dbToken.getIisValue());
+      preparedCall.registerOutParameter(2, Types.NUMERIC);
+      preparedCall.registerOutParameter(3, Types.VARCHAR);
+      preparedCall.registerOutParameter(4, Types.VARCHAR);
+      preparedCall.execute();
+      var result = userDataFactory.getUserData(DtUid.valueOf(preparedCall.getBigDecimal(2)),
+          preparedCall.getString(3), preparedCall.getString(4), dbToken);
+      LOG.debug("Verified database token via database (user {}, db {}, dbUser {})",
+          result.getShortNameNm(), provysDbUrl, provysDbUser);
+      dbTokenIndex.register(result);
+      return result;
+    } catch (SQLException e) {
+      if (isTokenRejection(e)) {
+        LOG.debug("Database token rejected (db {}, dbUser {}, error {})", provysDbUrl,
+            provysDbUser, e.getErrorCode());
+        throw AuthRejectedException.forErrorCode(e.getErrorCode());
+      }
+      throw databaseFailure(e);
+    }
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    var dbToken = ((DbTokenAuthenticationToken) authentication).getDbToken();
+    var userData = dbTokenIndex.lookup(dbToken);
+    if (userData == null) {
+      userData = concurrencyLimiter.call(() -> validate(dbToken));
+    }
+    return new UsernamePasswordAuthenticationToken(userData, dbToken, USER_ROLES);
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return DbTokenAuthenticationToken.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public String toString() {
+    return "DbTokenAuthProvider{"
+        + "provysDbUrl='" + provysDbUrl + '\''
+        + ", provysDbUser='" + provysDbUser + '\''
+        + ", dbTokenIndex=" + dbTokenIndex
+        + ", concurrencyLimiter=" + concurrencyLimiter
+        + '}';
+  }
+}
@@ -0,0 +1,77 @@
+package com.provys.auth.dbtoken;
+
+import com.provys.common.crypt.DtEncryptedString;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Authentication request carrying database (IIS) token as bearer credential. Such token is
+ * produced by {@code KEC_User_CP.mf_CreateIISToken} during login and is available in
+ * {@link com.provys.auth.api.UserData#getDbToken()}.
+ */
+public final class DbTokenAuthenticationToken extends AbstractAuthenticationToken {
+
+  private static final long serialVersionUID = 2217484001524740947L;
+
+  private final DtEncryptedString dbToken;
+
+  /**
+   * Create authentication request for given database token.
+   *
+   * @param dbToken is database token presented by client
+   */
+  public DbTokenAuthenticationToken(DtEncryptedString dbToken) {
+    super(AuthorityUtils.NO_AUTHORITIES);
+    this.dbToken = Objects.requireNonNull(dbToken);
+  }
+
+  /**
+   * Value of field dbToken.
+   *
+   * @return value of field dbToken
+   */
+  public DtEncryptedString getDbToken() {
+    return dbToken;
+  }
+
+  @Override
+  public Object getCredentials() {
+    return dbToken;
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return "";
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    DbTokenAuthenticationToken that = (DbTokenAuthenticationToken) o;
+    return dbToken.equals(that.dbToken);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = super.hashCode();
+    result = 31 * result + dbToken.hashCode();
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "DbTokenAuthenticationToken{"
+        // token is intentionally omitted, as it is secret
+        + super.toString() + '}';
+  }
+}
@@ -0,0 +1,36 @@
+package com.provys.auth.dbtoken;
+
+import com.provys.auth.api.ConditionalOnAuthProvider;
+import com.provys.auth.api.DbTokenIndex;
+import com.provys.auth.api.UserDataFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of database token authentication provider. Active when provider DBTOKEN is
+ * enabled.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnAuthProvider("DBTOKEN")
+public class DbTokenAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  DbTokenAuthProvider dbTokenAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
+      @Value("${provysdb.user}") String provysDbUser,
+      @Value("${provysdb.pwd}") String provysDbPwd,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      DbTokenIndex dbTokenIndex, UserDataFactory userDataFactory) {
+    return new DbTokenAuthProvider(provysDbUrl, provysDbUser, provysDbPwd, maxConcurrency,
+        maxQueue, maxQueueWaitMs, dbTokenIndex, userDataFactory);
+  }
+
+  @Override
+  public String toString() {
+    return "DbTokenAutoConfiguration{}";
+  }
+}
@@ -0,0 +1,102 @@
+package com.provys.auth.dbtoken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.provys.auth.api.AuthRejectedException;
+import com.provys.auth.api.DbTokenIndex;
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserDataFactory;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+class DbTokenAuthProviderTest {
+
+  private static final DtEncryptedString DB_TOKEN = DtEncryptedString.valueOf("TOKEN");
+  private static final ProvysUserData USER_DATA = ProvysUserData.of(DtUid.valueOf("1"), "USER",
+      "User", DB_TOKEN);
+
+  @Test
+  void authenticateIndexedTest() {
+    var dataSource = mock(DataSource.class);
+    var userDataFactory = mock(UserDataFactory.class);
+    var dbTokenIndex = new DbTokenIndex();
+    dbTokenIndex.register(USER_DATA);
+    var authProvider = new DbTokenAuthProvider("url", "user", "pwd", dataSource, dbTokenIndex,
+        userDataFactory);
+    var result = authProvider.authenticate(new DbTokenAuthenticationToken(DB_TOKEN));
+    assertThat(result.getPrincipal()).isEqualTo(USER_DATA);
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void authenticateNotIndexedTest() throws SQLException {
+    var dataSource = mock(DataSource.class);
+    var userDataFactory = mock(UserDataFactory.class);
+    var dbTokenIndex = new DbTokenIndex();
+    var authProvider = new DbTokenAuthProvider("url", "user", "pwd", dataSource, dbTokenIndex,
+        userDataFactory);
+    var connection = mock(Connection.class);
+    when(dataSource.getConnection("user", "pwd")).thenReturn(connection);
+    var preparedCall = mock(CallableStatement.class);
+    when(connection.prepareCall(anyString())).thenReturn(preparedCall);
+    when(preparedCall.getBigDecimal(2)).thenReturn(BigDecimal.ONE);
+    when(preparedCall.getString(3)).thenReturn("USER");
+    when(preparedCall.getString(4)).thenReturn("User");
+    when(userDataFactory.getUserData(DtUid.valueOf("1"), "USER", "User", DB_TOKEN))
+        .thenReturn(USER_DATA);
+    var result = authProvider.authenticate(new DbTokenAuthenticationToken(DB_TOKEN));
+    assertThat(result.getPrincipal()).isEqualTo(USER_DATA);
+    verify(preparedCall).setString(1, DB_TOKEN.getIisValue());
+    verify(preparedCall).execute();
+    // validation must not issue new token
+    verify(userDataFactory, never()).getUserData(any(Connection.class));
+    // token is indexed after successful validation
+    assertThat(dbTokenIndex.lookup(DB_TOKEN)).isEqualTo(USER_DATA);
+  }
+
+  private static DbTokenAuthProvider failingProvider(SQLException failure) throws SQLException {
+    var dataSource = mock(DataSource.class);
+    var connection = mock(Connection.class);
+    when(dataSource.getConnection("user", "pwd")).thenReturn(connection);
+    var preparedCall = mock(CallableStatement.class);
+    when(connection.prepareCall(anyString())).thenReturn(preparedCall);
+    when(preparedCall.execute()).thenThrow(failure);
+    return new DbTokenAuthProvider("url", "user", "pwd", dataSource, new DbTokenIndex(),
+        mock(UserDataFactory.class));
+  }
+
+  @Test
+  void authenticateRejectedTest() throws SQLException {
+    var authProvider = failingProvider(
+        new SQLException("ORA-20001: Invalid token SECRET", "72000", 20001));
+    assertThatThrownBy(() -> authProvider.authenticate(new DbTokenAuthenticationToken(DB_TOKEN)))
+        .isInstanceOf(AuthRejectedException.class)
+        .hasMessageNotContaining("SECRET");
+    assertThat(authProvider.getConcurrencyLimiter().getFailedCount()).isZero();
+  }
+
+  @Test
+  void authenticateDatabaseFailureTest() throws SQLException {
+    var authProvider = failingProvider(
+        new SQLException("IO Error: Connection reset SECRET", "08006", 17002));
+    assertThatThrownBy(() -> authProvider.authenticate(new DbTokenAuthenticationToken(DB_TOKEN)))
+        .isInstanceOf(InternalAuthenticationServiceException.class)
+        .hasMessageNotContaining("SECRET");
+    assertThat(authProvider.getConcurrencyLimiter().getFailedCount()).isEqualTo(1);
+  }
+}
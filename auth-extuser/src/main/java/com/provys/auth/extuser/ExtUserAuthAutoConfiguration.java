@@ -0,0 +1,82 @@
+package com.provys.auth.extuser;
+
+import com.provys.auth.api.AuthAuditPipeline;
+import com.provys.auth.api.AuthPriorityClassifier;
+import com.provys.auth.api.ConditionalOnAuthProvider;
+import com.provys.auth.api.LoginRateLimiter;
+import com.provys.auth.api.TenantAuthProviderFactory;
+import com.provys.auth.api.UserDataFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of ExtUser authentication provider. Active when provider EXTUSER is enabled.
+ * Default provider is only created when {@code provysdb.url} is set; providers for Provys database
+ * targets ({@code EXTUSER@<target>}) are created by look-up using registered factory.
+ *
+ * <p>Password hash must match configuration of Provys database; digest algorithm and encoding
+ * can be set using properties {@code provysauth.extuser.hashAlgorithm} (default {@code SHA-512})
+ * and {@code provysauth.extuser.hashEncoding} ({@code BASE64} or {@code HEX}, default
+ * {@code BASE64}) or replaced by custom {@link ExtUserPasswordHasher} bean.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnAuthProvider("EXTUSER")
+public class ExtUserAuthAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  ExtUserPasswordHasher extUserPasswordHasher(
+      @Value("${provysauth.extuser.hashAlgorithm:SHA-512}") String algorithm,
+      @Value("${provysauth.extuser.hashEncoding:BASE64}") ExtUserPasswordHasher.Encoding encoding) {
+    return new ExtUserPasswordHasher(algorithm, encoding);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "provysdb.url")
+  @ConditionalOnMissingBean
+  ExtUserAuthProvider extUserAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
+      @Value("${provysdb.user}") String provysDbUser,
+      @Value("${provysdb.pwd}") String provysDbPwd,
+      @Value("${provysauth.cacheTimeout:900}") long cacheTimeoutSec,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      LoginRateLimiter loginRateLimiter, UserDataFactory userDataFactory,
+      ExtUserPasswordHasher passwordHasher, ObjectProvider<AuthAuditPipeline> auditPipeline,
+      ObjectProvider<AuthPriorityClassifier> priorityClassifier) {
+    var provider = new ExtUserAuthProvider(provysDbUrl, provysDbUser, provysDbPwd,
+        cacheTimeoutSec, maxConcurrency, maxQueue, maxQueueWaitMs, loginRateLimiter,
+        userDataFactory, passwordHasher);
+    auditPipeline.ifAvailable(provider::setAuditPipeline);
+    priorityClassifier.ifAvailable(provider::setPriorityClassifier);
+    return provider;
+  }
+
+  @Bean
+  TenantAuthProviderFactory extUserTenantAuthProviderFactory(
+      @Value("${provysauth.cacheTimeout:900}") long cacheTimeoutSec,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      LoginRateLimiter loginRateLimiter, ExtUserPasswordHasher passwordHasher,
+      ObjectProvider<AuthAuditPipeline> auditPipeline,
+      ObjectProvider<AuthPriorityClassifier> priorityClassifier) {
+    return TenantAuthProviderFactory.of("EXTUSER", (target, userDataFactory) -> {
+      var provider = new ExtUserAuthProvider(target.getUrl(), target.getUser(), target.getPwd(),
+          cacheTimeoutSec, maxConcurrency, maxQueue, maxQueueWaitMs, loginRateLimiter,
+          userDataFactory, passwordHasher);
+      auditPipeline.ifAvailable(provider::setAuditPipeline);
+      priorityClassifier.ifAvailable(provider::setPriorityClassifier);
+      return provider;
+    });
+  }
+
+  @Override
+  public String toString() {
+    return "ExtUserAuthAutoConfiguration{}";
+  }
+}
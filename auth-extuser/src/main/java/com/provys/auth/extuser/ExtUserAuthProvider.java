@@ -1,65 +1,72 @@
 package com.provys.auth.extuser;
 
+import com.provys.auth.api.AdaptiveConcurrencyLimiter;
+import com.provys.auth.api.BulkAuthResult;
+import com.provys.auth.api.LazyDataSource;
+import com.provys.auth.api.LoginRateLimiter;
 import com.provys.auth.api.ProvysUsernamePasswordAuthProvider;
 import com.provys.auth.api.UserDataFactory;
-import com.provys.common.exception.InternalException;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.sql.CallableStatement;
 import java.sql.SQLException;
-import java.util.Base64;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 import javax.sql.DataSource;
-import oracle.jdbc.pool.OracleDataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.stereotype.Component;
 
 /**
  * Authentication provider that authenticates username + password pair by connecting to Oracle
  * database using these credentials as ExtUser credentials (e.g. password stored in user record).
  * Uses provysdb parameters to connect to database. Caches result for defined period of time to
  * speed up repeated authentication using the same credentials.
+ *
+ * <p>Bulk authentication verifies up to {@value #BULK_CHUNK_SIZE} users in sequence over single
+ * connection of technical user.
  */
-@Component
 public class ExtUserAuthProvider extends ProvysUsernamePasswordAuthProvider {
 
   private static final Logger LOG = LogManager.getLogger(ExtUserAuthProvider.class);
   private static final List<GrantedAuthority> USER_ROLES = AuthorityUtils
       .createAuthorityList("ROLE_USER");
+  private static final int BULK_CHUNK_SIZE = 32;
+  private static final String VERIFY_SQL = "DECLARE\n"
+      + "  l_ShortName_NM VARCHAR2(200) :=?;"
+      + "  l_Password VARCHAR2(200) :=?;"
+      + "BEGIN\n"
+      + "  KEC_User_CP.mp_SetExtUserID_Password(\n"
+      + "        p_User_NM => l_ShortName_NM\n"
+      + "      , p_Password => l_Password\n"
+      + "    );\n"
+      + "END;";
 
   private final String provysDbUrl;
   private final String provysDbUser;
   private final String provysDbPwd;
   private final DataSource dataSource;
   private final UserDataFactory userDataFactory;
+  private final ExtUserPasswordHasher passwordHasher;
 
-  @Autowired
-  ExtUserAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
-      @Value("${provysdb.user}") String provysDbUser,
-      @Value("${provysdb.pwd}") String provysDbPwd,
-      @Value("${provysauth.cacheTimeout:900}") long cacheTimeoutSec,
-      UserDataFactory userDataFactory) {
-    super(cacheTimeoutSec);
+  ExtUserAuthProvider(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      long cacheTimeoutSec, int maxConcurrency, int maxQueue, long maxQueueWaitMs,
+      LoginRateLimiter loginRateLimiter, UserDataFactory userDataFactory,
+      ExtUserPasswordHasher passwordHasher) {
+    super(cacheTimeoutSec,
+        new AdaptiveConcurrencyLimiter(maxConcurrency, maxQueue, maxQueueWaitMs),
+        loginRateLimiter);
     this.provysDbUrl = "jdbc:oracle:thin:@" + Objects.requireNonNull(provysDbUrl);
     this.provysDbUser = Objects.requireNonNull(provysDbUser);
     this.provysDbPwd = Objects.requireNonNull(provysDbPwd);
-    try {
-      dataSource = new OracleDataSource();
-      ((OracleDataSource) dataSource).setURL(this.provysDbUrl);
-    } catch (SQLException e) {
-      throw new InternalException("Failed to initialize Oracle datasource", e);
-    }
+    this.dataSource = LazyDataSource.forOracleUrl(this.provysDbUrl);
     this.userDataFactory = Objects.requireNonNull(userDataFactory);
+    this.passwordHasher = Objects.requireNonNull(passwordHasher);
   }
 
   /**
@@ -73,19 +80,21 @@ public class ExtUserAuthProvider extends ProvysUsernamePasswordAuthProvider {
     this.provysDbPwd = Objects.requireNonNull(provysDbPwd);
     this.dataSource = Objects.requireNonNull(dataSource);
     this.userDataFactory = Objects.requireNonNull(userDataFactory);
+    this.passwordHasher = ExtUserPasswordHasher.getDefault();
   }
 
-  private static String createHash(String userName, String password) {
-    MessageDigest messageDigest;
-    try {
-      messageDigest = MessageDigest.getInstance("SHA-512");
-    } catch (NoSuchAlgorithmException e) {
-      throw new InternalException("Algorithm SHA-512 not found for password hashing", e);
-    }
-    return Base64.getEncoder()
-        .encodeToString(
-            messageDigest.digest((password.trim() + userName.trim().toUpperCase(Locale.ENGLISH))
-                .getBytes(StandardCharsets.UTF_8)));
+  /**
+   * Indicates if exception raised by verification call means that supplied credentials have been
+   * rejected. Verification procedure reports invalid user name or password as application error
+   * (ORA-20000 to ORA-20999) or as no data found; other errors (and any error on logon of technical
+   * user) are failures of database.
+   *
+   * @param exception is exception raised by verification call
+   * @return true if exception is rejection of credentials
+   */
+  private static boolean isVerifyRejection(SQLException exception) {
+    var errorCode = exception.getErrorCode();
+    return ((errorCode >= 20000) && (errorCode <= 20999)) || (errorCode == 1403);
   }
 
   /**
@@ -94,37 +103,105 @@ public class ExtUserAuthProvider extends ProvysUsernamePasswordAuthProvider {
    * @param userName is username to be used for connection
    * @param password is password to be used for connection
    * @return authentication token
-   * @throws BadCredentialsException if login fails using given username / password combination
-   * @throws InternalException       if connection to database fails for other reasons
+   * @throws BadCredentialsException                if database rejects given username / password
+   *                                                combination
+   * @throws InternalAuthenticationServiceException if connection to database fails for other
+   *                                                reasons
    */
+  /**
+   * Execute verification call for given username / password combo.
+   *
+   * @return exception reported by database if credentials have been rejected, null if accepted
+   * @throws SQLException if verification fails for other reason than rejection of credentials
+   */
+  private @Nullable SQLException verify(CallableStatement preparedCall, String userName,
+      String password) throws SQLException {
+    try {
+      preparedCall.setString(1, passwordHasher.normalizeUserName(userName));
+      preparedCall.setString(2, passwordHasher.hash(userName, password));
+      preparedCall.execute();
+      return null;
+    } catch (SQLException e) {
+      if (isVerifyRejection(e)) {
+        return e;
+      }
+      throw e;
+    }
+  }
+
   @Override
   protected Authentication doAuthenticate(String userName, String password) {
+    SQLException rejection;
     try (var connection = dataSource.getConnection(provysDbUser, provysDbPwd)) {
-      try (var preparedCall = connection.prepareCall(
-          "DECLARE\n"
-              + "  l_ShortName_NM VARCHAR2(200) :=?;"
-              + "  l_Password VARCHAR2(200) :=?;"
-              + "BEGIN\n"
-              + "  KEC_User_CP.mp_SetExtUserID_Password(\n"
-              + "        p_User_NM => l_ShortName_NM\n"
-              + "      , p_Password => l_Password\n"
-              + "    );\n"
-              + "END;")) {
-        preparedCall.setString(1, userName.trim().toUpperCase(Locale.ENGLISH));
-        preparedCall.setString(2, createHash(userName, password));
-        preparedCall.execute();
+      try (var preparedCall = connection.prepareCall(VERIFY_SQL)) {
+        rejection = verify(preparedCall, userName, password);
+      }
+      if (rejection == null) {
+        LOG.debug("Verified user login via extuser (user {}, db {}, dbUser {})", userName,
+            provysDbUrl, provysDbUser);
+        return new UsernamePasswordAuthenticationToken(
+            userDataFactory.getUserData(connection),
+            password, USER_ROLES);
+      }
+    } catch (SQLException e) {
+      throw databaseFailure(userName, e);
+    }
+    // rejection is only thrown after connection has been closed, thus failure of close is
+    // reported as database failure and never attached to rejection
+    throw rejectLogin(userName, rejection);
+  }
+
+  @Override
+  protected int getBulkChunkSize() {
+    return BULK_CHUNK_SIZE;
+  }
+
+  /**
+   * Validate several username / password combos over single connection of technical user. Call
+   * is prepared once and executed for each user; user data are read right after successful
+   * verification, while session runs as verified user. Rejected credentials are reported in
+   * result of given request, failure of database fails whole chunk.
+   *
+   * @param requests are requests to be verified
+   * @return result for each request
+   * @throws InternalAuthenticationServiceException if database fails
+   */
+  @Override
+  protected List<BulkAuthResult> doAuthenticateBulk(
+      List<UsernamePasswordAuthenticationToken> requests) {
+    var authentications = new @Nullable Authentication[requests.size()];
+    var rejections = new @Nullable SQLException[requests.size()];
+    try (var connection = dataSource.getConnection(provysDbUser, provysDbPwd);
+        var preparedCall = connection.prepareCall(VERIFY_SQL)) {
+      for (int i = 0; i < requests.size(); i++) {
+        var request = requests.get(i);
+        var password = (String) request.getCredentials();
+        rejections[i] = verify(preparedCall, request.getName(), password);
+        if (rejections[i] == null) {
+          authentications[i] = new UsernamePasswordAuthenticationToken(
+              userDataFactory.getUserData(connection), password, USER_ROLES);
+        }
       }
-      LOG.debug("Verified user login via extuser (user {}, db {}, dbUser {})", userName,
-          provysDbUrl, provysDbUser);
-      return new UsernamePasswordAuthenticationToken(
-          userDataFactory.getUserData(connection),
-          password, USER_ROLES);
     } catch (SQLException e) {
-      LOG.debug("User login via ExtUser failed (user {}, db {}, dbUser {}): {}", userName,
-          provysDbUrl, provysDbUser, e);
-      throw new BadCredentialsException("Invalid username or password " + e.getErrorCode()
-          + e.getMessage(), e);
+      throw databaseFailure(requests.get(0).getName(), e);
     }
+    LOG.debug("Verified {} user logins via extuser (db {}, dbUser {})", requests.size(),
+        provysDbUrl, provysDbUser);
+    // rejections are created after connection has been closed, the same as in single login
+    var result = new ArrayList<BulkAuthResult>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      var request = requests.get(i);
+      var rejection = rejections[i];
+      result.add((rejection == null)
+          ? BulkAuthResult.success(request, Objects.requireNonNull(authentications[i]))
+          : BulkAuthResult.failure(request, rejectLogin(request.getName(), rejection)));
+    }
+    return result;
+  }
+
+  @Override
+  protected String getAuditName() {
+    return "EXTUSER";
   }
 
   @Override
@@ -132,6 +209,7 @@ public class ExtUserAuthProvider extends ProvysUsernamePasswordAuthProvider {
     return "ProvysExtUserAuthProvider{"
         + "provysDbUrl='" + provysDbUrl + '\''
         + ", provysDbUser='" + provysDbUser + '\''
+        + ", passwordHasher=" + passwordHasher
         + ", " + super.toString() + '}';
   }
 }
@@ -0,0 +1,238 @@
+package com.provys.auth.extuser;
+
+import com.provys.common.exception.InternalException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Computes password hash passed to ExtUser verification. Hash is computed from trimmed password
+ * followed by trimmed, upper-cased user name, encoded in UTF-8; digest algorithm and encoding of
+ * result must match configuration of Provys database (default is Base64 encoded SHA-512).
+ *
+ * <p>Message digests and buffers are kept in small lock-free pool instead of thread locals, thus
+ * number of digest instances stays bounded even when hashing is done from large number of
+ * (virtual) threads. Input is encoded directly into pooled buffer and digest is encoded into
+ * pooled buffer as well; only resulting string is allocated (user name that is already trimmed
+ * and upper-case is used as is, without copy).
+ */
+public final class ExtUserPasswordHasher {
+
+  /** Digest algorithm used by default Provys database configuration. */
+  public static final String DEFAULT_ALGORITHM = "SHA-512";
+
+  /**
+   * Encoding of computed digest.
+   */
+  public enum Encoding {
+    /** Standard Base64 encoding with padding. */
+    BASE64,
+    /** Upper-case hexadecimal encoding, as produced by Oracle {@code RAWTOHEX}. */
+    HEX
+  }
+
+  /** Number of pooled hashing states; must be power of two. */
+  private static final int POOL_SIZE = 32;
+  private static final byte[] HEX_DIGITS = "0123456789ABCDEF"
+      .getBytes(StandardCharsets.ISO_8859_1);
+  /** Replacement of unpaired surrogate, the same as used by {@link String#getBytes}. */
+  private static final byte REPLACEMENT = '?';
+  private static final ExtUserPasswordHasher DEFAULT = new ExtUserPasswordHasher(
+      DEFAULT_ALGORITHM, Encoding.BASE64);
+
+  private final String algorithm;
+  private final Encoding encoding;
+  private final AtomicReferenceArray<HashState> pool = new AtomicReferenceArray<>(POOL_SIZE);
+
+  /**
+   * Create hasher using given digest algorithm and encoding.
+   *
+   * @param algorithm is name of message digest algorithm (e.g. {@code SHA-512})
+   * @param encoding is encoding of resulting digest
+   * @throws InternalException if algorithm is not available
+   */
+  public ExtUserPasswordHasher(String algorithm, Encoding encoding) {
+    this.algorithm = Objects.requireNonNull(algorithm);
+    this.encoding = Objects.requireNonNull(encoding);
+    // verifies that algorithm is available
+    pool.set(0, new HashState());
+  }
+
+  /**
+   * Hasher using default algorithm and encoding.
+   *
+   * @return default hasher (Base64 encoded SHA-512)
+   */
+  public static ExtUserPasswordHasher getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Value of field algorithm.
+   *
+   * @return value of field algorithm
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Value of field encoding.
+   *
+   * @return value of field encoding
+   */
+  public Encoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * Normalized form of user name, as passed to database and used in hash - trimmed and converted
+   * to upper case.
+   *
+   * @param userName is user name as supplied by client
+   * @return normalized user name
+   */
+  public String normalizeUserName(String userName) {
+    // both methods return the same instance when there is nothing to change
+    return userName.trim().toUpperCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Compute hash of given user name / password combination.
+   *
+   * @param userName is user name as supplied by client
+   * @param password is password as supplied by client
+   * @return encoded hash
+   */
+  public String hash(String userName, String password) {
+    var normalizedUserName = normalizeUserName(userName);
+    var slot = (int) Thread.currentThread().getId() & (POOL_SIZE - 1);
+    var state = pool.getAndSet(slot, null);
+    if (state == null) {
+      state = new HashState();
+    }
+    var result = state.hash(password, normalizedUserName);
+    // state is only returned after successful computation; if slot has been filled in the
+    // meantime, state is dropped
+    pool.compareAndSet(slot, null, state);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ExtUserPasswordHasher{"
+        + "algorithm='" + algorithm + '\''
+        + ", encoding=" + encoding
+        + '}';
+  }
+
+  /**
+   * Digest and buffers used by single hash computation.
+   */
+  private final class HashState {
+
+    private final MessageDigest digest;
+    private final byte[] digestOutput;
+    private final byte[] encoded;
+    private byte[] input = new byte[128];
+
+    HashState() {
+      try {
+        digest = MessageDigest.getInstance(algorithm);
+      } catch (NoSuchAlgorithmException e) {
+        throw new InternalException("Algorithm " + algorithm
+            + " not found for password hashing", e);
+      }
+      var length = digest.getDigestLength();
+      digestOutput = new byte[(length > 0) ? length : digest.digest().length];
+      encoded = new byte[(encoding == Encoding.HEX) ? 2 * digestOutput.length
+          : 4 * ((digestOutput.length + 2) / 3)];
+    }
+
+    String hash(String password, String normalizedUserName) {
+      // trim password the same way as String.trim, without creating new string
+      var start = 0;
+      var end = password.length();
+      while ((start < end) && (password.charAt(start) <= ' ')) {
+        start++;
+      }
+      while ((start < end) && (password.charAt(end - 1) <= ' ')) {
+        end--;
+      }
+      var length = encodeUtf8(password, start, end, normalizedUserName);
+      digest.update(input, 0, length);
+      try {
+        digest.digest(digestOutput, 0, digestOutput.length);
+      } catch (DigestException e) {
+        throw new InternalException("Password hash computation failed", e);
+      }
+      int encodedLength;
+      if (encoding == Encoding.HEX) {
+        for (int i = 0; i < digestOutput.length; i++) {
+          encoded[2 * i] = HEX_DIGITS[(digestOutput[i] >> 4) & 0xF];
+          encoded[2 * i + 1] = HEX_DIGITS[digestOutput[i] & 0xF];
+        }
+        encodedLength = encoded.length;
+      } else {
+        encodedLength = Base64.getEncoder().encode(digestOutput, encoded);
+      }
+      return new String(encoded, 0, encodedLength, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encode concatenation of part of first string and second string to UTF-8. Surrogate pair
+     * split between strings is encoded as single code point, unpaired surrogates are replaced,
+     * thus result is the same as encoding of concatenated string.
+     *
+     * @return number of bytes written to input buffer
+     */
+    private int encodeUtf8(String first, int start, int end, String second) {
+      var firstLength = end - start;
+      var total = firstLength + second.length();
+      if (input.length < 3 * total) {
+        input = new byte[Math.max(3 * total, 2 * input.length)];
+      }
+      var position = 0;
+      for (int i = 0; i < total; i++) {
+        var c = (i < firstLength) ? first.charAt(start + i) : second.charAt(i - firstLength);
+        if (c < 0x80) {
+          input[position++] = (byte) c;
+        } else if (c < 0x800) {
+          input[position++] = (byte) (0xC0 | (c >> 6));
+          input[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          var next = (i + 1 >= total) ? 0
+              : (i + 1 < firstLength) ? first.charAt(start + i + 1)
+                  : second.charAt(i + 1 - firstLength);
+          if (Character.isHighSurrogate(c) && Character.isLowSurrogate((char) next)) {
+            var codePoint = Character.toCodePoint(c, (char) next);
+            input[position++] = (byte) (0xF0 | (codePoint >> 18));
+            input[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            input[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            input[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            i++;
+          } else {
+            input[position++] = REPLACEMENT;
+          }
+        } else {
+          input[position++] = (byte) (0xE0 | (c >> 12));
+          input[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          input[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      return position;
+    }
+
+    @Override
+    public String toString() {
+      return "HashState{"
+          + "algorithm='" + algorithm + '\''
+          + '}';
+    }
+  }
+}
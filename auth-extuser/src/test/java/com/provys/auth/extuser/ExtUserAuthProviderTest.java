@@ -2,17 +2,29 @@ package com.provys.auth.extuser;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.provys.auth.api.BulkAuthResult;
 import com.provys.auth.api.UserDataFactory;
 import com.provys.auth.api.UserData;
+import com.provys.auth.api.UserDataFactoryImpl;
+import com.provys.auth.fakedb.FakeOperation;
+import com.provys.auth.fakedb.FakeProvysDatabase;
+import com.provys.common.datatype.DtUid;
+import java.math.BigDecimal;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 class ExtUserAuthProviderTest {
 
@@ -37,4 +49,105 @@ class ExtUserAuthProviderTest {
         + "D0XtTUNEDSJakmH6vTSFIZK0C0b80DIcjKuu+ep887Q==");
     verify(preparedCall).execute();
   }
-}
\ No newline at end of file
+
+  @Test
+  void rejectionCloseFailureTest() throws SQLException {
+    var dataSource = mock(DataSource.class);
+    var authProvider = new ExtUserAuthProvider("url", "user", "pwd", dataSource,
+        100, mock(UserDataFactory.class));
+    var connection = mock(Connection.class);
+    when(dataSource.getConnection("user", "pwd")).thenReturn(connection);
+    var preparedCall = mock(CallableStatement.class);
+    when(connection.prepareCall(anyString())).thenReturn(preparedCall);
+    when(preparedCall.execute()).thenThrow(new SQLException("Invalid password", "72000", 20001));
+    // rejection is only thrown after connection has been closed
+    var rejection = catchThrowable(() -> authProvider.doAuthenticate("stehlik", "wrong"));
+    assertThat(rejection).isInstanceOf(BadCredentialsException.class);
+    assertThat(rejection.getSuppressed()).isEmpty();
+    verify(connection).close();
+    // failure of close is reported as database failure, not attached to rejection
+    doThrow(new SQLException("Connection reset", "08006", 17002)).when(connection).close();
+    assertThatThrownBy(() -> authProvider.doAuthenticate("stehlik", "wrong"))
+        .isInstanceOf(InternalAuthenticationServiceException.class);
+    var bulkResults = authProvider.authenticateAll(List.of(
+        new UsernamePasswordAuthenticationToken("stehlik", "wrong")));
+    assertThat(bulkResults.get(0).getFailure())
+        .isInstanceOf(InternalAuthenticationServiceException.class);
+    doNothing().when(connection).close();
+    bulkResults = authProvider.authenticateAll(List.of(
+        new UsernamePasswordAuthenticationToken("stehlik", "wrong")));
+    assertThat(bulkResults.get(0).getFailure()).isInstanceOf(BadCredentialsException.class);
+    assertThat(bulkResults.get(0).getFailure().getSuppressed()).isEmpty();
+  }
+
+  @Test
+  void authenticateFakeDatabaseTest() {
+    var database = new FakeProvysDatabase()
+        .addDbUser(BigDecimal.ONE, "tech", "Technical User", "techpwd")
+        .addExtUser(BigDecimal.valueOf(12), "stehlik", "Michal Stehlik", "atlanta");
+    var authProvider = new ExtUserAuthProvider("url", "tech", "techpwd",
+        database.getDataSource(), 100, new UserDataFactoryImpl("url", "tech", "techpwd"));
+    var result = authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta"));
+    assertThat(result).isNotNull();
+    var userData = (UserData) result.getPrincipal();
+    assertThat(userData.getUserId()).isEqualTo(DtUid.valueOf(BigDecimal.valueOf(12)));
+    assertThat(userData.getShortNameNm()).isEqualTo("STEHLIK");
+    assertThat(database.getInvocationCount(FakeOperation.SET_EXT_USER_PASSWORD)).isEqualTo(1);
+    assertThatThrownBy(() -> authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "boston")))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThat(database.getOpenSessions()).isZero();
+  }
+
+  @Test
+  void authenticateAllFakeDatabaseTest() {
+    var database = new FakeProvysDatabase()
+        .addDbUser(BigDecimal.ONE, "tech", "Technical User", "techpwd")
+        .addExtUser(BigDecimal.valueOf(12), "stehlik", "Michal Stehlik", "atlanta")
+        .addExtUser(BigDecimal.valueOf(13), "novak", "Jan Novak", "praha");
+    var authProvider = new ExtUserAuthProvider("url", "tech", "techpwd",
+        database.getDataSource(), 100, new UserDataFactoryImpl("url", "tech", "techpwd"));
+    var results = authProvider.authenticateAll(List.of(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta"),
+        new UsernamePasswordAuthenticationToken("novak", "boston"),
+        new UsernamePasswordAuthenticationToken("novak", "praha")));
+    assertThat(results).extracting(BulkAuthResult::isSuccess).containsExactly(true, false, true);
+    assertThat(((UserData) results.get(0).getAuthentication().getPrincipal()).getUserId())
+        .isEqualTo(DtUid.valueOf(BigDecimal.valueOf(12)));
+    assertThat(((UserData) results.get(2).getAuthentication().getPrincipal()).getUserId())
+        .isEqualTo(DtUid.valueOf(BigDecimal.valueOf(13)));
+    assertThat(results.get(1).getFailure()).isInstanceOf(BadCredentialsException.class);
+    // all users verified over single connection
+    assertThat(database.getInvocationCount(FakeOperation.LOGON)).isEqualTo(1);
+    assertThat(database.getInvocationCount(FakeOperation.SET_EXT_USER_PASSWORD)).isEqualTo(3);
+    assertThat(database.getOpenSessions()).isZero();
+  }
+
+  @Test
+  void databaseFailureTest() {
+    var database = new FakeProvysDatabase()
+        .addDbUser(BigDecimal.ONE, "tech", "Technical User", "techpwd")
+        .addExtUser(BigDecimal.valueOf(12), "stehlik", "Michal Stehlik", "atlanta");
+    // failed logon of technical user is not rejection of user credentials
+    var misconfigured = new ExtUserAuthProvider("url", "tech", "badpwd",
+        database.getDataSource(), 100, new UserDataFactoryImpl("url", "tech", "techpwd"));
+    assertThatThrownBy(() -> misconfigured.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta")))
+        .isInstanceOf(InternalAuthenticationServiceException.class);
+    var authProvider = new ExtUserAuthProvider("url", "tech", "techpwd",
+        database.getDataSource(), 100, new UserDataFactoryImpl("url", "tech", "techpwd"));
+    database.failNext(FakeOperation.SET_EXT_USER_PASSWORD, 1, 3113);
+    assertThatThrownBy(() -> authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta")))
+        .isInstanceOf(InternalAuthenticationServiceException.class);
+    assertThat(authProvider.getConcurrencyLimiter().getFailedCount()).isEqualTo(1);
+    database.failNext(FakeOperation.SET_EXT_USER_PASSWORD, 1, 3113);
+    assertThat(authProvider.authenticateAll(List.of(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta"),
+        new UsernamePasswordAuthenticationToken("stehlik", "boston"))))
+        .extracting(BulkAuthResult::getFailure)
+        .allMatch(InternalAuthenticationServiceException.class::isInstance);
+    assertThat(database.getOpenSessions()).isZero();
+  }
+}
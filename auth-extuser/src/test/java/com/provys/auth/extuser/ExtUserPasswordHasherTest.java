@@ -0,0 +1,94 @@
+package com.provys.auth.extuser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.common.exception.InternalException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ExtUserPasswordHasherTest {
+
+  private static byte[] referenceDigest(String algorithm, String userName, String password)
+      throws Exception {
+    return MessageDigest.getInstance(algorithm).digest(
+        (password.trim() + userName.trim().toUpperCase(Locale.ENGLISH))
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void hashTest() throws Exception {
+    var hexHasher = new ExtUserPasswordHasher("SHA-256", ExtUserPasswordHasher.Encoding.HEX);
+    String[][] cases = {
+        {"stehlik", "atlanta"},
+        {"  Stehlik ", " atlanta  "},
+        {"uživatel", "heslo s mezerou"},
+        {"user", "\uD83D\uDD11key"},
+        // unpaired surrogates, surrogate pair split between password and user name
+        {"\uDE00user", "pwd\uD83D"},
+        {"\uDC00", "\uD800"},
+        {"a", ""}
+    };
+    for (var testCase : cases) {
+      var userName = testCase[0];
+      var password = testCase[1];
+      assertThat(ExtUserPasswordHasher.getDefault().hash(userName, password))
+          .isEqualTo(Base64.getEncoder()
+              .encodeToString(referenceDigest("SHA-512", userName, password)));
+      var expected = new StringBuilder();
+      for (var value : referenceDigest("SHA-256", userName, password)) {
+        expected.append(String.format("%02X", value));
+      }
+      assertThat(hexHasher.hash(userName, password)).isEqualTo(expected.toString());
+    }
+  }
+
+  @Test
+  void knownHashTest() {
+    assertThat(ExtUserPasswordHasher.getDefault().hash("stehlik", "atlanta"))
+        .isEqualTo("mg0xgiwpOtkE9v4gJPKgjTzj6Gvk/zd6yHksHxY7/4o"
+            + "D0XtTUNEDSJakmH6vTSFIZK0C0b80DIcjKuu+ep887Q==");
+    assertThat(ExtUserPasswordHasher.getDefault().normalizeUserName(" stehlik "))
+        .isEqualTo("STEHLIK");
+  }
+
+  @Test
+  void longInputTest() throws Exception {
+    var password = "p".repeat(1000);
+    assertThat(ExtUserPasswordHasher.getDefault().hash("user", password))
+        .isEqualTo(Base64.getEncoder()
+            .encodeToString(referenceDigest("SHA-512", "user", password)));
+  }
+
+  @Test
+  void concurrentHashTest() throws Exception {
+    var hasher = new ExtUserPasswordHasher("SHA-512", ExtUserPasswordHasher.Encoding.BASE64);
+    var expected = hasher.hash("user", "password");
+    var executor = Executors.newFixedThreadPool(8);
+    try {
+      var futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < 200; i++) {
+        futures.add(executor.submit(() -> hasher.hash("user", "password")));
+      }
+      for (var future : futures) {
+        assertThat(future.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdown();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+
+  @Test
+  void unknownAlgorithmTest() {
+    assertThatThrownBy(() -> new ExtUserPasswordHasher("NO-SUCH-DIGEST",
+        ExtUserPasswordHasher.Encoding.BASE64)).isInstanceOf(InternalException.class);
+  }
+}
@@ -0,0 +1,82 @@
+package com.provys.auth.fakedb;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Data source opening sessions in {@link FakeProvysDatabase}. There is no default user, thus
+ * connection must always be opened with user name and password.
+ */
+final class FakeDataSource implements DataSource {
+
+  private final FakeProvysDatabase database;
+  private volatile @Nullable PrintWriter logWriter;
+  private volatile int loginTimeout;
+
+  FakeDataSource(FakeProvysDatabase database) {
+    this.database = Objects.requireNonNull(database);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    throw FakeProvysDatabase.error(FakeProvysDatabase.ERR_INVALID_LOGON,
+        "invalid username/password; logon denied");
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    var user = database.logon(username, password);
+    return FakeSession.newConnection(database, user);
+  }
+
+  @Override
+  public @Nullable PrintWriter getLogWriter() {
+    return logWriter;
+  }
+
+  @Override
+  public void setLogWriter(@Nullable PrintWriter out) {
+    this.logWriter = out;
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) {
+    this.loginTimeout = seconds;
+  }
+
+  @Override
+  public int getLoginTimeout() {
+    return loginTimeout;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException("Fake data source does not use java.util.logging");
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Fake data source does not wrap " + iface.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+
+  @Override
+  public String toString() {
+    return "FakeDataSource{"
+        + "database=" + database
+        + '}';
+  }
+}
@@ -0,0 +1,47 @@
+package com.provys.auth.fakedb;
+
+import java.util.Locale;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Operations understood by {@link FakeProvysDatabase}. Each operation can be configured with its
+ * own latency, error injection and concurrency limit.
+ */
+public enum FakeOperation {
+
+  /** Opening of database session (logon with user name and password). */
+  LOGON(null),
+  /** Verification of ExtUser credentials via {@code KEC_User_CP.mp_SetExtUserID_Password}. */
+  SET_EXT_USER_PASSWORD("KEC_USER_CP.MP_SETEXTUSERID_PASSWORD"),
+  /** Impersonation of user via {@code KER_User_PG.mp_SetUserID}. */
+  SET_USER_ID("KER_USER_PG.MP_SETUSERID"),
+  /** Switch of session to user identified by database token via {@code mp_SetIISToken}. */
+  SET_IIS_TOKEN("KEC_USER_CP.MP_SETIISTOKEN"),
+  /**
+   * Retrieval of current user ({@code KER_User_EP.mf_GetUserID} and {@code kec_user_vw}),
+   * optionally with creation of database token ({@code KEC_User_CP.mf_CreateIISToken}).
+   */
+  GET_USER_DATA("KER_USER_EP.MF_GETUSERID");
+
+  private final @Nullable String marker;
+
+  FakeOperation(@Nullable String marker) {
+    this.marker = marker;
+  }
+
+  /**
+   * Operation performed by given PL/SQL block.
+   *
+   * @param sql is text of statement
+   * @return operation statement represents, null if statement is not supported
+   */
+  static @Nullable FakeOperation forSql(String sql) {
+    var upperSql = sql.toUpperCase(Locale.ENGLISH);
+    for (var operation : values()) {
+      if ((operation.marker != null) && upperSql.contains(operation.marker)) {
+        return operation;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,390 @@
+package com.provys.auth.fakedb;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * In-process stand-in for Provys Oracle database. Understands logon with user name and password and
+ * PL/SQL blocks used by authentication providers ({@code KEC_User_CP.mp_SetExtUserID_Password},
+ * {@code KER_User_PG.mp_SetUserID}, {@code KEC_User_CP.mp_SetIISToken} and retrieval of current
+ * user via {@code KER_User_EP.mf_GetUserID} / {@code kec_user_vw} / {@code mf_CreateIISToken}).
+ * Statements are recognised by name of procedure they call, bind variables are read in order in
+ * which providers set them.
+ *
+ * <p>Each {@link FakeOperation} can be given latency, injected errors (random with given rate or
+ * deterministic for next n invocations) and concurrency limit (invocations over limit wait, as
+ * they would on saturated database). Number of concurrently open sessions can be limited too;
+ * logon over limit fails with ORA-00018. All settings can be changed while database is in use.
+ *
+ * <p>Errors are reported as {@link SQLException} with Oracle error codes: ORA-01017 for invalid
+ * logon, ORA-20001 for rejected ExtUser credentials or database token and ORA-01403 for unknown
+ * user.
+ */
+public final class FakeProvysDatabase {
+
+  /** Oracle error code reported for invalid user name or password. */
+  public static final int ERR_INVALID_LOGON = 1017;
+  /** Oracle error code reported when maximal number of sessions is exceeded. */
+  public static final int ERR_MAX_SESSIONS = 18;
+  /** Error code of application error raised when ExtUser credentials or token are rejected. */
+  public static final int ERR_APPLICATION = 20001;
+  /** Oracle error code reported when requested user does not exist. */
+  public static final int ERR_NO_DATA_FOUND = 1403;
+
+  private static final int MAX_TOKENS = 100_000;
+  private static final char[] TOKEN_CHARS =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+  private final Map<String, FakeProvysUser> usersByName = new ConcurrentHashMap<>(16);
+  private final Map<BigDecimal, FakeProvysUser> usersById = new ConcurrentHashMap<>(16);
+  private final Map<String, FakeProvysUser> tokens = new ConcurrentHashMap<>(64);
+  private final Map<FakeOperation, OperationSettings> settings =
+      new EnumMap<>(FakeOperation.class);
+  private final SecureRandom tokenRandom = new SecureRandom();
+  private final AtomicInteger openSessions = new AtomicInteger();
+  private volatile int maxSessions = Integer.MAX_VALUE;
+  private final DataSource dataSource = new FakeDataSource(this);
+
+  /**
+   * Create empty fake database. Operations have no latency, no errors and no concurrency limit.
+   */
+  public FakeProvysDatabase() {
+    for (var operation : FakeOperation.values()) {
+      settings.put(operation, new OperationSettings());
+    }
+  }
+
+  /**
+   * Settings and statistics of single operation.
+   */
+  private static final class OperationSettings {
+
+    private volatile long latencyNanos;
+    private volatile double errorRate;
+    private volatile int errorCode;
+    private final AtomicInteger failNext = new AtomicInteger();
+    private volatile @Nullable Semaphore concurrencyLimit;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Override
+    public String toString() {
+      return "OperationSettings{"
+          + "latencyNanos=" + latencyNanos
+          + ", errorRate=" + errorRate
+          + ", errorCode=" + errorCode
+          + ", invocations=" + invocations
+          + '}';
+    }
+  }
+
+  private OperationSettings getSettings(FakeOperation operation) {
+    return settings.get(operation);
+  }
+
+  private void addUser(FakeProvysUser user) {
+    if (usersByName.putIfAbsent(user.getShortNameNm(), user) != null) {
+      throw new IllegalArgumentException("Duplicate user " + user.getShortNameNm());
+    }
+    usersById.put(user.getUserId().stripTrailingZeros(), user);
+  }
+
+  /**
+   * Add user that can log on to database using given password (Oracle authentication). Also
+   * technical users, used by providers to connect to database, are defined this way.
+   *
+   * @param userId is Id of user
+   * @param shortNameNm is short name of user, used as database user name (case-insensitive)
+   * @param fullName is full name of user
+   * @param password is database password of user
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase addDbUser(BigDecimal userId, String shortNameNm, String fullName,
+      String password) {
+    addUser(new FakeProvysUser(userId, shortNameNm, fullName, password, null));
+    return this;
+  }
+
+  /**
+   * Add user verified by ExtUser authentication. Such user cannot log on to database directly.
+   *
+   * @param userId is Id of user
+   * @param shortNameNm is short name of user (case-insensitive)
+   * @param fullName is full name of user
+   * @param password is password of user; database stores its hash only
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase addExtUser(BigDecimal userId, String shortNameNm, String fullName,
+      String password) {
+    addUser(new FakeProvysUser(userId, shortNameNm, fullName, null,
+        FakeProvysUser.extUserHash(shortNameNm, password)));
+    return this;
+  }
+
+  /**
+   * Change password of existing user. Sessions already opened by user are not affected, the same
+   * way as in Oracle database.
+   *
+   * @param shortNameNm is short name of user (case-insensitive)
+   * @param password is new password of user
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase changePassword(String shortNameNm, String password) {
+    var oldUser = usersByName.get(shortNameNm.toUpperCase(Locale.ENGLISH));
+    if (oldUser == null) {
+      throw new IllegalArgumentException("User " + shortNameNm + " not found");
+    }
+    var newUser = oldUser.withPassword(password);
+    usersByName.put(newUser.getShortNameNm(), newUser);
+    usersById.put(newUser.getUserId().stripTrailingZeros(), newUser);
+    return this;
+  }
+
+  /**
+   * Set latency of given operation.
+   *
+   * @param operation is operation latency applies to
+   * @param latencyMicros is time each invocation of operation takes, in microseconds
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase setLatency(FakeOperation operation, long latencyMicros) {
+    getSettings(operation).latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    return this;
+  }
+
+  /**
+   * Make given fraction of invocations of operation fail with given error code.
+   *
+   * @param operation is operation errors are injected to
+   * @param errorRate is probability of failure, between 0 and 1
+   * @param errorCode is Oracle error code of injected errors
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase setErrorRate(FakeOperation operation, double errorRate,
+      int errorCode) {
+    if ((errorRate < 0) || (errorRate > 1)) {
+      throw new IllegalArgumentException("Error rate must be between 0 and 1");
+    }
+    var operationSettings = getSettings(operation);
+    operationSettings.errorCode = errorCode;
+    operationSettings.errorRate = errorRate;
+    return this;
+  }
+
+  /**
+   * Make next invocations of operation fail with given error code.
+   *
+   * @param operation is operation errors are injected to
+   * @param count is number of invocations that will fail
+   * @param errorCode is Oracle error code of injected errors
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase failNext(FakeOperation operation, int count, int errorCode) {
+    var operationSettings = getSettings(operation);
+    operationSettings.errorCode = errorCode;
+    operationSettings.failNext.set(count);
+    return this;
+  }
+
+  /**
+   * Limit number of concurrent invocations of operation. Invocations over limit wait until other
+   * invocation finishes.
+   *
+   * @param operation is operation being limited
+   * @param maxConcurrency is maximal number of concurrent invocations, 0 means unlimited
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase setMaxConcurrency(FakeOperation operation, int maxConcurrency) {
+    getSettings(operation).concurrencyLimit =
+        (maxConcurrency > 0) ? new Semaphore(maxConcurrency, true) : null;
+    return this;
+  }
+
+  /**
+   * Limit number of concurrently open sessions. Logon over limit fails with ORA-00018.
+   *
+   * @param newMaxSessions is maximal number of open sessions
+   * @return this database, to allow chaining
+   */
+  public FakeProvysDatabase setMaxSessions(int newMaxSessions) {
+    this.maxSessions = newMaxSessions;
+    return this;
+  }
+
+  /**
+   * Data source connecting to this database. Url is ignored, only user name and password are
+   * verified.
+   *
+   * @return data source connecting to this database
+   */
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+  /**
+   * Number of invocations of given operation, including failed ones.
+   *
+   * @param operation is operation
+   * @return number of invocations
+   */
+  public long getInvocationCount(FakeOperation operation) {
+    return getSettings(operation).invocations.sum();
+  }
+
+  /**
+   * Number of failed invocations of given operation, both injected and regular (e.g. invalid
+   * password) failures.
+   *
+   * @param operation is operation
+   * @return number of failed invocations
+   */
+  public long getFailureCount(FakeOperation operation) {
+    return getSettings(operation).failures.sum();
+  }
+
+  /**
+   * Number of currently open sessions.
+   *
+   * @return number of open sessions
+   */
+  public int getOpenSessions() {
+    return openSessions.get();
+  }
+
+  static SQLException error(int errorCode, String message) {
+    return new SQLException(String.format(Locale.ENGLISH, "ORA-%05d: %s", errorCode, message),
+        (errorCode == ERR_INVALID_LOGON) ? "72000" : "99999", errorCode);
+  }
+
+  /**
+   * Execute operation - wait for permit if operation is limited, apply latency, inject errors and
+   * then run action.
+   */
+  <T> T perform(FakeOperation operation, Action<T> action) throws SQLException {
+    var operationSettings = getSettings(operation);
+    operationSettings.invocations.increment();
+    var limit = operationSettings.concurrencyLimit;
+    if (limit != null) {
+      limit.acquireUninterruptibly();
+    }
+    try {
+      var latency = operationSettings.latencyNanos;
+      if (latency > 0) {
+        LockSupport.parkNanos(latency);
+      }
+      if (shouldFail(operationSettings)) {
+        throw error(operationSettings.errorCode, "injected error in " + operation);
+      }
+      return action.run();
+    } catch (SQLException e) {
+      operationSettings.failures.increment();
+      throw e;
+    } finally {
+      if (limit != null) {
+        limit.release();
+      }
+    }
+  }
+
+  private static boolean shouldFail(OperationSettings operationSettings) {
+    var remaining = operationSettings.failNext;
+    int current;
+    while ((current = remaining.get()) > 0) {
+      if (remaining.compareAndSet(current, current - 1)) {
+        return true;
+      }
+    }
+    var rate = operationSettings.errorRate;
+    return (rate > 0) && (ThreadLocalRandom.current().nextDouble() < rate);
+  }
+
+  /**
+   * Action performed by operation.
+   */
+  @FunctionalInterface
+  interface Action<T> {
+    T run() throws SQLException;
+  }
+
+  /**
+   * Verify logon credentials and open session.
+   *
+   * @return user session has been opened for
+   */
+  FakeProvysUser logon(String userName, String password) throws SQLException {
+    return perform(FakeOperation.LOGON, () -> {
+      var user = usersByName.get(userName.toUpperCase(Locale.ENGLISH));
+      if ((user == null) || !user.passwordMatch(password)) {
+        throw error(ERR_INVALID_LOGON, "invalid username/password; logon denied");
+      }
+      if (openSessions.incrementAndGet() > maxSessions) {
+        openSessions.decrementAndGet();
+        throw error(ERR_MAX_SESSIONS, "maximum number of sessions exceeded");
+      }
+      return user;
+    });
+  }
+
+  /**
+   * Close session opened by {@link #logon}.
+   */
+  void logoff() {
+    openSessions.decrementAndGet();
+  }
+
+  @Nullable FakeProvysUser findExtUser(String shortNameNm, @Nullable String hash) {
+    var user = usersByName.get(shortNameNm.toUpperCase(Locale.ENGLISH));
+    return ((user != null) && user.extUserHashMatch(hash)) ? user : null;
+  }
+
+  @Nullable FakeProvysUser findUser(BigDecimal userId) {
+    return usersById.get(userId.stripTrailingZeros());
+  }
+
+  @Nullable FakeProvysUser findUserByToken(@Nullable String token) {
+    return (token == null) ? null : tokens.get(token);
+  }
+
+  /**
+   * Create database token for given user.
+   *
+   * @param user is user token is created for
+   * @return new token
+   */
+  String createToken(FakeProvysUser user) {
+    var chars = new char[24];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = TOKEN_CHARS[tokenRandom.nextInt(TOKEN_CHARS.length)];
+    }
+    var token = new String(chars);
+    if (tokens.size() >= MAX_TOKENS) {
+      // keep memory bounded in long running load tests
+      tokens.clear();
+    }
+    tokens.put(token, user);
+    return token;
+  }
+
+  @Override
+  public String toString() {
+    return "FakeProvysDatabase{"
+        + "users=" + usersByName.keySet()
+        + ", openSessions=" + openSessions
+        + ", maxSessions=" + maxSessions
+        + ", settings=" + settings
+        + '}';
+  }
+}
@@ -0,0 +1,94 @@
+package com.provys.auth.fakedb;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * User account of fake database. Database users can log on with their password, ExtUser users are
+ * verified using hash of their password.
+ */
+final class FakeProvysUser {
+
+  private final BigDecimal userId;
+  private final String shortNameNm;
+  private final String fullName;
+  private final @Nullable String password;
+  private final @Nullable String extUserHash;
+
+  FakeProvysUser(BigDecimal userId, String shortNameNm, String fullName,
+      @Nullable String password, @Nullable String extUserHash) {
+    this.userId = Objects.requireNonNull(userId);
+    this.shortNameNm = shortNameNm.toUpperCase(Locale.ENGLISH);
+    this.fullName = Objects.requireNonNull(fullName);
+    this.password = password;
+    this.extUserHash = extUserHash;
+  }
+
+  /**
+   * Hash of ExtUser password, as stored in Provys database.
+   *
+   * @param shortNameNm is short name of user
+   * @param password is password of user
+   * @return base64 encoded SHA-512 hash of password and upper-cased user name
+   */
+  static String extUserHash(String shortNameNm, String password) {
+    MessageDigest messageDigest;
+    try {
+      messageDigest = MessageDigest.getInstance("SHA-512");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Algorithm SHA-512 not available", e);
+    }
+    return Base64.getEncoder().encodeToString(messageDigest.digest(
+        (password.trim() + shortNameNm.trim().toUpperCase(Locale.ENGLISH))
+            .getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Copy of this user with changed password. Kind of user (database or ExtUser) is preserved.
+   *
+   * @param newPassword is new password
+   * @return user with the same Id and names and new password
+   */
+  FakeProvysUser withPassword(String newPassword) {
+    return (password != null)
+        ? new FakeProvysUser(userId, shortNameNm, fullName, newPassword, null)
+        : new FakeProvysUser(userId, shortNameNm, fullName, null,
+            extUserHash(shortNameNm, newPassword));
+  }
+
+  BigDecimal getUserId() {
+    return userId;
+  }
+
+  String getShortNameNm() {
+    return shortNameNm;
+  }
+
+  String getFullName() {
+    return fullName;
+  }
+
+  boolean passwordMatch(String checkPassword) {
+    return (password != null) && password.equals(checkPassword);
+  }
+
+  boolean extUserHashMatch(@Nullable String checkHash) {
+    return (extUserHash != null) && extUserHash.equals(checkHash);
+  }
+
+  @Override
+  public String toString() {
+    return "FakeProvysUser{"
+        + "userId=" + userId
+        + ", shortNameNm='" + shortNameNm + '\''
+        + ", fullName='" + fullName + '\''
+        // password and hash are intentionally omitted
+        + '}';
+  }
+}
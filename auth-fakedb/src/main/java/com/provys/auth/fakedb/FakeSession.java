@@ -0,0 +1,288 @@
+package com.provys.auth.fakedb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Locale;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Session of {@link FakeProvysDatabase}. Session remembers user it runs as; this user can be
+ * switched by ExtUser verification, impersonation or database token, the same way as in Provys
+ * database. JDBC interfaces are implemented via dynamic proxies and only methods used by
+ * authentication providers are supported; other methods fail with
+ * {@link SQLFeatureNotSupportedException}.
+ */
+final class FakeSession {
+
+  private static final String CREATE_TOKEN_MARKER = "KEC_USER_CP.MF_CREATEIISTOKEN";
+  private static final int MAX_PARAMETERS = 8;
+
+  private final FakeProvysDatabase database;
+  private FakeProvysUser user;
+  private volatile boolean closed;
+
+  private FakeSession(FakeProvysDatabase database, FakeProvysUser user) {
+    this.database = Objects.requireNonNull(database);
+    this.user = Objects.requireNonNull(user);
+  }
+
+  /**
+   * Create connection representing new session of given user.
+   *
+   * @param database is database session belongs to
+   * @param user is user session has been opened for
+   * @return connection representing session
+   */
+  static Connection newConnection(FakeProvysDatabase database, FakeProvysUser user) {
+    var session = new FakeSession(database, user);
+    return (Connection) Proxy.newProxyInstance(FakeSession.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, session.new ConnectionHandler());
+  }
+
+  private void verifyOpen() throws SQLException {
+    if (closed) {
+      throw FakeProvysDatabase.error(17008, "Closed Connection");
+    }
+  }
+
+  private synchronized void close() {
+    if (!closed) {
+      closed = true;
+      database.logoff();
+    }
+  }
+
+  private synchronized FakeProvysUser getUser() {
+    return user;
+  }
+
+  private synchronized void setUser(FakeProvysUser newUser) {
+    this.user = newUser;
+  }
+
+  private static Object unsupported(Method method) throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException(
+        "Method " + method.getName() + " not supported by fake database");
+  }
+
+  private static @Nullable Object invokeObjectMethod(Object proxy, Method method,
+      @Nullable Object[] args, Object handler) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      default:
+        return handler.toString();
+    }
+  }
+
+  /**
+   * Handles calls on connection proxy.
+   */
+  private final class ConnectionHandler implements InvocationHandler {
+
+    @Override
+    public @Nullable Object invoke(Object proxy, Method method, @Nullable Object[] args)
+        throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        return invokeObjectMethod(proxy, method, args, this);
+      }
+      switch (method.getName()) {
+        case "prepareCall":
+          verifyOpen();
+          return prepareCall((String) args[0]);
+        case "close":
+          close();
+          return null;
+        case "isClosed":
+          return closed;
+        case "isValid":
+          return !closed;
+        case "getAutoCommit":
+          verifyOpen();
+          return true;
+        case "setAutoCommit":
+        case "commit":
+        case "rollback":
+          verifyOpen();
+          return null;
+        default:
+          return unsupported(method);
+      }
+    }
+
+    private CallableStatement prepareCall(String sql) throws SQLException {
+      var operation = FakeOperation.forSql(sql);
+      if (operation == null) {
+        throw FakeProvysDatabase.error(6550, "statement not supported by fake database");
+      }
+      var statement = new StatementHandler(operation,
+          sql.toUpperCase(Locale.ENGLISH).contains(CREATE_TOKEN_MARKER));
+      return (CallableStatement) Proxy.newProxyInstance(FakeSession.class.getClassLoader(),
+          new Class<?>[]{CallableStatement.class}, statement);
+    }
+
+    @Override
+    public String toString() {
+      return "FakeConnection{"
+          + "user=" + getUser()
+          + ", closed=" + closed
+          + '}';
+    }
+  }
+
+  /**
+   * Handles calls on statement proxy. Bind variables are numbered the same way as in statements
+   * issued by authentication providers.
+   */
+  private final class StatementHandler implements InvocationHandler {
+
+    private final FakeOperation operation;
+    private final boolean createToken;
+    private final @Nullable Object[] parameters = new Object[MAX_PARAMETERS + 1];
+    private boolean statementClosed;
+
+    StatementHandler(FakeOperation operation, boolean createToken) {
+      this.operation = operation;
+      this.createToken = createToken;
+    }
+
+    @Override
+    public @Nullable Object invoke(Object proxy, Method method, @Nullable Object[] args)
+        throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        return invokeObjectMethod(proxy, method, args, this);
+      }
+      switch (method.getName()) {
+        case "close":
+          statementClosed = true;
+          return null;
+        case "isClosed":
+          return statementClosed;
+        case "setString":
+        case "setBigDecimal":
+          verifyStatementOpen();
+          parameters[getIndex(args[0])] = args[1];
+          return null;
+        case "registerOutParameter":
+          verifyStatementOpen();
+          getIndex(args[0]);
+          return null;
+        case "execute":
+          verifyStatementOpen();
+          execute();
+          return false;
+        case "getString":
+        case "getBigDecimal":
+          verifyStatementOpen();
+          return parameters[getIndex(args[0])];
+        default:
+          return unsupported(method);
+      }
+    }
+
+    private int getIndex(@Nullable Object index) throws SQLException {
+      if (!(index instanceof Integer)) {
+        throw new SQLFeatureNotSupportedException("Only numbered parameters are supported");
+      }
+      var result = (Integer) index;
+      if ((result < 1) || (result > MAX_PARAMETERS)) {
+        throw FakeProvysDatabase.error(17003, "Invalid column index");
+      }
+      return result;
+    }
+
+    private void verifyStatementOpen() throws SQLException {
+      verifyOpen();
+      if (statementClosed) {
+        throw FakeProvysDatabase.error(17009, "Closed Statement");
+      }
+    }
+
+    private void execute() throws SQLException {
+      database.perform(operation, () -> {
+        switch (operation) {
+          case SET_EXT_USER_PASSWORD:
+            setExtUser();
+            break;
+          case SET_USER_ID:
+            setUserId();
+            break;
+          case SET_IIS_TOKEN:
+            setToken();
+            break;
+          case GET_USER_DATA:
+            getUserData();
+            break;
+          default:
+            throw new IllegalStateException("Unexpected operation " + operation);
+        }
+        return null;
+      });
+    }
+
+    private void setExtUser() throws SQLException {
+      var newUser = database.findExtUser(String.valueOf(parameters[1]),
+          (String) parameters[2]);
+      if (newUser == null) {
+        throw FakeProvysDatabase.error(FakeProvysDatabase.ERR_APPLICATION,
+            "Invalid user name or password");
+      }
+      setUser(newUser);
+    }
+
+    private void setUserId() throws SQLException {
+      var userId = parameters[1];
+      var newUser = (userId instanceof BigDecimal) ? database.findUser((BigDecimal) userId)
+          : null;
+      if (newUser == null) {
+        throw FakeProvysDatabase.error(FakeProvysDatabase.ERR_NO_DATA_FOUND, "no data found");
+      }
+      setUser(newUser);
+    }
+
+    private void setToken() throws SQLException {
+      var newUser = database.findUserByToken((String) parameters[1]);
+      if (newUser == null) {
+        throw FakeProvysDatabase.error(FakeProvysDatabase.ERR_APPLICATION,
+            "Invalid database token");
+      }
+      setUser(newUser);
+    }
+
+    private void getUserData() {
+      var current = getUser();
+      parameters[1] = current.getUserId();
+      parameters[2] = current.getShortNameNm();
+      parameters[3] = current.getFullName();
+      if (createToken) {
+        parameters[4] = database.createToken(current);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "FakeStatement{"
+          + "operation=" + operation
+          + ", createToken=" + createToken
+          + ", closed=" + statementClosed
+          + '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FakeSession{"
+        + "user=" + getUser()
+        + ", closed=" + closed
+        + '}';
+  }
+}
@@ -0,0 +1,185 @@
+package com.provys.auth.fakedb;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class FakeProvysDatabaseTest {
+
+  private static final String GET_USER_DATA = "BEGIN\n"
+      + "  l_User_ID:=KER_User_EP.mf_GetUserID;\n"
+      + "  l_Token:=KEC_User_CP.mf_CreateIISToken;\n"
+      + "END;";
+
+  private static FakeProvysDatabase createDatabase() {
+    return new FakeProvysDatabase()
+        .addDbUser(BigDecimal.ONE, "tech", "Technical User", "techpwd")
+        .addDbUser(BigDecimal.valueOf(2), "stehlik", "Michal Stehlik", "atlanta")
+        .addExtUser(BigDecimal.valueOf(3), "extuser", "External User", "secret");
+  }
+
+  private static String[] readUserData(Connection connection) throws SQLException {
+    try (var statement = connection.prepareCall(GET_USER_DATA)) {
+      statement.registerOutParameter(1, Types.NUMERIC);
+      statement.registerOutParameter(2, Types.VARCHAR);
+      statement.registerOutParameter(3, Types.VARCHAR);
+      statement.registerOutParameter(4, Types.VARCHAR);
+      statement.execute();
+      return new String[]{statement.getBigDecimal(1).toPlainString(), statement.getString(2),
+          statement.getString(3), statement.getString(4)};
+    }
+  }
+
+  @Test
+  void logonTest() throws SQLException {
+    var database = createDatabase();
+    try (var connection = database.getDataSource().getConnection("Stehlik", "atlanta")) {
+      assertThat(database.getOpenSessions()).isEqualTo(1);
+      var userData = readUserData(connection);
+      assertThat(userData[0]).isEqualTo("2");
+      assertThat(userData[1]).isEqualTo("STEHLIK");
+      assertThat(userData[2]).isEqualTo("Michal Stehlik");
+      assertThat(userData[3]).isNotEmpty();
+    }
+    assertThat(database.getOpenSessions()).isZero();
+    assertThatThrownBy(() -> database.getDataSource().getConnection("stehlik", "ATLANTA"))
+        .isInstanceOf(SQLException.class)
+        .extracting(e -> ((SQLException) e).getErrorCode())
+        .isEqualTo(FakeProvysDatabase.ERR_INVALID_LOGON);
+    // ExtUser users cannot log on directly
+    assertThatThrownBy(() -> database.getDataSource().getConnection("extuser", "secret"))
+        .isInstanceOf(SQLException.class);
+    assertThat(database.getInvocationCount(FakeOperation.LOGON)).isEqualTo(3);
+    assertThat(database.getFailureCount(FakeOperation.LOGON)).isEqualTo(2);
+  }
+
+  @Test
+  void setExtUserTest() throws SQLException {
+    var database = createDatabase();
+    try (var connection = database.getDataSource().getConnection("tech", "techpwd")) {
+      try (var statement = connection.prepareCall(
+          "BEGIN KEC_User_CP.mp_SetExtUserID_Password(p_User_NM => ?, p_Password => ?); END;")) {
+        statement.setString(1, "EXTUSER");
+        statement.setString(2, FakeProvysUser.extUserHash("extuser", "wrong"));
+        assertThatThrownBy(statement::execute)
+            .isInstanceOf(SQLException.class)
+            .extracting(e -> ((SQLException) e).getErrorCode())
+            .isEqualTo(FakeProvysDatabase.ERR_APPLICATION);
+        statement.setString(2, FakeProvysUser.extUserHash("extuser", "secret"));
+        statement.execute();
+      }
+      assertThat(readUserData(connection)[1]).isEqualTo("EXTUSER");
+    }
+  }
+
+  @Test
+  void setUserIdAndTokenTest() throws SQLException {
+    var database = createDatabase();
+    String token;
+    try (var connection = database.getDataSource().getConnection("tech", "techpwd")) {
+      try (var statement = connection.prepareCall(
+          "BEGIN KER_User_PG.mp_SetUserID(p_User_ID => ?, p_TestRights => FALSE); END;")) {
+        statement.setBigDecimal(1, new BigDecimal("2.0"));
+        statement.execute();
+        statement.setBigDecimal(1, BigDecimal.TEN);
+        assertThatThrownBy(statement::execute)
+            .isInstanceOf(SQLException.class)
+            .extracting(e -> ((SQLException) e).getErrorCode())
+            .isEqualTo(FakeProvysDatabase.ERR_NO_DATA_FOUND);
+      }
+      token = readUserData(connection)[3];
+    }
+    try (var connection = database.getDataSource().getConnection("tech", "techpwd")) {
+      try (var statement = connection.prepareCall(
+          "BEGIN KEC_User_CP.mp_SetIISToken(p_Token => ?); END;")) {
+        statement.setString(1, token);
+        statement.execute();
+      }
+      assertThat(readUserData(connection)[1]).isEqualTo("STEHLIK");
+    }
+  }
+
+  @Test
+  void changePasswordTest() throws SQLException {
+    var database = createDatabase()
+        .changePassword("STEHLIK", "boston");
+    assertThatThrownBy(() -> database.getDataSource().getConnection("stehlik", "atlanta"))
+        .isInstanceOf(SQLException.class);
+    try (var connection = database.getDataSource().getConnection("stehlik", "boston")) {
+      assertThat(readUserData(connection)[0]).isEqualTo("2");
+    }
+  }
+
+  @Test
+  void unsupportedStatementTest() throws SQLException {
+    var database = createDatabase();
+    var connection = database.getDataSource().getConnection("tech", "techpwd");
+    assertThatThrownBy(() -> connection.prepareCall("SELECT 1 FROM dual"))
+        .isInstanceOf(SQLException.class);
+    connection.close();
+    assertThat(connection.isClosed()).isTrue();
+    assertThatThrownBy(() -> connection.prepareCall(GET_USER_DATA))
+        .isInstanceOf(SQLException.class);
+  }
+
+  @Test
+  void failNextAndMaxSessionsTest() throws SQLException {
+    var database = createDatabase()
+        .failNext(FakeOperation.LOGON, 2, 12541)
+        .setMaxSessions(1);
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> database.getDataSource().getConnection("tech", "techpwd"))
+          .isInstanceOf(SQLException.class)
+          .extracting(e -> ((SQLException) e).getErrorCode())
+          .isEqualTo(12541);
+    }
+    try (var connection = database.getDataSource().getConnection("tech", "techpwd")) {
+      assertThat(connection.isValid(1)).isTrue();
+      assertThatThrownBy(() -> database.getDataSource().getConnection("tech", "techpwd"))
+          .isInstanceOf(SQLException.class)
+          .extracting(e -> ((SQLException) e).getErrorCode())
+          .isEqualTo(FakeProvysDatabase.ERR_MAX_SESSIONS);
+    }
+    database.setErrorRate(FakeOperation.LOGON, 1, 3113);
+    assertThatThrownBy(() -> database.getDataSource().getConnection("tech", "techpwd"))
+        .isInstanceOf(SQLException.class)
+        .extracting(e -> ((SQLException) e).getErrorCode())
+        .isEqualTo(3113);
+  }
+
+  @Test
+  void latencyAndConcurrencyTest() throws InterruptedException, ExecutionException {
+    var database = createDatabase()
+        .setLatency(FakeOperation.LOGON, 20_000)
+        .setMaxConcurrency(FakeOperation.LOGON, 1);
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      var start = System.nanoTime();
+      var futures = new ArrayList<Future<?>>(4);
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> {
+          try (var connection = database.getDataSource().getConnection("tech", "techpwd")) {
+            return connection.isValid(1);
+          }
+        }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+      // logons are serialized by concurrency limit, thus they cannot overlap
+      assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS
+          .toNanos(80));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package com.provys.auth.mock;
+
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Synthetic users read from memory-mapped file. File is UTF-8 text with one user per line, fields
+ * separated by tab: user name, password, user Id and optionally full name. Empty lines and lines
+ * starting with {@code #} are ignored.
+ *
+ * <p>Only index of record offsets (one int per user, in open-addressing table keyed by user name)
+ * is held on heap; records stay in mapped file and are paged in by operating system as needed, thus
+ * files with millions of users can be used. User names are compared ignoring case of ASCII letters,
+ * passwords are compared exactly. File must not be larger than 2 GB.
+ */
+public final class MappedFileUserSource implements SyntheticUserSource {
+
+  private static final byte TAB = '\t';
+  private static final byte LF = '\n';
+  private static final byte CR = '\r';
+  private static final byte COMMENT = '#';
+
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private final int limit;
+  /** Offsets of records increased by one, 0 marks empty slot. */
+  private final int[] index;
+  private final int mask;
+  private final int size;
+
+  /**
+   * Map given file and build index of users.
+   *
+   * @param path is path of file with users
+   * @throws IOException if file cannot be read
+   * @throws IllegalArgumentException if file is too large, contains invalid line or duplicate user
+   */
+  public MappedFileUserSource(Path path) throws IOException {
+    this.path = path;
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var fileSize = channel.size();
+      if (fileSize > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("File with synthetic users " + path
+            + " is larger than 2 GB");
+      }
+      // mapping stays valid after channel is closed
+      this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      this.limit = (int) fileSize;
+    }
+    var counter = new int[1];
+    forEachRecord(start -> counter[0]++);
+    this.size = counter[0];
+    var capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+    this.index = new int[capacity];
+    this.mask = capacity - 1;
+    forEachRecord(this::addToIndex);
+  }
+
+  private static int upperAscii(int c) {
+    return ((c >= 'a') && (c <= 'z')) ? (c - ('a' - 'A')) : c;
+  }
+
+  private static int hash(String userName) {
+    var result = 0;
+    for (int i = 0; i < userName.length(); i++) {
+      result = 31 * result + upperAscii(userName.charAt(i));
+    }
+    return result ^ (result >>> 16);
+  }
+
+  private int indexOf(byte value, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (buffer.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int lineEnd(int start) {
+    var end = indexOf(LF, start, limit);
+    return (end < 0) ? limit : end;
+  }
+
+  /**
+   * End of field starting at given position - position of next tab or end of line (excluding
+   * carriage return).
+   */
+  private int fieldEnd(int start) {
+    var end = lineEnd(start);
+    var tab = indexOf(TAB, start, end);
+    if (tab >= 0) {
+      return tab;
+    }
+    return ((end > start) && (buffer.get(end - 1) == CR)) ? end - 1 : end;
+  }
+
+  private String decode(int start, int end) {
+    var bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void forEachRecord(IntConsumer action) {
+    var position = 0;
+    var line = 1;
+    while (position < limit) {
+      var end = lineEnd(position);
+      var first = buffer.get(position);
+      if ((first != COMMENT) && (first != LF) && !((first == CR) && (end == position + 1))) {
+        if (indexOf(TAB, position, end) < 0) {
+          throw new IllegalArgumentException("Invalid line " + line + " in file with synthetic "
+              + "users " + path + ": user name and password must be separated by tab");
+        }
+        action.accept(position);
+      }
+      position = end + 1;
+      line++;
+    }
+  }
+
+  private int hashRecord(int start, int end) {
+    var result = 0;
+    for (int i = start; i < end; i++) {
+      var value = buffer.get(i);
+      if (value < 0) {
+        // non-ASCII user name - hash characters, the same way as hash of looked-up name
+        return hash(decode(start, end));
+      }
+      result = 31 * result + upperAscii(value);
+    }
+    return result ^ (result >>> 16);
+  }
+
+  /**
+   * Compare field in file with supplied value, optionally ignoring case of ASCII letters. Does not
+   * allocate unless field contains non-ASCII characters.
+   */
+  private boolean fieldEquals(int start, int end, String value, boolean ignoreCase) {
+    if (end - start < value.length()) {
+      // UTF-8 encoding is never shorter than number of characters
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      var fieldChar = buffer.get(i);
+      if (fieldChar < 0) {
+        return charsEqual(decode(start, end), value, ignoreCase);
+      }
+      if (i - start == value.length()) {
+        // field is longer than value, value is only its prefix
+        return false;
+      }
+      var valueChar = value.charAt(i - start);
+      if (ignoreCase ? (upperAscii(fieldChar) != upperAscii(valueChar))
+          : (fieldChar != valueChar)) {
+        return false;
+      }
+    }
+    return end - start == value.length();
+  }
+
+  private static boolean charsEqual(String first, String second, boolean ignoreCase) {
+    if (first.length() != second.length()) {
+      return false;
+    }
+    for (int i = 0; i < first.length(); i++) {
+      var firstChar = first.charAt(i);
+      var secondChar = second.charAt(i);
+      if (ignoreCase ? (upperAscii(firstChar) != upperAscii(secondChar))
+          : (firstChar != secondChar)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addToIndex(int start) {
+    var nameEnd = fieldEnd(start);
+    var name = decode(start, nameEnd);
+    var slot = hashRecord(start, nameEnd) & mask;
+    int entry;
+    while ((entry = index[slot]) != 0) {
+      if (fieldEquals(entry - 1, fieldEnd(entry - 1), name, true)) {
+        throw new IllegalArgumentException("Duplicate user " + name + " in file with synthetic "
+            + "users " + path);
+      }
+      slot = (slot + 1) & mask;
+    }
+    index[slot] = start + 1;
+  }
+
+  private int findRecord(String userName) {
+    var slot = hash(userName) & mask;
+    int entry;
+    while ((entry = index[slot]) != 0) {
+      if (fieldEquals(entry - 1, fieldEnd(entry - 1), userName, true)) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private UserData readUserData(int start) {
+    var nameEnd = fieldEnd(start);
+    var name = decode(start, nameEnd);
+    var lineEnd = lineEnd(start);
+    var idStart = fieldEnd(nameEnd + 1) + 1;
+    if (idStart >= lineEnd) {
+      throw new InternalException("Missing user Id of user " + name + " in " + path);
+    }
+    var idEnd = fieldEnd(idStart);
+    var userIdValue = decode(idStart, idEnd);
+    BigDecimal userId;
+    try {
+      userId = new BigDecimal(userIdValue);
+    } catch (NumberFormatException e) {
+      throw new InternalException("Invalid user Id of user " + name + " in " + path, e);
+    }
+    var fullName = (idEnd < lineEnd) && (buffer.get(idEnd) == TAB)
+        ? decode(idEnd + 1, fieldEnd(idEnd + 1)) : name;
+    return ProvysUserData.of(DtUid.valueOf(userId), name.toUpperCase(Locale.ENGLISH), fullName,
+        DtEncryptedString.valueOf("SYNTHETIC" + userIdValue));
+  }
+
+  @Override
+  public @Nullable UserData find(String userName, String password) {
+    var start = findRecord(userName);
+    if (start < 0) {
+      return null;
+    }
+    var passwordStart = fieldEnd(start) + 1;
+    if (!fieldEquals(passwordStart, fieldEnd(passwordStart), password, false)) {
+      return null;
+    }
+    return readUserData(start);
+  }
+
+  /**
+   * Number of users in file.
+   *
+   * @return number of users
+   */
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "MappedFileUserSource{"
+        + "path=" + path
+        + ", size=" + size
+        + '}';
+  }
+}
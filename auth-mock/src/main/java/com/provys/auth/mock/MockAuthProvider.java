@@ -1,10 +1,9 @@
 package com.provys.auth.mock;
 
 import com.provys.auth.api.UserData;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,13 +16,17 @@ import org.springframework.security.core.authority.AuthorityUtils;
  * answers for username / password authentication requests. As set-up is required, it is not marked
  * as component, instead, user is responsible to set up bean via factory, that will define these
  * answers
+ *
+ * <p>Answers are indexed by user name and password, thus look-up does not allocate. For capacity
+ * testing with large number of users, use {@link SyntheticMockAuthProvider}.
  */
 public final class MockAuthProvider implements AuthenticationProvider {
 
   private static final List<GrantedAuthority> USER_ROLES = AuthorityUtils
       .createAuthorityList("ROLE_USER");
 
-  private final Map<UsernamePasswordPair, Authentication> authentications;
+  /** Authentications by user name and password; never modified after construction. */
+  private final Map<String, Map<String, Authentication>> authentications;
 
   /**
    * Create mock authentication provider, successfully authenticates supplied username + password
@@ -32,11 +35,14 @@ public final class MockAuthProvider implements AuthenticationProvider {
    * @param userData is map of credentials and corresponding user data items
    */
   public MockAuthProvider(Map<UsernamePasswordPair, UserData> userData) {
-    this.authentications = userData.entrySet().stream()
-        .map(entry -> Map.entry(entry.getKey(),
-            new UsernamePasswordAuthenticationToken(
-                entry.getValue(), entry.getKey().getPassword(), USER_ROLES)))
-        .collect(Collectors.toUnmodifiableMap(Entry::getKey, Entry::getValue));
+    var result = new HashMap<String, Map<String, Authentication>>(userData.size() * 2);
+    for (var entry : userData.entrySet()) {
+      var usernamePassword = entry.getKey();
+      result.computeIfAbsent(usernamePassword.getUserName(), userName -> new HashMap<>(2))
+          .put(usernamePassword.getPassword(), new UsernamePasswordAuthenticationToken(
+              entry.getValue(), usernamePassword.getPassword(), USER_ROLES));
+    }
+    this.authentications = result;
   }
 
   @Override
@@ -44,8 +50,8 @@ public final class MockAuthProvider implements AuthenticationProvider {
     var token = (UsernamePasswordAuthenticationToken) authentication;
     var userName = token.getName();
     var password = (String) token.getCredentials();
-    var usernamePassword = new UsernamePasswordPair(userName, password);
-    var result = authentications.get(usernamePassword);
+    var passwords = authentications.get(userName);
+    var result = (passwords == null) ? null : passwords.get(password);
     if (result == null) {
       throw new BadCredentialsException("Invalid username / password");
     }
@@ -0,0 +1,134 @@
+package com.provys.auth.mock;
+
+import com.google.errorprone.annotations.Immutable;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of artificial latency of mock authentication. Latency is specified as text in one of
+ * following forms (all values in microseconds):
+ * <ul>
+ *   <li>{@code none} - no latency</li>
+ *   <li>{@code fixed:<latency>} - constant latency</li>
+ *   <li>{@code uniform:<min>:<max>} - latency uniformly distributed between min and max</li>
+ *   <li>{@code exponential:<mean>} - exponentially distributed latency with given mean</li>
+ *   <li>{@code lognormal:<median>:<sigma>} - log-normal distribution with given median and
+ *   standard deviation of underlying normal distribution, typical for database calls with long
+ *   tail</li>
+ * </ul>
+ */
+@Immutable
+public final class MockLatency {
+
+  /** No latency. */
+  public static final MockLatency NONE = new MockLatency(Kind.NONE, 0, 0);
+
+  private enum Kind {
+    NONE,
+    FIXED,
+    UNIFORM,
+    EXPONENTIAL,
+    LOGNORMAL
+  }
+
+  private final Kind kind;
+  private final double first;
+  private final double second;
+
+  private MockLatency(Kind kind, double first, double second) {
+    this.kind = kind;
+    this.first = first;
+    this.second = second;
+  }
+
+  private static double parseValue(String spec, String value) {
+    double result;
+    try {
+      result = Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value in latency specification " + spec, e);
+    }
+    if (!(result >= 0)) {
+      throw new IllegalArgumentException("Negative value in latency specification " + spec);
+    }
+    return result;
+  }
+
+  /**
+   * Parse latency specification.
+   *
+   * @param spec is latency specification, e.g. {@code lognormal:500:0.6}
+   * @return latency distribution
+   * @throws IllegalArgumentException if specification is not valid
+   */
+  public static MockLatency parse(String spec) {
+    var parts = spec.trim().split(":", -1);
+    Kind kind;
+    try {
+      kind = Kind.valueOf(parts[0].trim().toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid latency specification " + spec, e);
+    }
+    var expectedParts = ((kind == Kind.UNIFORM) || (kind == Kind.LOGNORMAL)) ? 3
+        : (kind == Kind.NONE) ? 1 : 2;
+    if (parts.length != expectedParts) {
+      throw new IllegalArgumentException("Invalid number of values in latency specification "
+          + spec);
+    }
+    if (kind == Kind.NONE) {
+      return NONE;
+    }
+    var first = parseValue(spec, parts[1]);
+    var second = (parts.length > 2) ? parseValue(spec, parts[2]) : 0;
+    if ((kind == Kind.UNIFORM) && (second < first)) {
+      throw new IllegalArgumentException("Maximum below minimum in latency specification " + spec);
+    }
+    return new MockLatency(kind, first, second);
+  }
+
+  /**
+   * Draw latency of next authentication.
+   *
+   * @param random is source of randomness
+   * @return latency in nanoseconds
+   */
+  public long nextNanos(Random random) {
+    double micros;
+    switch (kind) {
+      case FIXED:
+        micros = first;
+        break;
+      case UNIFORM:
+        micros = first + (second - first) * random.nextDouble();
+        break;
+      case EXPONENTIAL:
+        micros = -first * Math.log(1 - random.nextDouble());
+        break;
+      case LOGNORMAL:
+        micros = first * Math.exp(second * random.nextGaussian());
+        break;
+      default:
+        return 0;
+    }
+    return (long) (micros * TimeUnit.MICROSECONDS.toNanos(1));
+  }
+
+  /**
+   * Indicates if this distribution never produces latency.
+   *
+   * @return true if latency is none
+   */
+  public boolean isNone() {
+    return kind == Kind.NONE;
+  }
+
+  @Override
+  public String toString() {
+    return "MockLatency{"
+        + "kind=" + kind
+        + ", first=" + first
+        + ", second=" + second
+        + '}';
+  }
+}
@@ -0,0 +1,94 @@
+package com.provys.auth.mock;
+
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.math.BigDecimal;
+import java.util.Locale;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Synthetic users derived from their name. User name consists of user prefix and number (e.g.
+ * {@code user123}), valid password is password prefix followed by the same number (e.g.
+ * {@code pwd123}) and user Id is the number itself. Number must not have leading zeros. Prefix of
+ * user name is case-insensitive, password is case-sensitive. Number of users is unlimited, unless
+ * maximal number is specified; nothing is held in memory.
+ */
+public final class PatternUserSource implements SyntheticUserSource {
+
+  /** Maximal number of digits of user number; longer numbers might overflow. */
+  private static final int MAX_DIGITS = 18;
+
+  private final String userPrefix;
+  private final String passwordPrefix;
+  private final long maxUsers;
+
+  /**
+   * Create pattern based user source.
+   *
+   * @param userPrefix is prefix of user names
+   * @param passwordPrefix is prefix of passwords
+   * @param maxUsers is number of users (numbers 0 to maxUsers - 1 are valid); 0 means unlimited
+   */
+  public PatternUserSource(String userPrefix, String passwordPrefix, long maxUsers) {
+    if (maxUsers < 0) {
+      throw new IllegalArgumentException("Maximal number of users must not be negative");
+    }
+    this.userPrefix = userPrefix;
+    this.passwordPrefix = passwordPrefix;
+    this.maxUsers = maxUsers;
+  }
+
+  /**
+   * Parse number of user from user name.
+   *
+   * @return number of user, -1 if user name does not match pattern
+   */
+  private long parseNumber(String userName) {
+    var prefixLength = userPrefix.length();
+    var digits = userName.length() - prefixLength;
+    if ((digits <= 0) || (digits > MAX_DIGITS)
+        || !userName.regionMatches(true, 0, userPrefix, 0, prefixLength)
+        || ((digits > 1) && (userName.charAt(prefixLength) == '0'))) {
+      // leading zeros are not allowed, so that each number has single user name
+      return -1;
+    }
+    long result = 0;
+    for (int i = prefixLength; i < userName.length(); i++) {
+      var c = userName.charAt(i);
+      if ((c < '0') || (c > '9')) {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return ((maxUsers == 0) || (result < maxUsers)) ? result : -1;
+  }
+
+  private boolean passwordMatch(String userName, String password) {
+    // password must contain the same digits as user name
+    var digits = userName.length() - userPrefix.length();
+    return (password.length() == passwordPrefix.length() + digits)
+        && password.startsWith(passwordPrefix)
+        && password.regionMatches(passwordPrefix.length(), userName, userPrefix.length(), digits);
+  }
+
+  @Override
+  public @Nullable UserData find(String userName, String password) {
+    var number = parseNumber(userName);
+    if ((number < 0) || !passwordMatch(userName, password)) {
+      return null;
+    }
+    return ProvysUserData.of(DtUid.valueOf(BigDecimal.valueOf(number)),
+        userName.toUpperCase(Locale.ENGLISH), "Synthetic User " + number,
+        DtEncryptedString.valueOf("SYNTHETIC" + number));
+  }
+
+  @Override
+  public String toString() {
+    return "PatternUserSource{"
+        + "userPrefix='" + userPrefix + '\''
+        + ", maxUsers=" + maxUsers
+        + '}';
+  }
+}
@@ -0,0 +1,53 @@
+package com.provys.auth.mock;
+
+import com.provys.common.exception.InternalException;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of synthetic mock provider, available as {@code MOCK$SYNTHETIC}. Active when
+ * property {@code provysauth.mock.synthetic.enabled} is true. Users are read from file given by
+ * {@code provysauth.mock.synthetic.file} if set, otherwise they are derived from user name using
+ * {@code provysauth.mock.synthetic.userPrefix} (default user) and
+ * {@code provysauth.mock.synthetic.passwordPrefix} (default pwd), optionally limited to
+ * {@code provysauth.mock.synthetic.maxUsers} users. Latency is specified by
+ * {@code provysauth.mock.synthetic.latency} (see {@link MockLatency}) and failure rate by
+ * {@code provysauth.mock.synthetic.failureRate}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "provysauth.mock.synthetic.enabled", havingValue = "true")
+public class SyntheticMockAuthAutoConfiguration {
+
+  /** Name of synthetic provider bean; makes it available under name {@code MOCK$SYNTHETIC}. */
+  static final String BEAN_NAME = "mockAuthProviderSYNTHETIC";
+
+  @Bean(BEAN_NAME)
+  SyntheticMockAuthProvider syntheticMockAuthProvider(
+      @Value("${provysauth.mock.synthetic.file:}") String file,
+      @Value("${provysauth.mock.synthetic.userPrefix:user}") String userPrefix,
+      @Value("${provysauth.mock.synthetic.passwordPrefix:pwd}") String passwordPrefix,
+      @Value("${provysauth.mock.synthetic.maxUsers:0}") long maxUsers,
+      @Value("${provysauth.mock.synthetic.latency:none}") String latency,
+      @Value("${provysauth.mock.synthetic.failureRate:0}") double failureRate) {
+    SyntheticUserSource userSource;
+    if (file.isBlank()) {
+      userSource = new PatternUserSource(userPrefix, passwordPrefix, maxUsers);
+    } else {
+      try {
+        userSource = new MappedFileUserSource(Path.of(file.trim()));
+      } catch (IOException e) {
+        throw new InternalException("Failed to read synthetic users from " + file, e);
+      }
+    }
+    return new SyntheticMockAuthProvider(userSource, MockLatency.parse(latency), failureRate);
+  }
+
+  @Override
+  public String toString() {
+    return "SyntheticMockAuthAutoConfiguration{}";
+  }
+}
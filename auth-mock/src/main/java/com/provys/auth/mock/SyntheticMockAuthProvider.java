@@ -0,0 +1,98 @@
+package com.provys.auth.mock;
+
+import com.provys.common.exception.InternalException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Mock authentication provider for capacity testing with large number of users. Users come from
+ * {@link SyntheticUserSource} - either derived from user name ({@link PatternUserSource}) or read
+ * from memory-mapped file ({@link MappedFileUserSource}). Each authentication waits for artificial
+ * latency and given fraction of authentications fails with {@link InternalException}, simulating
+ * database failure; thus whole authentication pipeline can be exercised at production scale
+ * without database.
+ *
+ * <p>Provider is registered by {@link SyntheticMockAuthAutoConfiguration} and is available in
+ * {@link com.provys.auth.api.AuthProviderLookup} as {@code MOCK$SYNTHETIC}; it can also be created
+ * and registered as {@code mockAuthProvider<i>} bean like {@link MockAuthProvider}.
+ */
+public final class SyntheticMockAuthProvider implements AuthenticationProvider {
+
+  private static final List<GrantedAuthority> USER_ROLES = AuthorityUtils
+      .createAuthorityList("ROLE_USER");
+
+  private final SyntheticUserSource userSource;
+  private final MockLatency latency;
+  private final double failureRate;
+
+  /**
+   * Create synthetic mock provider.
+   *
+   * @param userSource is source of users
+   * @param latency is distribution of artificial latency of authentication
+   * @param failureRate is fraction of authentications that fail with internal error, between 0
+   *                    and 1
+   */
+  public SyntheticMockAuthProvider(SyntheticUserSource userSource, MockLatency latency,
+      double failureRate) {
+    if ((failureRate < 0) || (failureRate > 1)) {
+      throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+    }
+    this.userSource = Objects.requireNonNull(userSource);
+    this.latency = Objects.requireNonNull(latency);
+    this.failureRate = failureRate;
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    var token = (UsernamePasswordAuthenticationToken) authentication;
+    var userName = token.getName();
+    var password = (String) token.getCredentials();
+    if (!latency.isNone() || (failureRate > 0)) {
+      var random = ThreadLocalRandom.current();
+      var latencyNanos = latency.nextNanos(random);
+      if (latencyNanos > 0) {
+        LockSupport.parkNanos(latencyNanos);
+      }
+      if ((failureRate > 0) && (random.nextDouble() < failureRate)) {
+        throw new InternalException("Simulated failure of mock authentication");
+      }
+    }
+    var userData = userSource.find(userName, password);
+    if (userData == null) {
+      throw new BadCredentialsException("Invalid username / password");
+    }
+    return new UsernamePasswordAuthenticationToken(userData, password, USER_ROLES);
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return UsernamePasswordAuthenticationToken.class.isAssignableFrom(clazz);
+  }
+
+  /**
+   * Value of field userSource.
+   *
+   * @return value of field userSource
+   */
+  public SyntheticUserSource getUserSource() {
+    return userSource;
+  }
+
+  @Override
+  public String toString() {
+    return "SyntheticMockAuthProvider{"
+        + "userSource=" + userSource
+        + ", latency=" + latency
+        + ", failureRate=" + failureRate
+        + '}';
+  }
+}
@@ -0,0 +1,21 @@
+package com.provys.auth.mock;
+
+import com.provys.auth.api.UserData;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Source of users for {@link SyntheticMockAuthProvider}. Unlike map used by
+ * {@link MockAuthProvider}, source does not need to hold user data in memory; user data are
+ * derived or read when user authenticates.
+ */
+public interface SyntheticUserSource {
+
+  /**
+   * Look-up user with given credentials.
+   *
+   * @param userName is user name
+   * @param password is password
+   * @return user data of user if user exists and password matches, null otherwise
+   */
+  @Nullable UserData find(String userName, String password);
+}
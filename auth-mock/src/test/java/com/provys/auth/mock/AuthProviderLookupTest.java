@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
 import com.provys.auth.api.AuthProviderLookup;
+import com.provys.auth.api.CompositeAuthProvider;
 import java.util.Objects;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,4 +51,30 @@ public class AuthProviderLookupTest {
     assertThatCode(() -> provider.authenticate(token0))
         .doesNotThrowAnyException();
   }
+
+  @Test
+  void getCompositeAuthProviderTest() {
+    var provider = authProviderLookup.getAuthProvider("mock+mock$0");
+    var token = getToken(MockAuthProviderFactory.getUsernamePassword());
+    var token0 = getToken(MockAuthProviderFactory.getUsernamePassword0());
+    assertThat(provider)
+        .isInstanceOf(CompositeAuthProvider.class);
+    assertThatCode(() -> provider.authenticate(token))
+        .doesNotThrowAnyException();
+    assertThatCode(() -> provider.authenticate(token0))
+        .doesNotThrowAnyException();
+  }
+
+  @Test
+  void getSyntheticAuthProviderTest() {
+    var provider = authProviderLookup.getAuthProvider("mock$synthetic");
+    assertThat(provider)
+        .isInstanceOf(SyntheticMockAuthProvider.class);
+    assertThatCode(() -> provider.authenticate(
+        new UsernamePasswordAuthenticationToken("user4711", "pwd4711")))
+        .doesNotThrowAnyException();
+    assertThatCode(() -> provider.authenticate(
+        new UsernamePasswordAuthenticationToken("user4711", "pwd4712")))
+        .isInstanceOf(BadCredentialsException.class);
+  }
 }
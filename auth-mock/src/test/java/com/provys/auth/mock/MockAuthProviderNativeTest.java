@@ -0,0 +1,69 @@
+package com.provys.auth.mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.auth.api.CompositeAuthProvider;
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Exercises mock provider without Spring context. Runs on JVM as part of regular build and is the
+ * test executed as native image by profile {@code native}.
+ */
+class MockAuthProviderNativeTest {
+
+  private static final UserData USER_DATA = ProvysUserData.of(DtUid.valueOf("1"), "USER",
+      "User", DtEncryptedString.valueOf("TOKEN"));
+  private static final UserData USER_DATA0 = ProvysUserData.of(DtUid.valueOf("2"), "USER0",
+      "User0", DtEncryptedString.valueOf("TOKEN0"));
+
+  private static Authentication roundTrip(Authentication authentication)
+      throws IOException, ClassNotFoundException {
+    var output = new ByteArrayOutputStream();
+    try (var objectOutput = new ObjectOutputStream(output)) {
+      objectOutput.writeObject(authentication);
+    }
+    try (var objectInput = new ObjectInputStream(
+        new ByteArrayInputStream(output.toByteArray()))) {
+      return (Authentication) objectInput.readObject();
+    }
+  }
+
+  @Test
+  void authenticateTest() throws IOException, ClassNotFoundException {
+    var provider = new MockAuthProvider(
+        Map.of(new UsernamePasswordPair("user", "pwd"), USER_DATA));
+    var result = provider.authenticate(new UsernamePasswordAuthenticationToken("user", "pwd"));
+    assertThat(result.getPrincipal()).isEqualTo(USER_DATA);
+    assertThat(roundTrip(result).getPrincipal()).isEqualTo(USER_DATA);
+    assertThatThrownBy(() -> provider.authenticate(
+        new UsernamePasswordAuthenticationToken("user", "bad")))
+        .isInstanceOf(BadCredentialsException.class);
+  }
+
+  @Test
+  void compositeAuthenticateTest() {
+    var provider = new CompositeAuthProvider(List.of(
+        new MockAuthProvider(Map.of(new UsernamePasswordPair("user", "pwd"), USER_DATA)),
+        new MockAuthProvider(Map.of(new UsernamePasswordPair("user0", "pwd0"), USER_DATA0))),
+        100, null);
+    assertThat(provider.authenticate(new UsernamePasswordAuthenticationToken("user0", "pwd0"))
+        .getPrincipal()).isEqualTo(USER_DATA0);
+    assertThat(provider.authenticate(new UsernamePasswordAuthenticationToken("user", "pwd"))
+        .getPrincipal()).isEqualTo(USER_DATA);
+  }
+}
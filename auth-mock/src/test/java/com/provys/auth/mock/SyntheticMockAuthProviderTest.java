@@ -0,0 +1,117 @@
+package com.provys.auth.mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.auth.api.UserData;
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+class SyntheticMockAuthProviderTest {
+
+  private static UserData authenticate(SyntheticMockAuthProvider provider, String userName,
+      String password) {
+    return (UserData) provider.authenticate(
+        new UsernamePasswordAuthenticationToken(userName, password)).getPrincipal();
+  }
+
+  @Test
+  void patternUserSourceTest() {
+    var provider = new SyntheticMockAuthProvider(new PatternUserSource("user", "pwd", 1_000_000),
+        MockLatency.NONE, 0);
+    var userData = authenticate(provider, "User123", "pwd123");
+    assertThat(userData.getUserId()).isEqualTo(DtUid.valueOf(BigDecimal.valueOf(123)));
+    assertThat(userData.getShortNameNm()).isEqualTo("USER123");
+    assertThat(authenticate(provider, "user999999", "pwd999999").getUserId())
+        .isEqualTo(DtUid.valueOf(BigDecimal.valueOf(999999)));
+    for (var invalid : new String[][]{{"user123", "pwd124"}, {"user123", "PWD123"},
+        {"user1000000", "pwd1000000"}, {"user0123", "pwd0123"}, {"user", "pwd"},
+        {"other123", "pwd123"}, {"user12a", "pwd12a"}}) {
+      assertThatThrownBy(() -> authenticate(provider, invalid[0], invalid[1]))
+          .isInstanceOf(BadCredentialsException.class);
+    }
+  }
+
+  @Test
+  void mappedFileUserSourceTest(@TempDir Path directory) throws IOException {
+    var file = directory.resolve("users.tsv");
+    Files.writeString(file, "# user name, password, user Id, full name\n"
+        + "alice\tsecret\t1001\tAlice Smith\r\n"
+        + "\n"
+        + "bob\tpa\tss\t1002\n"
+        + "Žofie\theslo\t1003\n"
+        + "carol\tcarolpwd\t1004", StandardCharsets.UTF_8);
+    var userSource = new MappedFileUserSource(file);
+    assertThat(userSource.size()).isEqualTo(4);
+    var provider = new SyntheticMockAuthProvider(userSource, MockLatency.NONE, 0);
+    var alice = authenticate(provider, "ALICE", "secret");
+    assertThat(alice.getUserId()).isEqualTo(DtUid.valueOf(BigDecimal.valueOf(1001)));
+    assertThat(alice.getFullName()).isEqualTo("Alice Smith");
+    assertThat(authenticate(provider, "Žofie", "heslo").getFullName()).isEqualTo("Žofie");
+    assertThat(authenticate(provider, "carol", "carolpwd").getUserId())
+        .isEqualTo(DtUid.valueOf(BigDecimal.valueOf(1004)));
+    assertThatThrownBy(() -> authenticate(provider, "alice", "SECRET"))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThatThrownBy(() -> authenticate(provider, "dave", "secret"))
+        .isInstanceOf(BadCredentialsException.class);
+    // password is valid, but user Id is not a number
+    assertThatThrownBy(() -> authenticate(provider, "bob", "pa"))
+        .isInstanceOf(InternalException.class);
+  }
+
+  @Test
+  void mappedFilePrefixTest(@TempDir Path directory) throws IOException {
+    var file = directory.resolve("users.tsv");
+    // user8, user1 and user13 occupy slots 1, 2 and 3, user123 is placed in slot 4; look-up of
+    // user12 starts in slot 2 and has to compare it with user123
+    Files.writeString(file, "user8\tpwd8\t8\nuser1\tpwd1\t1\nuser13\tpwd13\t13\n"
+        + "user123\tsecret\t123\n", StandardCharsets.UTF_8);
+    var provider = new SyntheticMockAuthProvider(new MappedFileUserSource(file),
+        MockLatency.NONE, 0);
+    assertThat(authenticate(provider, "user123", "secret").getUserId())
+        .isEqualTo(DtUid.valueOf(BigDecimal.valueOf(123)));
+    // supplied password is prefix of stored one
+    assertThatThrownBy(() -> authenticate(provider, "user123", "secre"))
+        .isInstanceOf(BadCredentialsException.class);
+    // supplied user name is prefix of user name in the same probe chain
+    assertThatThrownBy(() -> authenticate(provider, "user12", "secret"))
+        .isInstanceOf(BadCredentialsException.class);
+  }
+
+  @Test
+  void mappedFileDuplicateUserTest(@TempDir Path directory) throws IOException {
+    var file = directory.resolve("users.tsv");
+    Files.writeString(file, "alice\tsecret\t1\nALICE\tother\t2\n", StandardCharsets.UTF_8);
+    assertThatThrownBy(() -> new MappedFileUserSource(file))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void latencyAndFailureTest() {
+    var random = new Random(42);
+    assertThat(MockLatency.parse("fixed:250").nextNanos(random)).isEqualTo(250_000);
+    assertThat(MockLatency.parse("uniform:100:200").nextNanos(random))
+        .isBetween(100_000L, 200_000L);
+    assertThat(MockLatency.parse("exponential:100").nextNanos(random)).isNotNegative();
+    assertThat(MockLatency.parse("lognormal:100:0.5").nextNanos(random)).isPositive();
+    assertThat(MockLatency.parse("none").isNone()).isTrue();
+    assertThatThrownBy(() -> MockLatency.parse("uniform:100"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> MockLatency.parse("gauss:100"))
+        .isInstanceOf(IllegalArgumentException.class);
+    var provider = new SyntheticMockAuthProvider(new PatternUserSource("user", "pwd", 0),
+        MockLatency.parse("fixed:10"), 1);
+    assertThatThrownBy(() -> authenticate(provider, "user1", "pwd1"))
+        .isInstanceOf(InternalException.class);
+  }
+}
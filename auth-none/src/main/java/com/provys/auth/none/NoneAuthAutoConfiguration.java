@@ -0,0 +1,79 @@
+package com.provys.auth.none;
+
+import com.provys.auth.api.ConditionalOnAuthProvider;
+import com.provys.auth.api.TenantAuthProviderFactory;
+import com.provys.auth.api.UserDataFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of none authentication provider. Active when provider NONE is enabled.
+ * Default provider is only created when {@code provysdb.url} is set; providers for Provys database
+ * targets ({@code NONE@<target>}) are created by look-up using registered factory and start reading
+ * their technical user immediately.
+ *
+ * <p>If actuator is present, warm-up of default provider is exposed as health contributor
+ * {@code noneAuth} (see {@link NoneAuthHealthIndicator}).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnAuthProvider("NONE")
+public class NoneAuthAutoConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(name = "provysdb.url")
+  @ConditionalOnMissingBean
+  NoneAuthProvider noneAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
+      @Value("${provysdb.user}") String provysDbUser,
+      @Value("${provysdb.pwd}") String provysDbPwd, UserDataFactory userDataFactory,
+      @Value("${provysauth.none.refreshSec:3600}") long refreshSec,
+      @Value("${provysauth.none.retryInitialMs:1000}") long retryInitialMs,
+      @Value("${provysauth.none.retryMaxMs:60000}") long retryMaxMs,
+      @Value("${provysauth.none.startupWaitMs:5000}") long startupWaitMs) {
+    return new NoneAuthProvider(provysDbUrl, provysDbUser, provysDbPwd, userDataFactory,
+        refreshSec, retryInitialMs, retryMaxMs, startupWaitMs);
+  }
+
+  @Bean
+  TenantAuthProviderFactory noneTenantAuthProviderFactory(
+      @Value("${provysauth.none.refreshSec:3600}") long refreshSec,
+      @Value("${provysauth.none.retryInitialMs:1000}") long retryInitialMs,
+      @Value("${provysauth.none.retryMaxMs:60000}") long retryMaxMs,
+      @Value("${provysauth.none.startupWaitMs:5000}") long startupWaitMs) {
+    return TenantAuthProviderFactory.of("NONE", (target, userDataFactory) -> {
+      var provider = new NoneAuthProvider(target.getUrl(), target.getUser(), target.getPwd(),
+          userDataFactory, refreshSec, retryInitialMs, retryMaxMs, startupWaitMs);
+      // provider is not a bean, thus it has to be started explicitly
+      provider.afterSingletonsInstantiated();
+      return provider;
+    });
+  }
+
+  /**
+   * Health contributor, only created when actuator is on classpath.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+  @ConditionalOnProperty(name = "provysdb.url")
+  static class NoneAuthHealthConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "noneAuthHealthIndicator")
+    NoneAuthHealthIndicator noneAuthHealthIndicator(NoneAuthProvider noneAuthProvider) {
+      return new NoneAuthHealthIndicator(noneAuthProvider);
+    }
+
+    @Override
+    public String toString() {
+      return "NoneAuthHealthConfiguration{}";
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "NoneAuthAutoConfiguration{}";
+  }
+}
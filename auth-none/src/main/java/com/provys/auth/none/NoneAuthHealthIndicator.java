@@ -0,0 +1,39 @@
+package com.provys.auth.none;
+
+import java.util.Objects;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Reports {@link Status#OUT_OF_SERVICE} until {@link NoneAuthProvider} has read its authentication
+ * result, {@link Status#UP} afterwards. Exposed via actuator health endpoint as contributor
+ * {@code noneAuth}; to keep node out of load balancer until warm-up completes, include it in
+ * readiness group, e.g.
+ * {@code management.endpoint.health.group.readiness.include=readinessState,noneAuth}. Application
+ * readiness state itself is not changed, thus it does not compete with other publishers of
+ * readiness events.
+ */
+final class NoneAuthHealthIndicator implements HealthIndicator {
+
+  private final NoneAuthProvider noneAuthProvider;
+
+  NoneAuthHealthIndicator(NoneAuthProvider noneAuthProvider) {
+    this.noneAuthProvider = Objects.requireNonNull(noneAuthProvider);
+  }
+
+  @Override
+  public Health health() {
+    if (noneAuthProvider.isReady()) {
+      return Health.up().build();
+    }
+    return Health.outOfService().withDetail("warmup", "in progress").build();
+  }
+
+  @Override
+  public String toString() {
+    return "NoneAuthHealthIndicator{"
+        + "noneAuthProvider=" + noneAuthProvider
+        + '}';
+  }
+}
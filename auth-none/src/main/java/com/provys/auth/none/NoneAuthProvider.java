@@ -1,7 +1,9 @@
 package com.provys.auth.none;
 
+import com.provys.auth.api.LazyDataSource;
 import com.provys.auth.api.UserData;
 import com.provys.auth.api.UserDataFactory;
+import com.provys.auth.api.WarmupAware;
 import com.provys.common.crypt.DtEncryptedString;
 import com.provys.common.datatype.DtUid;
 import com.provys.common.exception.InternalException;
@@ -9,28 +11,40 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.List;
 import java.util.Objects;
-import oracle.jdbc.pool.OracleDataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.stereotype.Component;
 
 /**
  * This authentication provider ignores supplied credentials (if any) and considers user
  * authenticated. String "GENERIC" is used as database token - this is recognized by ProvysDb and
  * generic connection is used.
+ *
+ * <p>User data of generic user are read asynchronously, right after application context has been
+ * initialized, and periodically refreshed in background (property
+ * {@code provysauth.none.refreshSec}, 0 disables refresh); previous value is served while refresh
+ * is running. Failed reads are retried with exponential backoff. Requests arriving before the first
+ * read has completed wait for it for limited time and fail if data are still not available.
  */
-@Component
-public class NoneAuthProvider implements AuthenticationProvider {
+public class NoneAuthProvider implements AuthenticationProvider, WarmupAware,
+    SmartInitializingSingleton, DisposableBean {
 
   private static final Logger LOG = LogManager.getLogger(NoneAuthProvider.class);
   private static final List<GrantedAuthority> USER_ROLES = AuthorityUtils
@@ -90,80 +104,170 @@ public class NoneAuthProvider implements AuthenticationProvider {
   private final String provysDbUrl;
   private final String provysDbUser;
   private final String provysDbPwd;
+  private final DataSource dataSource;
   private final UserDataFactory userDataFactory;
+  private final long refreshMs;
+  private final long retryInitialMs;
+  private final long retryMaxMs;
+  private final long startupWaitMs;
+  private final CompletableFuture<Authentication> warmup = new CompletableFuture<>();
+  private final AtomicBoolean started = new AtomicBoolean();
   private volatile @MonotonicNonNull Authentication authenticationResult;
+  private volatile @Nullable RuntimeException lastFailure;
+  private volatile @MonotonicNonNull ScheduledExecutorService executor;
+  private long retryDelayMs;
 
-  @Autowired
-  NoneAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
-      @Value("${provysdb.user}") String provysDbUser,
-      @Value("${provysdb.pwd}") String provysDbPwd, UserDataFactory userDataFactory) {
+  NoneAuthProvider(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      UserDataFactory userDataFactory, long refreshSec, long retryInitialMs, long retryMaxMs,
+      long startupWaitMs) {
+    this(provysDbUrl, provysDbUser, provysDbPwd,
+        LazyDataSource.forOracleUrl("jdbc:oracle:thin:@" + Objects.requireNonNull(provysDbUrl)),
+        userDataFactory, refreshSec, retryInitialMs, retryMaxMs, startupWaitMs);
+  }
+
+  /**
+   * Variant with supplied data source, used for testing.
+   */
+  NoneAuthProvider(String provysDbUrl, String provysDbUser, String provysDbPwd,
+      DataSource dataSource, UserDataFactory userDataFactory, long refreshSec,
+      long retryInitialMs, long retryMaxMs, long startupWaitMs) {
+    if ((retryInitialMs <= 0) || (retryMaxMs < retryInitialMs)) {
+      throw new IllegalArgumentException("Invalid retry backoff " + retryInitialMs + "-"
+          + retryMaxMs);
+    }
     this.provysDbUrl = "jdbc:oracle:thin:@" + Objects.requireNonNull(provysDbUrl);
     this.provysDbUser = Objects.requireNonNull(provysDbUser);
     this.provysDbPwd = Objects.requireNonNull(provysDbPwd);
+    this.dataSource = Objects.requireNonNull(dataSource);
     this.userDataFactory = Objects.requireNonNull(userDataFactory);
+    this.refreshMs = 1000L * refreshSec;
+    this.retryInitialMs = retryInitialMs;
+    this.retryMaxMs = retryMaxMs;
+    this.startupWaitMs = startupWaitMs;
+    this.retryDelayMs = retryInitialMs;
   }
 
-  @EnsuresNonNull("authenticationResult")
-  private void setAuthenticationResult() {
-    try {
-      var dataSource = new OracleDataSource();
-      dataSource.setURL(provysDbUrl);
-      try (var connection = dataSource.getConnection(provysDbUser, provysDbPwd)) {
-        try (var statement = connection.prepareCall(
-            "DECLARE\n"
-                + "  l_User_ID NUMBER;\n"
-                + "  l_ShortName_NM VARCHAR(32767);\n"
-                + "  l_FullName VARCHAR(32767);\n"
-                + "BEGIN\n"
-                + "  l_User_ID:=KER_User_EP.mf_GetUserID;\n"
-                + "  SELECT\n"
-                + "        usr.shortname_nm\n"
-                + "      , usr.fullname\n"
-                + "    INTO\n"
-                + "        l_ShortName_NM"
-                + "      , l_FullName\n"
-                + "    FROM\n"
-                + "        kec_user_vw usr\n"
-                + "    WHERE\n"
-                + "          (usr.user_id=l_User_ID)\n"
-                + "    ;\n"
-                + "  ?:=l_User_ID;\n"
-                + "  ?:=l_ShortName_NM;\n"
-                + "  ?:=l_FullName;\n"
-                + "END;")) {
-          statement.registerOutParameter(1, Types.NUMERIC);
-          statement.registerOutParameter(2, Types.VARCHAR);
-          statement.registerOutParameter(3, Types.VARCHAR);
-          statement.execute();
-          authenticationResult = new NoneAuthenticationToken(userDataFactory.getUserData(
-              DtUid.valueOf(statement.getBigDecimal(1)),
-              statement.getString(2),
-              statement.getString(3),
-              DtEncryptedString.valueOf("GENERIC")));
-          authenticationResult.setAuthenticated(true);
-          LOG.debug("Initialized authentication result of none auth provider using db {}, user {}",
-              provysDbUrl, provysDbUser);
-        } catch (SQLException e) {
-          LOG.warn("Property retrieval from database failed (user {}, db {}): {}",
-              provysDbUser, provysDbUrl, e);
-          throw new InternalException("Property retrieval from database failed" + e.getErrorCode()
-              + e.getMessage(), e);
-        }
+  private Authentication readAuthenticationResult() {
+    try (var connection = dataSource.getConnection(provysDbUser, provysDbPwd)) {
+      try (var statement = connection.prepareCall(
+          "DECLARE\n"
+              + "  l_User_ID NUMBER;\n"
+              + "  l_ShortName_NM VARCHAR(32767);\n"
+              + "  l_FullName VARCHAR(32767);\n"
+              + "BEGIN\n"
+              + "  l_User_ID:=KER_User_EP.mf_GetUserID;\n"
+              + "  SELECT\n"
+              + "        usr.shortname_nm\n"
+              + "      , usr.fullname\n"
+              + "    INTO\n"
+              + "        l_ShortName_NM"
+              + "      , l_FullName\n"
+              + "    FROM\n"
+              + "        kec_user_vw usr\n"
+              + "    WHERE\n"
+              + "          (usr.user_id=l_User_ID)\n"
+              + "    ;\n"
+              + "  ?:=l_User_ID;\n"
+              + "  ?:=l_ShortName_NM;\n"
+              + "  ?:=l_FullName;\n"
+              + "END;")) {
+        statement.registerOutParameter(1, Types.NUMERIC);
+        statement.registerOutParameter(2, Types.VARCHAR);
+        statement.registerOutParameter(3, Types.VARCHAR);
+        statement.execute();
+        var result = new NoneAuthenticationToken(userDataFactory.getUserData(
+            DtUid.valueOf(statement.getBigDecimal(1)),
+            statement.getString(2),
+            statement.getString(3),
+            DtEncryptedString.valueOf("GENERIC")));
+        result.setAuthenticated(true);
+        return result;
       }
     } catch (SQLException e) {
-      throw new InternalException("Failed to initialize Oracle datasource", e);
+      LOG.warn("Property retrieval from database failed (user {}, db {}): {}",
+          provysDbUser, provysDbUrl, e);
+      throw new InternalException("Property retrieval from database failed" + e.getErrorCode()
+          + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Read authentication result and schedule next refresh, or retry if read failed. Only ever runs
+   * on refresh thread.
+   */
+  private void refresh(ScheduledExecutorService refreshExecutor) {
+    long nextRunMs;
+    try {
+      var result = readAuthenticationResult();
+      authenticationResult = result;
+      lastFailure = null;
+      retryDelayMs = retryInitialMs;
+      LOG.debug("Initialized authentication result of none auth provider using db {}, user {}",
+          provysDbUrl, provysDbUser);
+      warmup.complete(result);
+      nextRunMs = refreshMs;
+    } catch (RuntimeException e) {
+      lastFailure = e;
+      nextRunMs = retryDelayMs;
+      retryDelayMs = Math.min(2 * retryDelayMs, retryMaxMs);
+      LOG.warn("Refresh of none auth provider failed, retry in {} ms", nextRunMs);
+    }
+    if ((nextRunMs > 0) && !refreshExecutor.isShutdown()) {
+      refreshExecutor.schedule(() -> refresh(refreshExecutor), nextRunMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Start asynchronous read of authentication result. Invoked automatically once all singletons
+   * have been created; subsequent calls have no effect.
+   */
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (started.compareAndSet(false, true)) {
+      var refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "provysauth-none-refresh");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor = refreshExecutor;
+      refreshExecutor.execute(() -> refresh(refreshExecutor));
     }
   }
 
+  /**
+   * Indicates if authentication result has been read from database and provider is ready to
+   * serve requests.
+   *
+   * @return true if authentication result is available
+   */
+  @Override
+  public boolean isReady() {
+    return authenticationResult != null;
+  }
+
+  /**
+   * Future that completes when authentication result has been read for the first time.
+   *
+   * @return future completed with first authentication result
+   */
+  CompletableFuture<Authentication> getWarmup() {
+    return warmup;
+  }
+
   private Authentication getAuthenticationResult() {
-    if (authenticationResult == null) {
-      synchronized (this) {
-        if (authenticationResult == null) {
-          setAuthenticationResult();
-        }
-      }
+    var result = authenticationResult;
+    if (result != null) {
+      return result;
+    }
+    afterSingletonsInstantiated();
+    try {
+      return warmup.get(startupWaitMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AuthenticationServiceException("Interrupted waiting for none auth provider", e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new AuthenticationServiceException("None auth provider is not ready", lastFailure);
     }
-    return authenticationResult;
   }
 
   @Override
@@ -176,6 +280,14 @@ public class NoneAuthProvider implements AuthenticationProvider {
     return true;
   }
 
+  @Override
+  public void destroy() {
+    var refreshExecutor = executor;
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+  }
+
   @Override
   public String toString() {
     return "ProvysNoneAuthProvider{"
@@ -183,6 +295,7 @@ public class NoneAuthProvider implements AuthenticationProvider {
         + ", provysDbUser='" + provysDbUser + '\''
         + ", provysDbPwd='" + provysDbPwd + '\''
         + ", userDataFactory=" + userDataFactory
+        + ", refreshMs=" + refreshMs
         + ", authenticationResult=" + authenticationResult
         + '}';
   }
@@ -0,0 +1,121 @@
+package com.provys.auth.none;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.provys.auth.api.UserData;
+import com.provys.auth.api.UserDataFactory;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+class NoneAuthProviderTest {
+
+  private static Connection mockConnection(UserDataFactory userDataFactory, UserData userData)
+      throws SQLException {
+    var connection = mock(Connection.class);
+    var statement = mock(CallableStatement.class);
+    when(connection.prepareCall(anyString())).thenReturn(statement);
+    when(statement.getBigDecimal(1)).thenReturn(BigDecimal.ONE);
+    when(statement.getString(2)).thenReturn("USER");
+    when(statement.getString(3)).thenReturn("Generic user");
+    when(userDataFactory.getUserData(any(), anyString(), anyString(), any()))
+        .thenReturn(userData);
+    return connection;
+  }
+
+  private static DataSource mockDataSource(UserDataFactory userDataFactory, UserData userData)
+      throws SQLException {
+    var dataSource = mock(DataSource.class);
+    var connection = mockConnection(userDataFactory, userData);
+    when(dataSource.getConnection("user", "pwd"))
+        .thenThrow(new SQLException("Connection refused"))
+        .thenReturn(connection);
+    return dataSource;
+  }
+
+  @Test
+  void authenticateRetriesWarmupTest() throws SQLException {
+    var userDataFactory = mock(UserDataFactory.class);
+    var userData = mock(UserData.class);
+    var dataSource = mockDataSource(userDataFactory, userData);
+    var provider = new NoneAuthProvider("url", "user", "pwd", dataSource, userDataFactory, 0,
+        10, 100, 5000);
+    try {
+      provider.afterSingletonsInstantiated();
+      var result = provider.authenticate(NoneAuthenticationToken.getInstance());
+      assertThat(result.getPrincipal()).isSameAs(userData);
+      assertThat(result.isAuthenticated()).isTrue();
+      assertThat(provider.isReady()).isTrue();
+      verify(dataSource, times(2)).getConnection("user", "pwd");
+    } finally {
+      provider.destroy();
+    }
+  }
+
+  @Test
+  void authenticateNotReadyTest() throws SQLException {
+    var dataSource = mock(DataSource.class);
+    when(dataSource.getConnection("user", "pwd"))
+        .thenThrow(new SQLException("Connection refused"));
+    var provider = new NoneAuthProvider("url", "user", "pwd", dataSource,
+        mock(UserDataFactory.class), 0, 1000, 1000, 50);
+    try {
+      assertThatThrownBy(() -> provider.authenticate(NoneAuthenticationToken.getInstance()))
+          .isInstanceOf(AuthenticationServiceException.class);
+      assertThat(provider.isReady()).isFalse();
+    } finally {
+      provider.destroy();
+    }
+  }
+
+  @Test
+  void healthIndicatorTest() throws Exception {
+    var userDataFactory = mock(UserDataFactory.class);
+    var connection = mockConnection(userDataFactory, mock(UserData.class));
+    var databaseAvailable = new CountDownLatch(1);
+    var dataSource = mock(DataSource.class);
+    when(dataSource.getConnection("user", "pwd")).thenAnswer(invocation -> {
+      if (databaseAvailable.getCount() > 0) {
+        throw new SQLException("Connection refused");
+      }
+      return connection;
+    });
+    try (var applicationContext = new GenericApplicationContext()) {
+      applicationContext.registerBean(ApplicationAvailabilityBean.class);
+      applicationContext.registerBean(NoneAuthProvider.class, () -> new NoneAuthProvider("url",
+          "user", "pwd", dataSource, userDataFactory, 0, 10, 20, 5000));
+      applicationContext.registerBean(NoneAuthHealthIndicator.class, () ->
+          new NoneAuthHealthIndicator(applicationContext.getBean(NoneAuthProvider.class)));
+      applicationContext.refresh();
+      AvailabilityChangeEvent.publish(applicationContext, ReadinessState.ACCEPTING_TRAFFIC);
+      var availability = applicationContext.getBean(ApplicationAvailability.class);
+      var healthIndicator = applicationContext.getBean(NoneAuthHealthIndicator.class);
+      // readiness of application is left to Spring Boot, warm-up is reported via health
+      assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+      assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+      databaseAvailable.countDown();
+      applicationContext.getBean(NoneAuthProvider.class).getWarmup().get(5, TimeUnit.SECONDS);
+      assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+      assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.provys.auth.oracle;
+
+import com.provys.auth.api.AuthAuditPipeline;
+import com.provys.auth.api.AuthPriorityClassifier;
+import com.provys.auth.api.ConditionalOnAuthProvider;
+import com.provys.auth.api.LoginRateLimiter;
+import com.provys.auth.api.TenantAuthProviderFactory;
+import com.provys.auth.api.UserDataFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of Oracle authentication provider. Active when provider ORACLE is enabled.
+ * Default provider is only created when {@code provysdb.url} is set; providers for Provys database
+ * targets ({@code ORACLE@<target>}) are created by look-up using registered factory.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnAuthProvider("ORACLE")
+public class OracleAuthAutoConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(name = "provysdb.url")
+  @ConditionalOnMissingBean
+  OracleAuthProvider oracleAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
+      @Value("${provysauth.cacheTimeout:900}") long cacheTimeoutSec,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      LoginRateLimiter loginRateLimiter, UserDataFactory userDataFactory,
+      ObjectProvider<AuthAuditPipeline> auditPipeline,
+      ObjectProvider<AuthPriorityClassifier> priorityClassifier) {
+    var provider = new OracleAuthProvider(provysDbUrl, cacheTimeoutSec, maxConcurrency, maxQueue,
+        maxQueueWaitMs, loginRateLimiter, userDataFactory);
+    auditPipeline.ifAvailable(provider::setAuditPipeline);
+    priorityClassifier.ifAvailable(provider::setPriorityClassifier);
+    return provider;
+  }
+
+  @Bean
+  TenantAuthProviderFactory oracleTenantAuthProviderFactory(
+      @Value("${provysauth.cacheTimeout:900}") long cacheTimeoutSec,
+      @Value("${provysauth.maxConcurrency:32}") int maxConcurrency,
+      @Value("${provysauth.maxQueue:64}") int maxQueue,
+      @Value("${provysauth.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+      LoginRateLimiter loginRateLimiter, ObjectProvider<AuthAuditPipeline> auditPipeline,
+      ObjectProvider<AuthPriorityClassifier> priorityClassifier) {
+    return TenantAuthProviderFactory.of("ORACLE", (target, userDataFactory) -> {
+      var provider = new OracleAuthProvider(target.getUrl(), cacheTimeoutSec, maxConcurrency,
+          maxQueue, maxQueueWaitMs, loginRateLimiter, userDataFactory);
+      auditPipeline.ifAvailable(provider::setAuditPipeline);
+      priorityClassifier.ifAvailable(provider::setPriorityClassifier);
+      return provider;
+    });
+  }
+
+  @Override
+  public String toString() {
+    return "OracleAuthAutoConfiguration{}";
+  }
+}
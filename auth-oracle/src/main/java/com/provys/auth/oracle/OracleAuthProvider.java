@@ -1,30 +1,28 @@
 package com.provys.auth.oracle;
 
+import com.provys.auth.api.AdaptiveConcurrencyLimiter;
+import com.provys.auth.api.LazyDataSource;
+import com.provys.auth.api.LoginRateLimiter;
 import com.provys.auth.api.ProvysUsernamePasswordAuthProvider;
 import com.provys.auth.api.UserDataFactory;
-import com.provys.common.exception.InternalException;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Objects;
 import javax.sql.DataSource;
-import oracle.jdbc.pool.OracleDataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.stereotype.Component;
 
 /**
  * Authentication provider that authenticates username + password pair by connecting to Oracle
  * database using these credentials. Caches result for defined period of time to speed up repeated
  * authentication using the same credentials.
  */
-@Component
 public class OracleAuthProvider extends ProvysUsernamePasswordAuthProvider {
 
   private static final Logger LOG = LogManager.getLogger(OracleAuthProvider.class);
@@ -35,18 +33,13 @@ public class OracleAuthProvider extends ProvysUsernamePasswordAuthProvider {
   private final DataSource dataSource;
   private final UserDataFactory userDataFactory;
 
-  @Autowired
-  OracleAuthProvider(@Value("${provysdb.url}") String provysDbUrl,
-      @Value("${provysauth.cacheTimeout:900}") long cacheTimeoutSec,
-      UserDataFactory userDataFactory) {
-    super(cacheTimeoutSec);
+  OracleAuthProvider(String provysDbUrl, long cacheTimeoutSec, int maxConcurrency, int maxQueue,
+      long maxQueueWaitMs, LoginRateLimiter loginRateLimiter, UserDataFactory userDataFactory) {
+    super(cacheTimeoutSec,
+        new AdaptiveConcurrencyLimiter(maxConcurrency, maxQueue, maxQueueWaitMs),
+        loginRateLimiter);
     this.provysDbUrl = "jdbc:oracle:thin:@" + Objects.requireNonNull(provysDbUrl);
-    try {
-      dataSource = new OracleDataSource();
-      ((OracleDataSource) dataSource).setURL(this.provysDbUrl);
-    } catch (SQLException e) {
-      throw new InternalException("Failed to initialize Oracle datasource", e);
-    }
+    this.dataSource = LazyDataSource.forOracleUrl(this.provysDbUrl);
     this.userDataFactory = Objects.requireNonNull(userDataFactory);
   }
 
@@ -64,8 +57,10 @@ public class OracleAuthProvider extends ProvysUsernamePasswordAuthProvider {
    * @param userName is username to be used for connection
    * @param password is password to be used for connection
    * @return authentication token
-   * @throws BadCredentialsException if login fails using given username / password combination
-   * @throws InternalException       if connection to database fails for other reasons
+   * @throws BadCredentialsException                if database rejects given username / password
+   *                                                combination
+   * @throws InternalAuthenticationServiceException if connection to database fails for other
+   *                                                reasons
    */
   @Override
   protected Authentication doAuthenticate(String userName, String password) {
@@ -75,12 +70,18 @@ public class OracleAuthProvider extends ProvysUsernamePasswordAuthProvider {
           userDataFactory.getUserData(connection),
           password, USER_ROLES);
     } catch (SQLException e) {
-      LOG.debug("User login via database failed (user {}, db {}): {}", userName, provysDbUrl, e);
-      throw new BadCredentialsException("Invalid username or password " + e.getErrorCode()
-          + e.getMessage(), e);
+      if (isLogonRejection(e)) {
+        throw rejectLogin(userName, e);
+      }
+      throw databaseFailure(userName, e);
     }
   }
 
+  @Override
+  protected String getAuditName() {
+    return "ORACLE";
+  }
+
   @Override
   public String toString() {
     return "ProvysOracleAuthProvider{"
@@ -0,0 +1,79 @@
+package com.provys.auth.oracle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.provys.auth.api.AuthProviderLookup;
+import com.provys.auth.api.ProvysAuthAutoConfiguration;
+import com.provys.auth.api.TenantRoutingAuthProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+class OracleAuthAutoConfigurationTest {
+
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+      .withConfiguration(AutoConfigurations.of(ProvysAuthAutoConfiguration.class,
+          OracleAuthAutoConfiguration.class));
+
+  @Test
+  void enabledByDefaultTest() {
+    contextRunner
+        .withPropertyValues("provysdb.url=testurl", "provysdb.user=testuser",
+            "provysdb.pwd=testpwd")
+        .run(context -> {
+          assertThat(context).hasSingleBean(OracleAuthProvider.class);
+          assertThat(context.getBean(AuthProviderLookup.class).getAuthProvider("ORACLE"))
+              .isSameAs(context.getBean(OracleAuthProvider.class));
+        });
+  }
+
+  @Test
+  void enabledWhenListedTest() {
+    contextRunner
+        .withPropertyValues("provysauth.providers=mock+Oracle", "provysdb.url=testurl",
+            "provysdb.user=testuser", "provysdb.pwd=testpwd")
+        .withBean("mockAuthProvider", AuthenticationProvider.class,
+            () -> mock(AuthenticationProvider.class))
+        .run(context -> assertThat(context).hasSingleBean(OracleAuthProvider.class));
+  }
+
+  @Test
+  void disabledWhenNotListedTest() {
+    // provysdb properties are intentionally missing - they must not be needed
+    contextRunner
+        .withPropertyValues("provysauth.providers=MOCK")
+        .withBean("mockAuthProvider", AuthenticationProvider.class,
+            () -> mock(AuthenticationProvider.class))
+        .run(context -> {
+          assertThat(context).hasNotFailed();
+          assertThat(context).doesNotHaveBean(OracleAuthProvider.class);
+          assertThat(context.getBeanFactory().getSingleton("userDataFactory")).isNull();
+          assertThat(context.getBean(AuthProviderLookup.class).getAuthProvider("MOCK"))
+              .isSameAs(context.getBean("mockAuthProvider"));
+        });
+  }
+
+  @Test
+  void tenantTargetsTest() {
+    // only targets are configured, default provysdb properties are intentionally missing
+    contextRunner
+        .withPropertyValues("provysauth.providers=ORACLE@CUST1+ORACLE@CUST2",
+            "provysauth.targets.cust1.url=url1", "provysauth.targets.cust1.user=user1",
+            "provysauth.targets.cust1.pwd=pwd1", "provysauth.targets.cust2.url=url2",
+            "provysauth.targets.cust2.user=user2", "provysauth.targets.cust2.pwd=pwd2")
+        .run(context -> {
+          assertThat(context).hasNotFailed();
+          assertThat(context).doesNotHaveBean(OracleAuthProvider.class);
+          var lookup = context.getBean(AuthProviderLookup.class);
+          var cust1 = lookup.getAuthProvider("ORACLE@CUST1");
+          var cust2 = lookup.getAuthProvider("oracle@cust2");
+          assertThat(cust1).isInstanceOf(OracleAuthProvider.class);
+          assertThat(cust2).isInstanceOf(OracleAuthProvider.class).isNotSameAs(cust1);
+          assertThat(lookup.getAuthProvider("Oracle@Cust1")).isSameAs(cust1);
+          assertThat(lookup.getAuthProvider("ORACLE@*"))
+              .isInstanceOf(TenantRoutingAuthProvider.class);
+        });
+  }
+}
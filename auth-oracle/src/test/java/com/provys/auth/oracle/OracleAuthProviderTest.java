@@ -1,15 +1,24 @@
 package com.provys.auth.oracle;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.provys.auth.api.UserData;
 import com.provys.auth.api.UserDataFactory;
+import com.provys.auth.api.UserDataFactoryImpl;
+import com.provys.auth.fakedb.FakeOperation;
+import com.provys.auth.fakedb.FakeProvysDatabase;
+import com.provys.common.datatype.DtUid;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 class OracleAuthProviderTest {
 
@@ -28,4 +37,47 @@ class OracleAuthProviderTest {
     var result = authProvider.doAuthenticate(user, pwd);
     assertThat(result.getPrincipal()).isEqualTo(userData);
   }
-}
\ No newline at end of file
+
+  @Test
+  void authenticateFakeDatabaseTest() {
+    var database = new FakeProvysDatabase()
+        .addDbUser(BigDecimal.valueOf(12), "stehlik", "Michal Stehlik", "atlanta");
+    var authProvider = new OracleAuthProvider("url", database.getDataSource(), 100,
+        new UserDataFactoryImpl("url", "tech", "techpwd"));
+    var result = authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("Stehlik", "atlanta"));
+    assertThat(result).isNotNull();
+    var userData = (UserData) result.getPrincipal();
+    assertThat(userData.getUserId()).isEqualTo(DtUid.valueOf(BigDecimal.valueOf(12)));
+    assertThat(userData.getShortNameNm()).isEqualTo("STEHLIK");
+    assertThat(userData.getFullName()).isEqualTo("Michal Stehlik");
+    // second authentication is served from cache
+    authProvider.authenticate(new UsernamePasswordAuthenticationToken("stehlik", "atlanta"));
+    assertThat(database.getInvocationCount(FakeOperation.LOGON)).isEqualTo(1);
+    assertThat(database.getOpenSessions()).isZero();
+    assertThatThrownBy(() -> authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "boston")))
+        .isInstanceOf(BadCredentialsException.class);
+  }
+
+  @Test
+  void databaseFailureTest() {
+    var database = new FakeProvysDatabase()
+        .addDbUser(BigDecimal.valueOf(12), "stehlik", "Michal Stehlik", "atlanta")
+        .failNext(FakeOperation.LOGON, 1, 12541);
+    var authProvider = new OracleAuthProvider("url", database.getDataSource(), 100,
+        new UserDataFactoryImpl("url", "tech", "techpwd"));
+    // unreachable database is not reported as bad credentials and makes limiter back off
+    assertThatThrownBy(() -> authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta")))
+        .isInstanceOf(InternalAuthenticationServiceException.class)
+        .hasMessageNotContaining("ORA-");
+    assertThat(authProvider.getConcurrencyLimiter().getFailedCount()).isEqualTo(1);
+    assertThat(authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "atlanta"))).isNotNull();
+    assertThatThrownBy(() -> authProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("stehlik", "boston")))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThat(authProvider.getConcurrencyLimiter().getFailedCount()).isEqualTo(1);
+  }
+}
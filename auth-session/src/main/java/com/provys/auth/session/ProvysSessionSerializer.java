@@ -0,0 +1,100 @@
+package com.provys.auth.session;
+
+import com.provys.auth.api.AuthenticationCodec;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Session attribute serializer that stores Provys user data, authentication tokens and security
+ * context using compact {@link AuthenticationCodec}; all other values are stored using Java
+ * serialization. Values written by plain Java serialization (e.g. sessions created before this
+ * serializer has been deployed) are still read correctly.
+ *
+ * <p>Implements {@link RedisSerializer}, thus it can be registered as
+ * {@code springSessionDefaultRedisSerializer} bean for Spring Session Redis. For JDBC session
+ * repository, use {@link #getSerializingConverter()} and {@link #getDeserializingConverter()} in
+ * conversion service used by repository.
+ */
+public final class ProvysSessionSerializer implements RedisSerializer<Object> {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final SerializingConverter javaSerializer = new SerializingConverter();
+  private final DeserializingConverter javaDeserializer = new DeserializingConverter();
+
+  @Override
+  public byte[] serialize(@Nullable Object value) {
+    if (value == null) {
+      return EMPTY;
+    }
+    try {
+      if (AuthenticationCodec.supports(value)) {
+        return AuthenticationCodec.encode(value);
+      }
+      return javaSerializer.convert(value);
+    } catch (RuntimeException e) {
+      throw new SerializationException("Cannot serialize session attribute", e);
+    }
+  }
+
+  @Override
+  public @Nullable Object deserialize(byte @Nullable [] bytes) {
+    if ((bytes == null) || (bytes.length == 0)) {
+      return null;
+    }
+    try {
+      if (AuthenticationCodec.isEncoded(bytes)) {
+        return AuthenticationCodec.decode(bytes);
+      }
+      return javaDeserializer.convert(bytes);
+    } catch (RuntimeException e) {
+      throw new SerializationException("Cannot deserialize session attribute", e);
+    }
+  }
+
+  /**
+   * Serializer usable in Spring core serialization infrastructure.
+   *
+   * @return serializer writing values the same way as this Redis serializer
+   */
+  public Serializer<Object> getSerializer() {
+    return (value, outputStream) -> outputStream.write(serialize(value));
+  }
+
+  /**
+   * Deserializer usable in Spring core serialization infrastructure.
+   *
+   * @return deserializer reading values the same way as this Redis serializer
+   */
+  public Deserializer<Object> getDeserializer() {
+    return inputStream -> deserialize(inputStream.readAllBytes());
+  }
+
+  /**
+   * Converter to binary form, usable in conversion service of JDBC session repository.
+   *
+   * @return converter from object to byte array
+   */
+  public SerializingConverter getSerializingConverter() {
+    return new SerializingConverter(getSerializer());
+  }
+
+  /**
+   * Converter from binary form, usable in conversion service of JDBC session repository.
+   *
+   * @return converter from byte array to object
+   */
+  public DeserializingConverter getDeserializingConverter() {
+    return new DeserializingConverter(getDeserializer());
+  }
+
+  @Override
+  public String toString() {
+    return "ProvysSessionSerializer{}";
+  }
+}
@@ -0,0 +1,63 @@
+package com.provys.auth.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.auth.api.AuthenticationCodec;
+import com.provys.auth.api.ProvysUserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+class ProvysSessionSerializerTest {
+
+  private final ProvysSessionSerializer serializer = new ProvysSessionSerializer();
+
+  private static SecurityContextImpl createSecurityContext() {
+    return new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+        ProvysUserData.of(DtUid.valueOf("1"), "USER", "User", DtEncryptedString.valueOf("TOKEN")),
+        null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+  }
+
+  @Test
+  void securityContextTest() {
+    var context = createSecurityContext();
+    var serialized = serializer.serialize(context);
+    assertThat(AuthenticationCodec.isEncoded(serialized)).isTrue();
+    assertThat(serializer.deserialize(serialized)).isEqualTo(context);
+  }
+
+  @Test
+  void otherValueTest() {
+    var value = List.of("a", "b");
+    var serialized = serializer.serialize(value);
+    assertThat(AuthenticationCodec.isEncoded(serialized)).isFalse();
+    assertThat(serializer.deserialize(serialized)).isEqualTo(value);
+  }
+
+  @Test
+  void readsJavaSerializedSessionTest() {
+    var context = createSecurityContext();
+    var serialized = new JdkSerializationRedisSerializer().serialize(context);
+    assertThat(serializer.deserialize(serialized)).isEqualTo(context);
+  }
+
+  @Test
+  void nullTest() {
+    assertThat(serializer.serialize(null)).isEmpty();
+    assertThat(serializer.deserialize(null)).isNull();
+    assertThat(serializer.deserialize(new byte[0])).isNull();
+  }
+
+  @Test
+  void malformedTest() {
+    assertThatThrownBy(() -> serializer.deserialize(new byte[]{AuthenticationCodec.MAGIC, 1}))
+        .isInstanceOf(SerializationException.class);
+  }
+}
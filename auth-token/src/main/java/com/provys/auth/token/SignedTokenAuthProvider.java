@@ -0,0 +1,119 @@
+package com.provys.auth.token;
+
+import com.provys.auth.api.UserData;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Authentication provider that issues compact HMAC signed tokens carrying user data after
+ * successful login and later verifies them. Verification is pure CPU work - no database access nor
+ * cache look-up is needed, thus token issued on one node can be verified on any node sharing the
+ * same keys.
+ *
+ * <p>Keys are read from property {@code provysauth.token.keys} (comma separated list of
+ * {@code <id>:<base64 encoded secret>} items) and {@code provysauth.token.activeKeyId}. Key ring
+ * can be replaced at runtime via {@link #setKeyRing}, tokens signed by keys that remain in new key
+ * ring stay valid.
+ */
+public class SignedTokenAuthProvider implements AuthenticationProvider {
+
+  private static final List<GrantedAuthority> USER_ROLES = AuthorityUtils
+      .createAuthorityList("ROLE_USER");
+
+  private final long validityMs;
+  private volatile SignedTokenCodec codec;
+
+  SignedTokenAuthProvider(String keys, int activeKeyId, long validitySec) {
+    this(SignedTokenKeyRing.parse(keys, activeKeyId), validitySec);
+  }
+
+  /**
+   * Create signed token provider using supplied key ring.
+   *
+   * @param keyRing is key ring used to sign and verify tokens
+   * @param validitySec is validity of issued tokens, in seconds
+   */
+  public SignedTokenAuthProvider(SignedTokenKeyRing keyRing, long validitySec) {
+    if (validitySec <= 0) {
+      throw new IllegalArgumentException("Token validity must be positive");
+    }
+    this.codec = new SignedTokenCodec(keyRing);
+    this.validityMs = 1000L * validitySec;
+  }
+
+  /**
+   * Key ring currently used to sign and verify tokens.
+   *
+   * @return current key ring
+   */
+  public SignedTokenKeyRing getKeyRing() {
+    return codec.getKeyRing();
+  }
+
+  /**
+   * Replace key ring, used to sign and verify tokens. Used to rotate keys without restart.
+   *
+   * @param keyRing is new key ring
+   */
+  public void setKeyRing(SignedTokenKeyRing keyRing) {
+    this.codec = new SignedTokenCodec(keyRing);
+  }
+
+  /**
+   * Issue signed token for given user data.
+   *
+   * @param userData is data of successfully authenticated user
+   * @return signed token that can later be used to authenticate the same user
+   */
+  public String issue(UserData userData) {
+    return codec.encode(userData, System.currentTimeMillis() + validityMs);
+  }
+
+  /**
+   * Issue signed token for principal of given successful authentication.
+   *
+   * @param authentication is result of successful authentication by Provys provider
+   * @return signed token that can later be used to authenticate the same user
+   */
+  public String issue(Authentication authentication) {
+    return issue((UserData) authentication.getPrincipal());
+  }
+
+  /**
+   * Verify signed token and retrieve user data from it.
+   *
+   * @param token is signed token
+   * @return user data stored in token
+   * @throws BadCredentialsException if token is malformed or its signature is not valid
+   * @throws CredentialsExpiredException if token has expired
+   */
+  public UserData verify(String token) {
+    return codec.decode(token, System.currentTimeMillis());
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    var token = ((SignedTokenAuthenticationToken) authentication).getToken();
+    return new UsernamePasswordAuthenticationToken(verify(token), token, USER_ROLES);
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return SignedTokenAuthenticationToken.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public String toString() {
+    return "SignedTokenAuthProvider{"
+        + "validityMs=" + validityMs
+        + ", codec=" + codec
+        + '}';
+  }
+}
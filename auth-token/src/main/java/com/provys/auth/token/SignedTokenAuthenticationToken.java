@@ -0,0 +1,75 @@
+package com.provys.auth.token;
+
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Authentication request carrying signed token, issued by {@link SignedTokenAuthProvider} after
+ * previous successful login.
+ */
+public final class SignedTokenAuthenticationToken extends AbstractAuthenticationToken {
+
+  private static final long serialVersionUID = -1436170573120974322L;
+
+  private final String token;
+
+  /**
+   * Create authentication request for given signed token.
+   *
+   * @param token is signed token, as returned by {@link SignedTokenAuthProvider#issue}
+   */
+  public SignedTokenAuthenticationToken(String token) {
+    super(AuthorityUtils.NO_AUTHORITIES);
+    this.token = Objects.requireNonNull(token);
+  }
+
+  /**
+   * Value of field token.
+   *
+   * @return value of field token
+   */
+  public String getToken() {
+    return token;
+  }
+
+  @Override
+  public Object getCredentials() {
+    return token;
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return "";
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    SignedTokenAuthenticationToken that = (SignedTokenAuthenticationToken) o;
+    return token.equals(that.token);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = super.hashCode();
+    result = 31 * result + token.hashCode();
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "SignedTokenAuthenticationToken{"
+        // token is intentionally omitted, as it is secret
+        + super.toString() + '}';
+  }
+}
@@ -0,0 +1,30 @@
+package com.provys.auth.token;
+
+import com.provys.auth.api.ConditionalOnAuthProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of signed token authentication provider. Active when provider TOKEN is
+ * enabled.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnAuthProvider("TOKEN")
+public class SignedTokenAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  SignedTokenAuthProvider signedTokenAuthProvider(
+      @Value("${provysauth.token.keys}") String keys,
+      @Value("${provysauth.token.activeKeyId}") int activeKeyId,
+      @Value("${provysauth.token.validitySec:3600}") long validitySec) {
+    return new SignedTokenAuthProvider(keys, activeKeyId, validitySec);
+  }
+
+  @Override
+  public String toString() {
+    return "SignedTokenAutoConfiguration{}";
+  }
+}
@@ -0,0 +1,254 @@
+package com.provys.auth.token;
+
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import com.provys.common.exception.InternalException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+
+/**
+ * Encodes user data to signed token and verifies and decodes such token. Token is URL-safe Base64
+ * (without padding) representation of binary payload followed by HMAC-SHA256 signature of payload.
+ * Payload layout is
+ * <ul>
+ *   <li>format version (1 byte)</li>
+ *   <li>Id of key used to sign token (1 byte)</li>
+ *   <li>expiration time in epoch milliseconds (8 bytes)</li>
+ *   <li>user Id as two's complement big-endian integer, prefixed by length (1 byte)</li>
+ *   <li>short name, full name and database token as UTF-8 strings, prefixed by length (2 bytes)
+ *   </li>
+ * </ul>
+ * Database token is already encrypted value, thus it can be transferred in token that is signed,
+ * but not encrypted.
+ *
+ * <p>Verification only allocates decoded payload and resulting user data; {@link Mac} instances
+ * are initialised once per thread and key and signature is compared in constant time.
+ */
+final class SignedTokenCodec {
+
+  static final int VERSION = 1;
+  private static final int MAC_LENGTH = 32;
+  private static final int HEADER_LENGTH = 10;
+  private static final int MAX_TOKEN_LENGTH = 8192;
+  private static final int MAX_STRING_LENGTH = 0xFFFF;
+  private static final byte[] BASE64_VALUES = new byte[128];
+
+  static {
+    Arrays.fill(BASE64_VALUES, (byte) -1);
+    var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+    for (int i = 0; i < alphabet.length(); i++) {
+      BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+    }
+  }
+
+  private static final class MacHolder {
+
+    private final Mac[] macs = new Mac[SignedTokenKeyRing.getKeySlots()];
+    private final byte[] signature = new byte[MAC_LENGTH];
+
+    @Override
+    public String toString() {
+      return "MacHolder{}";
+    }
+  }
+
+  private final SignedTokenKeyRing keyRing;
+  private final ThreadLocal<MacHolder> macHolder = ThreadLocal.withInitial(MacHolder::new);
+
+  SignedTokenCodec(SignedTokenKeyRing keyRing) {
+    this.keyRing = Objects.requireNonNull(keyRing);
+  }
+
+  SignedTokenKeyRing getKeyRing() {
+    return keyRing;
+  }
+
+  private Mac getMac(MacHolder holder, int keyId) {
+    var mac = holder.macs[keyId];
+    if (mac == null) {
+      var key = keyRing.getKey(keyId);
+      if (key == null) {
+        throw new BadCredentialsException("Token signed by unknown key");
+      }
+      try {
+        mac = Mac.getInstance(SignedTokenKeyRing.ALGORITHM);
+        mac.init(key);
+      } catch (GeneralSecurityException e) {
+        throw new InternalException("Failed to initialize token signature algorithm", e);
+      }
+      holder.macs[keyId] = mac;
+    }
+    return mac;
+  }
+
+  private static void writeString(byte[] target, int offset, byte[] value) {
+    target[offset] = (byte) (value.length >>> 8);
+    target[offset + 1] = (byte) value.length;
+    System.arraycopy(value, 0, target, offset + 2, value.length);
+  }
+
+  private static byte[] getStringBytes(String value) {
+    var result = value.getBytes(StandardCharsets.UTF_8);
+    if (result.length > MAX_STRING_LENGTH) {
+      throw new InternalException("Value too long to be stored in token");
+    }
+    return result;
+  }
+
+  /**
+   * Create signed token for given user data, signed by active key.
+   *
+   * @param userData is user data to be stored in token
+   * @param expiresAt is time of token expiration, in epoch milliseconds
+   * @return signed token
+   */
+  String encode(UserData userData, long expiresAt) {
+    var userId = new BigDecimal(userData.getUserId().getValue()).toBigIntegerExact()
+        .toByteArray();
+    if (userId.length > 0xFF) {
+      throw new InternalException("User Id too long to be stored in token");
+    }
+    var shortNameNm = getStringBytes(userData.getShortNameNm());
+    var fullName = getStringBytes(userData.getFullName());
+    var dbToken = getStringBytes(userData.getDbToken().getIisValue());
+    var payloadLength = HEADER_LENGTH + 1 + userId.length + 2 + shortNameNm.length + 2
+        + fullName.length + 2 + dbToken.length;
+    var token = new byte[payloadLength + MAC_LENGTH];
+    var keyId = keyRing.getActiveKeyId();
+    token[0] = VERSION;
+    token[1] = (byte) keyId;
+    for (int i = 0; i < 8; i++) {
+      token[2 + i] = (byte) (expiresAt >>> (56 - 8 * i));
+    }
+    var offset = HEADER_LENGTH;
+    token[offset] = (byte) userId.length;
+    System.arraycopy(userId, 0, token, offset + 1, userId.length);
+    offset += 1 + userId.length;
+    writeString(token, offset, shortNameNm);
+    offset += 2 + shortNameNm.length;
+    writeString(token, offset, fullName);
+    offset += 2 + fullName.length;
+    writeString(token, offset, dbToken);
+    var mac = getMac(macHolder.get(), keyId);
+    mac.update(token, 0, payloadLength);
+    try {
+      mac.doFinal(token, payloadLength);
+    } catch (ShortBufferException e) {
+      throw new InternalException("Failed to sign token", e);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+  }
+
+  private static byte[] decodeBase64(String token) {
+    var length = token.length();
+    if ((length > MAX_TOKEN_LENGTH) || (length % 4 == 1)) {
+      throw new BadCredentialsException("Malformed token");
+    }
+    var result = new byte[length * 3 / 4];
+    var bits = 0;
+    var bitCount = 0;
+    var position = 0;
+    for (int i = 0; i < length; i++) {
+      var character = token.charAt(i);
+      var value = (character < 128) ? BASE64_VALUES[character] : -1;
+      if (value < 0) {
+        throw new BadCredentialsException("Malformed token");
+      }
+      bits = (bits << 6) | value;
+      bitCount += 6;
+      if (bitCount >= 8) {
+        bitCount -= 8;
+        result[position++] = (byte) (bits >>> bitCount);
+      }
+    }
+    return result;
+  }
+
+  private static boolean constantTimeEquals(byte[] first, byte[] second, int secondOffset) {
+    var difference = 0;
+    for (int i = 0; i < first.length; i++) {
+      difference |= first[i] ^ second[secondOffset + i];
+    }
+    return difference == 0;
+  }
+
+  private static int readLength(byte[] data, int offset, int limit) {
+    if (offset + 2 > limit) {
+      throw new BadCredentialsException("Malformed token");
+    }
+    var length = ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    if (offset + 2 + length > limit) {
+      throw new BadCredentialsException("Malformed token");
+    }
+    return length;
+  }
+
+  /**
+   * Verify token signature and expiration and read user data from it.
+   *
+   * @param token is signed token
+   * @param now is current time, in epoch milliseconds
+   * @return user data stored in token
+   * @throws BadCredentialsException if token is malformed or its signature is not valid
+   * @throws CredentialsExpiredException if token has expired
+   */
+  UserData decode(String token, long now) {
+    var data = decodeBase64(token);
+    var payloadLength = data.length - MAC_LENGTH;
+    if ((payloadLength < HEADER_LENGTH + 1) || (data[0] != VERSION)) {
+      throw new BadCredentialsException("Malformed token");
+    }
+    var holder = macHolder.get();
+    var mac = getMac(holder, data[1] & 0xFF);
+    mac.update(data, 0, payloadLength);
+    try {
+      mac.doFinal(holder.signature, 0);
+    } catch (ShortBufferException e) {
+      throw new InternalException("Failed to verify token signature", e);
+    }
+    if (!constantTimeEquals(holder.signature, data, payloadLength)) {
+      throw new BadCredentialsException("Invalid token signature");
+    }
+    long expiresAt = 0;
+    for (int i = 0; i < 8; i++) {
+      expiresAt = (expiresAt << 8) | (data[2 + i] & 0xFF);
+    }
+    if (expiresAt <= now) {
+      throw new CredentialsExpiredException("Token expired");
+    }
+    var offset = HEADER_LENGTH;
+    var userIdLength = data[offset] & 0xFF;
+    if ((userIdLength == 0) || (offset + 1 + userIdLength > payloadLength)) {
+      throw new BadCredentialsException("Malformed token");
+    }
+    var userId = DtUid.valueOf(new BigDecimal(new BigInteger(data, offset + 1, userIdLength)));
+    offset += 1 + userIdLength;
+    var length = readLength(data, offset, payloadLength);
+    var shortNameNm = new String(data, offset + 2, length, StandardCharsets.UTF_8);
+    offset += 2 + length;
+    length = readLength(data, offset, payloadLength);
+    var fullName = new String(data, offset + 2, length, StandardCharsets.UTF_8);
+    offset += 2 + length;
+    length = readLength(data, offset, payloadLength);
+    var dbToken = new String(data, offset + 2, length, StandardCharsets.UTF_8);
+    return ProvysUserData.of(userId, shortNameNm, fullName, DtEncryptedString.valueOf(dbToken));
+  }
+
+  @Override
+  public String toString() {
+    return "SignedTokenCodec{"
+        + "keyRing=" + keyRing
+        + '}';
+  }
+}
@@ -0,0 +1,128 @@
+package com.provys.auth.token;
+
+import com.google.errorprone.annotations.Immutable;
+import com.provys.common.exception.InternalException;
+import java.util.Base64;
+import javax.crypto.spec.SecretKeySpec;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Set of keys used to sign and verify tokens. Each key is identified by numeric Id (0-255) that is
+ * stored in token, allowing tokens signed by older keys to be verified after new key has been
+ * activated. Key rotation is done by adding new key, switching active key to it and finally
+ * removing old key once tokens signed by it expired.
+ */
+@Immutable
+@SuppressWarnings("Immutable") // array of keys is never modified after construction
+public final class SignedTokenKeyRing {
+
+  static final String ALGORITHM = "HmacSHA256";
+  private static final int MAX_KEY_ID = 255;
+  private static final int MIN_KEY_LENGTH = 32;
+
+  /**
+   * Parse key ring from configuration. Keys are specified as comma separated list of
+   * {@code <id>:<base64 encoded secret>} items.
+   *
+   * @param keys is comma separated list of keys
+   * @param activeKeyId is Id of key, used to sign new tokens
+   * @return key ring containing supplied keys
+   */
+  public static SignedTokenKeyRing parse(String keys, int activeKeyId) {
+    var parsedKeys = new SecretKeySpec[MAX_KEY_ID + 1];
+    for (var item : keys.split(",")) {
+      var trimmed = item.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      var separator = trimmed.indexOf(':');
+      if (separator < 1) {
+        throw new InternalException("Invalid token key definition - <id>:<secret> expected");
+      }
+      int keyId;
+      try {
+        keyId = Integer.parseInt(trimmed.substring(0, separator));
+      } catch (NumberFormatException e) {
+        throw new InternalException("Invalid token key Id " + trimmed.substring(0, separator), e);
+      }
+      if ((keyId < 0) || (keyId > MAX_KEY_ID)) {
+        throw new InternalException("Token key Id must be between 0 and " + MAX_KEY_ID);
+      }
+      if (parsedKeys[keyId] != null) {
+        throw new InternalException("Duplicate token key Id " + keyId);
+      }
+      byte[] secret;
+      try {
+        secret = Base64.getDecoder().decode(trimmed.substring(separator + 1));
+      } catch (IllegalArgumentException e) {
+        throw new InternalException("Token key " + keyId + " is not valid Base64 value", e);
+      }
+      if (secret.length < MIN_KEY_LENGTH) {
+        throw new InternalException(
+            "Token key " + keyId + " is too short, at least " + MIN_KEY_LENGTH + " bytes required");
+      }
+      parsedKeys[keyId] = new SecretKeySpec(secret, ALGORITHM);
+    }
+    return new SignedTokenKeyRing(parsedKeys, activeKeyId);
+  }
+
+  private final @Nullable SecretKeySpec[] keys;
+  private final int activeKeyId;
+
+  private SignedTokenKeyRing(@Nullable SecretKeySpec[] keys, int activeKeyId) {
+    if ((activeKeyId < 0) || (activeKeyId > MAX_KEY_ID) || (keys[activeKeyId] == null)) {
+      throw new InternalException("Active token key " + activeKeyId + " is not defined");
+    }
+    this.keys = keys;
+    this.activeKeyId = activeKeyId;
+  }
+
+  /**
+   * Id of key used to sign new tokens.
+   *
+   * @return Id of active key
+   */
+  public int getActiveKeyId() {
+    return activeKeyId;
+  }
+
+  /**
+   * Retrieve key with given Id.
+   *
+   * @param keyId is Id of key
+   * @return key with given Id, null if no such key is defined
+   */
+  @Nullable SecretKeySpec getKey(int keyId) {
+    if ((keyId < 0) || (keyId > MAX_KEY_ID)) {
+      return null;
+    }
+    return keys[keyId];
+  }
+
+  /**
+   * Number of slots for keys, e.g. maximal key Id + 1.
+   *
+   * @return number of slots for keys
+   */
+  static int getKeySlots() {
+    return MAX_KEY_ID + 1;
+  }
+
+  @Override
+  public String toString() {
+    var keyIds = new StringBuilder();
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        if (keyIds.length() > 0) {
+          keyIds.append(',');
+        }
+        keyIds.append(i);
+      }
+    }
+    // secrets are intentionally omitted
+    return "SignedTokenKeyRing{"
+        + "keyIds=" + keyIds
+        + ", activeKeyId=" + activeKeyId
+        + '}';
+  }
+}
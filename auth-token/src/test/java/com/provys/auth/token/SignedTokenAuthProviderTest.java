@@ -0,0 +1,66 @@
+package com.provys.auth.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provys.auth.api.ProvysUserData;
+import com.provys.auth.api.UserData;
+import com.provys.common.crypt.DtEncryptedString;
+import com.provys.common.datatype.DtUid;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+
+class SignedTokenAuthProviderTest {
+
+  private static final String KEY1 = "1:cHJvdnlzLWF1dGgtdGVzdC1rZXktb25lLTAxMjM0NTY3ODk=";
+  private static final String KEY2 = "2:cHJvdnlzLWF1dGgtdGVzdC1rZXktdHdvLTAxMjM0NTY3ODk=";
+  private static final UserData USER_DATA = ProvysUserData.of(DtUid.valueOf("5214489678945156"),
+      "TESTUSER", "User Userovič", DtEncryptedString.valueOf("KJNjkdDOICHJoiijoi"));
+
+  @Test
+  void authenticateTest() {
+    var provider = new SignedTokenAuthProvider(SignedTokenKeyRing.parse(KEY1, 1), 60);
+    var token = provider.issue(USER_DATA);
+    var result = provider.authenticate(new SignedTokenAuthenticationToken(token));
+    assertThat(result.getPrincipal()).isEqualTo(USER_DATA);
+    assertThat(result.isAuthenticated()).isTrue();
+  }
+
+  @Test
+  void tamperedTokenTest() {
+    var provider = new SignedTokenAuthProvider(SignedTokenKeyRing.parse(KEY1, 1), 60);
+    var token = provider.issue(USER_DATA);
+    var tampered = token.substring(0, 20) + (token.charAt(20) == 'A' ? 'B' : 'A')
+        + token.substring(21);
+    assertThatThrownBy(() -> provider.verify(tampered))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThatThrownBy(() -> provider.verify("not a token"))
+        .isInstanceOf(BadCredentialsException.class);
+  }
+
+  @Test
+  void expiredTokenTest() {
+    var codec = new SignedTokenCodec(SignedTokenKeyRing.parse(KEY1, 1));
+    var token = codec.encode(USER_DATA, 1000L);
+    assertThat(codec.decode(token, 999L)).isEqualTo(USER_DATA);
+    assertThatThrownBy(() -> codec.decode(token, 1000L))
+        .isInstanceOf(CredentialsExpiredException.class);
+  }
+
+  @Test
+  void keyRotationTest() {
+    var provider = new SignedTokenAuthProvider(SignedTokenKeyRing.parse(KEY1, 1), 60);
+    var oldToken = provider.issue(USER_DATA);
+    // new key added and activated, old key is still accepted
+    provider.setKeyRing(SignedTokenKeyRing.parse(KEY1 + ',' + KEY2, 2));
+    var newToken = provider.issue(USER_DATA);
+    assertThat(provider.verify(oldToken)).isEqualTo(USER_DATA);
+    assertThat(provider.verify(newToken)).isEqualTo(USER_DATA);
+    // old key removed
+    provider.setKeyRing(SignedTokenKeyRing.parse(KEY2, 2));
+    assertThatThrownBy(() -> provider.verify(oldToken))
+        .isInstanceOf(BadCredentialsException.class);
+    assertThat(provider.verify(newToken)).isEqualTo(USER_DATA);
+  }
+}
@@ -0,0 +1,11 @@
+package com.provys.auth.token;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+@SuppressWarnings("EmptyClass")
+@SpringBootApplication(scanBasePackages = "com.provys")
+@ConfigurationPropertiesScan(basePackages = "com.provys")
+public class TestApplication {
+
+}